@@ -0,0 +1,97 @@
+package com.ai.studybuddy.benchmark;
+
+import com.ai.studybuddy.config.security.AuthenticatedUser;
+import com.ai.studybuddy.config.security.JwtFilter;
+import com.ai.studybuddy.config.security.JwtUtils;
+import com.ai.studybuddy.model.user.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del percorso di autenticazione del JwtFilter
+ *
+ * - legacyDoubleParse: il vecchio percorso (due parser, due verifiche della firma)
+ * - verifyCached: verify() con il token già in cache
+ * - filterChain: JwtFilter completo (token in cache, utente da UserDetailsService)
+ *
+ * Esecuzione: mvn -Pbenchmark test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-di-almeno-trentadue-caratteri";
+
+    private JwtUtils jwtUtils;
+    private JwtFilter jwtFilter;
+    private Key signingKey;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", 3600000L);
+        jwtUtils.init();
+
+        signingKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        token = jwtUtils.generateToken("bench@example.com");
+
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("bench@example.com");
+        user.setPasswordHash("hash");
+        jwtFilter = new JwtFilter(jwtUtils, email -> new AuthenticatedUser(user));
+
+        jwtUtils.verify(token);
+    }
+
+    @Benchmark
+    public String legacyDoubleParse() {
+        Jwts.parserBuilder().setSigningKey(signingKey).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(signingKey).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public JwtUtils.VerifiedToken verifyCached() {
+        return jwtUtils.verify(token);
+    }
+
+    @Benchmark
+    public Object filterChain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        jwtFilter.doFilter(request, response, new MockFilterChain());
+
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+}
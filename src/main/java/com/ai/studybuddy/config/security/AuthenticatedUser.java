@@ -0,0 +1,56 @@
+package com.ai.studybuddy.config.security;
+
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.util.enums.EducationLevel;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal dell'utente autenticato
+ *
+ * Contiene una copia dell'utente caricata (o presa dalla cache) dal JwtFilter:
+ * UserService.getCurrentUser la restituisce senza interrogare il DB.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private final User user;
+
+    public AuthenticatedUser(User user) {
+        this.user = user;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public UUID getId() {
+        return user.getId();
+    }
+
+    public String getPreferredLanguage() {
+        return user.getPreferredLanguage();
+    }
+
+    public EducationLevel getEducationLevel() {
+        return user.getEducationLevel();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of();
+    }
+
+    @Override
+    public String getPassword() {
+        return user.getPasswordHash();
+    }
+
+    @Override
+    public String getUsername() {
+        return user.getEmail();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ai.studybuddy.config.security;
+
+import com.ai.studybuddy.model.user.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache a breve scadenza degli utenti autenticati (chiave: email)
+ *
+ * Evita la query findByEmail a ogni richiesta. Ogni lettura restituisce una
+ * copia, così le richieste concorrenti non condividono lo stesso oggetto.
+ * Le modifiche al profilo invalidano la voce; tra più istanze la coerenza
+ * è garantita dalla scadenza (security.user-cache.ttl-ms).
+ */
+@Component
+public class AuthenticatedUserCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${security.user-cache.ttl-ms:60000}")
+    private long ttlMs = 60000;
+
+    @Value("${security.user-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    public User get(String email) {
+        if (email == null) return null;
+
+        Entry entry = entries.get(email);
+        if (entry == null) return null;
+
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(email, entry);
+            return null;
+        }
+        return entry.user().copy();
+    }
+
+    public void put(User user) {
+        if (user == null || user.getEmail() == null) return;
+
+        if (entries.size() >= maxSize) {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> entry.expiresAt() < now);
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(user.getEmail(), new Entry(user.copy(), System.currentTimeMillis() + ttlMs));
+    }
+
+    /**
+     * Invalida l'utente; dentro una transazione anche dopo il commit,
+     * per non ricaricare in cache i dati precedenti alla modifica
+     */
+    public void evict(String email) {
+        if (email == null) return;
+
+        entries.remove(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entries.remove(email);
+                }
+            });
+        }
+    }
+
+    public void evictById(UUID userId) {
+        entries.values().removeIf(entry -> userId.equals(entry.user().getId()));
+    }
+
+    private record Entry(User user, long expiresAt) {
+    }
+}
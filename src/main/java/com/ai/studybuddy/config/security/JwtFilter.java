@@ -37,9 +37,10 @@ public class JwtFilter extends OncePerRequestFilter {
 
         try {
             String token = extractToken(request);
+            JwtUtils.VerifiedToken verified = token != null ? jwtUtils.verify(token) : null;
 
-            if (token != null && jwtUtils.validateToken(token)) {
-                String email = jwtUtils.getEmailFromToken(token);
+            if (verified != null) {
+                String email = verified.email();
 
                 UserDetails userDetails = userDetailsService.loadUserByUsername(email);
 
@@ -1,20 +1,37 @@
 package com.ai.studybuddy.config.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Generazione e verifica dei token JWT
+ *
+ * - Un solo JwtParser (thread-safe) creato all'avvio
+ * - verify() fa un unico parse e restituisce i claim usati dal JwtFilter
+ * - I token già verificati restano in una cache limitata (chiave: SHA-256
+ *   del token, mai il token in chiaro) fino alla loro scadenza, così le
+ *   richieste successive con lo stesso token saltano la verifica della firma
+ */
 @Component
 public class JwtUtils {
 
@@ -26,7 +43,13 @@ public class JwtUtils {
     @Value("${jwt.expiration:86400000}") // 24 ore default
     private long jwtExpiration;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize = 10000;
+
     private Key signingKey;
+    private JwtParser jwtParser;
+
+    private final ConcurrentHashMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
 
     @PostConstruct
     public void init() {
@@ -41,6 +64,9 @@ public class JwtUtils {
         }
 
         this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
         logger.info("JWT configurato con scadenza: {} ms", jwtExpiration);
     }
 
@@ -53,44 +79,66 @@ public class JwtUtils {
                 .compact();
     }
 
-    public String getEmailFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
+    /**
+     * Verifica il token con un solo parse
+     *
+     * @return email e scadenza, oppure null se il token non è valido
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isBlank()) {
+            logger.error("Token JWT vuoto");
+            return null;
+        }
+
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached;
+            }
+            verifiedTokens.remove(key, cached);
+            logger.debug("Token JWT scaduto");
+            return null;
+        }
 
-    public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(signingKey)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = parseClaims(token);
+            Date expiration = claims.getExpiration();
+            VerifiedToken verified = new VerifiedToken(claims.getSubject(),
+                    expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+            if (expiration != null) {
+                cacheVerified(key, verified, now);
+            }
+            return verified;
         } catch (MalformedJwtException e) {
             logger.error("Token JWT malformato: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            logger.error("Token JWT scaduto: {}", e.getMessage());
+            logger.debug("Token JWT scaduto: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("Token JWT non supportato: {}", e.getMessage());
+        } catch (SignatureException e) {
+            logger.error("Firma JWT non valida: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("Token JWT vuoto: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public String getEmailFromToken(String token) {
+        return parseClaims(token).getSubject();
+    }
+
+    public boolean validateToken(String token) {
+        return verify(token) != null;
     }
 
     /**
      * Ottiene la data di scadenza del token
      */
     public Date getExpirationFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+        return parseClaims(token).getExpiration();
     }
 
     /**
@@ -105,4 +153,35 @@ public class JwtUtils {
             return true;
         }
     }
+
+    // ==================== HELPER METHODS ====================
+
+    private Claims parseClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    private void cacheVerified(String key, VerifiedToken verified, long now) {
+        if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+            verifiedTokens.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(key, verified);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+    }
+
+    /**
+     * Claim di un token verificato
+     */
+    public record VerifiedToken(String email, long expiresAt) {
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.ai.studybuddy.config.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -22,6 +23,8 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatch asincroni (SSE): la richiesta originale è già stata autorizzata
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // File statici (HTML, CSS, JS, immagini)
                         .requestMatchers("/").permitAll()
                         .requestMatchers("/*.html").permitAll()
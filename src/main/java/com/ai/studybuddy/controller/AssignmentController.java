@@ -0,0 +1,128 @@
+package com.ai.studybuddy.controller;
+
+import com.ai.studybuddy.dto.quiz.AssignmentRequest;
+import com.ai.studybuddy.dto.quiz.AssignmentResponse;
+import com.ai.studybuddy.dto.quiz.AssignmentResultsResponse;
+import com.ai.studybuddy.dto.quiz.EnrollmentResponse;
+import com.ai.studybuddy.model.quiz.AssignmentSubmission;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.service.inter.AssignmentService;
+import com.ai.studybuddy.service.inter.UserService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller per le assegnazioni di quiz a una classe
+ *
+ * Endpoints:
+ * - POST /api/assignments - Genera il quiz una volta e lo assegna agli studenti iscritti alla classe
+ * - POST /api/assignments/enrollments - Invita studenti alla classe (lista di email)
+ * - GET /api/assignments/enrollments/pending - Inviti ricevuti in attesa di risposta
+ * - POST /api/assignments/enrollments/{id}/accept - Accetta un invito
+ * - POST /api/assignments/enrollments/{id}/decline - Rifiuta un invito
+ * - GET /api/assignments/created - Assegnazioni create dal docente
+ * - GET /api/assignments/my - Assegnazioni ricevute (il quiz si svolge con /api/ai/quiz/{quizId}/...)
+ * - GET /api/assignments/{id}/results - Risultati aggregati della classe
+ * - GET /api/assignments/{id}/submissions?offset=&limit= - Registro degli studenti, a pagine
+ */
+@RestController
+@RequestMapping("/api/assignments")
+public class AssignmentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentController.class);
+
+    private final AssignmentService assignmentService;
+    private final UserService userService;
+
+    public AssignmentController(AssignmentService assignmentService, UserService userService) {
+        this.assignmentService = assignmentService;
+        this.userService = userService;
+    }
+
+    @PostMapping
+    public ResponseEntity<AssignmentResponse> createAssignment(
+            @Valid @RequestBody AssignmentRequest request,
+            Principal principal) {
+
+        User teacher = userService.getCurrentUser(principal);
+        logger.info("Nuova assegnazione '{}' per {} studenti dal docente: {}",
+                request.getTitle(), request.getStudentEmails().size(), teacher.getEmail());
+
+        return ResponseEntity.ok(assignmentService.createAssignment(request, teacher));
+    }
+
+    @GetMapping("/created")
+    public ResponseEntity<List<AssignmentResponse>> getCreatedAssignments(Principal principal) {
+        User teacher = userService.getCurrentUser(principal);
+        return ResponseEntity.ok(assignmentService.getTeacherAssignments(teacher.getId()));
+    }
+
+    @GetMapping("/my")
+    public ResponseEntity<List<AssignmentResponse>> getMyAssignments(Principal principal) {
+        User student = userService.getCurrentUser(principal);
+        return ResponseEntity.ok(assignmentService.getStudentAssignments(student.getId()));
+    }
+
+    @GetMapping("/{assignmentId}/results")
+    public ResponseEntity<AssignmentResultsResponse> getResults(
+            @PathVariable UUID assignmentId,
+            Principal principal) {
+
+        User teacher = userService.getCurrentUser(principal);
+        return ResponseEntity.ok(assignmentService.getResults(assignmentId, teacher.getId()));
+    }
+
+    @GetMapping("/{assignmentId}/submissions")
+    public ResponseEntity<List<AssignmentSubmission>> getSubmissions(
+            @PathVariable UUID assignmentId,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit,
+            Principal principal) {
+
+        User teacher = userService.getCurrentUser(principal);
+        return ResponseEntity.ok(assignmentService.getSubmissions(assignmentId, teacher.getId(), offset, limit));
+    }
+
+    // ==================== ISCRIZIONI ====================
+
+    @PostMapping("/enrollments")
+    public ResponseEntity<Void> inviteStudents(
+            @RequestBody List<String> studentEmails,
+            Principal principal) {
+
+        User teacher = userService.getCurrentUser(principal);
+        assignmentService.inviteStudents(studentEmails, teacher);
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/enrollments/pending")
+    public ResponseEntity<List<EnrollmentResponse>> getPendingInvitations(Principal principal) {
+        User student = userService.getCurrentUser(principal);
+        return ResponseEntity.ok(assignmentService.getPendingInvitations(student.getId()));
+    }
+
+    @PostMapping("/enrollments/{enrollmentId}/accept")
+    public ResponseEntity<EnrollmentResponse> acceptInvitation(
+            @PathVariable UUID enrollmentId,
+            Principal principal) {
+
+        User student = userService.getCurrentUser(principal);
+        return ResponseEntity.ok(assignmentService.answerInvitation(enrollmentId, true, student));
+    }
+
+    @PostMapping("/enrollments/{enrollmentId}/decline")
+    public ResponseEntity<EnrollmentResponse> declineInvitation(
+            @PathVariable UUID enrollmentId,
+            Principal principal) {
+
+        User student = userService.getCurrentUser(principal);
+        return ResponseEntity.ok(assignmentService.answerInvitation(enrollmentId, false, student));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.ai.studybuddy.controller;
+
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.service.inter.EventStreamService;
+import com.ai.studybuddy.service.inter.GamificationService;
+import com.ai.studybuddy.service.inter.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.security.Principal;
+
+/**
+ * Controller per le notifiche push (Server-Sent Events)
+ *
+ * Endpoints:
+ * - GET /api/events/stream - Canale SSE dell'utente (stats, xp, level-up, badge, recommendation)
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventStreamController {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamController.class);
+
+    private final EventStreamService eventStreamService;
+    private final GamificationService gamificationService;
+    private final UserService userService;
+
+    public EventStreamController(EventStreamService eventStreamService,
+                                 GamificationService gamificationService,
+                                 UserService userService) {
+        this.eventStreamService = eventStreamService;
+        this.gamificationService = gamificationService;
+        this.userService = userService;
+    }
+
+    /**
+     * Apre il canale SSE; il primo evento contiene le statistiche correnti
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Principal principal) {
+        User user = userService.getCurrentUser(principal);
+        SseEmitter emitter = eventStreamService.subscribe(user.getId());
+
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(EventStreamService.EVENT_STATS)
+                    .data(gamificationService.getUserStatsResponse(user.getId())));
+        } catch (IOException e) {
+            logger.debug("Invio stato iniziale SSE fallito per {}: {}", user.getEmail(), e.getMessage());
+            emitter.completeWithError(e);
+        }
+
+        return emitter;
+    }
+}
@@ -2,8 +2,11 @@ package com.ai.studybuddy.controller;
 
 import com.ai.studybuddy.dto.explanation.ExplanationResponse;
 import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.service.inter.AIGenerationMetrics;
 import com.ai.studybuddy.service.inter.ExplanationService;
+import com.ai.studybuddy.service.inter.PredictiveGenerationService;
 import com.ai.studybuddy.service.inter.UserService;
+import com.ai.studybuddy.service.inter.WarmPoolService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -21,11 +24,20 @@ public class ExplanationController {
 
     private final ExplanationService explanationService;
     private final UserService userService;
+    private final AIGenerationMetrics generationMetrics;
+    private final PredictiveGenerationService predictiveGenerationService;
+    private final WarmPoolService warmPoolService;
 
     public ExplanationController(ExplanationService explanationService,
-                                 UserService userService) {
+                                 UserService userService,
+                                 AIGenerationMetrics generationMetrics,
+                                 PredictiveGenerationService predictiveGenerationService,
+                                 WarmPoolService warmPoolService) {
         this.explanationService = explanationService;
         this.userService = userService;
+        this.generationMetrics = generationMetrics;
+        this.predictiveGenerationService = predictiveGenerationService;
+        this.warmPoolService = warmPoolService;
     }
 
     // ==================== EXPLANATION ====================
@@ -79,6 +91,30 @@ public class ExplanationController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Esito delle generazioni AI dall'avvio (risposte recuperate, perse, tasso di spreco)
+     */
+    @GetMapping("/debug/generation-metrics")
+    public ResponseEntity<AIGenerationMetrics.Snapshot> generationMetrics() {
+        return ResponseEntity.ok(generationMetrics.snapshot());
+    }
+
+    /**
+     * Contenuti pre-generati dall'avvio (generati, serviti, scaduti) e slot pronti
+     */
+    @GetMapping("/debug/pregeneration")
+    public ResponseEntity<PredictiveGenerationService.Stats> pregenerationStats() {
+        return ResponseEntity.ok(predictiveGenerationService.getStats());
+    }
+
+    /**
+     * Pool degli argomenti di tendenza: set generati, serviti, pronti e chiavi di tendenza
+     */
+    @GetMapping("/debug/warm-pool")
+    public ResponseEntity<WarmPoolService.Stats> warmPoolStats() {
+        return ResponseEntity.ok(warmPoolService.getStats());
+    }
+
     // ==================== HEALTH CHECK ====================
 
     @GetMapping("/health")
@@ -2,7 +2,10 @@ package com.ai.studybuddy.controller;
 
 import com.ai.studybuddy.dto.flashcard.FlashcardCreateRequest;
 import com.ai.studybuddy.dto.flashcard.FlashcardDeckCreateRequest;
+import com.ai.studybuddy.dto.flashcard.FlashcardNotesGenerateRequest;
+import com.ai.studybuddy.dto.flashcard.FlashcardReviewResult;
 import com.ai.studybuddy.dto.flashcard.GenerateFlashcardsResponse;
+import com.ai.studybuddy.dto.flashcard.PublicDeckCatalogResponse;
 import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
 import com.ai.studybuddy.model.flashcard.Flashcard;
 import com.ai.studybuddy.model.flashcard.FlashcardDeck;
@@ -10,14 +13,19 @@ import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.service.impl.FlashcardServiceImpl;
 import com.ai.studybuddy.service.impl.GamificationServiceImpl;
 import com.ai.studybuddy.service.inter.FlashcardDeckService;
+import com.ai.studybuddy.service.inter.FlashcardNotesService;
 import com.ai.studybuddy.service.inter.FlashcardService;
+import com.ai.studybuddy.service.inter.PublicDeckCatalogService;
 import com.ai.studybuddy.service.inter.UserService;
+import com.ai.studybuddy.util.enums.DifficultyLevel;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.security.Principal;
 import java.util.HashMap;
@@ -36,17 +44,23 @@ public class FlashcardController {
     private final FlashcardDeckService deckService;
     private final UserService userService;
     private final GamificationServiceImpl gamificationService;
+    private final PublicDeckCatalogService catalogService;
+    private final FlashcardNotesService notesService;
 
     public FlashcardController(FlashcardService flashcardService,
                                FlashcardServiceImpl flashcardServiceImpl,
                                FlashcardDeckService deckService,
                                UserService userService,
-                               GamificationServiceImpl gamificationService) {
+                               GamificationServiceImpl gamificationService,
+                               PublicDeckCatalogService catalogService,
+                               FlashcardNotesService notesService) {
         this.flashcardService = flashcardService;
         this.flashcardServiceImpl = flashcardServiceImpl;
         this.deckService = deckService;
         this.userService = userService;
         this.gamificationService = gamificationService;
+        this.catalogService = catalogService;
+        this.notesService = notesService;
     }
 
     // ==================== AI GENERATION ====================
@@ -86,6 +100,77 @@ public class FlashcardController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Genera flashcards da appunti lunghi (divisi in parti generate in parallelo)
+     * ASSEGNA XP PER FLASHCARDS GENERATE (+2 XP per card)
+     * ENDPOINT: POST /api/flashcards/decks/{deckId}/generate-from-notes
+     */
+    @PostMapping("/decks/{deckId}/generate-from-notes")
+    public ResponseEntity<GenerateFlashcardsResponse> generateFromNotes(
+            @PathVariable UUID deckId,
+            @Valid @RequestBody FlashcardNotesGenerateRequest request,
+            Principal principal) {
+
+        User user = userService.getCurrentUser(principal);
+        logger.info("Generazione flashcard da appunti ({} caratteri) nel deck {} per utente: {}",
+                request.getNotes().length(), deckId, user.getEmail());
+
+        List<Flashcard> createdCards = notesService.generateFromNotes(deckId, request, user);
+
+        XpEventResponse xpEvent = gamificationService.recordFlashcardXp(user, createdCards.size());
+
+        GenerateFlashcardsResponse response = new GenerateFlashcardsResponse(
+                true,
+                String.format("Generate %d flashcard dagli appunti (+%d XP)",
+                        createdCards.size(), xpEvent.getXpEarned()),
+                createdCards);
+
+        response.setXpEarned(xpEvent.getXpEarned());
+        response.setTotalXp(xpEvent.getNewTotalXp());
+        response.setLeveledUp(xpEvent.isLeveledUp());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Genera flashcards da un file di appunti (.txt, .md) caricato dall'utente
+     * ASSEGNA XP PER FLASHCARDS GENERATE (+2 XP per card)
+     * ENDPOINT: POST /api/flashcards/decks/{deckId}/generate-from-file (multipart)
+     */
+    @PostMapping(value = "/decks/{deckId}/generate-from-file", consumes = "multipart/form-data")
+    public ResponseEntity<GenerateFlashcardsResponse> generateFromFile(
+            @PathVariable UUID deckId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam String topic,
+            @RequestParam(defaultValue = "50") int maxCards,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String language,
+            Principal principal) {
+
+        User user = userService.getCurrentUser(principal);
+        logger.info("Generazione flashcard dal file '{}' ({} byte) nel deck {} per utente: {}",
+                file.getOriginalFilename(), file.getSize(), deckId, user.getEmail());
+
+        FlashcardNotesGenerateRequest request = new FlashcardNotesGenerateRequest(topic, null, maxCards);
+        request.setDifficultyLevel(DifficultyLevel.fromString(difficulty));
+        request.setLanguage(language);
+        List<Flashcard> createdCards = notesService.generateFromFile(deckId, file, request, user);
+
+        XpEventResponse xpEvent = gamificationService.recordFlashcardXp(user, createdCards.size());
+
+        GenerateFlashcardsResponse response = new GenerateFlashcardsResponse(
+                true,
+                String.format("Generate %d flashcard dal file (+%d XP)",
+                        createdCards.size(), xpEvent.getXpEarned()),
+                createdCards);
+
+        response.setXpEarned(xpEvent.getXpEarned());
+        response.setTotalXp(xpEvent.getNewTotalXp());
+        response.setLeveledUp(xpEvent.isLeveledUp());
+
+        return ResponseEntity.ok(response);
+    }
+
     // ==================== DECK ENDPOINTS ====================
 
     @GetMapping("/decks")
@@ -134,6 +219,15 @@ public class FlashcardController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/decks/{deckId}/clone")
+    public ResponseEntity<FlashcardDeck> cloneDeck(@PathVariable UUID deckId, Principal principal) {
+        User user = userService.getCurrentUser(principal);
+        logger.info("Copia deck {} per utente: {}", deckId, user.getEmail());
+
+        FlashcardDeck deck = deckService.cloneDeck(deckId, user);
+        return ResponseEntity.status(HttpStatus.CREATED).body(deck);
+    }
+
     @PostMapping("/decks/{deckId}/study")
     public ResponseEntity<Void> startStudySession(@PathVariable UUID deckId, Principal principal) {
         User user = userService.getCurrentUser(principal);
@@ -150,6 +244,24 @@ public class FlashcardController {
         return ResponseEntity.ok(decks);
     }
 
+    /**
+     * Catalogo dei deck pubblici (snapshot in memoria); 304 se la versione non è cambiata
+     */
+    @GetMapping("/decks/public")
+    public ResponseEntity<PublicDeckCatalogResponse> getPublicCatalog(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String subject,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest request) {
+        PublicDeckCatalogResponse catalog = catalogService.search(q, subject, offset, limit);
+        String etag = "\"" + catalog.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(catalog);
+    }
+
     @GetMapping("/decks/stats")
     public ResponseEntity<FlashcardDeckService.DeckGlobalStats> getGlobalStats(Principal principal) {
         User user = userService.getCurrentUser(principal);
@@ -198,6 +310,7 @@ public class FlashcardController {
     /**
      * Registra una revisione di flashcard
      * ASSEGNA XP PER FLASHCARD STUDIATA (+2 XP per card)
+     * Gli XP restituiti sono un'anteprima: i badge vengono processati in background
      */
     @PostMapping("/cards/{cardId}/review")
     public ResponseEntity<Map<String, Object>> reviewFlashcard(
@@ -208,9 +321,9 @@ public class FlashcardController {
         User user = userService.getCurrentUser(principal);
         Boolean wasCorrect = body.get("wasCorrect");
 
-        Flashcard card = flashcardService.reviewFlashcard(cardId, wasCorrect, user.getId());
-
-        XpEventResponse xpEvent = gamificationService.recordFlashcardXp(user, 1);
+        FlashcardReviewResult review = flashcardService.reviewFlashcard(cardId, wasCorrect, user);
+        Flashcard card = review.getFlashcard();
+        XpEventResponse xpEvent = review.getXpEvent();
 
         logger.debug("Flashcard {} reviewata da {}, XP guadagnati: {}",
                 cardId, user.getEmail(), xpEvent.getXpEarned());
@@ -6,10 +6,13 @@ import com.ai.studybuddy.service.inter.GamificationService;
 import com.ai.studybuddy.service.inter.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 /**
@@ -17,6 +20,7 @@ import java.util.List;
  *
  * Endpoints:
  * - GET /api/gamification/stats - Statistiche utente
+ * - GET /api/gamification/activity - Calendario attività (default: ultimo anno)
  * - GET /api/gamification/badges - Tutti i badge con stato
  * - GET /api/gamification/badges/unlocked - Badge sbloccati
  * - GET /api/gamification/badges/new - Nuovi badge (non visti)
@@ -33,6 +37,8 @@ public class GamificationController {
 
     private static final Logger logger = LoggerFactory.getLogger(GamificationController.class);
 
+    private static final int MAX_CALENDAR_DAYS = 366;
+
     private final GamificationService gamificationService;
     private final UserService userService;
 
@@ -53,6 +59,25 @@ public class GamificationController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Calendario delle attività giornaliere (massimo MAX_CALENDAR_DAYS giorni)
+     */
+    @GetMapping("/activity")
+    public ResponseEntity<ActivityCalendarResponse> getActivityCalendar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Principal principal) {
+        User user = userService.getCurrentUser(principal);
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(MAX_CALENDAR_DAYS - 1);
+        if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) >= MAX_CALENDAR_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(gamificationService.getActivityCalendar(user.getId(), start, end));
+    }
+
     // ==================== BADGE ====================
 
     /**
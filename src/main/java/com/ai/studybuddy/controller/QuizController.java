@@ -1,24 +1,24 @@
 package com.ai.studybuddy.controller;
 
-import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
 import com.ai.studybuddy.dto.quiz.QuizAnswerRequest;
+import com.ai.studybuddy.dto.quiz.QuizAttemptResponse;
 import com.ai.studybuddy.dto.quiz.QuizGenerateRequest;
 import com.ai.studybuddy.dto.quiz.QuizResultResponse;
 import com.ai.studybuddy.model.quiz.Quiz;
 import com.ai.studybuddy.model.user.User;
-import com.ai.studybuddy.service.impl.GamificationServiceImpl;
 import com.ai.studybuddy.service.inter.QuizService;
+import com.ai.studybuddy.service.inter.QuizStreamService;
 import com.ai.studybuddy.service.inter.UserService;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.Principal;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -29,14 +29,14 @@ public class QuizController {
 
     private final QuizService quizService;
     private final UserService userService;
-    private final GamificationServiceImpl gamificationService;
+    private final QuizStreamService quizStreamService;
 
     public QuizController(QuizService quizService,
                           UserService userService,
-                          GamificationServiceImpl gamificationService) {
+                          QuizStreamService quizStreamService) {
         this.quizService = quizService;
         this.userService = userService;
-        this.gamificationService = gamificationService;
+        this.quizStreamService = quizStreamService;
     }
 
     /**
@@ -68,6 +68,33 @@ public class QuizController {
         return ResponseEntity.ok(quiz);
     }
 
+    /**
+     * Genera un quiz inviando le domande via SSE man mano che vengono salvate
+     * (eventi: quiz, question, complete, error)
+     */
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter generateQuizStream(
+            @RequestParam String topic,
+            @RequestParam(defaultValue = "5") int numberOfQuestions,
+            @RequestParam(defaultValue = "INTERMEDIO") String difficulty,
+            @RequestParam(required = false) String subject,
+            Principal principal) {
+
+        User user = userService.getCurrentUser(principal);
+        logger.info("Generazione progressiva quiz '{}' ({} domande) per utente: {}",
+                topic, numberOfQuestions, user.getEmail());
+
+        QuizGenerateRequest request = QuizGenerateRequest.builder()
+                .topic(topic)
+                .numberOfQuestions(numberOfQuestions)
+                .difficultyLevel(DifficultyLevel.fromString(difficulty))
+                .subject(subject)
+                .language(user.getPreferredLanguage())
+                .build();
+
+        return quizStreamService.streamQuiz(request, user);
+    }
+
     /**
      * Inizia un quiz (segna l'ora di inizio)
      */
@@ -86,6 +113,7 @@ public class QuizController {
     /**
      * Invia le risposte del quiz e ottieni il risultato
      * ✅ Assegna XP per quiz completato (+20 XP base, +10 bonus se superato)
+     * Gli XP restituiti sono un'anteprima: badge e progressi vengono processati in background
      */
     @PostMapping("/submit")
     public ResponseEntity<QuizResultResponse> submitQuizAnswers(
@@ -95,39 +123,10 @@ public class QuizController {
         User user = userService.getCurrentUser(principal);
         logger.info("Invio risposte quiz {} per utente: {}", request.getQuizId(), user.getEmail());
 
-        QuizResultResponse result = quizService.submitAnswers(request, user.getId());
-
-        // Assegna XP
-        XpEventResponse xpEvent = gamificationService.recordQuizXp(
-                user,
-                result.isPassed(),
-                result.getTopic(),
-                result.getSubject(),
-                result.getScorePercentage(),
-                result.getTotalQuestions(),
-                result.getScore()
-        );
-
-        result.setXpEarned(xpEvent.getXpEarned());
-        result.setTotalXp(xpEvent.getNewTotalXp());
-        result.setLevel(xpEvent.getNewLevel());
-        result.setLeveledUp(xpEvent.isLeveledUp());
-
-        if (xpEvent.getNewBadges() != null && !xpEvent.getNewBadges().isEmpty()) {
-            List<Map<String, Object>> badgesList = new java.util.ArrayList<>();
-            for (var badge : xpEvent.getNewBadges()) {
-                Map<String, Object> badgeMap = new HashMap<>();
-                badgeMap.put("name", badge.getName());
-                badgeMap.put("icon", badge.getIcon());
-                badgeMap.put("description", badge.getDescription());
-                badgeMap.put("xpReward", badge.getXpReward() != null ? badge.getXpReward() : 0);
-                badgesList.add(badgeMap);
-            }
-            result.setNewBadges(badgesList);
-        }
+        QuizResultResponse result = quizService.submitAnswers(request, user);
 
         logger.info("Quiz completato - Score: {}/{}, XP: {}",
-                result.getScore(), result.getTotalQuestions(), xpEvent.getXpEarned());
+                result.getScore(), result.getTotalQuestions(), result.getXpEarned());
 
         return ResponseEntity.ok(result);
     }
@@ -184,6 +183,18 @@ public class QuizController {
         return ResponseEntity.ok(quizService.retryQuiz(quizId, user.getId()));
     }
 
+    /**
+     * Storico dei tentativi di un quiz
+     */
+    @GetMapping("/{quizId}/attempts")
+    public ResponseEntity<List<QuizAttemptResponse>> getAttempts(
+            @PathVariable UUID quizId,
+            Principal principal) {
+
+        User user = userService.getCurrentUser(principal);
+        return ResponseEntity.ok(QuizAttemptResponse.fromList(quizService.getAttempts(quizId, user.getId())));
+    }
+
     /**
      * Elimina un quiz
      */
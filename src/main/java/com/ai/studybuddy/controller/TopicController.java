@@ -0,0 +1,59 @@
+package com.ai.studybuddy.controller;
+
+import com.ai.studybuddy.model.topic.RelatedTopic;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.service.inter.RelatedTopicService;
+import com.ai.studybuddy.service.inter.TopicService;
+import com.ai.studybuddy.service.inter.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Controller per il dizionario degli argomenti
+ *
+ * Endpoints:
+ * - GET /api/topics/autocomplete?q= - Argomenti esistenti che iniziano con il prefisso
+ * - GET /api/topics/related?topic= - Argomenti correlati (indice locale, nessuna chiamata AI)
+ */
+@RestController
+@RequestMapping("/api/topics")
+public class TopicController {
+
+    private final TopicService topicService;
+    private final RelatedTopicService relatedTopicService;
+    private final UserService userService;
+
+    @Value("${topics.autocomplete.max-results:10}")
+    private int maxResults = 10;
+
+    public TopicController(TopicService topicService, RelatedTopicService relatedTopicService,
+                           UserService userService) {
+        this.topicService = topicService;
+        this.relatedTopicService = relatedTopicService;
+        this.userService = userService;
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<String>> autocomplete(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "10") int limit,
+            Principal principal) {
+        User user = userService.getCurrentUser(principal);
+        int size = Math.clamp(limit, 1, maxResults);
+        return ResponseEntity.ok(topicService.autocomplete(prefix, user.getPreferredLanguage(), size));
+    }
+
+    @GetMapping("/related")
+    public ResponseEntity<List<RelatedTopic>> related(
+            @RequestParam String topic,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(relatedTopicService.getRelatedTopics(topic, Math.clamp(limit, 1, maxResults)));
+    }
+}
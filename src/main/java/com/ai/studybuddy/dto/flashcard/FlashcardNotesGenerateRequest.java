@@ -0,0 +1,59 @@
+package com.ai.studybuddy.dto.flashcard;
+
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO per generare flashcards con AI a partire da appunti lunghi
+ * (dispense, trascrizioni di lezioni): il testo viene diviso in parti
+ */
+public class FlashcardNotesGenerateRequest {
+
+    @NotBlank(message = "Il topic è obbligatorio")
+    @Size(max = 200, message = "Il topic non può superare 200 caratteri")
+    private String topic;
+
+    @NotBlank(message = "Gli appunti sono obbligatori")
+    @Size(max = 500000, message = "Gli appunti non possono superare 500000 caratteri")
+    private String notes;
+
+    @Min(value = 1, message = "Il numero minimo di carte è 1")
+    @Max(value = 300, message = "Il numero massimo di carte è 300")
+    private Integer maxCards = 50;
+
+    private DifficultyLevel difficultyLevel = DifficultyLevel.INTERMEDIO;
+
+    @Size(min = 2, max = 10, message = "La lingua deve essere tra 2 e 10 caratteri")
+    private String language;
+
+    public FlashcardNotesGenerateRequest() {}
+
+    public FlashcardNotesGenerateRequest(String topic, String notes, Integer maxCards) {
+        this.topic = topic;
+        this.notes = notes;
+        this.maxCards = maxCards;
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public Integer getMaxCards() { return maxCards; }
+    public void setMaxCards(Integer maxCards) { this.maxCards = maxCards; }
+
+    public DifficultyLevel getDifficultyLevel() { return difficultyLevel; }
+    public void setDifficultyLevel(DifficultyLevel difficultyLevel) { this.difficultyLevel = difficultyLevel; }
+
+    /**
+     * null = lingua preferita dell'utente
+     */
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+}
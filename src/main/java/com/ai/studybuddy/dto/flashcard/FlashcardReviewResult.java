@@ -0,0 +1,27 @@
+package com.ai.studybuddy.dto.flashcard;
+
+import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
+import com.ai.studybuddy.model.flashcard.Flashcard;
+
+/**
+ * Esito di una revisione: la flashcard con lo stato dell'utente e l'anteprima degli XP
+ * dell'evento registrato nella stessa transazione
+ */
+public class FlashcardReviewResult {
+
+    private final Flashcard flashcard;
+    private final XpEventResponse xpEvent;
+
+    public FlashcardReviewResult(Flashcard flashcard, XpEventResponse xpEvent) {
+        this.flashcard = flashcard;
+        this.xpEvent = xpEvent;
+    }
+
+    public Flashcard getFlashcard() {
+        return flashcard;
+    }
+
+    public XpEventResponse getXpEvent() {
+        return xpEvent;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ai.studybuddy.dto.flashcard;
+
+import com.ai.studybuddy.model.flashcard.PublicDeck;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO per una pagina del catalogo dei deck pubblici
+ */
+public class PublicDeckCatalogResponse {
+
+    private List<PublicDeck> decks;
+    private long total;
+    private int offset;
+    private int limit;
+    private Map<String, Long> subjects;
+    private String version;
+
+    public PublicDeckCatalogResponse() {}
+
+    /**
+     * @param subjects facet per materia dei risultati (senza il filtro materia)
+     * @param version  versione dello snapshot da cui è stata calcolata la pagina
+     */
+    public static PublicDeckCatalogResponse of(List<PublicDeck> decks, long total, int offset, int limit,
+                                               Map<String, Long> subjects, String version) {
+        PublicDeckCatalogResponse response = new PublicDeckCatalogResponse();
+        response.decks = decks;
+        response.total = total;
+        response.offset = offset;
+        response.limit = limit;
+        response.subjects = subjects;
+        response.version = version;
+        return response;
+    }
+
+    // ==================== GETTERS ====================
+
+    public List<PublicDeck> getDecks() { return decks; }
+    public long getTotal() { return total; }
+    public int getOffset() { return offset; }
+    public int getLimit() { return limit; }
+    public Map<String, Long> getSubjects() { return subjects; }
+    public String getVersion() { return version; }
+}
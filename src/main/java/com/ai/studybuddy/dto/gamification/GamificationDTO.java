@@ -3,6 +3,7 @@ package com.ai.studybuddy.dto.gamification;
 import com.ai.studybuddy.model.gamification.*;
 import com.ai.studybuddy.model.gamification.UserStats;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -86,7 +87,7 @@ public class GamificationDTO {
             int xpForCurrentLevel = response.level > 1 ? (int)(100 * Math.pow(response.level, 1.5)) : 0;
             response.xpInCurrentLevel = response.totalXp - xpForCurrentLevel;
 
-            response.currentStreak = stats.getCurrentStreak() != null ? stats.getCurrentStreak() : 0;
+            response.currentStreak = stats.getEffectiveStreak();
             response.longestStreak = stats.getLongestStreak() != null ? stats.getLongestStreak() : 0;
 
             response.explanationsRequested = stats.getExplanationsRequested() != null ? stats.getExplanationsRequested() : 0;
@@ -199,7 +200,7 @@ public class GamificationDTO {
             this.value = switch (type) {
                 case "XP" -> stats.getTotalXp() != null ? stats.getTotalXp() : 0;
                 case "WEEKLY_XP" -> stats.getWeeklyXp() != null ? stats.getWeeklyXp() : 0;
-                case "STREAK" -> stats.getCurrentStreak() != null ? stats.getCurrentStreak() : 0;
+                case "STREAK" -> stats.getEffectiveStreak();
                 default -> stats.getTotalXp() != null ? stats.getTotalXp() : 0;
             };
         }
@@ -216,4 +217,43 @@ public class GamificationDTO {
         // Setter for rank (to set after ordering)
         public void setRank(int rank) { this.rank = rank; }
     }
-}
\ No newline at end of file
+
+    // ==================== ACTIVITY CALENDAR ====================
+
+    /**
+     * Calendario delle attività (giorni attivi nell'intervallo) calcolato dalla bitmap di UserStats
+     */
+    public static class ActivityCalendarResponse {
+        private LocalDate from;
+        private LocalDate to;
+        private List<LocalDate> activeDays;
+        private int daysActive;
+        private int daysActiveThisMonth;
+        private int currentStreak;
+        private int longestStreak;
+
+        public static ActivityCalendarResponse fromUserStats(UserStats stats, LocalDate from, LocalDate to,
+                                                             LocalDate today) {
+            ActivityBitmap activity = stats.getActivity();
+            ActivityCalendarResponse response = new ActivityCalendarResponse();
+            response.from = from;
+            response.to = to;
+            response.activeDays = activity.activeDays(from, to);
+            response.daysActive = response.activeDays.size();
+            response.daysActiveThisMonth = activity.countActive(today.withDayOfMonth(1), today);
+            response.currentStreak = stats.getEffectiveStreak(today);
+            response.longestStreak = Math.max(
+                    stats.getLongestStreak() != null ? stats.getLongestStreak() : 0, activity.longestStreak());
+            return response;
+        }
+
+        // Getters
+        public LocalDate getFrom() { return from; }
+        public LocalDate getTo() { return to; }
+        public List<LocalDate> getActiveDays() { return activeDays; }
+        public int getDaysActive() { return daysActive; }
+        public int getDaysActiveThisMonth() { return daysActiveThisMonth; }
+        public int getCurrentStreak() { return currentStreak; }
+        public int getLongestStreak() { return longestStreak; }
+    }
+}
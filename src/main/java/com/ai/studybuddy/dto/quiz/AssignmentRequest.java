@@ -0,0 +1,71 @@
+package com.ai.studybuddy.dto.quiz;
+
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO per assegnare un quiz a una classe
+ * Con quizId si riusa un quiz del docente, altrimenti il quiz viene generato una sola volta
+ */
+public class AssignmentRequest {
+
+    @NotBlank(message = "Il titolo è obbligatorio")
+    @Size(max = 200, message = "Il titolo non può superare 200 caratteri")
+    private String title;
+
+    private UUID quizId;
+
+    @Size(max = 200, message = "Il topic non può superare 200 caratteri")
+    private String topic;
+
+    @Size(max = 100, message = "La materia non può superare 100 caratteri")
+    private String subject;
+
+    @Min(value = 1, message = "Il numero minimo di domande è 1")
+    @Max(value = 20, message = "Il numero massimo di domande è 20")
+    private Integer numberOfQuestions = 5;
+
+    private DifficultyLevel difficultyLevel = DifficultyLevel.INTERMEDIO;
+
+    private LocalDateTime dueAt;
+
+    @NotEmpty(message = "La classe non può essere vuota")
+    private List<String> studentEmails = new ArrayList<>();
+
+    public AssignmentRequest() {}
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public UUID getQuizId() { return quizId; }
+    public void setQuizId(UUID quizId) { this.quizId = quizId; }
+
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public Integer getNumberOfQuestions() { return numberOfQuestions; }
+    public void setNumberOfQuestions(Integer numberOfQuestions) { this.numberOfQuestions = numberOfQuestions; }
+
+    public DifficultyLevel getDifficultyLevel() { return difficultyLevel; }
+    public void setDifficultyLevel(DifficultyLevel difficultyLevel) { this.difficultyLevel = difficultyLevel; }
+
+    public LocalDateTime getDueAt() { return dueAt; }
+    public void setDueAt(LocalDateTime dueAt) { this.dueAt = dueAt; }
+
+    public List<String> getStudentEmails() { return studentEmails; }
+    public void setStudentEmails(List<String> studentEmails) { this.studentEmails = studentEmails; }
+}
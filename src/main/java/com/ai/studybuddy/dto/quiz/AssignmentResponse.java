@@ -0,0 +1,74 @@
+package com.ai.studybuddy.dto.quiz;
+
+import com.ai.studybuddy.model.quiz.QuizAssignment;
+import com.ai.studybuddy.model.quiz.QuizAttempt;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO per un'assegnazione: vista del docente (classe) o dello studente (il suo tentativo)
+ */
+public class AssignmentResponse {
+
+    private UUID assignmentId;
+    private UUID quizId;
+    private String title;
+    private String topic;
+    private Integer numberOfQuestions;
+    private Integer studentCount;
+    private LocalDateTime dueAt;
+    private LocalDateTime createdAt;
+
+    // Solo alla creazione: email senza iscrizione accettata (solo il numero,
+    // per non rivelare quali indirizzi corrispondono a utenti registrati)
+    private Integer unmatchedCount;
+
+    // Solo per lo studente
+    private Boolean completed;
+    private Double percentage;
+
+    public AssignmentResponse() {}
+
+    public static AssignmentResponse from(QuizAssignment assignment) {
+        AssignmentResponse response = new AssignmentResponse();
+        response.assignmentId = assignment.getId();
+        response.quizId = assignment.getQuiz().getId();
+        response.title = assignment.getTitle();
+        response.topic = assignment.getQuiz().getTopic();
+        response.numberOfQuestions = assignment.getQuiz().getNumberOfQuestions();
+        response.studentCount = assignment.getStudentCount();
+        response.dueAt = assignment.getDueAt();
+        response.createdAt = assignment.getCreatedAt();
+        return response;
+    }
+
+    public static AssignmentResponse forStudent(QuizAttempt attempt) {
+        AssignmentResponse response = from(attempt.getAssignment());
+        response.studentCount = null;
+        response.completed = attempt.isCompleted();
+        response.percentage = attempt.getPercentage();
+        return response;
+    }
+
+    public static List<AssignmentResponse> fromList(List<QuizAssignment> assignments) {
+        return assignments.stream().map(AssignmentResponse::from).toList();
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public UUID getAssignmentId() { return assignmentId; }
+    public UUID getQuizId() { return quizId; }
+    public String getTitle() { return title; }
+    public String getTopic() { return topic; }
+    public Integer getNumberOfQuestions() { return numberOfQuestions; }
+    public Integer getStudentCount() { return studentCount; }
+    public LocalDateTime getDueAt() { return dueAt; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Boolean getCompleted() { return completed; }
+    public Double getPercentage() { return percentage; }
+
+    public Integer getUnmatchedCount() { return unmatchedCount; }
+    public void setUnmatchedCount(Integer unmatchedCount) { this.unmatchedCount = unmatchedCount; }
+}
@@ -0,0 +1,60 @@
+package com.ai.studybuddy.dto.quiz;
+
+import com.ai.studybuddy.model.quiz.AssignmentSummary;
+import com.ai.studybuddy.model.quiz.QuestionStats;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO per i risultati di classe di un'assegnazione (aggregati calcolati dal database)
+ */
+public class AssignmentResultsResponse {
+
+    private UUID assignmentId;
+    private String title;
+    private long students;
+    private long completed;
+    private long passed;
+    private double completionRate;
+    private Double averagePercentage;
+    private Double minPercentage;
+    private Double maxPercentage;
+    private Double averageTimeSeconds;
+    private List<QuestionStats> questions;
+
+    public AssignmentResultsResponse() {}
+
+    public static AssignmentResultsResponse of(UUID assignmentId, String title,
+                                               AssignmentSummary summary, List<QuestionStats> questions) {
+        AssignmentResultsResponse response = new AssignmentResultsResponse();
+        response.assignmentId = assignmentId;
+        response.title = title;
+        response.students = summary.students();
+        response.completed = summary.getCompleted();
+        response.passed = summary.getPassed();
+        response.completionRate = summary.students() > 0
+                ? (double) summary.getCompleted() / summary.students() * 100
+                : 0.0;
+        response.averagePercentage = summary.averagePercentage();
+        response.minPercentage = summary.minPercentage();
+        response.maxPercentage = summary.maxPercentage();
+        response.averageTimeSeconds = summary.averageTimeSeconds();
+        response.questions = questions;
+        return response;
+    }
+
+    // ==================== GETTERS ====================
+
+    public UUID getAssignmentId() { return assignmentId; }
+    public String getTitle() { return title; }
+    public long getStudents() { return students; }
+    public long getCompleted() { return completed; }
+    public long getPassed() { return passed; }
+    public double getCompletionRate() { return completionRate; }
+    public Double getAveragePercentage() { return averagePercentage; }
+    public Double getMinPercentage() { return minPercentage; }
+    public Double getMaxPercentage() { return maxPercentage; }
+    public Double getAverageTimeSeconds() { return averageTimeSeconds; }
+    public List<QuestionStats> getQuestions() { return questions; }
+}
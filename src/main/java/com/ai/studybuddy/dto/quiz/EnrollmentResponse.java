@@ -0,0 +1,43 @@
+package com.ai.studybuddy.dto.quiz;
+
+import com.ai.studybuddy.model.quiz.ClassEnrollment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO per un invito a una classe, come lo vede lo studente
+ */
+public class EnrollmentResponse {
+
+    private UUID enrollmentId;
+    private String teacherName;
+    private String teacherEmail;
+    private String status;
+    private LocalDateTime createdAt;
+
+    public EnrollmentResponse() {}
+
+    public static EnrollmentResponse from(ClassEnrollment enrollment) {
+        EnrollmentResponse response = new EnrollmentResponse();
+        response.enrollmentId = enrollment.getId();
+        response.teacherName = enrollment.getTeacher().getFullName();
+        response.teacherEmail = enrollment.getTeacher().getEmail();
+        response.status = enrollment.getStatus().name();
+        response.createdAt = enrollment.getCreatedAt();
+        return response;
+    }
+
+    public static List<EnrollmentResponse> fromList(List<ClassEnrollment> enrollments) {
+        return enrollments.stream().map(EnrollmentResponse::from).toList();
+    }
+
+    // ==================== GETTERS ====================
+
+    public UUID getEnrollmentId() { return enrollmentId; }
+    public String getTeacherName() { return teacherName; }
+    public String getTeacherEmail() { return teacherEmail; }
+    public String getStatus() { return status; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
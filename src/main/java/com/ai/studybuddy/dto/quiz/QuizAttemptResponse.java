@@ -0,0 +1,55 @@
+package com.ai.studybuddy.dto.quiz;
+
+import com.ai.studybuddy.model.quiz.QuizAttempt;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO per lo storico dei tentativi di un quiz
+ */
+public class QuizAttemptResponse {
+
+    private UUID attemptId;
+    private int attemptNumber;
+    private boolean completed;
+    private Integer score;
+    private Integer totalPoints;
+    private Double percentage;
+    private Integer timeSpentSeconds;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    public QuizAttemptResponse() {}
+
+    public static QuizAttemptResponse from(QuizAttempt attempt) {
+        QuizAttemptResponse response = new QuizAttemptResponse();
+        response.attemptId = attempt.getId();
+        response.attemptNumber = attempt.getAttemptNumber();
+        response.completed = attempt.isCompleted();
+        response.score = attempt.getScore();
+        response.totalPoints = attempt.getTotalPoints();
+        response.percentage = attempt.getPercentage();
+        response.timeSpentSeconds = attempt.getTimeSpentSeconds();
+        response.startedAt = attempt.getStartedAt();
+        response.completedAt = attempt.getCompletedAt();
+        return response;
+    }
+
+    public static List<QuizAttemptResponse> fromList(List<QuizAttempt> attempts) {
+        return attempts.stream().map(QuizAttemptResponse::from).toList();
+    }
+
+    // ==================== GETTERS ====================
+
+    public UUID getAttemptId() { return attemptId; }
+    public int getAttemptNumber() { return attemptNumber; }
+    public boolean isCompleted() { return completed; }
+    public Integer getScore() { return score; }
+    public Integer getTotalPoints() { return totalPoints; }
+    public Double getPercentage() { return percentage; }
+    public Integer getTimeSpentSeconds() { return timeSpentSeconds; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+}
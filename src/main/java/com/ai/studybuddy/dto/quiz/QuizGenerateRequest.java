@@ -20,7 +20,7 @@ public class QuizGenerateRequest {
     private String subject;
 
     @Min(value = 1, message = "Il numero minimo di domande è 1")
-    @Max(value = 20, message = "Il numero massimo di domande è 20")
+    @Max(value = 50, message = "Il numero massimo di domande è 50")
     private Integer numberOfQuestions = 5;
 
     private DifficultyLevel difficultyLevel = DifficultyLevel.INTERMEDIO;
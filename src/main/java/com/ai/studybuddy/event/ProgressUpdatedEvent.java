@@ -0,0 +1,11 @@
+package com.ai.studybuddy.event;
+
+import com.ai.studybuddy.model.user.User;
+
+/**
+ * Evento applicativo: è stato aggiornato lo UserProgress di un argomento
+ * (es. quiz completato). Usato per aggiornare in modo incrementale le
+ * raccomandazioni legate a quell'argomento.
+ */
+public record ProgressUpdatedEvent(User user, String topic) {
+}
@@ -0,0 +1,13 @@
+package com.ai.studybuddy.event;
+
+import com.ai.studybuddy.model.user.User;
+
+import java.time.LocalDate;
+
+/**
+ * Evento applicativo: le statistiche globali dell'utente sono cambiate
+ * (streak, ultima attività, flashcards studiate)
+ */
+public record StatsUpdatedEvent(User user, int currentStreak, LocalDate lastActivityDate,
+                                int flashcardsStudied) {
+}
@@ -1,5 +1,7 @@
 package com.ai.studybuddy.integration;
 
+import java.util.function.Consumer;
+
 /**
  * Interfaccia per client di servizi AI.
  *
@@ -20,6 +22,19 @@ public interface AIClient {
      */
     String generateText(String prompt);
 
+    /**
+     * Genera testo consegnandolo a pezzi man mano che il modello lo produce.
+     *
+     * L'implementazione predefinita attende la risposta completa e la consegna in un solo pezzo.
+     *
+     * @param prompt  il prompt da inviare al modello
+     * @param onDelta riceve i pezzi di testo, nell'ordine
+     * @throws RuntimeException se la chiamata fallisce
+     */
+    default void streamText(String prompt, Consumer<String> onDelta) {
+        onDelta.accept(generateText(prompt));
+    }
+
     /**
      * Verifica se il client AI è disponibile e funzionante.
      *
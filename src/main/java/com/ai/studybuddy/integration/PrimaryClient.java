@@ -6,9 +6,14 @@ import com.google.gson.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 /**
  * Client Groq principale con modello Llama 3.3 70B.
  *
@@ -30,6 +35,8 @@ public class PrimaryClient implements AIClient {
     private final ResponseParser responseParser;
     private final Gson gson = new Gson();
 
+    private static final Duration STREAM_TIMEOUT = Duration.ofSeconds(90);
+
     // Constructor Injection
     public PrimaryClient(WebClient.Builder webClientBuilder, ResponseParser responseParser) {
         this.webClient = webClientBuilder
@@ -70,6 +77,45 @@ public class PrimaryClient implements AIClient {
         }
     }
 
+    /**
+     * Completion in streaming (stream: true): ogni evento SSE di Groq porta un pezzo
+     * di testo in choices[0].delta.content, l'ultimo evento è [DONE]
+     */
+    @Override
+    public void streamText(String prompt, Consumer<String> onDelta) {
+        if (prompt == null || prompt.trim().isEmpty()) {
+            throw new IllegalArgumentException("Prompt cannot be null or empty");
+        }
+
+        JsonObject requestBody = buildRequest(prompt);
+        requestBody.addProperty("stream", true);
+
+        log.info("Chiamata Groq API in streaming - PRIMARY MODEL: {}", model);
+
+        // I pezzi vengono consegnati sul thread chiamante, non sull'event loop di WebClient;
+        // la chiusura dello stream annulla la richiesta se chi consuma si interrompe
+        try (Stream<String> events = webClient.post()
+                .uri("/chat/completions")
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody.toString())
+                .retrieve()
+                .bodyToFlux(String.class)
+                .takeUntil(ResponseParser::isStreamEnd)
+                .timeout(STREAM_TIMEOUT)
+                .toStream()) {
+
+            events.map(responseParser::extractDelta)
+                    .filter(delta -> !delta.isEmpty())
+                    .forEach(onDelta);
+
+        } catch (Exception e) {
+            handleException(e);
+            throw new RuntimeException("Errore Primary Groq Model (streaming): " + e.getMessage());
+        }
+    }
+
     @Override
     public boolean isAvailable() {
         try {
@@ -3,6 +3,7 @@
 package com.ai.studybuddy.integration;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import org.springframework.stereotype.Component;
 
@@ -33,6 +34,39 @@ public class ResponseParser {
         }
     }
 
+    /**
+     * Estrae il pezzo di testo da un evento della risposta in streaming
+     * (choices[0].delta.content); stringa vuota per eventi senza testo e per [DONE]
+     */
+    public String extractDelta(String eventData) {
+        if (eventData == null || eventData.isBlank() || isStreamEnd(eventData)) {
+            return "";
+        }
+
+        try {
+            JsonObject event = gson.fromJson(eventData, JsonObject.class);
+            JsonArray choices = event.getAsJsonArray("choices");
+            if (choices == null || choices.isEmpty()) {
+                return "";
+            }
+            JsonObject delta = choices.get(0).getAsJsonObject().getAsJsonObject("delta");
+            if (delta == null || !delta.has("content") || delta.get("content").isJsonNull()) {
+                return "";
+            }
+            return delta.get("content").getAsString();
+
+        } catch (Exception e) {
+            throw new RuntimeException("Errore parsing evento streaming Groq: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * true per l'evento che chiude la risposta in streaming
+     */
+    public static boolean isStreamEnd(String eventData) {
+        return eventData != null && "[DONE]".equals(eventData.trim());
+    }
+
     /**
      * Pulisce la risposta da markdown, backticks, etc.
      */
@@ -3,6 +3,7 @@ package com.ai.studybuddy.mapper;
 import com.ai.studybuddy.dto.flashcard.FlashcardCreateRequest;
 import com.ai.studybuddy.dto.flashcard.FlashcardDeckCreateRequest;
 import com.ai.studybuddy.model.flashcard.Flashcard;
+import com.ai.studybuddy.model.flashcard.FlashcardContent;
 import com.ai.studybuddy.model.flashcard.FlashcardDeck;
 import com.ai.studybuddy.model.user.User;
 import org.springframework.stereotype.Component;
@@ -15,12 +16,11 @@ public class FlashcardMapper {
 
     /**
      * Converte FlashcardCreateRequest in Flashcard entity
+     * (il contenuto è una bozza: va risolto con FlashcardContentService prima del salvataggio)
      */
     public Flashcard toEntity(FlashcardCreateRequest request, FlashcardDeck deck, User user) {
         Flashcard flashcard = new Flashcard();
-        flashcard.setFrontContent(request.getFrontContent());
-        flashcard.setBackContent(request.getBackContent());
-        flashcard.setHint(request.getHint());
+        flashcard.setContent(toContent(request));
         flashcard.setDifficultyLevel(request.getDifficultyLevel());
         flashcard.setSource(request.getSource());
         flashcard.setDeck(deck);
@@ -46,9 +46,7 @@ public class FlashcardMapper {
      * Aggiorna una Flashcard esistente con i dati del DTO
      */
     public void updateEntity(Flashcard flashcard, FlashcardCreateRequest request) {
-        flashcard.setFrontContent(request.getFrontContent());
-        flashcard.setBackContent(request.getBackContent());
-        flashcard.setHint(request.getHint());
+        flashcard.setContent(toContent(request));
         flashcard.setDifficultyLevel(request.getDifficultyLevel());
         flashcard.setSource(request.getSource());
 
@@ -57,6 +55,13 @@ public class FlashcardMapper {
         }
     }
 
+    /**
+     * Bozza del contenuto condiviso (non salvata)
+     */
+    public FlashcardContent toContent(FlashcardCreateRequest request) {
+        return new FlashcardContent(request.getFrontContent(), request.getBackContent(), request.getHint());
+    }
+
     /**
      * Converte FlashcardDeckCreateRequest in FlashcardDeck entity
      */
@@ -72,6 +77,21 @@ public class FlashcardMapper {
         return deck;
     }
 
+    /**
+     * Copia privata di un deck (senza flashcard e statistiche di studio)
+     */
+    public FlashcardDeck toCopy(FlashcardDeck source, User owner) {
+        FlashcardDeck deck = new FlashcardDeck();
+        deck.setName(source.getName());
+        deck.setDescription(source.getDescription());
+        deck.setSubject(source.getSubject());
+        deck.setColor(source.getColor());
+        deck.setIcon(source.getIcon());
+        deck.setIsPublic(false);
+        deck.setOwner(owner);
+        return deck;
+    }
+
     /**
      * Aggiorna un FlashcardDeck esistente con i dati del DTO
      */
@@ -32,6 +32,8 @@ public class QuizMapper {
         quiz.setSubject(request.getSubject());
         quiz.setDifficultyLevel(request.getDifficultyLevel());
         quiz.setNumberOfQuestions(request.getNumberOfQuestions());
+        quiz.setLanguage(request.getLanguage());
+        quiz.setEducationLevel(user.getEducationLevel());
         quiz.setUser(user);
         quiz.setIsAiGenerated(true);
         return quiz;
@@ -4,19 +4,30 @@ import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.UUID;
 
 /**
- * Entità Flashcard - rappresenta una singola scheda di studio
+ * Entità Flashcard - rappresenta una singola scheda di studio in un deck
+ *
+ * Il testo sta in FlashcardContent (condiviso e deduplicato), l'andamento di
+ * ogni utente in FlashcardReviewState. timesReviewed, timesCorrect e
+ * lastReviewedAt sono solo la vista dell'utente corrente (non persistiti).
+ *
+ * Le flashcard create prima dei contenuti condivisi hanno il testo nelle vecchie
+ * colonne finché il backfill (MaintenanceService) non le collega a un contenuto:
+ * fino ad allora i getter leggono quelle colonne.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "flashcards", indexes = {
         @Index(name = "idx_flashcard_deck", columnList = "deck_id"),
         @Index(name = "idx_flashcard_created_by", columnList = "created_by_user_id"),
-        @Index(name = "idx_flashcard_active", columnList = "is_active")
+        @Index(name = "idx_flashcard_active", columnList = "is_active"),
+        @Index(name = "idx_flashcard_content", columnList = "content_id")
 })
 public class Flashcard {
 
@@ -36,16 +47,24 @@ public class Flashcard {
     @JsonIgnore
     private User createdBy;
 
-    // ==================== CONTENUTO ====================
+    // Nullo solo per le flashcard create prima dei contenuti condivisi (vedi backfill)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_id")
+    @JsonIgnore
+    private FlashcardContent content;
+
+    // ==================== CONTENUTO LEGACY (sola lettura) ====================
+
+    @Column(name = "front_content", columnDefinition = "TEXT", insertable = false, updatable = false)
+    private String legacyFrontContent;
 
-    @Column(name = "front_content", nullable = false, columnDefinition = "TEXT")
-    private String frontContent;
+    @Column(name = "back_content", columnDefinition = "TEXT", insertable = false, updatable = false)
+    private String legacyBackContent;
 
-    @Column(name = "back_content", nullable = false, columnDefinition = "TEXT")
-    private String backContent;
+    @Column(name = "hint", columnDefinition = "TEXT", insertable = false, updatable = false)
+    private String legacyHint;
 
-    @Column(name = "hint", columnDefinition = "TEXT")
-    private String hint;
+    // ==================== CONTENUTO ====================
 
     @Column(name = "tags", length = 500)
     private String tags;
@@ -62,15 +81,15 @@ public class Flashcard {
     @Column(name = "source", length = 255)
     private String source;
 
-    // ==================== STATISTICHE ====================
+    // ==================== STATISTICHE (vista dell'utente) ====================
 
-    @Column(name = "times_reviewed")
-    private Integer timesReviewed = 0;
+    @Transient
+    private int timesReviewed;
 
-    @Column(name = "times_correct")
-    private Integer timesCorrect = 0;
+    @Transient
+    private int timesCorrect;
 
-    @Column(name = "last_reviewed_at")
+    @Transient
     private LocalDateTime lastReviewedAt;
 
     // ==================== AUDIT ====================
@@ -90,8 +109,6 @@ public class Flashcard {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
-        if (timesReviewed == null) timesReviewed = 0;
-        if (timesCorrect == null) timesCorrect = 0;
         if (aiGenerated == null) aiGenerated = false;
         if (isActive == null) isActive = true;
     }
@@ -107,7 +124,7 @@ public class Flashcard {
      * Calcola la percentuale di successo
      */
     public double getSuccessRate() {
-        if (timesReviewed == null || timesReviewed == 0) return 0.0;
+        if (timesReviewed == 0) return 0.0;
         return (double) timesCorrect / timesReviewed * 100;
     }
 
@@ -119,17 +136,13 @@ public class Flashcard {
     }
 
     /**
-     * Registra una revisione
+     * Mostra l'andamento dell'utente: stato salvato (null = mai revisionata)
+     * più le revisioni ancora nel buffer write-behind
      */
-    public void recordReview(boolean wasCorrect) {
-        if (timesReviewed == null) timesReviewed = 0;
-        if (timesCorrect == null) timesCorrect = 0;
-
-        timesReviewed++;
-        if (wasCorrect) {
-            timesCorrect++;
-        }
-        lastReviewedAt = LocalDateTime.now();
+    public void showReviewState(FlashcardReviewState state, long pendingReviews, long pendingCorrect) {
+        this.timesReviewed = (state != null ? state.getTimesReviewed() : 0) + (int) pendingReviews;
+        this.timesCorrect = (state != null ? state.getTimesCorrect() : 0) + (int) pendingCorrect;
+        this.lastReviewedAt = state != null ? state.getLastReviewedAt() : null;
     }
 
     /**
@@ -230,28 +243,24 @@ public class Flashcard {
         this.createdBy = createdBy;
     }
 
-    public String getFrontContent() {
-        return frontContent;
+    public FlashcardContent getContent() {
+        return content;
     }
 
-    public void setFrontContent(String frontContent) {
-        this.frontContent = frontContent;
+    public void setContent(FlashcardContent content) {
+        this.content = content;
     }
 
-    public String getBackContent() {
-        return backContent;
+    public String getFrontContent() {
+        return content != null ? content.getFrontContent() : legacyFrontContent;
     }
 
-    public void setBackContent(String backContent) {
-        this.backContent = backContent;
+    public String getBackContent() {
+        return content != null ? content.getBackContent() : legacyBackContent;
     }
 
     public String getHint() {
-        return hint;
-    }
-
-    public void setHint(String hint) {
-        this.hint = hint;
+        return content != null ? content.getHint() : legacyHint;
     }
 
     public String getTags() {
@@ -290,26 +299,14 @@ public class Flashcard {
         return timesReviewed;
     }
 
-    public void setTimesReviewed(Integer timesReviewed) {
-        this.timesReviewed = timesReviewed;
-    }
-
     public Integer getTimesCorrect() {
         return timesCorrect;
     }
 
-    public void setTimesCorrect(Integer timesCorrect) {
-        this.timesCorrect = timesCorrect;
-    }
-
     public LocalDateTime getLastReviewedAt() {
         return lastReviewedAt;
     }
 
-    public void setLastReviewedAt(LocalDateTime lastReviewedAt) {
-        this.lastReviewedAt = lastReviewedAt;
-    }
-
     public Boolean getIsActive() {
         return isActive;
     }
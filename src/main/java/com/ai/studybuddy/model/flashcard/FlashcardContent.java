@@ -0,0 +1,133 @@
+package com.ai.studybuddy.model.flashcard;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity FlashcardContent - testo di una flashcard, salvato una sola volta
+ *
+ * Immutabile e condiviso: le flashcard con lo stesso fronte, retro e suggerimento
+ * (stesso contentHash) puntano alla stessa riga, anche in deck e utenti diversi.
+ * Modificare una flashcard significa puntare a un altro contenuto.
+ */
+@Entity
+@Immutable
+@BatchSize(size = 50)
+@Table(name = "flashcard_contents", indexes = {
+        @Index(name = "idx_flashcard_content_hash", columnList = "content_hash", unique = true)
+})
+public class FlashcardContent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "front_content", nullable = false, columnDefinition = "TEXT")
+    private String frontContent;
+
+    @Column(name = "back_content", nullable = false, columnDefinition = "TEXT")
+    private String backContent;
+
+    @Column(name = "hint", columnDefinition = "TEXT")
+    private String hint;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // ==================== COSTRUTTORI ====================
+
+    public FlashcardContent() {
+    }
+
+    public FlashcardContent(String frontContent, String backContent, String hint) {
+        this.frontContent = frontContent;
+        this.backContent = backContent;
+        this.hint = hint;
+        this.contentHash = hashOf(frontContent, backContent, hint);
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (contentHash == null) contentHash = hashOf(frontContent, backContent, hint);
+    }
+
+    // ==================== BUSINESS LOGIC ====================
+
+    /**
+     * Impronta di fronte, retro e suggerimento. Solo gli spazi vengono normalizzati:
+     * maiuscole e punteggiatura fanno parte del contenuto mostrato
+     */
+    public static String hashOf(String frontContent, String backContent, String hint) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String text = normalize(frontContent) + '\u0000' + normalize(backContent) + '\u0000' + normalize(hint);
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.strip().replaceAll("\\s+", " ");
+    }
+
+    // ==================== EQUALS & HASHCODE ====================
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FlashcardContent that = (FlashcardContent) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    // ==================== GETTERS ====================
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public String getFrontContent() {
+        return frontContent;
+    }
+
+    public String getBackContent() {
+        return backContent;
+    }
+
+    public String getHint() {
+        return hint;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
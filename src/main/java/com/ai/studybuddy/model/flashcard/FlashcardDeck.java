@@ -3,6 +3,7 @@ package com.ai.studybuddy.model.flashcard;
 import com.ai.studybuddy.model.user.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,6 +15,7 @@ import java.util.UUID;
  * FlashcardDeck - rappresenta un mazzo/collezione di flashcards
  */
 @Entity
+@DynamicUpdate
 @Table(name = "flashcard_decks", indexes = {
         @Index(name = "idx_deck_owner", columnList = "user_id"),
         @Index(name = "idx_deck_active", columnList = "is_active"),
@@ -76,6 +78,10 @@ public class FlashcardDeck {
     @Column(name = "last_studied_at")
     private LocalDateTime lastStudiedAt;
 
+    // Sessioni ancora nel buffer write-behind (non persistite)
+    @Transient
+    private int pendingTimesStudied;
+
     // ==================== AUDIT ====================
 
     @Column(name = "is_active")
@@ -145,12 +151,10 @@ public class FlashcardDeck {
     }
 
     /**
-     * Aggiorna il conteggio delle carte masterizzate
+     * Applica le sessioni di studio pendenti nel buffer write-behind
      */
-    public void updateMasteredCount() {
-        cardsMastered = (int) flashcards.stream()
-                .filter(Flashcard::isMastered)
-                .count();
+    public void applyPendingStudySessions(long sessions) {
+        this.pendingTimesStudied = (int) sessions;
     }
 
     /**
@@ -291,7 +295,8 @@ public class FlashcardDeck {
     }
 
     public Integer getTimesStudied() {
-        return timesStudied;
+        if (pendingTimesStudied == 0) return timesStudied;
+        return (timesStudied != null ? timesStudied : 0) + pendingTimesStudied;
     }
 
     public void setTimesStudied(Integer timesStudied) {
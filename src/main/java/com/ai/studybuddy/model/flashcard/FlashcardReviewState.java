@@ -0,0 +1,131 @@
+package com.ai.studybuddy.model.flashcard;
+
+import com.ai.studybuddy.model.user.User;
+import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity FlashcardReviewState - andamento di un utente su una flashcard
+ *
+ * Una riga piccola per (utente, flashcard), creata alla prima revisione:
+ * più utenti possono studiare lo stesso deck (es. pubblico) in modo indipendente.
+ * I contatori vengono incrementati dal buffer write-behind.
+ */
+@Entity
+@DynamicUpdate
+@Table(name = "flashcard_review_states",
+        uniqueConstraints = @UniqueConstraint(name = "uk_review_state_user_card",
+                columnNames = {"user_id", "flashcard_id"}),
+        indexes = @Index(name = "idx_review_state_card", columnList = "flashcard_id"))
+public class FlashcardReviewState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // ==================== RELAZIONI ====================
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "flashcard_id", nullable = false)
+    private Flashcard flashcard;
+
+    // ==================== STATISTICHE ====================
+
+    @Column(name = "times_reviewed", nullable = false)
+    private Integer timesReviewed = 0;
+
+    @Column(name = "times_correct", nullable = false)
+    private Integer timesCorrect = 0;
+
+    @Column(name = "last_reviewed_at")
+    private LocalDateTime lastReviewedAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // ==================== LIFECYCLE ====================
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (timesReviewed == null) timesReviewed = 0;
+        if (timesCorrect == null) timesCorrect = 0;
+    }
+
+    // ==================== EQUALS & HASHCODE ====================
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FlashcardReviewState that = (FlashcardReviewState) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Flashcard getFlashcard() {
+        return flashcard;
+    }
+
+    public void setFlashcard(Flashcard flashcard) {
+        this.flashcard = flashcard;
+    }
+
+    public Integer getTimesReviewed() {
+        return timesReviewed;
+    }
+
+    public void setTimesReviewed(Integer timesReviewed) {
+        this.timesReviewed = timesReviewed;
+    }
+
+    public Integer getTimesCorrect() {
+        return timesCorrect;
+    }
+
+    public void setTimesCorrect(Integer timesCorrect) {
+        this.timesCorrect = timesCorrect;
+    }
+
+    public LocalDateTime getLastReviewedAt() {
+        return lastReviewedAt;
+    }
+
+    public void setLastReviewedAt(LocalDateTime lastReviewedAt) {
+        this.lastReviewedAt = lastReviewedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ai.studybuddy.model.flashcard;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Deck del catalogo pubblico (proiezione: niente flashcard, del proprietario solo il nome)
+ */
+public record PublicDeck(UUID id, String name, String description, String subject, String color, String icon,
+                         Integer totalCards, Integer timesStudied, LocalDateTime lastStudiedAt,
+                         LocalDateTime createdAt, String ownerName) {
+}
@@ -0,0 +1,215 @@
+package com.ai.studybuddy.model.gamification;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bitmap delle attività giornaliere di un utente: un bit per giorno
+ *
+ * - I giorni sono raggruppati in parole da 64 bit; il bit 0 di ogni parola è il
+ *   giorno più vecchio. L'origine è allineata a multipli di 64 giorni dall'epoca,
+ *   così ogni giorno ha sempre la stessa posizione nella sua parola.
+ * - Streak, streak più lungo e giorni attivi si calcolano parola per parola
+ *   (bitCount, leading/trailing zeros) senza scorrere i singoli giorni.
+ * - Persistita in UserStats come byte[] (8 byte per parola, big-endian):
+ *   un anno di storico occupa circa 48 byte.
+ */
+public final class ActivityBitmap {
+
+    private static final int DAYS_PER_WORD = 64;
+
+    private long originDay;
+    private long[] words;
+
+    private ActivityBitmap(long originDay, long[] words) {
+        this.originDay = originDay;
+        this.words = words;
+    }
+
+    public static ActivityBitmap empty() {
+        return new ActivityBitmap(0, new long[0]);
+    }
+
+    /**
+     * Ricostruisce la bitmap dalle colonne di UserStats
+     */
+    public static ActivityBitmap decode(LocalDate origin, byte[] data) {
+        if (origin == null || data == null || data.length < Long.BYTES) {
+            return empty();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long[] words = new long[data.length / Long.BYTES];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.getLong();
+        }
+        return new ActivityBitmap(alignToWord(origin.toEpochDay()), words);
+    }
+
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Primo giorno rappresentato (null se la bitmap è vuota)
+     */
+    public LocalDate getOrigin() {
+        return isEmpty() ? null : LocalDate.ofEpochDay(originDay);
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    // ==================== SCRITTURA ====================
+
+    /**
+     * Segna il giorno come attivo, estendendo la bitmap se necessario
+     */
+    public void set(LocalDate day) {
+        long epochDay = day.toEpochDay();
+        if (isEmpty()) {
+            originDay = alignToWord(epochDay);
+            words = new long[1];
+        }
+
+        long index = Math.floorDiv(epochDay - originDay, DAYS_PER_WORD);
+        if (index < 0) {
+            int missing = (int) -index;
+            long[] grown = new long[words.length + missing];
+            System.arraycopy(words, 0, grown, missing, words.length);
+            words = grown;
+            originDay -= (long) missing * DAYS_PER_WORD;
+            index = 0;
+        } else if (index >= words.length) {
+            words = Arrays.copyOf(words, (int) index + 1);
+        }
+
+        words[(int) index] |= 1L << Math.floorMod(epochDay, DAYS_PER_WORD);
+    }
+
+    // ==================== LETTURA ====================
+
+    public boolean isActive(LocalDate day) {
+        long offset = day.toEpochDay() - originDay;
+        if (offset < 0 || offset >= (long) words.length * DAYS_PER_WORD) return false;
+        return (words[(int) (offset / DAYS_PER_WORD)] & (1L << (offset % DAYS_PER_WORD))) != 0;
+    }
+
+    /**
+     * Giorni attivi consecutivi che terminano nel giorno indicato (0 se quel giorno non è attivo)
+     */
+    public int streakEndingAt(LocalDate day) {
+        long offset = day.toEpochDay() - originDay;
+        if (offset < 0 || offset >= (long) words.length * DAYS_PER_WORD) return 0;
+
+        int bit = (int) (offset % DAYS_PER_WORD);
+        int streak = 0;
+        for (int w = (int) (offset / DAYS_PER_WORD); w >= 0; w--) {
+            long zeros = ~words[w] & rangeMask(0, bit);
+            if (zeros != 0) {
+                int lastInactive = 63 - Long.numberOfLeadingZeros(zeros);
+                return streak + bit - lastInactive;
+            }
+            streak += bit + 1;
+            bit = DAYS_PER_WORD - 1;
+        }
+        return streak;
+    }
+
+    /**
+     * Sequenza più lunga di giorni attivi consecutivi
+     */
+    public int longestStreak() {
+        int best = 0;
+        int run = 0;
+        for (long word : words) {
+            if (word == -1L) {
+                run += DAYS_PER_WORD;
+                continue;
+            }
+            // I bit bassi continuano la sequenza della parola precedente
+            run += Long.numberOfTrailingZeros(~word);
+            best = Math.max(best, Math.max(run, longestRunInWord(word)));
+            // I bit alti proseguono nella parola successiva
+            run = Long.numberOfLeadingZeros(~word);
+        }
+        return Math.max(best, run);
+    }
+
+    /**
+     * Numero di giorni attivi nell'intervallo [from, to]
+     */
+    public int countActive(LocalDate from, LocalDate to) {
+        int[] count = {0};
+        forEachWord(from, to, (word, mask, firstDay) -> count[0] += Long.bitCount(word & mask));
+        return count[0];
+    }
+
+    /**
+     * Giorni attivi nell'intervallo [from, to], in ordine crescente
+     */
+    public List<LocalDate> activeDays(LocalDate from, LocalDate to) {
+        List<LocalDate> days = new ArrayList<>();
+        forEachWord(from, to, (word, mask, firstDay) -> {
+            long bits = word & mask;
+            while (bits != 0) {
+                days.add(LocalDate.ofEpochDay(firstDay + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        });
+        return days;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Visita le parole che coprono [from, to] con la maschera dei giorni nell'intervallo
+     */
+    private void forEachWord(LocalDate from, LocalDate to, WordVisitor visitor) {
+        if (isEmpty() || to.isBefore(from)) return;
+
+        long lastDay = originDay + (long) words.length * DAYS_PER_WORD - 1;
+        long start = Math.max(from.toEpochDay(), originDay);
+        long end = Math.min(to.toEpochDay(), lastDay);
+
+        for (long day = start; day <= end; ) {
+            int w = (int) ((day - originDay) / DAYS_PER_WORD);
+            long wordStart = originDay + (long) w * DAYS_PER_WORD;
+            long wordEnd = Math.min(end, wordStart + DAYS_PER_WORD - 1);
+            visitor.visit(words[w], rangeMask((int) (day - wordStart), (int) (wordEnd - wordStart)), wordStart);
+            day = wordEnd + 1;
+        }
+    }
+
+    /**
+     * Maschera con i bit da lo a hi (inclusi)
+     */
+    private static long rangeMask(int lo, int hi) {
+        return (-1L >>> (63 - hi)) & (-1L << lo);
+    }
+
+    private static int longestRunInWord(long word) {
+        int length = 0;
+        while (word != 0) {
+            word &= word << 1;
+            length++;
+        }
+        return length;
+    }
+
+    private static long alignToWord(long epochDay) {
+        return Math.floorDiv(epochDay, DAYS_PER_WORD) * DAYS_PER_WORD;
+    }
+
+    @FunctionalInterface
+    private interface WordVisitor {
+        void visit(long word, long mask, long firstDay);
+    }
+}
@@ -0,0 +1,228 @@
+package com.ai.studybuddy.model.gamification;
+
+import com.ai.studybuddy.model.user.User;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entità GamificationEvent - outbox degli eventi di gamification
+ *
+ * Ogni attività che assegna XP (spiegazione, quiz, flashcard) salva qui un evento;
+ * i worker di GamificationEventService aggiornano UserStats, UserProgress e badge
+ * fuori dal percorso della richiesta. L'evento viene eliminato quando è processato.
+ */
+@Entity
+@Table(name = "gamification_events", indexes = {
+        @Index(name = "idx_gamification_event_status", columnList = "status, created_at"),
+        @Index(name = "idx_gamification_event_user", columnList = "user_id, status")
+})
+public class GamificationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private EventType eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    // XP previsti al momento della pubblicazione (usati per l'anteprima)
+    @Column(name = "xp_awarded", nullable = false)
+    private Integer xpAwarded = 0;
+
+    // ==================== PAYLOAD ====================
+
+    @Column(name = "topic")
+    private String topic;
+
+    @Column(name = "subject")
+    private String subject;
+
+    @Column(name = "passed")
+    private Boolean passed;
+
+    @Column(name = "score")
+    private Double score;
+
+    @Column(name = "total_questions")
+    private Integer totalQuestions;
+
+    @Column(name = "correct_answers")
+    private Integer correctAnswers;
+
+    @Column(name = "cards_studied")
+    private Integer cardsStudied;
+
+    // ==================== PROCESSING ====================
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // ==================== ENUMS ====================
+
+    public enum EventType {
+        EXPLANATION,
+        QUIZ,
+        FLASHCARD
+    }
+
+    public enum Status {
+        PENDING,     // In attesa di un worker
+        PROCESSING,  // Preso in carico da un worker
+        FAILED       // Tentativi esauriti
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public EventType getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(EventType eventType) {
+        this.eventType = eventType;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Integer getXpAwarded() {
+        return xpAwarded;
+    }
+
+    public void setXpAwarded(Integer xpAwarded) {
+        this.xpAwarded = xpAwarded;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public Boolean getPassed() {
+        return passed;
+    }
+
+    public void setPassed(Boolean passed) {
+        this.passed = passed;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public Integer getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    public void setTotalQuestions(Integer totalQuestions) {
+        this.totalQuestions = totalQuestions;
+    }
+
+    public Integer getCorrectAnswers() {
+        return correctAnswers;
+    }
+
+    public void setCorrectAnswers(Integer correctAnswers) {
+        this.correctAnswers = correctAnswers;
+    }
+
+    public Integer getCardsStudied() {
+        return cardsStudied;
+    }
+
+    public void setCardsStudied(Integer cardsStudied) {
+        this.cardsStudied = cardsStudied;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+}
@@ -2,6 +2,8 @@ package com.ai.studybuddy.model.gamification;
 
 import com.ai.studybuddy.model.user.User;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -12,9 +14,20 @@ import java.util.UUID;
  * NOTA: Questa classe si integra con UserProgress che traccia i progressi per argomento.
  * - UserProgress → statistiche PER TOPIC (quiz, score, mastery per argomento)
  * - UserStats → statistiche GLOBALI (XP totali, livello, streak, badge)
+ *
+ * NOTA: XP e flashcards studiate sono aggregati in memoria da CounterBufferService
+ * e scritti con UPDATE incrementali: @DynamicUpdate evita che un salvataggio
+ * dell'entità sovrascriva quelle colonne quando non sono state modificate.
+ *
+ * NOTA: current_streak è lo streak all'ultima attività e viene aggiornato solo
+ * quando l'utente studia. Lo streak reale si legge con getEffectiveStreak(),
+ * che lo considera interrotto se l'ultima attività è precedente a ieri.
  */
 @Entity
-@Table(name = "user_stats")
+@DynamicUpdate
+@Table(name = "user_stats", indexes = {
+        @Index(name = "idx_user_stats_streak_activity", columnList = "current_streak DESC, last_activity_date")
+})
 public class UserStats {
 
     @Id
@@ -70,6 +83,13 @@ public class UserStats {
     @Column(name = "last_activity_date")
     private LocalDate lastActivityDate;
 
+    // Storico giornaliero compatto (vedi ActivityBitmap): origine + un bit per giorno
+    @Column(name = "activity_origin")
+    private LocalDate activityOrigin;
+
+    @Column(name = "activity_bitmap", length = 4096)
+    private byte[] activityBitmap;
+
     // ==================== LIVELLO ====================
 
     @Column(name = "level")
@@ -119,6 +139,47 @@ public class UserStats {
         return leveledUp;
     }
 
+    /**
+     * Riallinea livello e soglia successiva al totale XP corrente
+     * (usato dopo gli UPDATE incrementali del buffer write-behind)
+     * @return true se il livello è cambiato
+     */
+    public boolean syncLevel() {
+        return addXp(0);
+    }
+
+    /**
+     * Crea una copia NON persistente con i delta pendenti applicati.
+     * Serve per mostrare all'utente i valori aggiornati prima del flush su DB:
+     * la copia non deve mai essere salvata.
+     */
+    public UserStats withPendingDeltas(long pendingXp, long pendingFlashcards) {
+        UserStats view = new UserStats();
+        view.id = id;
+        view.user = user;
+        view.totalXp = totalXp != null ? totalXp : 0;
+        view.weeklyXp = weeklyXp != null ? weeklyXp : 0;
+        view.monthlyXp = monthlyXp != null ? monthlyXp : 0;
+        view.explanationsRequested = explanationsRequested;
+        view.quizzesCompleted = quizzesCompleted;
+        view.quizzesPassed = quizzesPassed;
+        view.flashcardsStudied = (flashcardsStudied != null ? flashcardsStudied : 0) + (int) pendingFlashcards;
+        view.flashcardsMastered = flashcardsMastered;
+        view.focusSessionsCompleted = focusSessionsCompleted;
+        view.totalStudyTimeMinutes = totalStudyTimeMinutes;
+        view.currentStreak = currentStreak;
+        view.longestStreak = longestStreak;
+        view.lastActivityDate = lastActivityDate;
+        view.activityOrigin = activityOrigin;
+        view.activityBitmap = activityBitmap;
+        view.level = level != null ? level : 1;
+        view.xpForNextLevel = xpForNextLevel != null ? xpForNextLevel : 100;
+        view.createdAt = createdAt;
+        view.updatedAt = updatedAt;
+        view.addXp((int) pendingXp);
+        return view;
+    }
+
     /**
      * Calcola XP necessari per un livello
      * Formula: 100 * livello^1.5
@@ -128,25 +189,50 @@ public class UserStats {
     }
 
     /**
-     * Aggiorna lo streak giornaliero
+     * Aggiorna lo streak giornaliero: segna oggi nella bitmap delle attività
+     * e ricava streak corrente e più lungo dalla bitmap
      */
     public void updateStreak() {
         LocalDate today = LocalDate.now();
+        ActivityBitmap activity = getActivity();
 
-        if (lastActivityDate == null) {
-            currentStreak = 1;
-        } else if (lastActivityDate.equals(today.minusDays(1))) {
-            currentStreak++;
-        } else if (!lastActivityDate.equals(today)) {
-            currentStreak = 1;
-        }
-        // Se è lo stesso giorno, non cambia nulla
-
-        if (currentStreak > longestStreak) {
-            longestStreak = currentStreak;
+        // Utenti precedenti alla bitmap: ricostruisce i giorni dello streak salvato
+        if (activity.isEmpty() && lastActivityDate != null && currentStreak != null) {
+            for (int i = 0; i < currentStreak; i++) {
+                activity.set(lastActivityDate.minusDays(i));
+            }
         }
 
+        activity.set(today);
+        currentStreak = activity.streakEndingAt(today);
+        longestStreak = Math.max(longestStreak != null ? longestStreak : 0, activity.longestStreak());
         lastActivityDate = today;
+
+        activityOrigin = activity.getOrigin();
+        activityBitmap = activity.encode();
+    }
+
+    /**
+     * Bitmap delle attività giornaliere (copia: le modifiche non vengono salvate)
+     */
+    public ActivityBitmap getActivity() {
+        return ActivityBitmap.decode(activityOrigin, activityBitmap);
+    }
+
+    /**
+     * Streak effettivo alla data indicata: quello salvato vale solo se l'ultima
+     * attività è di oggi o di ieri, altrimenti lo streak è già interrotto
+     */
+    public int getEffectiveStreak(LocalDate today) {
+        if (currentStreak == null || lastActivityDate == null) return 0;
+        return lastActivityDate.isBefore(today.minusDays(1)) ? 0 : currentStreak;
+    }
+
+    /**
+     * Streak effettivo ad oggi (da usare per tutte le letture)
+     */
+    public int getEffectiveStreak() {
+        return getEffectiveStreak(LocalDate.now());
     }
 
     /**
@@ -315,6 +401,22 @@ public class UserStats {
         this.lastActivityDate = lastActivityDate;
     }
 
+    public LocalDate getActivityOrigin() {
+        return activityOrigin;
+    }
+
+    public void setActivityOrigin(LocalDate activityOrigin) {
+        this.activityOrigin = activityOrigin;
+    }
+
+    public byte[] getActivityBitmap() {
+        return activityBitmap;
+    }
+
+    public void setActivityBitmap(byte[] activityBitmap) {
+        this.activityBitmap = activityBitmap;
+    }
+
     public Integer getLevel() {
         return level;
     }
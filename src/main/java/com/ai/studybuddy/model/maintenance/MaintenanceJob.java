@@ -0,0 +1,151 @@
+package com.ai.studybuddy.model.maintenance;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entità MaintenanceJob - lease e metriche dei job di manutenzione
+ *
+ * Una riga per job. Il nodo che imposta lockedBy/lockedUntil (UPDATE condizionale)
+ * è l'unico a eseguire il job; la lease viene rinnovata dopo ogni blocco.
+ * I campi last* registrano avanzamento e durata dell'ultima esecuzione.
+ */
+@Entity
+@Table(name = "maintenance_jobs")
+public class MaintenanceJob {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    // ==================== LEASE ====================
+
+    @Column(name = "locked_by", length = 200)
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    // ==================== ULTIMA ESECUZIONE ====================
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "last_status", length = 20)
+    private Status lastStatus;
+
+    @Column(name = "last_started_at")
+    private LocalDateTime lastStartedAt;
+
+    @Column(name = "last_finished_at")
+    private LocalDateTime lastFinishedAt;
+
+    @Column(name = "last_duration_ms")
+    private Long lastDurationMs;
+
+    @Column(name = "last_rows_processed")
+    private Long lastRowsProcessed = 0L;
+
+    @Column(name = "last_chunks")
+    private Integer lastChunks = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public MaintenanceJob() {
+    }
+
+    public MaintenanceJob(String name) {
+        this.name = name;
+    }
+
+    // ==================== ENUMS ====================
+
+    public enum Status {
+        RUNNING,    // In esecuzione (lease attiva)
+        COMPLETED,  // Terminato: nessun'altra riga da processare
+        FAILED,     // Errore durante un blocco
+        ABORTED     // Interrotto (lease persa o shutdown)
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public void setLockedBy(String lockedBy) {
+        this.lockedBy = lockedBy;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public Status getLastStatus() {
+        return lastStatus;
+    }
+
+    public void setLastStatus(Status lastStatus) {
+        this.lastStatus = lastStatus;
+    }
+
+    public LocalDateTime getLastStartedAt() {
+        return lastStartedAt;
+    }
+
+    public void setLastStartedAt(LocalDateTime lastStartedAt) {
+        this.lastStartedAt = lastStartedAt;
+    }
+
+    public LocalDateTime getLastFinishedAt() {
+        return lastFinishedAt;
+    }
+
+    public void setLastFinishedAt(LocalDateTime lastFinishedAt) {
+        this.lastFinishedAt = lastFinishedAt;
+    }
+
+    public Long getLastDurationMs() {
+        return lastDurationMs;
+    }
+
+    public void setLastDurationMs(Long lastDurationMs) {
+        this.lastDurationMs = lastDurationMs;
+    }
+
+    public Long getLastRowsProcessed() {
+        return lastRowsProcessed;
+    }
+
+    public void setLastRowsProcessed(Long lastRowsProcessed) {
+        this.lastRowsProcessed = lastRowsProcessed;
+    }
+
+    public Integer getLastChunks() {
+        return lastChunks;
+    }
+
+    public void setLastChunks(Integer lastChunks) {
+        this.lastChunks = lastChunks;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ai.studybuddy.model.quiz;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Riga del registro di un'assegnazione: stato del tentativo di uno studente
+ */
+public record AssignmentSubmission(UUID studentId, String firstName, String lastName, String email,
+                                   Boolean completed, Integer score, Double percentage,
+                                   LocalDateTime completedAt) {
+}
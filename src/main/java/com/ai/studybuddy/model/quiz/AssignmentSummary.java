@@ -0,0 +1,17 @@
+package com.ai.studybuddy.model.quiz;
+
+/**
+ * Risultati aggregati di un'assegnazione (un'unica query con aggregati SQL)
+ */
+public record AssignmentSummary(long students, Long completed, Long passed,
+                                Double averagePercentage, Double minPercentage, Double maxPercentage,
+                                Double averageTimeSeconds) {
+
+    public long getCompleted() {
+        return completed != null ? completed : 0;
+    }
+
+    public long getPassed() {
+        return passed != null ? passed : 0;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ai.studybuddy.model.quiz;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity AttemptAnswer - risposta data a una domanda in un tentativo
+ * (riga piccola: riferimento alla domanda, lettera e correttezza)
+ */
+@Entity
+@Table(name = "attempt_answers", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attempt_answer_question", columnNames = {"attempt_id", "question_id"})
+})
+public class AttemptAnswer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // ==================== RELAZIONI ====================
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "attempt_id", nullable = false)
+    @JsonIgnore
+    private QuizAttempt attempt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "question_id", nullable = false)
+    @JsonIgnore
+    private Question question;
+
+    // ==================== RISPOSTA ====================
+
+    @Column(name = "answer", nullable = false, length = 1)
+    private String answer;  // "A", "B", "C" o "D"
+
+    @Column(name = "is_correct", nullable = false)
+    private Boolean isCorrect;
+
+    // ==================== COSTRUTTORI ====================
+
+    public AttemptAnswer() {
+    }
+
+    public AttemptAnswer(QuizAttempt attempt, Question question, String answer, boolean isCorrect) {
+        this.attempt = attempt;
+        this.question = question;
+        this.answer = answer;
+        this.isCorrect = isCorrect;
+    }
+
+    // ==================== EQUALS & HASHCODE ====================
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AttemptAnswer that = (AttemptAnswer) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public QuizAttempt getAttempt() {
+        return attempt;
+    }
+
+    public void setAttempt(QuizAttempt attempt) {
+        this.attempt = attempt;
+    }
+
+    public Question getQuestion() {
+        return question;
+    }
+
+    public void setQuestion(Question question) {
+        this.question = question;
+    }
+
+    public UUID getQuestionId() {
+        return question != null ? question.getId() : null;
+    }
+
+    public String getAnswer() {
+        return answer;
+    }
+
+    public void setAnswer(String answer) {
+        this.answer = answer;
+    }
+
+    public Boolean getIsCorrect() {
+        return isCorrect;
+    }
+
+    public void setIsCorrect(Boolean isCorrect) {
+        this.isCorrect = isCorrect;
+    }
+}
@@ -0,0 +1,140 @@
+package com.ai.studybuddy.model.quiz;
+
+import com.ai.studybuddy.model.user.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity ClassEnrollment - iscrizione di uno studente alla classe di un docente
+ *
+ * Il docente invita, lo studente accetta: solo gli studenti con iscrizione
+ * accettata possono ricevere le assegnazioni del docente.
+ * Un invito rifiutato resta registrato, così non può essere ripetuto.
+ */
+@Entity
+@Table(name = "class_enrollments",
+        uniqueConstraints = @UniqueConstraint(name = "uk_enrollment_teacher_student",
+                columnNames = {"teacher_id", "student_id"}),
+        indexes = {
+                @Index(name = "idx_enrollment_student", columnList = "student_id, status")
+        })
+public class ClassEnrollment {
+
+    public enum Status {
+        PENDING,
+        ACCEPTED,
+        DECLINED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // ==================== RELAZIONI ====================
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "teacher_id", nullable = false)
+    @JsonIgnore
+    private User teacher;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    @JsonIgnore
+    private User student;
+
+    // ==================== DATI ====================
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "answered_at")
+    private LocalDateTime answeredAt;
+
+    // ==================== COSTRUTTORI ====================
+
+    public ClassEnrollment() {
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) status = Status.PENDING;
+    }
+
+    // ==================== BUSINESS METHODS ====================
+
+    /**
+     * Risposta dello studente a un invito ancora in attesa
+     */
+    public void answer(boolean accepted) {
+        this.status = accepted ? Status.ACCEPTED : Status.DECLINED;
+        this.answeredAt = LocalDateTime.now();
+    }
+
+    // ==================== EQUALS & HASHCODE ====================
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ClassEnrollment that = (ClassEnrollment) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public User getTeacher() {
+        return teacher;
+    }
+
+    public void setTeacher(User teacher) {
+        this.teacher = teacher;
+    }
+
+    public User getStudent() {
+        return student;
+    }
+
+    public void setStudent(User student) {
+        this.student = student;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getAnsweredAt() {
+        return answeredAt;
+    }
+}
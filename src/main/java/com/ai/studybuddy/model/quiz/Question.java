@@ -1,16 +1,29 @@
 package com.ai.studybuddy.model.quiz;
 
+import com.ai.studybuddy.util.TopicNormalizer;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Objects;
 import java.util.UUID;
 
 /**
  * Entity Question - rappresenta una singola domanda di un quiz
+ *
+ * Contenuto immutabile dopo l'inserimento: le risposte degli utenti stanno
+ * in QuizAttempt/AttemptAnswer. userAnswer e isCorrect sono solo la vista
+ * del tentativo mostrato (non persistiti).
  */
 @Entity
-@Table(name = "questions")
+@Immutable
+@Table(name = "questions", indexes = {
+        @Index(name = "idx_question_content_hash", columnList = "content_hash")
+})
 public class Question {
 
     @Id
@@ -47,12 +60,22 @@ public class Question {
     @Column(name = "explanation", columnDefinition = "TEXT")
     private String explanation;  // Spiegazione opzionale della risposta
 
-    // ==================== RISPOSTA UTENTE ====================
+    // ==================== BANCA DOMANDE ====================
 
-    @Column(name = "user_answer", length = 1)
-    private String userAnswer;  // Risposta data dallo studente
+    @Column(name = "content_hash", length = 64)
+    @JsonIgnore
+    private String contentHash;  // SHA-256 del testo normalizzato: stessa domanda in quiz diversi
+
+    @Column(name = "from_bank")
+    @JsonIgnore
+    private Boolean fromBank = false;  // Copiata dalla banca domande (non è una generazione originale)
+
+    // ==================== RISPOSTA (VISTA DEL TENTATIVO) ====================
 
-    @Column(name = "is_correct")
+    @Transient
+    private String userAnswer;  // Risposta data dallo studente nel tentativo mostrato
+
+    @Transient
     private Boolean isCorrect;  // Se la risposta era corretta
 
     // ==================== ORDINE ====================
@@ -60,16 +83,61 @@ public class Question {
     @Column(name = "question_order")
     private Integer questionOrder;  // Ordine della domanda nel quiz
 
+    // ==================== LIFECYCLE ====================
+
+    @PrePersist
+    protected void onCreate() {
+        if (contentHash == null && questionText != null) contentHash = hashOf(questionText);
+        if (fromBank == null) fromBank = false;
+    }
+
     // ==================== BUSINESS LOGIC ====================
 
     /**
-     * Verifica se la risposta data è corretta
+     * Copia del contenuto (testo, opzioni, risposta, spiegazione) per un nuovo quiz,
+     * senza risposta dell'utente
+     */
+    public Question copyForQuiz() {
+        Question copy = new Question();
+        copy.questionText = questionText;
+        copy.optionA = optionA;
+        copy.optionB = optionB;
+        copy.optionC = optionC;
+        copy.optionD = optionD;
+        copy.correctAnswer = correctAnswer;
+        copy.explanation = explanation;
+        copy.contentHash = contentHash != null ? contentHash : hashOf(questionText);
+        copy.fromBank = true;
+        return copy;
+    }
+
+    /**
+     * Impronta del testo della domanda (maiuscole, accenti e punteggiatura ignorati)
+     */
+    public static String hashOf(String questionText) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(TopicNormalizer.normalize(questionText, null).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+    }
+
+    /**
+     * Verifica se la risposta data è corretta (non modifica la domanda)
      */
-    public boolean checkAnswer(String answer) {
+    public boolean isCorrectAnswer(String answer) {
         if (answer == null || correctAnswer == null) return false;
-        this.userAnswer = answer.toUpperCase().trim();
-        this.isCorrect = this.userAnswer.equals(correctAnswer.toUpperCase().trim());
-        return this.isCorrect;
+        return answer.toUpperCase().trim().equals(correctAnswer.toUpperCase().trim());
+    }
+
+    /**
+     * Mostra sulla domanda la risposta di un tentativo (null = nessuna risposta)
+     */
+    public void showAnswer(AttemptAnswer answer) {
+        this.userAnswer = answer != null ? answer.getAnswer() : null;
+        this.isCorrect = answer != null ? answer.getIsCorrect() : null;
     }
 
     /**
@@ -106,14 +174,6 @@ public class Question {
         return userAnswer != null && !userAnswer.isBlank();
     }
 
-    /**
-     * Resetta la risposta dell'utente
-     */
-    public void resetAnswer() {
-        this.userAnswer = null;
-        this.isCorrect = null;
-    }
-
     // ==================== EQUALS & HASHCODE ====================
 
     @Override
@@ -226,4 +286,20 @@ public class Question {
     public void setQuestionOrder(Integer questionOrder) {
         this.questionOrder = questionOrder;
     }
-}
\ No newline at end of file
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Boolean getFromBank() {
+        return fromBank;
+    }
+
+    public void setFromBank(Boolean fromBank) {
+        this.fromBank = fromBank;
+    }
+}
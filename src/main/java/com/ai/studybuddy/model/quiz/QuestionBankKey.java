@@ -0,0 +1,17 @@
+package com.ai.studybuddy.model.quiz;
+
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.EducationLevel;
+
+/**
+ * Chiave della banca domande: domande riutilizzabili tra quiz con lo stesso
+ * argomento canonico, difficoltà, lingua e livello di istruzione
+ */
+public record QuestionBankKey(String topic, DifficultyLevel difficulty, String language,
+                              EducationLevel educationLevel) {
+
+    public static QuestionBankKey of(Quiz quiz) {
+        return new QuestionBankKey(quiz.getTopic(), quiz.getDifficultyLevel(), quiz.getLanguage(),
+                quiz.getEducationLevel());
+    }
+}
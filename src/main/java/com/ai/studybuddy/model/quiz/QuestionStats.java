@@ -0,0 +1,14 @@
+package com.ai.studybuddy.model.quiz;
+
+import java.util.UUID;
+
+/**
+ * Risposte e risposte corrette per domanda, su tutti i tentativi di un'assegnazione
+ */
+public record QuestionStats(UUID questionId, Integer questionOrder, String questionText,
+                            long answered, Long correct) {
+
+    public double getCorrectRate() {
+        return answered > 0 && correct != null ? (double) correct / answered * 100 : 0.0;
+    }
+}
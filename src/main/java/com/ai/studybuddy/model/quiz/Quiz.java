@@ -2,6 +2,7 @@ package com.ai.studybuddy.model.quiz;
 
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.EducationLevel;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
@@ -13,12 +14,17 @@ import java.util.UUID;
 
 /**
  * Entity Quiz - rappresenta un quiz con domande a scelta multipla
+ *
+ * Le domande sono contenuto immutabile; risposte e punteggi di ogni tentativo
+ * stanno in QuizAttempt. Stato e risultati qui sotto riassumono l'ultimo
+ * tentativo del proprietario (usati da statistiche e liste).
  */
 @Entity
 @Table(name = "quizzes", indexes = {
         @Index(name = "idx_quiz_user", columnList = "user_id"),
         @Index(name = "idx_quiz_completed", columnList = "is_completed"),
-        @Index(name = "idx_quiz_subject", columnList = "subject")
+        @Index(name = "idx_quiz_subject", columnList = "subject"),
+        @Index(name = "idx_quiz_bank", columnList = "topic, difficulty_level, language, education_level")
 })
 public class Quiz {
 
@@ -37,6 +43,14 @@ public class Quiz {
     @OrderBy("questionOrder ASC")
     private List<Question> questions = new ArrayList<>();
 
+    @OneToMany(mappedBy = "quiz", cascade = CascadeType.REMOVE)
+    @JsonIgnore
+    private List<QuizAttempt> attempts = new ArrayList<>();
+
+    @OneToMany(mappedBy = "quiz", cascade = CascadeType.REMOVE)
+    @JsonIgnore
+    private List<QuizAssignment> assignments = new ArrayList<>();
+
     // ==================== DATI QUIZ ====================
 
     @Column(name = "title", nullable = false, length = 200)
@@ -58,6 +72,13 @@ public class Quiz {
     @Column(name = "number_of_questions")
     private Integer numberOfQuestions;
 
+    @Column(name = "language", length = 5)
+    private String language;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "education_level", length = 20)
+    private EducationLevel educationLevel;  // Livello dell'utente alla generazione (banca domande)
+
     // ==================== STATO ====================
 
     @Column(name = "is_completed")
@@ -122,55 +143,43 @@ public class Quiz {
     }
 
     /**
-     * Rimuove una domanda dal quiz
+     * Mostra il tentativo indicato: risposte sulle domande e riepilogo sul quiz
+     * (null = nessun tentativo, quiz da iniziare)
      */
-    public void removeQuestion(Question question) {
-        questions.remove(question);
-        question.setQuiz(null);
-        numberOfQuestions = questions.size();
-        // Riordina le domande rimanenti
-        for (int i = 0; i < questions.size(); i++) {
-            questions.get(i).setQuestionOrder(i + 1);
-        }
-    }
+    public void applyAttempt(QuizAttempt attempt) {
+        questions.forEach(q -> q.showAnswer(attempt != null ? attempt.answerFor(q.getId()).orElse(null) : null));
 
-    /**
-     * Inizia il quiz
-     */
-    public void start() {
-        this.startedAt = LocalDateTime.now();
-        this.isCompleted = false;
+        this.isCompleted = attempt != null && attempt.isCompleted();
+        this.score = attempt != null ? attempt.getScore() : null;
+        this.totalPoints = attempt != null ? attempt.getTotalPoints() : null;
+        this.percentage = attempt != null ? attempt.getPercentage() : null;
+        this.timeSpentSeconds = attempt != null ? attempt.getTimeSpentSeconds() : null;
+        this.startedAt = attempt != null ? attempt.getStartedAt() : null;
+        this.completedAt = attempt != null ? attempt.getCompletedAt() : null;
     }
 
     /**
-     * Completa il quiz e calcola il punteggio
+     * Copia non gestita per uno studente a cui il quiz è assegnato: applyAttempt
+     * sulla copia non modifica il riepilogo del docente. Le domande sono condivise
+     * (immutabili, le risposte mostrate sono transient)
      */
-    public void complete() {
-        this.completedAt = LocalDateTime.now();
-        this.isCompleted = true;
-        calculateScore();
-
-        if (startedAt != null) {
-            this.timeSpentSeconds = (int) java.time.Duration.between(startedAt, completedAt).getSeconds();
-        }
-    }
-
-    /**
-     * Calcola il punteggio
-     */
-    public void calculateScore() {
-        if (questions == null || questions.isEmpty()) {
-            this.score = 0;
-            this.totalPoints = 0;
-            this.percentage = 0.0;
-            return;
-        }
-
-        this.totalPoints = questions.size();
-        this.score = (int) questions.stream()
-                .filter(q -> Boolean.TRUE.equals(q.getIsCorrect()))
-                .count();
-        this.percentage = (double) score / totalPoints * 100;
+    public Quiz viewForAssignee() {
+        Quiz view = new Quiz();
+        view.id = id;
+        view.user = user;
+        view.questions = questions;
+        view.title = title;
+        view.topic = topic;
+        view.subject = subject;
+        view.description = description;
+        view.difficultyLevel = difficultyLevel;
+        view.numberOfQuestions = numberOfQuestions;
+        view.language = language;
+        view.educationLevel = educationLevel;
+        view.isAiGenerated = isAiGenerated;
+        view.createdAt = createdAt;
+        view.updatedAt = updatedAt;
+        return view;
     }
 
     /**
@@ -196,19 +205,6 @@ public class Quiz {
                 .count();
     }
 
-    /**
-     * Resetta tutte le risposte
-     */
-    public void resetAllAnswers() {
-        questions.forEach(Question::resetAnswer);
-        this.isCompleted = false;
-        this.score = null;
-        this.percentage = null;
-        this.startedAt = null;
-        this.completedAt = null;
-        this.timeSpentSeconds = null;
-    }
-
     /**
      * Verifica se il quiz è stato superato (>=60%)
      */
@@ -267,6 +263,22 @@ public class Quiz {
         this.questions = questions;
     }
 
+    public List<QuizAttempt> getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(List<QuizAttempt> attempts) {
+        this.attempts = attempts;
+    }
+
+    public List<QuizAssignment> getAssignments() {
+        return assignments;
+    }
+
+    public void setAssignments(List<QuizAssignment> assignments) {
+        this.assignments = assignments;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -307,6 +319,22 @@ public class Quiz {
         this.difficultyLevel = difficultyLevel;
     }
 
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public EducationLevel getEducationLevel() {
+        return educationLevel;
+    }
+
+    public void setEducationLevel(EducationLevel educationLevel) {
+        this.educationLevel = educationLevel;
+    }
+
     public Integer getNumberOfQuestions() {
         return numberOfQuestions;
     }
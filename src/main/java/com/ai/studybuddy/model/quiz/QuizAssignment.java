@@ -0,0 +1,151 @@
+package com.ai.studybuddy.model.quiz;
+
+import com.ai.studybuddy.model.user.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity QuizAssignment - un quiz assegnato da un docente a una classe
+ *
+ * Il quiz viene generato una sola volta; ogni studente riceve solo un
+ * QuizAttempt collegato all'assegnazione (nessuna copia delle domande).
+ */
+@Entity
+@Table(name = "quiz_assignments", indexes = {
+        @Index(name = "idx_assignment_teacher", columnList = "teacher_id, created_at")
+})
+public class QuizAssignment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // ==================== RELAZIONI ====================
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "quiz_id", nullable = false)
+    @JsonIgnore
+    private Quiz quiz;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "teacher_id", nullable = false)
+    @JsonIgnore
+    private User teacher;
+
+    @OneToMany(mappedBy = "assignment", cascade = CascadeType.REMOVE)
+    @JsonIgnore
+    private List<QuizAttempt> attempts = new ArrayList<>();
+
+    // ==================== DATI ====================
+
+    @Column(name = "title", nullable = false, length = 200)
+    private String title;
+
+    @Column(name = "student_count")
+    private Integer studentCount = 0;
+
+    @Column(name = "due_at")
+    private LocalDateTime dueAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // ==================== COSTRUTTORI ====================
+
+    public QuizAssignment() {
+    }
+
+    public QuizAssignment(Quiz quiz, User teacher, String title, LocalDateTime dueAt) {
+        this.quiz = quiz;
+        this.teacher = teacher;
+        this.title = title;
+        this.dueAt = dueAt;
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (studentCount == null) studentCount = 0;
+    }
+
+    // ==================== EQUALS & HASHCODE ====================
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        QuizAssignment that = (QuizAssignment) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Quiz getQuiz() {
+        return quiz;
+    }
+
+    public void setQuiz(Quiz quiz) {
+        this.quiz = quiz;
+    }
+
+    public User getTeacher() {
+        return teacher;
+    }
+
+    public void setTeacher(User teacher) {
+        this.teacher = teacher;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Integer getStudentCount() {
+        return studentCount;
+    }
+
+    public void setStudentCount(Integer studentCount) {
+        this.studentCount = studentCount;
+    }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,282 @@
+package com.ai.studybuddy.model.quiz;
+
+import com.ai.studybuddy.model.user.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Entity QuizAttempt - un tentativo di un utente su un quiz
+ *
+ * Il contenuto (Question) non cambia mai: risposte e punteggio stanno qui,
+ * quindi ripetere un quiz aggiunge un tentativo e conserva lo storico.
+ */
+@Entity
+@Table(name = "quiz_attempts", indexes = {
+        @Index(name = "idx_attempt_quiz_user", columnList = "quiz_id, user_id, attempt_number"),
+        @Index(name = "idx_attempt_user_completed", columnList = "user_id, completed_at"),
+        @Index(name = "idx_attempt_assignment", columnList = "assignment_id, is_completed")
+})
+public class QuizAttempt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // ==================== RELAZIONI ====================
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "quiz_id", nullable = false)
+    @JsonIgnore
+    private Quiz quiz;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "assignment_id")
+    @JsonIgnore
+    private QuizAssignment assignment;  // Solo il tentativo assegnato dal docente (i successivi no)
+
+    @OneToMany(mappedBy = "attempt", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<AttemptAnswer> answers = new ArrayList<>();
+
+    // ==================== STATO ====================
+
+    @Column(name = "attempt_number", nullable = false)
+    private Integer attemptNumber;
+
+    @Column(name = "is_completed", nullable = false)
+    private Boolean isCompleted = false;
+
+    // ==================== RISULTATI ====================
+
+    @Column(name = "score")
+    private Integer score;
+
+    @Column(name = "total_points")
+    private Integer totalPoints;
+
+    @Column(name = "percentage")
+    private Double percentage;
+
+    @Column(name = "time_spent_seconds")
+    private Integer timeSpentSeconds;
+
+    // ==================== TIMESTAMP ====================
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // ==================== COSTRUTTORI ====================
+
+    public QuizAttempt() {
+    }
+
+    public QuizAttempt(Quiz quiz, User user, int attemptNumber) {
+        this.quiz = quiz;
+        this.user = user;
+        this.attemptNumber = attemptNumber;
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (isCompleted == null) isCompleted = false;
+    }
+
+    // ==================== BUSINESS LOGIC ====================
+
+    public void start() {
+        this.startedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Registra (o sostituisce) la risposta a una domanda
+     * @return true se la risposta è corretta
+     */
+    public boolean answer(Question question, String answer) {
+        String letter = answer.toUpperCase().trim();
+        boolean correct = question.isCorrectAnswer(letter);
+
+        Optional<AttemptAnswer> existing = answerFor(question.getId());
+        if (existing.isPresent()) {
+            existing.get().setAnswer(letter);
+            existing.get().setIsCorrect(correct);
+        } else {
+            answers.add(new AttemptAnswer(this, question, letter, correct));
+        }
+        return correct;
+    }
+
+    /**
+     * Chiude il tentativo e calcola il punteggio
+     */
+    public void complete(int totalQuestions) {
+        this.completedAt = LocalDateTime.now();
+        this.isCompleted = true;
+        this.totalPoints = totalQuestions;
+        this.score = (int) answers.stream().filter(a -> Boolean.TRUE.equals(a.getIsCorrect())).count();
+        this.percentage = totalQuestions > 0 ? (double) score / totalQuestions * 100 : 0.0;
+
+        if (startedAt != null) {
+            this.timeSpentSeconds = (int) Duration.between(startedAt, completedAt).getSeconds();
+        }
+    }
+
+    public Optional<AttemptAnswer> answerFor(UUID questionId) {
+        return answers.stream()
+                .filter(a -> a.getQuestion() != null && Objects.equals(a.getQuestion().getId(), questionId))
+                .findFirst();
+    }
+
+    public boolean isCompleted() {
+        return Boolean.TRUE.equals(isCompleted);
+    }
+
+    // ==================== EQUALS & HASHCODE ====================
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        QuizAttempt that = (QuizAttempt) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Quiz getQuiz() {
+        return quiz;
+    }
+
+    public void setQuiz(Quiz quiz) {
+        this.quiz = quiz;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public QuizAssignment getAssignment() {
+        return assignment;
+    }
+
+    public void setAssignment(QuizAssignment assignment) {
+        this.assignment = assignment;
+    }
+
+    public List<AttemptAnswer> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(List<AttemptAnswer> answers) {
+        this.answers = answers;
+    }
+
+    public Integer getAttemptNumber() {
+        return attemptNumber;
+    }
+
+    public void setAttemptNumber(Integer attemptNumber) {
+        this.attemptNumber = attemptNumber;
+    }
+
+    public Boolean getIsCompleted() {
+        return isCompleted;
+    }
+
+    public void setIsCompleted(Boolean isCompleted) {
+        this.isCompleted = isCompleted;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+
+    public void setScore(Integer score) {
+        this.score = score;
+    }
+
+    public Integer getTotalPoints() {
+        return totalPoints;
+    }
+
+    public void setTotalPoints(Integer totalPoints) {
+        this.totalPoints = totalPoints;
+    }
+
+    public Double getPercentage() {
+        return percentage;
+    }
+
+    public void setPercentage(Double percentage) {
+        this.percentage = percentage;
+    }
+
+    public Integer getTimeSpentSeconds() {
+        return timeSpentSeconds;
+    }
+
+    public void setTimeSpentSeconds(Integer timeSpentSeconds) {
+        this.timeSpentSeconds = timeSpentSeconds;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -9,7 +9,10 @@ import java.util.UUID;
  * Entità Recommendation - raccomandazioni personalizzate per lo studio
  */
 @Entity
-@Table(name = "recommendations")
+@Table(name = "recommendations", indexes = {
+        @Index(name = "idx_recommendation_user_active", columnList = "user_id, is_dismissed, is_completed, expires_at"),
+        @Index(name = "idx_recommendation_user_topic", columnList = "user_id, topic")
+})
 public class Recommendation {
 
     @Id
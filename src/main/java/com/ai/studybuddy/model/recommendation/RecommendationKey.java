@@ -0,0 +1,16 @@
+package com.ai.studybuddy.model.recommendation;
+
+import com.ai.studybuddy.model.recommendation.Recommendation.RecommendationType;
+
+/**
+ * Chiave logica di una raccomandazione (tipo + argomento)
+ *
+ * Per ogni utente esiste al massimo una raccomandazione per chiave,
+ * in qualsiasi stato (anche dismissed/completed).
+ */
+public record RecommendationKey(RecommendationType type, String topic) {
+
+    public static RecommendationKey of(Recommendation recommendation) {
+        return new RecommendationKey(recommendation.getType(), recommendation.getTopic());
+    }
+}
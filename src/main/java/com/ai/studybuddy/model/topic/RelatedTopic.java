@@ -0,0 +1,7 @@
+package com.ai.studybuddy.model.topic;
+
+/**
+ * Argomento correlato con il suo punteggio di similarità (più alto = più correlato)
+ */
+public record RelatedTopic(String topic, double score) {
+}
@@ -0,0 +1,103 @@
+package com.ai.studybuddy.model.topic;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entità Topic - dizionario canonico degli argomenti
+ *
+ * Ogni argomento inserito dagli utenti viene ricondotto a una riga di questa
+ * tabella (vedi TopicService): quiz, progressi, raccomandazioni e prompt AI
+ * usano il nome canonico, non il testo libero.
+ */
+@Entity
+@Table(name = "topics", indexes = {
+        @Index(name = "idx_topic_normalized_name", columnList = "normalized_name", unique = true)
+})
+public class Topic {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "name", nullable = false, length = 200)
+    private String name;  // Forma mostrata all'utente
+
+    @Column(name = "normalized_name", nullable = false, length = 200)
+    private String normalizedName;  // Chiave di confronto (TopicNormalizer)
+
+    @Column(name = "language", length = 5)
+    private String language;  // Lingua in cui è stato inserito la prima volta
+
+    @Column(name = "usage_count")
+    private Long usageCount = 0L;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public Topic() {
+    }
+
+    public Topic(String name, String normalizedName, String language) {
+        this.name = name;
+        this.normalizedName = normalizedName;
+        this.language = language;
+    }
+
+    // ==================== GETTERS & SETTERS ====================
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public void setNormalizedName(String normalizedName) {
+        this.normalizedName = normalizedName;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public Long getUsageCount() {
+        return usageCount;
+    }
+
+    public void setUsageCount(Long usageCount) {
+        this.usageCount = usageCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
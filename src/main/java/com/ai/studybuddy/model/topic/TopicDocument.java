@@ -0,0 +1,8 @@
+package com.ai.studybuddy.model.topic;
+
+/**
+ * Testo associato a un argomento (domanda di un quiz, fronte/retro di una flashcard),
+ * usato per i vettori TF-IDF dell'indice degli argomenti correlati
+ */
+public record TopicDocument(String topic, String text) {
+}
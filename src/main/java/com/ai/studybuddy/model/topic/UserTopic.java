@@ -0,0 +1,9 @@
+package com.ai.studybuddy.model.topic;
+
+import java.util.UUID;
+
+/**
+ * Coppia (utente, argomento) letta da UserProgress per le co-occorrenze
+ */
+public record UserTopic(UUID userId, String topic) {
+}
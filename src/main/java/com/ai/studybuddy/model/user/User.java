@@ -61,6 +61,27 @@ public class User {
         return firstName + " " + lastName;
     }
 
+    /**
+     * Copia non gestita da JPA (usata dalla cache degli utenti autenticati)
+     */
+    public User copy() {
+        User copy = new User();
+        copy.id = id;
+        copy.firstName = firstName;
+        copy.lastName = lastName;
+        copy.email = email;
+        copy.passwordHash = passwordHash;
+        copy.educationLevel = educationLevel;
+        copy.avatarUrl = avatarUrl;
+        copy.preferredLanguage = preferredLanguage;
+        copy.totalPoints = totalPoints;
+        copy.level = level;
+        copy.streakDays = streakDays;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
     public UUID getId() {
         return id;
     }
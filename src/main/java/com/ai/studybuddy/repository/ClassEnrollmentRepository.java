@@ -0,0 +1,45 @@
+package com.ai.studybuddy.repository;
+
+import com.ai.studybuddy.model.quiz.ClassEnrollment;
+import com.ai.studybuddy.model.user.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ClassEnrollmentRepository extends JpaRepository<ClassEnrollment, UUID> {
+
+    Optional<ClassEnrollment> findByIdAndStudentIdAndStatus(UUID id, UUID studentId, ClassEnrollment.Status status);
+
+    // Inviti in attesa dello studente, con il docente (usa idx_enrollment_student)
+    @Query("SELECT e FROM ClassEnrollment e JOIN FETCH e.teacher WHERE e.student.id = :studentId " +
+            "AND e.status = com.ai.studybuddy.model.quiz.ClassEnrollment.Status.PENDING ORDER BY e.createdAt DESC")
+    List<ClassEnrollment> findPendingByStudentId(@Param("studentId") UUID studentId);
+
+    // Studenti della classe che hanno accettato, tra le email indicate
+    @Query("SELECT e.student FROM ClassEnrollment e WHERE e.teacher.id = :teacherId " +
+            "AND e.status = com.ai.studybuddy.model.quiz.ClassEnrollment.Status.ACCEPTED " +
+            "AND e.student.email IN :emails")
+    List<User> findAcceptedStudents(@Param("teacherId") UUID teacherId,
+                                    @Param("emails") Collection<String> emails);
+
+    // Inviti in blocco: un solo INSERT ... SELECT, nessun invito ripetuto (anche se rifiutato)
+    @Modifying
+    @Query(value = "INSERT INTO class_enrollments (id, teacher_id, student_id, status, created_at) " +
+                   "SELECT gen_random_uuid(), :teacherId, u.id, 'PENDING', :now " +
+                   "FROM users u WHERE u.email IN (:emails) AND u.id <> :teacherId " +
+                   "AND NOT EXISTS (SELECT 1 FROM class_enrollments x " +
+                   "WHERE x.teacher_id = :teacherId AND x.student_id = u.id)",
+           nativeQuery = true)
+    int invite(@Param("teacherId") UUID teacherId,
+               @Param("emails") Collection<String> emails,
+               @Param("now") LocalDateTime now);
+}
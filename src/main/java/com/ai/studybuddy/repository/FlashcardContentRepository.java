@@ -0,0 +1,47 @@
+package com.ai.studybuddy.repository;
+
+import com.ai.studybuddy.model.flashcard.FlashcardContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface FlashcardContentRepository extends JpaRepository<FlashcardContent, UUID> {
+
+    List<FlashcardContent> findByContentHashIn(Collection<String> contentHashes);
+
+    /**
+     * Inserisce il contenuto se l'hash non esiste ancora (sicuro anche con inserimenti concorrenti)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO flashcard_contents (id, content_hash, front_content, back_content, hint, created_at) " +
+                   "VALUES (gen_random_uuid(), :hash, :front, :back, :hint, :now) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(
+        @Param("hash") String hash,
+        @Param("front") String front,
+        @Param("back") String back,
+        @Param("hint") String hint,
+        @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Id dei contenuti non più usati da nessuna flashcard (manutenzione)
+     */
+    @Query("SELECT c.id FROM FlashcardContent c WHERE c.createdAt < :before " +
+           "AND NOT EXISTS (SELECT 1 FROM Flashcard f WHERE f.content = c) ORDER BY c.id LIMIT :limit")
+    List<UUID> findOrphanIds(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM FlashcardContent c WHERE c.id IN :ids " +
+           "AND NOT EXISTS (SELECT 1 FROM Flashcard f WHERE f.content = c)")
+    int deleteOrphans(@Param("ids") Collection<UUID> ids);
+}
@@ -1,7 +1,9 @@
 package com.ai.studybuddy.repository;
 
 import com.ai.studybuddy.model.flashcard.FlashcardDeck;
+import com.ai.studybuddy.model.flashcard.PublicDeck;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,6 +33,15 @@ public interface FlashcardDeckRepository extends JpaRepository<FlashcardDeck, UU
      */
     List<FlashcardDeck> findByIsPublicTrueAndIsActiveTrueOrderByTimesStudiedDesc();
 
+    /**
+     * Deck pubblici per lo snapshot del catalogo, senza caricare entità
+     */
+    @Query("SELECT new com.ai.studybuddy.model.flashcard.PublicDeck(d.id, d.name, d.description, d.subject, " +
+           "d.color, d.icon, d.totalCards, d.timesStudied, d.lastStudiedAt, d.createdAt, o.firstName) " +
+           "FROM FlashcardDeck d JOIN d.owner o WHERE d.isPublic = true AND d.isActive = true " +
+           "ORDER BY d.timesStudied DESC LIMIT :limit")
+    List<PublicDeck> findPublicCatalog(@Param("limit") int limit);
+
     /**
      * Cerca deck per nome
      */
@@ -83,6 +94,25 @@ public interface FlashcardDeckRepository extends JpaRepository<FlashcardDeck, UU
            "WHERE d.owner.id = :ownerId AND d.isActive = true")
     long countTotalCardsByOwner(@Param("ownerId") UUID ownerId);
 
+    /**
+     * Flush write-behind: aggiunge le sessioni di studio accumulate in memoria
+     */
+    @Modifying
+    @Query("UPDATE FlashcardDeck d SET d.timesStudied = COALESCE(d.timesStudied, 0) + :delta, " +
+           "d.lastStudiedAt = :now WHERE d.id = :deckId")
+    int addTimesStudied(
+        @Param("deckId") UUID deckId,
+        @Param("delta") int delta,
+        @Param("now") java.time.LocalDateTime now
+    );
+
+    /**
+     * Aggiunge carte al conteggio senza rileggere il deck (generazione a parti da appunti)
+     */
+    @Modifying
+    @Query("UPDATE FlashcardDeck d SET d.totalCards = COALESCE(d.totalCards, 0) + :delta WHERE d.id = :deckId")
+    int addTotalCards(@Param("deckId") UUID deckId, @Param("delta") int delta);
+
     /**
      * Trova deck per ID e verifica proprietà
      */
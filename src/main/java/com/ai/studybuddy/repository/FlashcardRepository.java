@@ -1,8 +1,10 @@
 package com.ai.studybuddy.repository;
 
 import com.ai.studybuddy.model.flashcard.Flashcard;
+import com.ai.studybuddy.model.topic.TopicDocument;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,9 +17,10 @@ import java.util.UUID;
 public interface FlashcardRepository extends JpaRepository<Flashcard, UUID> {
 
     /**
-     * Trova tutte le flashcard di un deck specifico
+     * Trova tutte le flashcard di un deck specifico (con il contenuto)
      */
-    List<Flashcard> findByDeckIdAndIsActiveTrue(UUID deckId);
+    @Query("SELECT f FROM Flashcard f LEFT JOIN FETCH f.content WHERE f.deck.id = :deckId AND f.isActive = true")
+    List<Flashcard> findByDeckIdAndIsActiveTrue(@Param("deckId") UUID deckId);
 
     /**
      * Trova flashcard per livello di difficoltà
@@ -33,39 +36,50 @@ public interface FlashcardRepository extends JpaRepository<Flashcard, UUID> {
     List<Flashcard> findByDeckIdAndAiGeneratedTrueAndIsActiveTrue(UUID deckId);
 
     /**
-     * Trova flashcard mai revisionate
+     * Trova flashcard mai revisionate dall'utente
      */
-    @Query("SELECT f FROM Flashcard f WHERE f.deck.id = :deckId " +
-           "AND f.timesReviewed = 0 AND f.isActive = true")
-    List<Flashcard> findNeverReviewedByDeckId(@Param("deckId") UUID deckId);
+    @Query("SELECT f FROM Flashcard f LEFT JOIN FETCH f.content WHERE f.deck.id = :deckId " +
+           "AND f.isActive = true AND NOT EXISTS (SELECT 1 FROM FlashcardReviewState s " +
+           "WHERE s.flashcard = f AND s.user.id = :userId AND s.timesReviewed > 0)")
+    List<Flashcard> findNeverReviewedByDeckId(
+        @Param("deckId") UUID deckId,
+        @Param("userId") UUID userId
+    );
 
     /**
-     * Trova flashcard che necessitano revisione (non revisionate da X giorni)
+     * Trova flashcard che l'utente non revisiona da X giorni
      */
-    @Query("SELECT f FROM Flashcard f WHERE f.deck.id = :deckId " +
-           "AND (f.lastReviewedAt IS NULL OR f.lastReviewedAt < :cutoffDate) " +
+    @Query("SELECT f FROM Flashcard f LEFT JOIN FETCH f.content " +
+           "LEFT JOIN FlashcardReviewState s ON s.flashcard = f AND s.user.id = :userId " +
+           "WHERE f.deck.id = :deckId " +
+           "AND (s.lastReviewedAt IS NULL OR s.lastReviewedAt < :cutoffDate) " +
            "AND f.isActive = true " +
-           "ORDER BY f.lastReviewedAt ASC NULLS FIRST")
+           "ORDER BY s.lastReviewedAt ASC NULLS FIRST")
     List<Flashcard> findNeedingReview(
-        @Param("deckId") UUID deckId, 
+        @Param("deckId") UUID deckId,
+        @Param("userId") UUID userId,
         @Param("cutoffDate") LocalDateTime cutoffDate
     );
 
     /**
-     * Trova le flashcard più difficili (bassa percentuale successo)
+     * Trova le flashcard più difficili per l'utente (bassa percentuale successo)
      */
-    @Query("SELECT f FROM Flashcard f WHERE f.deck.id = :deckId " +
-           "AND f.timesReviewed >= 3 " +
+    @Query("SELECT f FROM Flashcard f JOIN FlashcardReviewState s ON s.flashcard = f AND s.user.id = :userId " +
+           "WHERE f.deck.id = :deckId " +
+           "AND s.timesReviewed >= 3 " +
            "AND f.isActive = true " +
-           "ORDER BY (CAST(f.timesCorrect AS float) / f.timesReviewed) ASC")
-    List<Flashcard> findMostDifficult(@Param("deckId") UUID deckId);
+           "ORDER BY (CAST(s.timesCorrect AS float) / s.timesReviewed) ASC")
+    List<Flashcard> findMostDifficult(
+        @Param("deckId") UUID deckId,
+        @Param("userId") UUID userId
+    );
 
     /**
-     * Cerca flashcard per contenuto (full-text search)
+     * Cerca flashcard per contenuto (full-text search), anche nel testo legacy non ancora migrato
      */
-    @Query("SELECT f FROM Flashcard f WHERE f.deck.id = :deckId " +
-           "AND (LOWER(f.frontContent) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(f.backContent) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
+    @Query("SELECT f FROM Flashcard f LEFT JOIN FETCH f.content c WHERE f.deck.id = :deckId " +
+           "AND (LOWER(COALESCE(c.frontContent, f.legacyFrontContent)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+           "OR LOWER(COALESCE(c.backContent, f.legacyBackContent)) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
            "AND f.isActive = true")
     List<Flashcard> searchByContent(
         @Param("deckId") UUID deckId, 
@@ -89,13 +103,70 @@ public interface FlashcardRepository extends JpaRepository<Flashcard, UUID> {
     long countByDeckIdAndIsActiveTrue(UUID deckId);
 
     /**
-     * Conta le flashcard masterizzate (>80% successo)
+     * Conta le flashcard masterizzate dall'utente (>80% successo)
      */
-    @Query("SELECT COUNT(f) FROM Flashcard f WHERE f.deck.id = :deckId " +
-           "AND f.timesReviewed > 0 " +
-           "AND (CAST(f.timesCorrect AS float) / f.timesReviewed) >= 0.8 " +
+    @Query("SELECT COUNT(f) FROM Flashcard f JOIN FlashcardReviewState s ON s.flashcard = f AND s.user.id = :userId " +
+           "WHERE f.deck.id = :deckId " +
+           "AND s.timesReviewed > 0 " +
+           "AND (CAST(s.timesCorrect AS float) / s.timesReviewed) >= 0.8 " +
            "AND f.isActive = true")
-    long countMasteredByDeckId(@Param("deckId") UUID deckId);
+    long countMasteredByDeckId(
+        @Param("deckId") UUID deckId,
+        @Param("userId") UUID userId
+    );
+
+    // ==================== COPIA DECK ====================
+
+    /**
+     * Copia le flashcard attive in un altro deck con un solo INSERT ... SELECT:
+     * il contenuto condiviso viene riusato, l'andamento di studio no (è per utente).
+     * Le flashcard non ancora migrate portano con sé il testo legacy (le migra il backfill).
+     * Nativa: l'INSERT ... SELECT di HQL non supporta gli id UUID generati dall'applicazione
+     * @return numero di flashcard copiate
+     */
+    @Modifying
+    @Query(value = "INSERT INTO flashcards (id, deck_id, created_by_user_id, content_id, " +
+                   "front_content, back_content, hint, tags, difficulty_level, " +
+                   "ai_generated, source, is_active, created_at, updated_at) " +
+                   "SELECT gen_random_uuid(), :targetDeckId, :userId, f.content_id, " +
+                   "CASE WHEN f.content_id IS NULL THEN f.front_content END, " +
+                   "CASE WHEN f.content_id IS NULL THEN f.back_content END, " +
+                   "CASE WHEN f.content_id IS NULL THEN f.hint END, " +
+                   "f.tags, f.difficulty_level, f.ai_generated, f.source, true, :now, :now " +
+                   "FROM flashcards f WHERE f.deck_id = :sourceDeckId AND f.is_active = true " +
+                   "AND (f.content_id IS NOT NULL OR f.front_content IS NOT NULL)",
+           nativeQuery = true)
+    int copyToDeck(
+        @Param("sourceDeckId") UUID sourceDeckId,
+        @Param("targetDeckId") UUID targetDeckId,
+        @Param("userId") UUID userId,
+        @Param("now") LocalDateTime now
+    );
+
+    // ==================== BACKFILL CONTENUTI ====================
+
+    /**
+     * Flashcard ancora da migrare (testo solo nelle vecchie colonne)
+     */
+    boolean existsByContentIsNullAndLegacyFrontContentIsNotNull();
+
+    /**
+     * Flashcard create prima dei contenuti condivisi: testo e statistiche dalle vecchie colonne
+     * [id, created_by_user_id, front_content, back_content, hint, times_reviewed, times_correct, last_reviewed_at]
+     */
+    @Query(value = "SELECT f.id, f.created_by_user_id, f.front_content, f.back_content, f.hint, " +
+                   "f.times_reviewed, f.times_correct, f.last_reviewed_at " +
+                   "FROM flashcards f WHERE f.content_id IS NULL AND f.front_content IS NOT NULL LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findLegacyRows(@Param("limit") int limit);
+
+    /**
+     * Collega la flashcard al contenuto condiviso (da qui in poi il testo legacy viene ignorato)
+     */
+    @Modifying
+    @Query(value = "UPDATE flashcards SET content_id = :contentId WHERE id = :flashcardId",
+           nativeQuery = true)
+    int attachContent(@Param("flashcardId") UUID flashcardId, @Param("contentId") UUID contentId);
 
     /**
      * Trova flashcard random per sessione di studio
@@ -107,4 +178,14 @@ public interface FlashcardRepository extends JpaRepository<Flashcard, UUID> {
         @Param("deckId") UUID deckId, 
         @Param("limit") int limit
     );
+
+    /**
+     * Testi delle flashcard generate con AI, dalle più recenti (indice argomenti correlati).
+     * Il campo topic contiene i tag della card: l'argomento è il tag che segue "ai-generated"
+     */
+    @Query("SELECT new com.ai.studybuddy.model.topic.TopicDocument(f.tags, " +
+           "CONCAT(COALESCE(c.frontContent, f.legacyFrontContent), ' ', COALESCE(c.backContent, f.legacyBackContent))) " +
+           "FROM Flashcard f LEFT JOIN f.content c WHERE f.aiGenerated = true AND f.isActive = true AND f.tags IS NOT NULL " +
+           "ORDER BY f.createdAt DESC LIMIT :limit")
+    List<TopicDocument> findAiGeneratedDocuments(@Param("limit") int limit);
 }
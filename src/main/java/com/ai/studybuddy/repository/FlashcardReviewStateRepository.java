@@ -0,0 +1,79 @@
+package com.ai.studybuddy.repository;
+
+import com.ai.studybuddy.model.flashcard.FlashcardReviewState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface FlashcardReviewStateRepository extends JpaRepository<FlashcardReviewState, UUID> {
+
+    /**
+     * Andamento dell'utente sulle flashcard indicate
+     */
+    @Query("SELECT s FROM FlashcardReviewState s WHERE s.user.id = :userId AND s.flashcard.id IN :flashcardIds")
+    List<FlashcardReviewState> findByUserIdAndFlashcardIds(
+        @Param("userId") UUID userId,
+        @Param("flashcardIds") Collection<UUID> flashcardIds
+    );
+
+    @Query("SELECT s.id FROM FlashcardReviewState s WHERE s.user.id = :userId AND s.flashcard.id = :flashcardId")
+    Optional<UUID> findIdByUserIdAndFlashcardId(
+        @Param("userId") UUID userId,
+        @Param("flashcardId") UUID flashcardId
+    );
+
+    /**
+     * Crea lo stato alla prima revisione (sicuro anche con revisioni concorrenti)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO flashcard_review_states (id, user_id, flashcard_id, times_reviewed, times_correct, created_at) " +
+                   "VALUES (gen_random_uuid(), :userId, :flashcardId, 0, 0, :now) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(
+        @Param("userId") UUID userId,
+        @Param("flashcardId") UUID flashcardId,
+        @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Backfill: statistiche delle flashcard create prima degli stati per utente
+     */
+    @Modifying
+    @Query(value = "INSERT INTO flashcard_review_states (id, user_id, flashcard_id, times_reviewed, times_correct, " +
+                   "last_reviewed_at, created_at) " +
+                   "VALUES (gen_random_uuid(), :userId, :flashcardId, :reviewed, :correct, :lastReviewedAt, :now) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertLegacy(
+        @Param("userId") UUID userId,
+        @Param("flashcardId") UUID flashcardId,
+        @Param("reviewed") int reviewed,
+        @Param("correct") int correct,
+        @Param("lastReviewedAt") LocalDateTime lastReviewedAt,
+        @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Flush write-behind: aggiunge le revisioni accumulate in memoria
+     */
+    @Modifying
+    @Query("UPDATE FlashcardReviewState s SET s.timesReviewed = s.timesReviewed + :reviewed, " +
+           "s.timesCorrect = s.timesCorrect + :correct, " +
+           "s.lastReviewedAt = :now WHERE s.id = :stateId")
+    int addReviews(
+        @Param("stateId") UUID stateId,
+        @Param("reviewed") int reviewed,
+        @Param("correct") int correct,
+        @Param("now") LocalDateTime now
+    );
+}
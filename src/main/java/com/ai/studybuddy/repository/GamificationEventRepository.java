@@ -0,0 +1,54 @@
+package com.ai.studybuddy.repository;
+
+import com.ai.studybuddy.model.gamification.GamificationEvent;
+import com.ai.studybuddy.model.gamification.GamificationEvent.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GamificationEventRepository extends JpaRepository<GamificationEvent, UUID> {
+
+    @Query("SELECT e.id FROM GamificationEvent e WHERE e.status = :status ORDER BY e.createdAt ASC LIMIT :limit")
+    List<UUID> findIdsByStatus(Status status, int limit);
+
+    /**
+     * XP degli eventi dell'utente non ancora processati
+     */
+    @Query("SELECT COALESCE(SUM(e.xpAwarded), 0) FROM GamificationEvent e " +
+            "WHERE e.user.id = :userId AND e.status IN :statuses")
+    long sumXpByUserIdAndStatusIn(UUID userId, Collection<Status> statuses);
+
+    /**
+     * Presa in carico atomica: solo un worker ottiene 1
+     */
+    @Modifying
+    @Query("UPDATE GamificationEvent e SET e.status = :to, e.claimedAt = :now, e.attempts = e.attempts + 1 " +
+            "WHERE e.id = :id AND e.status = :from")
+    int claim(UUID id, Status from, Status to, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE GamificationEvent e SET e.status = :status, e.lastError = :error WHERE e.id = :id")
+    int release(UUID id, Status status, String error);
+
+    /**
+     * Rimette in coda gli eventi rimasti in PROCESSING (es. worker interrotto)
+     */
+    @Modifying
+    @Query("UPDATE GamificationEvent e SET e.status = :to WHERE e.status = :from AND e.claimedAt < :cutoff")
+    int releaseStuck(Status from, Status to, LocalDateTime cutoff);
+
+    // Pulizia a blocchi (MaintenanceService) degli eventi FAILED più vecchi di :cutoff
+    @Query("SELECT e.id FROM GamificationEvent e WHERE e.status = :status AND e.createdAt < :cutoff LIMIT :limit")
+    List<UUID> findIdsByStatusCreatedBefore(Status status, LocalDateTime cutoff, int limit);
+
+    @Modifying
+    @Query("DELETE FROM GamificationEvent e WHERE e.id IN :ids")
+    int deleteByIds(Collection<UUID> ids);
+}
@@ -0,0 +1,48 @@
+package com.ai.studybuddy.repository;
+
+import com.ai.studybuddy.model.maintenance.MaintenanceJob;
+import com.ai.studybuddy.model.maintenance.MaintenanceJob.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MaintenanceJobRepository extends JpaRepository<MaintenanceJob, String> {
+
+    List<MaintenanceJob> findAllByOrderByNameAsc();
+
+    /**
+     * Acquisizione atomica della lease: solo un nodo ottiene 1.
+     * Fallisce anche se il job è già stato completato dopo :notBefore
+     * (evita che un secondo nodo ripeta la stessa esecuzione pianificata).
+     */
+    @Modifying
+    @Query("UPDATE MaintenanceJob j SET j.lockedBy = :owner, j.lockedUntil = :until, " +
+            "j.lastStatus = 'RUNNING', j.lastStartedAt = :now, j.lastFinishedAt = NULL, " +
+            "j.lastDurationMs = NULL, j.lastRowsProcessed = 0, j.lastChunks = 0, j.lastError = NULL " +
+            "WHERE j.name = :name " +
+            "AND (j.lockedUntil IS NULL OR j.lockedUntil < :now) " +
+            "AND (j.lastStatus IS NULL OR j.lastStatus <> 'COMPLETED' " +
+            "OR j.lastFinishedAt IS NULL OR j.lastFinishedAt < :notBefore)")
+    int tryAcquire(String name, String owner, LocalDateTime now, LocalDateTime until, LocalDateTime notBefore);
+
+    /**
+     * Rinnova la lease e registra l'avanzamento; 0 se la lease è stata persa
+     */
+    @Modifying
+    @Query("UPDATE MaintenanceJob j SET j.lockedUntil = :until, j.lastRowsProcessed = :rows, j.lastChunks = :chunks " +
+            "WHERE j.name = :name AND j.lockedBy = :owner")
+    int renew(String name, String owner, LocalDateTime until, long rows, int chunks);
+
+    @Modifying
+    @Query("UPDATE MaintenanceJob j SET j.lockedBy = NULL, j.lockedUntil = NULL, j.lastStatus = :status, " +
+            "j.lastFinishedAt = :now, j.lastDurationMs = :durationMs, j.lastRowsProcessed = :rows, " +
+            "j.lastChunks = :chunks, j.lastError = :error " +
+            "WHERE j.name = :name AND j.lockedBy = :owner")
+    int release(String name, String owner, Status status, LocalDateTime now, long durationMs,
+                long rows, int chunks, String error);
+}
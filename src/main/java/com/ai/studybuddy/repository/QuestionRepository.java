@@ -1,6 +1,9 @@
 package com.ai.studybuddy.repository;
 
 import com.ai.studybuddy.model.quiz.Question;
+import com.ai.studybuddy.model.topic.TopicDocument;
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.EducationLevel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,14 +21,30 @@ public interface QuestionRepository extends JpaRepository<Question, UUID> {
     // Conta domande per quiz
     long countByQuizId(UUID quizId);
 
-    // Conta domande corrette per quiz
-    @Query("SELECT COUNT(q) FROM Question q WHERE q.quiz.id = :quizId AND q.isCorrect = true")
-    long countCorrectByQuizId(@Param("quizId") UUID quizId);
-
-    // Conta domande risposte per quiz
-    @Query("SELECT COUNT(q) FROM Question q WHERE q.quiz.id = :quizId AND q.userAnswer IS NOT NULL")
-    long countAnsweredByQuizId(@Param("quizId") UUID quizId);
-
     // Elimina tutte le domande di un quiz
     void deleteByQuizId(UUID quizId);
-}
\ No newline at end of file
+
+    // Testi delle domande per argomento, dai quiz più recenti (indice argomenti correlati)
+    @Query("SELECT new com.ai.studybuddy.model.topic.TopicDocument(q.quiz.topic, q.questionText) " +
+            "FROM Question q WHERE q.quiz.topic IS NOT NULL ORDER BY q.quiz.createdAt DESC LIMIT :limit")
+    List<TopicDocument> findTopicDocuments(@Param("limit") int limit);
+
+    /**
+     * Banca domande: generazioni originali con la stessa chiave, escluse le domande
+     * (per impronta del testo) già presenti nei quiz dell'utente.
+     * Usa idx_quiz_bank e idx_question_content_hash.
+     */
+    @Query("SELECT q FROM Question q JOIN q.quiz z " +
+            "WHERE z.topic = :topic AND z.difficultyLevel = :difficulty AND z.language = :language " +
+            "AND (z.educationLevel = :educationLevel OR (:educationLevel IS NULL AND z.educationLevel IS NULL)) " +
+            "AND q.fromBank = false AND q.contentHash IS NOT NULL " +
+            "AND q.contentHash NOT IN (SELECT s.contentHash FROM Question s " +
+            "   WHERE s.quiz.user.id = :userId AND s.contentHash IS NOT NULL) " +
+            "ORDER BY z.createdAt DESC LIMIT :limit")
+    List<Question> findBankCandidates(@Param("topic") String topic,
+                                      @Param("difficulty") DifficultyLevel difficulty,
+                                      @Param("language") String language,
+                                      @Param("educationLevel") EducationLevel educationLevel,
+                                      @Param("userId") UUID userId,
+                                      @Param("limit") int limit);
+}
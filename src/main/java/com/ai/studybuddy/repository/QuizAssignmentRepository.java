@@ -0,0 +1,22 @@
+package com.ai.studybuddy.repository;
+
+import com.ai.studybuddy.model.quiz.QuizAssignment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface QuizAssignmentRepository extends JpaRepository<QuizAssignment, UUID> {
+
+    Optional<QuizAssignment> findByIdAndTeacherId(UUID id, UUID teacherId);
+
+    // Assegnazioni create dal docente, con il quiz (usa idx_assignment_teacher)
+    @Query("SELECT s FROM QuizAssignment s JOIN FETCH s.quiz WHERE s.teacher.id = :teacherId " +
+            "ORDER BY s.createdAt DESC")
+    List<QuizAssignment> findByTeacherIdWithQuiz(@Param("teacherId") UUID teacherId);
+}
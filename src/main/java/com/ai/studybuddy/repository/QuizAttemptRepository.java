@@ -0,0 +1,77 @@
+package com.ai.studybuddy.repository;
+
+import com.ai.studybuddy.model.quiz.AssignmentSubmission;
+import com.ai.studybuddy.model.quiz.AssignmentSummary;
+import com.ai.studybuddy.model.quiz.QuestionStats;
+import com.ai.studybuddy.model.quiz.QuizAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, UUID> {
+
+    // Ultimo tentativo dell'utente sul quiz (usa idx_attempt_quiz_user)
+    Optional<QuizAttempt> findFirstByQuizIdAndUserIdOrderByAttemptNumberDesc(UUID quizId, UUID userId);
+
+    // Storico dei tentativi, dal più recente
+    List<QuizAttempt> findByQuizIdAndUserIdOrderByAttemptNumberDesc(UUID quizId, UUID userId);
+
+    // L'utente ha accesso al quiz tramite un'assegnazione
+    boolean existsByQuizIdAndUserId(UUID quizId, UUID userId);
+
+    // ==================== ASSEGNAZIONI ====================
+
+    // Tentativi assegnati allo studente, con assegnazione e quiz
+    @Query("SELECT a FROM QuizAttempt a JOIN FETCH a.assignment s JOIN FETCH s.quiz " +
+            "WHERE a.user.id = :userId ORDER BY a.createdAt DESC")
+    List<QuizAttempt> findAssignedAttempts(@Param("userId") UUID userId);
+
+    /**
+     * Un tentativo per ogni studente in un solo INSERT ... SELECT
+     * (gli studenti che hanno già un tentativo sul quiz vengono saltati).
+     * Nativa: l'INSERT ... SELECT di HQL non supporta gli id UUID generati dall'applicazione
+     * @return numero di tentativi creati
+     */
+    @Modifying
+    @Query(value = "INSERT INTO quiz_attempts (id, quiz_id, user_id, assignment_id, attempt_number, is_completed, created_at) " +
+                   "SELECT gen_random_uuid(), s.quiz_id, u.id, s.id, 1, false, :now " +
+                   "FROM quiz_assignments s JOIN users u ON u.id IN (:userIds) " +
+                   "WHERE s.id = :assignmentId " +
+                   "AND NOT EXISTS (SELECT 1 FROM quiz_attempts x WHERE x.quiz_id = s.quiz_id AND x.user_id = u.id)",
+           nativeQuery = true)
+    int provision(@Param("assignmentId") UUID assignmentId,
+                  @Param("userIds") Collection<UUID> userIds,
+                  @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.ai.studybuddy.model.quiz.AssignmentSummary(" +
+            "COUNT(a), " +
+            "SUM(CASE WHEN a.isCompleted = true THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.isCompleted = true AND a.percentage >= 60.0 THEN 1 ELSE 0 END), " +
+            "AVG(a.percentage), MIN(a.percentage), MAX(a.percentage), AVG(a.timeSpentSeconds)) " +
+            "FROM QuizAttempt a WHERE a.assignment.id = :assignmentId")
+    AssignmentSummary summarizeAssignment(@Param("assignmentId") UUID assignmentId);
+
+    @Query("SELECT new com.ai.studybuddy.model.quiz.QuestionStats(" +
+            "q.id, q.questionOrder, q.questionText, COUNT(aa), SUM(CASE WHEN aa.isCorrect = true THEN 1 ELSE 0 END)) " +
+            "FROM AttemptAnswer aa JOIN aa.question q " +
+            "WHERE aa.attempt.assignment.id = :assignmentId " +
+            "GROUP BY q.id, q.questionOrder, q.questionText ORDER BY q.questionOrder")
+    List<QuestionStats> findQuestionStats(@Param("assignmentId") UUID assignmentId);
+
+    @Query("SELECT new com.ai.studybuddy.model.quiz.AssignmentSubmission(" +
+            "u.id, u.firstName, u.lastName, u.email, a.isCompleted, a.score, a.percentage, a.completedAt) " +
+            "FROM QuizAttempt a JOIN a.user u WHERE a.assignment.id = :assignmentId " +
+            "ORDER BY u.lastName, u.firstName, u.id LIMIT :limit OFFSET :offset")
+    List<AssignmentSubmission> findSubmissions(@Param("assignmentId") UUID assignmentId,
+                                               @Param("limit") int limit,
+                                               @Param("offset") int offset);
+}
@@ -3,6 +3,7 @@ package com.ai.studybuddy.repository;
 import com.ai.studybuddy.model.quiz.Quiz;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -61,4 +62,11 @@ public interface QuizRepository extends JpaRepository<Quiz, UUID> {
     // Miglior punteggio per topic
     @Query("SELECT MAX(q.percentage) FROM Quiz q WHERE q.user.id = :userId AND q.topic = :topic AND q.isCompleted = true")
     Double getBestScoreByTopic(@Param("userId") UUID userId, @Param("topic") String topic);
-}
\ No newline at end of file
+
+    /**
+     * Aggiorna il numero di domande senza rileggere il quiz (generazione progressiva)
+     */
+    @Modifying
+    @Query("UPDATE Quiz q SET q.numberOfQuestions = :count WHERE q.id = :quizId")
+    int updateNumberOfQuestions(@Param("quizId") UUID quizId, @Param("count") int count);
+}
@@ -2,12 +2,14 @@ package com.ai.studybuddy.repository;
 
 import com.ai.studybuddy.model.recommendation.Recommendation;
 import com.ai.studybuddy.model.recommendation.Recommendation.RecommendationType;
+import com.ai.studybuddy.model.recommendation.RecommendationKey;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -38,17 +40,21 @@ public interface RecommendationRepository extends JpaRepository<Recommendation,
             "AND (r.expiresAt IS NULL OR r.expiresAt > :now)")
     long countActiveByUserId(UUID userId, LocalDateTime now);
 
-    // Pulisci raccomandazioni scadute
-    @Modifying
-    @Query("DELETE FROM Recommendation r WHERE r.expiresAt < :now")
-    void deleteExpired(LocalDateTime now);
+    // Pulizia a blocchi (MaintenanceService): raccomandazioni scadute ancora aperte.
+    // Le ignorate/completate restano fino a findOldCompletedIds, così non vengono ricreate
+    @Query("SELECT r.id FROM Recommendation r WHERE r.expiresAt < :now " +
+            "AND r.isDismissed = false AND r.isCompleted = false LIMIT :limit")
+    List<UUID> findExpiredIds(LocalDateTime now, int limit);
 
-    // Pulisci vecchie raccomandazioni completate/ignorate
-    @Modifying
-    @Query("DELETE FROM Recommendation r WHERE " +
+    // Pulizia a blocchi (MaintenanceService): vecchie raccomandazioni completate/ignorate
+    @Query("SELECT r.id FROM Recommendation r WHERE " +
             "(r.isDismissed = true OR r.isCompleted = true) " +
-            "AND r.createdAt < :cutoff")
-    void deleteOldCompleted(LocalDateTime cutoff);
+            "AND r.createdAt < :cutoff LIMIT :limit")
+    List<UUID> findOldCompletedIds(LocalDateTime cutoff, int limit);
+
+    @Modifying
+    @Query("DELETE FROM Recommendation r WHERE r.id IN :ids")
+    int deleteByIds(Collection<UUID> ids);
 
     // Verifica se esiste già una raccomandazione simile
     boolean existsByUserIdAndTypeAndTopicAndIsDismissedFalseAndIsCompletedFalse(
@@ -59,4 +65,15 @@ public interface RecommendationRepository extends JpaRepository<Recommendation,
             UUID userId, String topic);
 
     boolean existsByUserIdAndTypeAndTopic(UUID userId, Recommendation.RecommendationType type, String topic);
+
+    // Tutte le raccomandazioni di un argomento (qualsiasi stato)
+    List<Recommendation> findByUserIdAndTopic(UUID userId, String topic);
+
+    // Raccomandazioni generali, non legate a un argomento (qualsiasi stato)
+    List<Recommendation> findByUserIdAndTopicIsNull(UUID userId);
+
+    // Chiavi (tipo, topic) già presenti per l'utente, in qualsiasi stato
+    @Query("SELECT DISTINCT new com.ai.studybuddy.model.recommendation.RecommendationKey(r.type, r.topic) " +
+            "FROM Recommendation r WHERE r.user.id = :userId AND r.type IN :types")
+    List<RecommendationKey> findKeysByUserIdAndTypeIn(UUID userId, Collection<RecommendationType> types);
 }
\ No newline at end of file
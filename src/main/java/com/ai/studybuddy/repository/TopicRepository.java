@@ -0,0 +1,21 @@
+package com.ai.studybuddy.repository;
+
+import com.ai.studybuddy.model.topic.Topic;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TopicRepository extends JpaRepository<Topic, UUID> {
+
+    Optional<Topic> findByNormalizedName(String normalizedName);
+
+    // Flush write-behind degli utilizzi (CounterBufferService)
+    @Modifying
+    @Query("UPDATE Topic t SET t.usageCount = COALESCE(t.usageCount, 0) + :delta WHERE t.id = :topicId")
+    int addUsage(UUID topicId, long delta);
+}
@@ -1,5 +1,6 @@
 package com.ai.studybuddy.repository;
 
+import com.ai.studybuddy.model.topic.UserTopic;
 import com.ai.studybuddy.model.user.UserProgress;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -21,6 +22,11 @@ public interface UserProgressRepository extends JpaRepository<UserProgress, UUID
     // Trova tutti i progress di un utente
     List<UserProgress> findByUserId(UUID userId);
 
+    // Coppie (utente, argomento) per le co-occorrenze dell'indice argomenti correlati
+    @Query("SELECT new com.ai.studybuddy.model.topic.UserTopic(up.user.id, up.topic) " +
+            "FROM UserProgress up WHERE up.topic IS NOT NULL")
+    List<UserTopic> findAllUserTopics();
+
     // Trova progress per utente e topic specifico
     Optional<UserProgress> findByUserIdAndTopic(UUID userId, String topic);
 
@@ -63,6 +69,9 @@ public interface UserProgressRepository extends JpaRepository<UserProgress, UUID
     @Query("SELECT up FROM UserProgress up WHERE up.user.id = :userId ORDER BY up.quizCompleted DESC")
     List<UserProgress> findMostStudiedTopics(UUID userId);
 
+    // Argomento più studiato (per numero quiz)
+    Optional<UserProgress> findFirstByUserIdOrderByQuizCompletedDesc(UUID userId);
+
     // Argomenti recenti
     @Query("SELECT up FROM UserProgress up WHERE up.user.id = :userId ORDER BY up.lastActivityAt DESC LIMIT :limit")
     List<UserProgress> findRecentTopics(UUID userId, int limit);
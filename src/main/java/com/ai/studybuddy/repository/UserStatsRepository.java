@@ -7,6 +7,9 @@ import org.springframework.stereotype.Repository;
 
 import com.ai.studybuddy.model.gamification.UserStats;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,6 +19,8 @@ public interface UserStatsRepository extends JpaRepository<UserStats, UUID> {
 
     Optional<UserStats> findByUserId(UUID userId);
 
+    List<UserStats> findByUserIdIn(Collection<UUID> userIds);
+
     boolean existsByUserId(UUID userId);
 
     // Leaderboard per XP totale
@@ -26,28 +31,39 @@ public interface UserStatsRepository extends JpaRepository<UserStats, UUID> {
     @Query("SELECT us FROM UserStats us ORDER BY us.weeklyXp DESC LIMIT :limit")
     List<UserStats> findTopByWeeklyXp(int limit);
 
-    // Leaderboard per streak
-    @Query("SELECT us FROM UserStats us ORDER BY us.currentStreak DESC LIMIT :limit")
-    List<UserStats> findTopByStreak(int limit);
+    // Leaderboard per streak: solo streak ancora attivi (ultima attività da ieri in poi),
+    // così non serve azzerare gli streak interrotti (idx_user_stats_streak_activity:
+    // scansione in ordine di streak, il filtro sulla data si ferma ai primi :limit)
+    @Query("SELECT us FROM UserStats us WHERE us.lastActivityDate >= :since ORDER BY us.currentStreak DESC LIMIT :limit")
+    List<UserStats> findTopByStreak(LocalDate since, int limit);
 
     // Leaderboard per livello
     @Query("SELECT us FROM UserStats us ORDER BY us.level DESC, us.totalXp DESC LIMIT :limit")
     List<UserStats> findTopByLevel(int limit);
 
-    // Reset settimanale XP (da schedulare)
+    // Flush write-behind: applica i delta accumulati in memoria con un UPDATE incrementale
     @Modifying
-    @Query("UPDATE UserStats us SET us.weeklyXp = 0")
-    void resetWeeklyXp();
+    @Query("UPDATE UserStats us SET " +
+            "us.totalXp = COALESCE(us.totalXp, 0) + :xp, " +
+            "us.weeklyXp = COALESCE(us.weeklyXp, 0) + :xp, " +
+            "us.monthlyXp = COALESCE(us.monthlyXp, 0) + :xp, " +
+            "us.flashcardsStudied = COALESCE(us.flashcardsStudied, 0) + :flashcards, " +
+            "us.updatedAt = :now " +
+            "WHERE us.user.id = :userId")
+    int addPendingCounters(UUID userId, int xp, int flashcards, LocalDateTime now);
 
-    // Reset mensile XP (da schedulare)
-    @Modifying
-    @Query("UPDATE UserStats us SET us.monthlyXp = 0")
-    void resetMonthlyXp();
+    // Reset XP a blocchi (MaintenanceService): scorrimento per id, ogni riga viene azzerata una sola volta
+    @Query("SELECT us.id FROM UserStats us WHERE us.id > :afterId AND us.weeklyXp <> 0 ORDER BY us.id LIMIT :limit")
+    List<UUID> findIdsWithWeeklyXpAfter(UUID afterId, int limit);
 
+    @Query("SELECT us.id FROM UserStats us WHERE us.id > :afterId AND us.monthlyXp <> 0 ORDER BY us.id LIMIT :limit")
+    List<UUID> findIdsWithMonthlyXpAfter(UUID afterId, int limit);
 
-    /* DA SISTEMARE CURRENT_DATE - 1 */
-    /*                               */
-    // Trova utenti con streak da resettare (non hanno fatto attività ieri)
-    @Query("SELECT us FROM UserStats us WHERE us.lastActivityDate < CURRENT_DATE AND us.currentStreak > 0")
-    List<UserStats> findUsersWithBrokenStreak();
+    @Modifying
+    @Query("UPDATE UserStats us SET us.weeklyXp = 0 WHERE us.id IN :ids")
+    int resetWeeklyXp(Collection<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE UserStats us SET us.monthlyXp = 0 WHERE us.id IN :ids")
+    int resetMonthlyXp(Collection<UUID> ids);
 }
\ No newline at end of file
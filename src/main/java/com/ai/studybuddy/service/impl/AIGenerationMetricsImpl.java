@@ -0,0 +1,64 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.service.inter.AIGenerationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementazione AIGenerationMetrics
+ *
+ * Contatori in memoria (LongAdder: nessuna contesa tra generazioni parallele);
+ * il riepilogo viene scritto nel log a intervalli, solo se ci sono state generazioni.
+ */
+@Service
+public class AIGenerationMetricsImpl implements AIGenerationMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(AIGenerationMetricsImpl.class);
+
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder recoveredResponses = new LongAdder();
+    private final LongAdder failedResponses = new LongAdder();
+    private final LongAdder requestedItems = new LongAdder();
+    private final LongAdder usableItems = new LongAdder();
+    private final AtomicLong lastLoggedResponses = new AtomicLong();
+
+    @Override
+    public void recordResponse(int requested, int usable, boolean recovered) {
+        responses.increment();
+        if (recovered) recoveredResponses.increment();
+        if (requested > 0) {
+            requestedItems.add(requested);
+            usableItems.add(Math.min(usable, requested));
+        }
+    }
+
+    @Override
+    public void recordFailure(int requested) {
+        responses.increment();
+        failedResponses.increment();
+        if (requested > 0) requestedItems.add(requested);
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return new Snapshot(responses.sum(), recoveredResponses.sum(), failedResponses.sum(),
+                requestedItems.sum(), usableItems.sum());
+    }
+
+    @Scheduled(fixedDelayString = "${ai.metrics.log-interval-ms:600000}")
+    public void logSnapshot() {
+        Snapshot snapshot = snapshot();
+        if (lastLoggedResponses.getAndSet(snapshot.getResponses()) == snapshot.getResponses()) {
+            return;
+        }
+        log.info("Generazioni AI - risposte: {}, recuperate: {}, perse: {}, elementi: {}/{}, spreco: {}%",
+                snapshot.getResponses(), snapshot.getRecoveredResponses(), snapshot.getFailedResponses(),
+                snapshot.getUsableItems(), snapshot.getRequestedItems(),
+                String.format("%.1f", snapshot.getWastedGenerationRate() * 100));
+    }
+}
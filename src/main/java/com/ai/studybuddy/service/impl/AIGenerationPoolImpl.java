@@ -0,0 +1,55 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.service.inter.AIGenerationPool;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Implementazione AIGenerationPool
+ *
+ * Il permesso viene preso dentro il virtual thread: chi invia non si blocca mai.
+ * Un task cancellato (Future.cancel(true)) mentre attende il permesso esce subito.
+ */
+@Service
+public class AIGenerationPoolImpl implements AIGenerationPool {
+
+    private final Semaphore permits;
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ai-generation-", 0).factory());
+
+    public AIGenerationPoolImpl(@Value("${ai.generation.max-concurrency:6}") int maxConcurrency) {
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        workers.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    @Override
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -3,12 +3,14 @@ package com.ai.studybuddy.service.impl;
 import com.ai.studybuddy.integration.AIClient;
 import com.ai.studybuddy.exception.AIServiceException;
 import com.ai.studybuddy.exception.AIServiceException.AIErrorType;
+import com.ai.studybuddy.service.inter.AIGenerationMetrics;
 import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.util.JsonArrayRecovery;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
 import com.ai.studybuddy.util.enums.EducationLevel;
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -16,8 +18,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Servizio principale per la generazione di contenuti AI.
@@ -32,17 +38,19 @@ public class AIServiceImpl implements AIService {
 
     private final AIClient primaryClient;
     private final AIClient fallbackClient;
-    private final Gson gson = new Gson();
+    private final AIGenerationMetrics generationMetrics;
 
     @Value("${ai.groq.test-fallback:true}")
     private boolean testFallback;
 
     public AIServiceImpl(
             @Qualifier("groqPrimaryClient") AIClient primaryClient,
-            @Qualifier("groqFallbackClient") AIClient fallbackClient
+            @Qualifier("groqFallbackClient") AIClient fallbackClient,
+            AIGenerationMetrics generationMetrics
     ) {
         this.primaryClient = primaryClient;
         this.fallbackClient = fallbackClient;
+        this.generationMetrics = generationMetrics;
     }
 
     // ========================================
@@ -69,30 +77,82 @@ public class AIServiceImpl implements AIService {
 
     @Override
     public String generateQuiz(String topic, int numQuestions, DifficultyLevel difficulty, EducationLevel educationLevel, String language) {
+        return generateQuiz(topic, numQuestions, difficulty, educationLevel, language, List.of());
+    }
+
+    @Override
+    public String generateQuiz(String topic, int numQuestions, DifficultyLevel difficulty,
+                               EducationLevel educationLevel, String language, List<String> excludedQuestions) {
         log.info("Generazione quiz - topic: '{}', domande: {}, difficoltà: {}, livello: {}, lingua: {}",
                 topic, numQuestions, difficulty, educationLevel, language);
 
-        String prompt = buildQuizPrompt(topic, numQuestions, difficulty.getLevel(), educationLevel, language);
+        String prompt = buildQuizPrompt(topic, numQuestions, difficulty.getLevel(), educationLevel, language)
+                + buildExclusionInstruction("domande", excludedQuestions);
+        return callAIWithFallback(prompt);
+    }
+
+    @Override
+    public String generateQuizShard(String topic, int numQuestions, DifficultyLevel difficulty,
+                                    EducationLevel educationLevel, String language,
+                                    String focus, List<String> otherFocuses, List<String> excludedQuestions) {
+        log.debug("Generazione blocco quiz - topic: '{}', domande: {}, aspetto: '{}'", topic, numQuestions, focus);
+
+        String prompt = buildQuizPrompt(topic, numQuestions, difficulty.getLevel(), educationLevel, language)
+                + buildQuizShardInstruction(topic, focus, otherFocuses)
+                + buildExclusionInstruction("domande", excludedQuestions);
         return callAIWithFallback(prompt);
     }
 
+    @Override
+    public void streamQuiz(String topic, int numQuestions, DifficultyLevel difficulty,
+                           EducationLevel educationLevel, String language, Consumer<String> onChunk) {
+        log.info("Generazione quiz in streaming - topic: '{}', domande: {}, difficoltà: {}, lingua: {}",
+                topic, numQuestions, difficulty, language);
+
+        String prompt = buildQuizPrompt(topic, numQuestions, difficulty.getLevel(), educationLevel, language);
+        streamAIWithFallback(prompt, onChunk);
+    }
 
     @Override
     public String generateFlashcards(String topic, int numCards, DifficultyLevel difficulty, EducationLevel educationLevel, String language) {
+        return generateFlashcards(topic, numCards, difficulty, educationLevel, language, List.of());
+    }
+
+    @Override
+    public String generateFlashcards(String topic, int numCards, DifficultyLevel difficulty,
+                                     EducationLevel educationLevel, String language, List<String> excludedFronts) {
         log.info("Generazione flashcards - topic: '{}', carte: {}, difficoltà: {}, livello: {}, lingua: {}",
                 topic, numCards, difficulty, educationLevel, language);
 
-        String prompt = buildFlashcardsPrompt(topic, numCards, difficulty, educationLevel, language);
+        String prompt = buildFlashcardsPrompt(topic, numCards, difficulty, educationLevel, language)
+                + buildExclusionInstruction("flashcards", excludedFronts);
         return callAIWithFallback(prompt);
     }
 
     @Override
     public String generateFlashcardsWithContext(String topic, int numCards,
                                                 DifficultyLevel difficulty, String context, String language) {
+        return generateFlashcardsWithContext(topic, numCards, difficulty, context, language, List.of());
+    }
+
+    @Override
+    public String generateFlashcardsWithContext(String topic, int numCards, DifficultyLevel difficulty,
+                                                String context, String language, List<String> excludedFronts) {
         log.info("Generazione flashcards con contesto - topic: '{}', carte: {}, lingua: {}",
                 topic, numCards, language);
 
-        String prompt = buildFlashcardsWithContextPrompt(topic, numCards, difficulty, context, language);
+        String prompt = buildFlashcardsWithContextPrompt(topic, numCards, difficulty, context, language)
+                + buildExclusionInstruction("flashcards", excludedFronts);
+        return callAIWithFallback(prompt);
+    }
+
+    @Override
+    public String generateFlashcardsFromNotes(String topic, int numCards, DifficultyLevel difficulty,
+                                              String excerpt, int part, int totalParts, String language) {
+        log.debug("Generazione flashcards da appunti - topic: '{}', parte {}/{}, carte: {}, caratteri: {}",
+                topic, part, totalParts, numCards, excerpt.length());
+
+        String prompt = buildFlashcardsFromNotesPrompt(topic, numCards, difficulty, excerpt, part, totalParts, language);
         return callAIWithFallback(prompt);
     }
 
@@ -149,18 +209,67 @@ public class AIServiceImpl implements AIService {
 
     @Override
     public JsonArray parseFlashcardsResponse(String aiResponse) {
+        return parseGeneratedItems(aiResponse, 0).items();
+    }
+
+    @Override
+    public JsonArrayRecovery.Result parseGeneratedItems(String aiResponse, int requested) {
+        if (aiResponse == null || aiResponse.isEmpty()) {
+            generationMetrics.recordFailure(requested);
+            throw new AIServiceException(AIErrorType.RESPONSE_NULL);
+        }
+
+        JsonArrayRecovery.Result result;
         try {
-            if (aiResponse == null || aiResponse.isEmpty()) {
-                throw new AIServiceException(AIErrorType.RESPONSE_NULL);
+            result = JsonArrayRecovery.parse(cleanJsonResponse(aiResponse));
+        } catch (AIServiceException e) {
+            generationMetrics.recordFailure(requested);
+            throw e;
+        }
+
+        if (result.recovered()) {
+            if (result.items().isEmpty()) {
+                log.error("Errore parsing JSON: {}", aiResponse);
+                generationMetrics.recordFailure(requested);
+                throw new AIServiceException(AIErrorType.PARSE_ERROR,
+                        "Impossibile interpretare la risposta dell'AI");
             }
-            
-            String cleaned = cleanJsonResponse(aiResponse);
-            return gson.fromJson(cleaned, JsonArray.class);
-        } catch (JsonSyntaxException e) {
-            log.error("Errore parsing JSON: {}", aiResponse);
-            throw new AIServiceException(AIErrorType.PARSE_ERROR,
-                    "Impossibile interpretare la risposta dell'AI");
+            log.warn("Risposta AI non valida recuperata: {} elementi{} (richiesti: {})",
+                    result.items().size(), result.truncated() ? ", risposta troncata" : "", requested);
         }
+        generationMetrics.recordResponse(requested, result.items().size(), result.recovered());
+        return result;
+    }
+
+    @Override
+    public JsonArray generateWithShortfall(int count, String textField, Generator generator) {
+        JsonArrayRecovery.Result result = parseGeneratedItems(generator.generate(count, List.of()), count);
+        JsonArray items = result.items();
+        int shortfall = result.missing(count);
+        if (!result.truncated() || shortfall == 0) {
+            return items;
+        }
+
+        log.info("Risposta troncata: {} elementi su {}, richiesti solo i {} mancanti", items.size(), count, shortfall);
+        try {
+            items.addAll(parseGeneratedItems(generator.generate(shortfall, textsOf(items, textField)), shortfall).items());
+        } catch (RuntimeException e) {
+            log.warn("Elementi mancanti non generati: {}", e.getMessage());
+        }
+        return items;
+    }
+
+    private static List<String> textsOf(JsonArray items, String textField) {
+        List<String> texts = new ArrayList<>();
+        for (JsonElement item : items) {
+            if (item.isJsonObject()) {
+                JsonObject object = item.getAsJsonObject();
+                if (object.has(textField) && object.get(textField).isJsonPrimitive()) {
+                    texts.add(object.get(textField).getAsString());
+                }
+            }
+        }
+        return texts;
     }
 
     // ========================================
@@ -198,25 +307,62 @@ public class AIServiceImpl implements AIService {
             return primaryClient.generateText(prompt);
         } catch (Exception primaryError) {
             log.warn("Primary model fallito: {}", primaryError.getMessage());
+            log.info("🔄 Fallback a {}", fallbackClient.getModelName());
+            return callFallback(prompt);
+        }
+    }
 
-            try {
-                log.info("🔄 Fallback a {}", fallbackClient.getModelName());
-                return fallbackClient.generateText(prompt);
-            } catch (WebClientResponseException e) {
-                handleWebClientException(e);
-                throw new AIServiceException(AIErrorType.SERVICE_UNAVAILABLE);
-            } catch (Exception fallbackError) {
-                log.error("❌ Anche il fallback model è fallito: {}", fallbackError.getMessage());
+    private String callFallback(String prompt) {
+        try {
+            return fallbackClient.generateText(prompt);
+        } catch (WebClientResponseException e) {
+            handleWebClientException(e);
+            throw new AIServiceException(AIErrorType.SERVICE_UNAVAILABLE);
+        } catch (Exception fallbackError) {
+            log.error("❌ Anche il fallback model è fallito: {}", fallbackError.getMessage());
+
+            if (fallbackError.getMessage() != null &&
+                    fallbackError.getMessage().contains("timeout")) {
+                throw new AIServiceException(AIErrorType.TIMEOUT);
+            }
 
-                if (fallbackError.getMessage() != null &&
-                        fallbackError.getMessage().contains("timeout")) {
-                    throw new AIServiceException(AIErrorType.TIMEOUT);
-                }
+            throw new AIServiceException(AIErrorType.SERVICE_UNAVAILABLE,
+                    "Tutti i modelli AI non disponibili: " + fallbackError.getMessage());
+        }
+    }
 
-                throw new AIServiceException(AIErrorType.SERVICE_UNAVAILABLE,
-                        "Tutti i modelli AI non disponibili: " + fallbackError.getMessage());
+    /**
+     * Come callAIWithFallback, in streaming: il fallback è possibile solo finché
+     * nessun pezzo è stato consegnato, altrimenti il testo ricevuto sarebbe ripetuto
+     */
+    private void streamAIWithFallback(String prompt, Consumer<String> onChunk) {
+        if (testFallback) {
+            log.warn("⚠️ TEST MODE ATTIVO: Forzando fallback al modello secondario");
+            throw new AIServiceException(AIErrorType.RATE_LIMIT, "Test fallback");
+        }
+
+        AtomicBoolean delivered = new AtomicBoolean(false);
+        try {
+            log.debug("Tentativo in streaming con {}", primaryClient.getModelName());
+            primaryClient.streamText(prompt, chunk -> {
+                delivered.set(true);
+                onChunk.accept(chunk);
+            });
+            return;
+        } catch (Exception primaryError) {
+            if (delivered.get()) {
+                log.warn("Streaming interrotto dopo i primi pezzi: {}", primaryError.getMessage());
+                throw primaryError instanceof AIServiceException aiError
+                        ? aiError
+                        : new AIServiceException(AIErrorType.SERVICE_UNAVAILABLE,
+                                "Streaming AI interrotto: " + primaryError.getMessage(), primaryError);
             }
+            log.warn("Primary model fallito (streaming): {}", primaryError.getMessage());
         }
+
+        log.info("🔄 Fallback a {}", fallbackClient.getModelName());
+        String response = callFallback(prompt);
+        onChunk.accept(response);
     }
 
     // ========================================
@@ -265,6 +411,36 @@ public class AIServiceImpl implements AIService {
         );
     }
 
+    /**
+     * Istruzioni aggiuntive per un blocco di un quiz diviso: un aspetto per blocco, senza sovrapposizioni.
+     */
+    private String buildQuizShardInstruction(String topic, String focus, List<String> otherFocuses) {
+        return String.format(
+                "\n\nQuesto è un blocco di un quiz più ampio su '%s'.\n" +
+                "Concentra TUTTE le domande su questo aspetto: %s.\n" +
+                "%s" +
+                "Rispondi SOLO con l'array JSON, nient'altro.",
+                topic, focus,
+                otherFocuses.isEmpty() ? ""
+                        : "NON fare domande su questi aspetti, coperti da altri blocchi: "
+                        + String.join("; ", otherFocuses) + ".\n"
+        );
+    }
+
+    /**
+     * Istruzioni aggiuntive per una richiesta di completamento: elementi già ricevuti da non ripetere.
+     */
+    private String buildExclusionInstruction(String itemLabel, List<String> excludedTexts) {
+        if (excludedTexts == null || excludedTexts.isEmpty()) {
+            return "";
+        }
+        return String.format(
+                "\n\nNON ripetere queste %s, già generate:\n- %s\n" +
+                "Rispondi SOLO con l'array JSON, nient'altro.",
+                itemLabel, String.join("\n- ", excludedTexts)
+        );
+    }
+
     /**
      * Costruisce il prompt per flashcards con istruzioni linguistiche vincolanti e formato JSON.
      */
@@ -310,6 +486,31 @@ public class AIServiceImpl implements AIService {
         );
     }
 
+    /**
+     * Costruisce il prompt per flashcards da un estratto di appunti: solo concetti presenti nell'estratto.
+     */
+    private String buildFlashcardsFromNotesPrompt(String topic, int numCards, DifficultyLevel difficulty,
+                                                  String excerpt, int part, int totalParts, String language) {
+        String languageInstruction = getLanguageInstruction(language);
+        String partLabel = totalParts > 0 ? part + " di " + totalParts : String.valueOf(part);
+
+        return String.format(
+                "%s\n\n" +
+                "⚠️ È ASSOLUTAMENTE OBBLIGATORIO rispondere ESCLUSIVAMENTE nella lingua specificata.\n" +
+                "⚠️ TUTTO IL CONTENUTO (front, back) DEVE ESSERE NELLA LINGUA: %s.\n" +
+                "⚠️ NON AGGIUNGERE NESSUN TESTO FUORI DAL JSON, NEPPURE INTRODUZIONI O COMMENTI.\n\n" +
+                "Sei un generatore di flashcards educative. Rispondi SOLO con JSON valido, senza testo aggiuntivo.\n" +
+                "Di seguito la parte %s degli appunti di uno studente su '%s'.\n" +
+                "Genera al massimo %d flashcards con difficoltà %s sui concetti più importanti di QUESTA parte.\n" +
+                "Usa SOLO informazioni presenti negli appunti, non inventare contenuti.\n\n" +
+                "APPUNTI:\n\"\"\"\n%s\n\"\"\"\n\n" +
+                "Formato JSON richiesto: [{\"front\": \"domanda o concetto\", \"back\": \"risposta o spiegazione\"}]\n" +
+                "Le flashcards devono essere chiare, concise e utili per il ripasso.\n" +
+                "Rispondi SOLO con l'array JSON, nient'altro.",
+                languageInstruction, language, partLabel, topic, numCards, difficulty.getLevel(), excerpt
+        );
+    }
+
     /**
      * Restituisce l'istruzione di lingua per il prompt.
      * ⚠️ language NON può essere null!
@@ -0,0 +1,256 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.dto.quiz.AssignmentRequest;
+import com.ai.studybuddy.dto.quiz.AssignmentResponse;
+import com.ai.studybuddy.dto.quiz.AssignmentResultsResponse;
+import com.ai.studybuddy.dto.quiz.EnrollmentResponse;
+import com.ai.studybuddy.dto.quiz.QuizGenerateRequest;
+import com.ai.studybuddy.exception.ResourceNotFoundException;
+import com.ai.studybuddy.exception.StudyBuddyException;
+import com.ai.studybuddy.model.quiz.AssignmentSubmission;
+import com.ai.studybuddy.model.quiz.ClassEnrollment;
+import com.ai.studybuddy.model.quiz.Quiz;
+import com.ai.studybuddy.model.quiz.QuizAssignment;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.repository.ClassEnrollmentRepository;
+import com.ai.studybuddy.repository.QuizAssignmentRepository;
+import com.ai.studybuddy.repository.QuizAttemptRepository;
+import com.ai.studybuddy.repository.QuizRepository;
+import com.ai.studybuddy.service.inter.AssignmentService;
+import com.ai.studybuddy.service.inter.QuizService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Assegnazioni di quiz a una classe
+ *
+ * - Si assegna solo agli studenti che hanno accettato l'iscrizione alla classe del
+ *   docente (ClassEnrollment): senza iscrizioni accettate non si genera nulla.
+ * - Il quiz viene generato una sola volta (una chiamata AI per tutta la classe), fuori
+ *   dalla transazione dell'assegnazione: nessuna connessione resta aperta durante l'AI.
+ * - Ogni studente riceve solo un QuizAttempt: le email vengono risolte a blocchi e
+ *   i tentativi creati con un INSERT ... SELECT per blocco, in una transazione breve
+ *   insieme all'assegnazione.
+ * - I risultati sono aggregati SQL sui tentativi dell'assegnazione (COUNT/AVG/MIN/MAX,
+ *   GROUP BY per domanda); il registro degli studenti è paginato.
+ */
+@Service
+public class AssignmentServiceImpl implements AssignmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AssignmentServiceImpl.class);
+
+    private final QuizService quizService;
+    private final QuizRepository quizRepository;
+    private final QuizAssignmentRepository quizAssignmentRepository;
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final ClassEnrollmentRepository enrollmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${assignments.max-students:5000}")
+    private int maxStudents = 5000;
+
+    @Value("${assignments.provision-chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${assignments.submissions.max-page-size:200}")
+    private int maxPageSize = 200;
+
+    public AssignmentServiceImpl(QuizService quizService,
+                                 QuizRepository quizRepository,
+                                 QuizAssignmentRepository quizAssignmentRepository,
+                                 QuizAttemptRepository quizAttemptRepository,
+                                 ClassEnrollmentRepository enrollmentRepository,
+                                 TransactionTemplate transactionTemplate) {
+        this.quizService = quizService;
+        this.quizRepository = quizRepository;
+        this.quizAssignmentRepository = quizAssignmentRepository;
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public AssignmentResponse createAssignment(AssignmentRequest request, User teacher) {
+        Set<String> emails = normalizeEmails(request.getStudentEmails());
+        checkClassSize(emails);
+
+        // Email -> studenti iscritti, un blocco alla volta (prima di generare il quiz)
+        List<String> pending = new ArrayList<>(emails);
+        List<List<UUID>> studentChunks = new ArrayList<>();
+        int matched = 0;
+
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<String> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            List<UUID> studentIds = enrollmentRepository.findAcceptedStudents(teacher.getId(), chunk).stream()
+                    .map(User::getId)
+                    .toList();
+            matched += studentIds.size();
+            if (!studentIds.isEmpty()) {
+                studentChunks.add(studentIds);
+            }
+        }
+
+        if (matched == 0) {
+            throw new StudyBuddyException("NO_ENROLLED_STUDENTS",
+                    "Nessuno studente indicato ha accettato l'iscrizione alla classe");
+        }
+
+        Quiz quiz = request.getQuizId() != null
+                ? quizRepository.findByIdAndUserId(request.getQuizId(), teacher.getId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Quiz", "id", request.getQuizId()))
+                : quizService.generateQuiz(toGenerateRequest(request, teacher), teacher);
+
+        QuizAssignment assignment = transactionTemplate.execute(status ->
+                provision(quiz, teacher, request, studentChunks));
+
+        int provisioned = assignment.getStudentCount();
+        int unmatched = emails.size() - matched;
+        log.info("Assegnazione {} creata dal docente {}: quiz {}, {} studenti, {} email senza iscrizione",
+                assignment.getId(), teacher.getEmail(), quiz.getId(), provisioned, unmatched);
+
+        AssignmentResponse response = AssignmentResponse.from(assignment);
+        response.setUnmatchedCount(unmatched);
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AssignmentResponse> getTeacherAssignments(UUID teacherId) {
+        return AssignmentResponse.fromList(quizAssignmentRepository.findByTeacherIdWithQuiz(teacherId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AssignmentResponse> getStudentAssignments(UUID studentId) {
+        return quizAttemptRepository.findAssignedAttempts(studentId).stream()
+                .map(AssignmentResponse::forStudent)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AssignmentResultsResponse getResults(UUID assignmentId, UUID teacherId) {
+        QuizAssignment assignment = findAssignment(assignmentId, teacherId);
+        return AssignmentResultsResponse.of(
+                assignment.getId(),
+                assignment.getTitle(),
+                quizAttemptRepository.summarizeAssignment(assignmentId),
+                quizAttemptRepository.findQuestionStats(assignmentId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AssignmentSubmission> getSubmissions(UUID assignmentId, UUID teacherId, int offset, int limit) {
+        findAssignment(assignmentId, teacherId);
+        return quizAttemptRepository.findSubmissions(
+                assignmentId, Math.clamp(limit, 1, maxPageSize), Math.max(0, offset));
+    }
+
+    // ==================== ISCRIZIONI ====================
+
+    @Override
+    @Transactional
+    public void inviteStudents(List<String> studentEmails, User teacher) {
+        Set<String> emails = normalizeEmails(studentEmails);
+        checkClassSize(emails);
+
+        List<String> pending = new ArrayList<>(emails);
+        LocalDateTime now = LocalDateTime.now();
+        int invited = 0;
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            invited += enrollmentRepository.invite(teacher.getId(),
+                    pending.subList(from, Math.min(from + chunkSize, pending.size())), now);
+        }
+        log.info("Docente {}: {} nuovi inviti su {} email", teacher.getEmail(), invited, emails.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EnrollmentResponse> getPendingInvitations(UUID studentId) {
+        return EnrollmentResponse.fromList(enrollmentRepository.findPendingByStudentId(studentId));
+    }
+
+    @Override
+    @Transactional
+    public EnrollmentResponse answerInvitation(UUID enrollmentId, boolean accepted, User student) {
+        ClassEnrollment enrollment = enrollmentRepository
+                .findByIdAndStudentIdAndStatus(enrollmentId, student.getId(), ClassEnrollment.Status.PENDING)
+                .orElseThrow(() -> new ResourceNotFoundException("Invito", "id", enrollmentId));
+
+        enrollment.answer(accepted);
+        return EnrollmentResponse.from(enrollmentRepository.save(enrollment));
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Assegnazione e tentativi degli studenti, a quiz già generato
+     */
+    private QuizAssignment provision(Quiz quiz, User teacher, AssignmentRequest request,
+                                     List<List<UUID>> studentChunks) {
+        QuizAssignment assignment = quizAssignmentRepository.save(
+                new QuizAssignment(quiz, teacher, request.getTitle(), request.getDueAt()));
+
+        LocalDateTime now = LocalDateTime.now();
+        int provisioned = 0;
+        for (List<UUID> studentIds : studentChunks) {
+            provisioned += quizAttemptRepository.provision(assignment.getId(), studentIds, now);
+        }
+
+        assignment.setStudentCount(provisioned);
+        return quizAssignmentRepository.save(assignment);
+    }
+
+    private void checkClassSize(Set<String> emails) {
+        if (emails.isEmpty()) {
+            throw new StudyBuddyException("EMPTY_CLASS", "La classe non contiene studenti");
+        }
+        if (emails.size() > maxStudents) {
+            throw new StudyBuddyException("CLASS_TOO_LARGE",
+                    "Massimo " + maxStudents + " studenti per assegnazione");
+        }
+    }
+
+    private QuizAssignment findAssignment(UUID assignmentId, UUID teacherId) {
+        return quizAssignmentRepository.findByIdAndTeacherId(assignmentId, teacherId)
+                .orElseThrow(() -> new ResourceNotFoundException("Assegnazione", "id", assignmentId));
+    }
+
+    private QuizGenerateRequest toGenerateRequest(AssignmentRequest request, User teacher) {
+        if (request.getTopic() == null || request.getTopic().isBlank()) {
+            throw new StudyBuddyException("MISSING_TOPIC", "Indicare un quiz esistente o un topic da generare");
+        }
+        return QuizGenerateRequest.builder()
+                .topic(request.getTopic())
+                .numberOfQuestions(request.getNumberOfQuestions())
+                .difficultyLevel(request.getDifficultyLevel())
+                .subject(request.getSubject())
+                .language(teacher.getPreferredLanguage())
+                .build();
+    }
+
+    /**
+     * Email senza spazi e senza duplicati, nell'ordine della richiesta
+     */
+    private static Set<String> normalizeEmails(List<String> emails) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (emails == null) return normalized;
+        for (String email : emails) {
+            if (email != null && !email.isBlank()) {
+                normalized.add(email.trim());
+            }
+        }
+        return normalized;
+    }
+}
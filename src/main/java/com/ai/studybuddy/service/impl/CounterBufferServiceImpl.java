@@ -0,0 +1,352 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.gamification.UserStats;
+import com.ai.studybuddy.repository.FlashcardDeckRepository;
+import com.ai.studybuddy.repository.FlashcardReviewStateRepository;
+import com.ai.studybuddy.repository.TopicRepository;
+import com.ai.studybuddy.repository.UserStatsRepository;
+import com.ai.studybuddy.service.inter.CounterBufferService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Implementazione CounterBufferService
+ *
+ * - Un LongAdder per (contatore, entità): gli incrementi concorrenti sulla
+ *   stessa chiave non si contendono un unico valore
+ * - Flush ogni counters.flush-interval-ms oppure dopo counters.flush-max-pending
+ *   eventi, in un'unica transazione con un UPDATE incrementale per entità
+ * - Se il flush fallisce i delta vengono rimessi nel buffer
+ * - getPending somma buffer e delta in volo: estrazione e ripristino dopo un errore
+ *   avvengono con viewLock in scrittura, così una lettura non vede mai un delta
+ *   assente da entrambi o presente in entrambi
+ * - Le chiavi inattive per due flush consecutivi vengono rimosse dalla mappa
+ * - Dentro una transazione l'incremento è registrato solo dopo il commit,
+ *   così un evento ritentato dopo un rollback non conta due volte
+ * - L'istante dell'ultimo incremento viene registrato sul percorso di scrittura
+ *   e usato per lastReviewedAt/lastStudiedAt, non l'istante del flush
+ */
+@Service
+public class CounterBufferServiceImpl implements CounterBufferService {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterBufferServiceImpl.class);
+
+    private final UserStatsRepository userStatsRepository;
+    private final FlashcardDeckRepository deckRepository;
+    private final FlashcardReviewStateRepository reviewStateRepository;
+    private final TopicRepository topicRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<CounterKey, PendingCounter> pending = new ConcurrentHashMap<>();
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "counter-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Accessibile solo con flushLock acquisito
+    private final Set<CounterKey> idleKeys = new HashSet<>();
+
+    // Contatori rimossi dalla mappa ma svuotati ancora al prossimo flush:
+    // un incremento arrivato in ritardo resta visibile alle letture fino ad allora
+    private final ConcurrentHashMap<CounterKey, PendingCounter> retired = new ConcurrentHashMap<>();
+
+    // Delta estratti dal buffer ma non ancora committati (restano visibili alle letture)
+    private volatile Map<CounterKey, Delta> inFlight = Map.of();
+
+    // Letture ottimistiche in getPending; in scrittura solo per spostare i delta tra buffer e inFlight
+    private final StampedLock viewLock = new StampedLock();
+
+    @Value("${counters.flush-max-pending:500}")
+    private long maxPendingEvents = 500;
+
+    public CounterBufferServiceImpl(UserStatsRepository userStatsRepository,
+                                    FlashcardDeckRepository deckRepository,
+                                    FlashcardReviewStateRepository reviewStateRepository,
+                                    TopicRepository topicRepository,
+                                    TransactionTemplate transactionTemplate) {
+        this.userStatsRepository = userStatsRepository;
+        this.deckRepository = deckRepository;
+        this.reviewStateRepository = reviewStateRepository;
+        this.topicRepository = topicRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void increment(CounterType type, UUID entityId, long delta) {
+        if (entityId == null || delta == 0) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(type, entityId, delta);
+                }
+            });
+            return;
+        }
+        add(type, entityId, delta);
+    }
+
+    private void add(CounterType type, UUID entityId, long delta) {
+        pending.computeIfAbsent(new CounterKey(type, entityId), k -> new PendingCounter())
+                .add(delta, LocalDateTime.now());
+
+        if (pendingEvents.incrementAndGet() >= maxPendingEvents
+                && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(this::flush);
+        }
+    }
+
+    @Override
+    public long getPending(CounterType type, UUID entityId) {
+        CounterKey key = new CounterKey(type, entityId);
+        long stamp = viewLock.tryOptimisticRead();
+        long value = pendingSum(key);
+        if (viewLock.validate(stamp)) {
+            return value;
+        }
+        stamp = viewLock.readLock();
+        try {
+            return pendingSum(key);
+        } finally {
+            viewLock.unlockRead(stamp);
+        }
+    }
+
+    private long pendingSum(CounterKey key) {
+        PendingCounter counter = pending.get(key);
+        PendingCounter late = retired.get(key);
+        Delta sending = inFlight.get(key);
+        return (counter != null ? counter.sum() : 0)
+                + (late != null ? late.sum() : 0)
+                + (sending != null ? sending.value() : 0);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${counters.flush-interval-ms:2000}")
+    public int flush() {
+        // Un solo flush alla volta: se uno è già in corso, i delta verranno presi dal prossimo
+        if (!flushLock.tryLock()) {
+            return 0;
+        }
+        try {
+            return flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flush finale allo shutdown (attende un eventuale flush in corso)
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushExecutor.shutdown();
+        flushLock.lock();
+        try {
+            int written = flushLocked();
+            log.info("Flush contatori allo shutdown: {} contatori scritti", written);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushLocked() {
+        Map<CounterKey, Delta> deltas;
+        long stamp = viewLock.writeLock();
+        try {
+            deltas = drain();
+            inFlight = deltas;
+        } finally {
+            viewLock.unlockWrite(stamp);
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(deltas));
+            log.debug("Flush contatori completato: {} contatori", deltas.size());
+            return deltas.size();
+        } catch (RuntimeException e) {
+            log.error("Errore flush contatori, i delta restano nel buffer: {}", e.getMessage());
+            requeue(deltas);
+            return 0;
+        } finally {
+            inFlight = Map.of();
+        }
+    }
+
+    /**
+     * Rimette i delta nel buffer e li toglie da inFlight nello stesso passo
+     */
+    private void requeue(Map<CounterKey, Delta> deltas) {
+        long stamp = viewLock.writeLock();
+        try {
+            inFlight = Map.of();
+            deltas.forEach((key, delta) ->
+                    pending.computeIfAbsent(key, k -> new PendingCounter()).add(delta.value(), delta.lastAt()));
+        } finally {
+            viewLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Estrae e azzera i delta accumulati.
+     * Gli adder inattivi da due cicli vengono rimossi dalla mappa, ma svuotati
+     * ancora al ciclo successivo per raccogliere eventuali incrementi in ritardo.
+     */
+    private Map<CounterKey, Delta> drain() {
+        pendingEvents.set(0);
+        flushRequested.set(false);
+
+        Map<CounterKey, Delta> deltas = new HashMap<>();
+
+        retired.forEach((key, counter) -> {
+            Delta late = counter.drain();
+            if (late != null) deltas.merge(key, late, Delta::merge);
+            retired.remove(key, counter);
+            // Un incremento arrivato tra drain e rimozione non deve andare perso
+            Delta leftover = counter.drain();
+            if (leftover != null) deltas.merge(key, leftover, Delta::merge);
+        });
+
+        for (Map.Entry<CounterKey, PendingCounter> entry : pending.entrySet()) {
+            CounterKey key = entry.getKey();
+            PendingCounter counter = entry.getValue();
+            Delta delta = counter.drain();
+
+            if (delta != null) {
+                deltas.merge(key, delta, Delta::merge);
+                idleKeys.remove(key);
+            } else if (!idleKeys.add(key)) {
+                idleKeys.remove(key);
+                // Prima in retired, poi fuori da pending: la chiave resta sempre visibile a getPending
+                retired.put(key, counter);
+                if (!pending.remove(key, counter)) {
+                    retired.remove(key, counter);
+                }
+            }
+        }
+        return deltas;
+    }
+
+    private void apply(Map<CounterKey, Delta> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, long[]> userDeltas = new HashMap<>();   // [xp, flashcards]
+        Map<UUID, long[]> cardDeltas = new HashMap<>();   // [reviewed, correct]
+        Map<UUID, LocalDateTime> cardReviewedAt = new HashMap<>();
+
+        deltas.forEach((key, delta) -> {
+            long value = delta.value();
+            switch (key.type()) {
+                case USER_XP -> userDeltas.computeIfAbsent(key.entityId(), id -> new long[2])[0] += value;
+                case USER_FLASHCARDS_STUDIED -> userDeltas.computeIfAbsent(key.entityId(), id -> new long[2])[1] += value;
+                case FLASHCARD_TIMES_REVIEWED, FLASHCARD_TIMES_CORRECT -> {
+                    cardDeltas.computeIfAbsent(key.entityId(), id -> new long[2])
+                            [key.type() == CounterType.FLASHCARD_TIMES_REVIEWED ? 0 : 1] += value;
+                    cardReviewedAt.merge(key.entityId(), delta.lastAt(), Delta::latest);
+                }
+                case DECK_TIMES_STUDIED ->
+                        deckRepository.addTimesStudied(key.entityId(), Math.toIntExact(value), delta.lastAt());
+                case TOPIC_USAGE -> topicRepository.addUsage(key.entityId(), value);
+            }
+        });
+
+        Set<UUID> usersWithXp = new HashSet<>();
+        userDeltas.forEach((userId, d) -> {
+            int updated = userStatsRepository.addPendingCounters(userId, Math.toIntExact(d[0]),
+                    Math.toIntExact(d[1]), now);
+            if (updated == 0) {
+                log.warn("UserStats non trovate per utente {}: delta XP {} scartato", userId, d[0]);
+            } else if (d[0] != 0) {
+                usersWithXp.add(userId);
+            }
+        });
+
+        cardDeltas.forEach((stateId, d) ->
+                reviewStateRepository.addReviews(stateId, Math.toIntExact(d[0]), Math.toIntExact(d[1]),
+                        cardReviewedAt.get(stateId)));
+
+        // Il livello dipende dal totale XP: lo riallinea dopo gli incrementi
+        if (!usersWithXp.isEmpty()) {
+            for (UserStats stats : userStatsRepository.findByUserIdIn(usersWithXp)) {
+                if (stats.syncLevel()) {
+                    userStatsRepository.save(stats);
+                }
+            }
+        }
+    }
+
+    private record CounterKey(CounterType type, UUID entityId) {
+    }
+
+    /**
+     * Delta estratto dal buffer con l'istante dell'ultimo incremento
+     */
+    private record Delta(long value, LocalDateTime lastAt) {
+
+        static Delta merge(Delta a, Delta b) {
+            return new Delta(a.value + b.value, latest(a.lastAt, b.lastAt));
+        }
+
+        static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+            return a.isAfter(b) ? a : b;
+        }
+    }
+
+    /**
+     * Somma concorrente di una chiave più l'istante dell'ultimo incremento
+     */
+    private static final class PendingCounter {
+        private final LongAdder sum = new LongAdder();
+        private volatile LocalDateTime lastAt;
+
+        void add(long delta, LocalDateTime at) {
+            sum.add(delta);
+            LocalDateTime current = lastAt;
+            if (current == null || at.isAfter(current)) {
+                lastAt = at;
+            }
+        }
+
+        long sum() {
+            return sum.sum();
+        }
+
+        Delta drain() {
+            LocalDateTime at = lastAt;
+            // Sottrae esattamente quanto letto: un incremento concorrente resta nella somma
+            long value = sum.sum();
+            if (value == 0) return null;
+            sum.add(-value);
+            return new Delta(value, at != null ? at : LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.service.inter.EventStreamService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementazione EventStreamService
+ *
+ * - Registro in memoria delle connessioni per utente (al massimo
+ *   events.max-connections-per-user: oltre il limite si chiude la più vecchia)
+ * - Ogni connessione ha una coda limitata; l'invio avviene su virtual thread,
+ *   quindi chi pubblica non resta bloccato su un client lento
+ * - Se la coda è piena il client non sta leggendo: la connessione viene chiusa
+ *   e il client, riconnettendosi, riceve lo stato aggiornato
+ * - Heartbeat periodico per mantenere aperte le connessioni inattive
+ */
+@Service
+public class EventStreamServiceImpl implements EventStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventStreamServiceImpl.class);
+
+    private final ConcurrentHashMap<UUID, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-sender-", 0).factory());
+
+    @Value("${events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs = 1800000;
+
+    @Value("${events.max-connections-per-user:5}")
+    private int maxConnectionsPerUser = 5;
+
+    @Value("${events.subscriber-queue-size:32}")
+    private int subscriberQueueSize = 32;
+
+    @Override
+    public SseEmitter subscribe(UUID userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter, subscriberQueueSize);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> {
+            remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(e -> remove(subscriber));
+
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (id, list) -> {
+            List<Subscriber> current = list != null ? list : new CopyOnWriteArrayList<>();
+            current.add(subscriber);
+            while (current.size() > maxConnectionsPerUser) {
+                evicted.add(current.remove(0));
+            }
+            return current;
+        });
+        evicted.forEach(old -> old.emitter().complete());
+
+        log.debug("Nuova connessione SSE per utente {} (totale: {})", userId, getSubscriberCount());
+        return emitter;
+    }
+
+    @Override
+    public void publish(UUID userId, String eventName, Object payload) {
+        if (!hasSubscribers(userId)) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(userId, new StreamEvent(eventName, payload));
+                }
+            });
+            return;
+        }
+        send(userId, new StreamEvent(eventName, payload));
+    }
+
+    @Override
+    public boolean hasSubscribers(UUID userId) {
+        return userId != null && subscribers.containsKey(userId);
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Heartbeat (commento SSE) verso tutte le connessioni aperte
+     */
+    @Scheduled(fixedDelayString = "${events.heartbeat-interval-ms:25000}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(list -> list.forEach(sub -> enqueue(sub, StreamEvent.HEARTBEAT)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(list -> list.forEach(sub -> sub.emitter().complete()));
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void send(UUID userId, StreamEvent event) {
+        List<Subscriber> list = subscribers.get(userId);
+        if (list == null) return;
+        list.forEach(sub -> enqueue(sub, event));
+    }
+
+    private void enqueue(Subscriber subscriber, StreamEvent event) {
+        if (!subscriber.queue().offer(event)) {
+            log.warn("Connessione SSE lenta per utente {}: chiusa", subscriber.userId());
+            remove(subscriber);
+            subscriber.emitter().complete();
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining().compareAndSet(false, true)) return;
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.draining().set(false);
+        }
+    }
+
+    /**
+     * Invia gli eventi in coda; un solo drain alla volta per connessione
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            StreamEvent event;
+            while ((event = subscriber.queue().poll()) != null) {
+                subscriber.emitter().send(event.toSse());
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Connessione SSE chiusa per utente {}: {}", subscriber.userId(), e.getMessage());
+            remove(subscriber);
+            return;
+        } finally {
+            subscriber.draining().set(false);
+        }
+        // Eventi arrivati dopo l'ultimo poll ma prima del reset del flag
+        if (!subscriber.queue().isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId(), (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private record Subscriber(UUID userId, SseEmitter emitter, BlockingQueue<StreamEvent> queue,
+                              AtomicBoolean draining) {
+        Subscriber(UUID userId, SseEmitter emitter, int queueSize) {
+            this(userId, emitter, new ArrayBlockingQueue<>(queueSize), new AtomicBoolean(false));
+        }
+    }
+
+    private record StreamEvent(String name, Object payload) {
+        static final StreamEvent HEARTBEAT = new StreamEvent(null, null);
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event().name(name).data(payload);
+        }
+    }
+}
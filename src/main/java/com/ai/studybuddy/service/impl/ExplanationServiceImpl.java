@@ -5,6 +5,8 @@ import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.service.inter.AIService;
 import com.ai.studybuddy.service.inter.ExplanationService;
+import com.ai.studybuddy.service.inter.GamificationEventService;
+import com.ai.studybuddy.service.inter.TopicService;
 import com.ai.studybuddy.util.enums.EducationLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,25 +18,29 @@ public class ExplanationServiceImpl implements ExplanationService {
     private static final Logger log = LoggerFactory.getLogger(ExplanationServiceImpl.class);
 
     private final AIService aiService;
-    private final GamificationServiceImpl gamificationService;
+    private final GamificationEventService gamificationEventService;
+    private final TopicService topicService;
 
     public ExplanationServiceImpl(AIService aiService,
-                                  GamificationServiceImpl gamificationService) {
+                                  GamificationEventService gamificationEventService,
+                                  TopicService topicService) {
         this.aiService = aiService;
-        this.gamificationService = gamificationService;
+        this.gamificationEventService = gamificationEventService;
+        this.topicService = topicService;
     }
 
     @Override
-    public ExplanationResponse generateExplanation(String topic, String level, String subject, User user) {
+    public ExplanationResponse generateExplanation(String rawTopic, String level, String subject, User user) {
         log.info("Generazione spiegazione - topic: '{}', level: '{}', user: {}",
-                topic, level, user.getEmail());
+                rawTopic, level, user.getEmail());
 
         // ✅ PASSA LA LINGUA DELL'UTENTE!
         String language = user.getPreferredLanguage();  // Mai null (default "it" in User)
+        String topic = topicService.canonicalize(rawTopic, language);
         String explanation = aiService.generateExplanation(topic, mapLevel(level), language);
 
-        // Registra XP (+10 per spiegazione)
-        XpEventResponse xpEvent = gamificationService.recordExplanationXp(user, topic, subject);
+        // Registra XP (+10 per spiegazione): badge e progressi vengono processati in background
+        XpEventResponse xpEvent = gamificationEventService.publishExplanation(user, topic, subject);
 
         log.info("Spiegazione generata per '{}' in lingua '{}' - XP guadagnati: {}, Totale: {}",
                 topic, language, xpEvent.getXpEarned(), xpEvent.getNewTotalXp());
@@ -55,8 +61,9 @@ public class ExplanationServiceImpl implements ExplanationService {
     @Override
     public String generateExplanationPreview(String topic, String level) {
         log.info("Generazione preview spiegazione - topic: '{}', level: '{}'", topic, level);
-        // Preview usa italiano (senza XP)
-        return aiService.generateExplanation(topic, mapLevel(level), "it");
+        // Preview usa italiano (senza XP); non registra nuovi argomenti
+        String canonical = topicService.findCanonical(topic, "it").orElse(topic);
+        return aiService.generateExplanation(canonical, mapLevel(level), "it");
     }
 
     private EducationLevel mapLevel(String level) {
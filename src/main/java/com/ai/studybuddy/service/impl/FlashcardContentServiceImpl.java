@@ -0,0 +1,63 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.flashcard.FlashcardContent;
+import com.ai.studybuddy.repository.FlashcardContentRepository;
+import com.ai.studybuddy.service.inter.FlashcardContentService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementazione FlashcardContentService
+ *
+ * - Una SELECT per gli hash già presenti
+ * - Gli hash mancanti vengono inseriti con INSERT ... ON CONFLICT DO NOTHING,
+ *   così due richieste concorrenti con lo stesso testo non falliscono
+ * - Una seconda SELECT legge le righe appena inserite (o vinte da un'altra transazione)
+ */
+@Service
+public class FlashcardContentServiceImpl implements FlashcardContentService {
+
+    private final FlashcardContentRepository contentRepository;
+
+    public FlashcardContentServiceImpl(FlashcardContentRepository contentRepository) {
+        this.contentRepository = contentRepository;
+    }
+
+    @Override
+    @Transactional
+    public FlashcardContent resolve(FlashcardContent draft) {
+        return resolveAll(List.of(draft)).get(0);
+    }
+
+    @Override
+    @Transactional
+    public List<FlashcardContent> resolveAll(List<FlashcardContent> drafts) {
+        Map<String, FlashcardContent> byHash = new LinkedHashMap<>();
+        drafts.forEach(draft -> byHash.putIfAbsent(draft.getContentHash(), draft));
+
+        Map<String, FlashcardContent> stored = new HashMap<>();
+        contentRepository.findByContentHashIn(byHash.keySet())
+                .forEach(content -> stored.put(content.getContentHash(), content));
+
+        if (stored.size() < byHash.size()) {
+            LocalDateTime now = LocalDateTime.now();
+            byHash.forEach((hash, draft) -> {
+                if (!stored.containsKey(hash)) {
+                    contentRepository.insertIfAbsent(hash, draft.getFrontContent(), draft.getBackContent(),
+                            draft.getHint(), now);
+                }
+            });
+            List<String> inserted = byHash.keySet().stream().filter(hash -> !stored.containsKey(hash)).toList();
+            contentRepository.findByContentHashIn(inserted)
+                    .forEach(content -> stored.put(content.getContentHash(), content));
+        }
+
+        return drafts.stream().map(draft -> stored.get(draft.getContentHash())).toList();
+    }
+}
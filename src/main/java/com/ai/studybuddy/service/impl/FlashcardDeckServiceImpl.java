@@ -2,10 +2,14 @@ package com.ai.studybuddy.service.impl;
 
 import com.ai.studybuddy.dto.flashcard.FlashcardDeckCreateRequest;
 import com.ai.studybuddy.exception.ResourceNotFoundException;
+import com.ai.studybuddy.exception.UnauthorizedException;
 import com.ai.studybuddy.mapper.FlashcardMapper;
 import com.ai.studybuddy.model.flashcard.FlashcardDeck;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.repository.FlashcardDeckRepository;
+import com.ai.studybuddy.repository.FlashcardRepository;
+import com.ai.studybuddy.service.inter.CounterBufferService;
+import com.ai.studybuddy.service.inter.CounterBufferService.CounterType;
 import com.ai.studybuddy.service.inter.FlashcardDeckService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,11 +27,17 @@ public class FlashcardDeckServiceImpl implements FlashcardDeckService {
 
     private final FlashcardDeckRepository deckRepository;
     private final FlashcardMapper flashcardMapper;
+    private final CounterBufferService counterBufferService;
+    private final FlashcardRepository flashcardRepository;
 
     public FlashcardDeckServiceImpl(FlashcardDeckRepository deckRepository,
-                                    FlashcardMapper flashcardMapper) {
+                                    FlashcardMapper flashcardMapper,
+                                    CounterBufferService counterBufferService,
+                                    FlashcardRepository flashcardRepository) {
         this.deckRepository = deckRepository;
         this.flashcardMapper = flashcardMapper;
+        this.counterBufferService = counterBufferService;
+        this.flashcardRepository = flashcardRepository;
     }
 
     @Override
@@ -45,12 +55,12 @@ public class FlashcardDeckServiceImpl implements FlashcardDeckService {
     @Override
     public List<FlashcardDeck> getUserDecks(UUID userId) {
         log.debug("Recupero deck per utente: {}", userId);
-        return deckRepository.findByOwnerIdAndIsActiveTrueOrderByUpdatedAtDesc(userId);
+        return withPendingSessions(deckRepository.findByOwnerIdAndIsActiveTrueOrderByUpdatedAtDesc(userId));
     }
 
     @Override
     public FlashcardDeck getDeck(UUID deckId, UUID userId) {
-        return findDeckByIdAndOwner(deckId, userId);
+        return withPendingSessions(findDeckByIdAndOwner(deckId, userId));
     }
 
     @Override
@@ -79,19 +89,40 @@ public class FlashcardDeckServiceImpl implements FlashcardDeckService {
     public void recordStudySession(UUID deckId, UUID userId) {
         log.debug("Registrazione sessione studio per deck: {}", deckId);
 
-        FlashcardDeck deck = findDeckByIdAndOwner(deckId, userId);
-        deck.recordStudySession();
-        deckRepository.save(deck);
+        // Verifica ownership; il contatore viene scritto dal buffer write-behind
+        findDeckByIdAndOwner(deckId, userId);
+        counterBufferService.increment(CounterType.DECK_TIMES_STUDIED, deckId, 1);
     }
 
     @Override
     @Transactional
     public void updateMasteredCount(UUID deckId, UUID userId) {
         FlashcardDeck deck = findDeckByIdAndOwner(deckId, userId);
-        deck.updateMasteredCount();
+        // Conteggio dallo stato di revisione del proprietario, senza caricare le flashcard
+        deck.setCardsMastered((int) flashcardRepository.countMasteredByDeckId(deckId, userId));
         deckRepository.save(deck);
     }
 
+    @Override
+    @Transactional
+    public FlashcardDeck cloneDeck(UUID deckId, User user) {
+        FlashcardDeck source = deckRepository.findById(deckId)
+                .filter(deck -> Boolean.TRUE.equals(deck.getIsActive()))
+                .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", deckId));
+        if (!Boolean.TRUE.equals(source.getIsPublic()) && !source.getOwner().getId().equals(user.getId())) {
+            throw new UnauthorizedException("deck", "copiare");
+        }
+
+        FlashcardDeck copy = deckRepository.saveAndFlush(flashcardMapper.toCopy(source, user));
+
+        // Tutte le flashcard in un solo statement, senza caricarle
+        int copied = flashcardRepository.copyToDeck(source.getId(), copy.getId(), user.getId(), LocalDateTime.now());
+        copy.setTotalCards(copied);
+
+        log.info("Deck {} copiato in {} per utente {}: {} flashcard", deckId, copy.getId(), user.getId(), copied);
+        return copy;
+    }
+
     @Override
     public List<FlashcardDeck> searchDecks(UUID userId, String searchTerm) {
         log.debug("Ricerca deck per utente: {}, termine: '{}'", userId, searchTerm);
@@ -121,7 +152,8 @@ public class FlashcardDeckServiceImpl implements FlashcardDeckService {
         long totalDecks = deckRepository.countByOwnerIdAndIsActiveTrue(userId);
         long totalCards = deckRepository.countTotalCardsByOwner(userId);
 
-        List<FlashcardDeck> decks = deckRepository.findByOwnerIdAndIsActiveTrueOrderByUpdatedAtDesc(userId);
+        List<FlashcardDeck> decks = withPendingSessions(
+                deckRepository.findByOwnerIdAndIsActiveTrueOrderByUpdatedAtDesc(userId));
 
         long totalMastered = decks.stream()
                 .mapToLong(FlashcardDeck::getCardsMastered)
@@ -136,6 +168,20 @@ public class FlashcardDeckServiceImpl implements FlashcardDeckService {
 
     // ==================== HELPER METHODS ====================
 
+    /**
+     * Somma le sessioni di studio non ancora scritte su DB
+     */
+    private FlashcardDeck withPendingSessions(FlashcardDeck deck) {
+        deck.applyPendingStudySessions(
+                counterBufferService.getPending(CounterType.DECK_TIMES_STUDIED, deck.getId()));
+        return deck;
+    }
+
+    private List<FlashcardDeck> withPendingSessions(List<FlashcardDeck> decks) {
+        decks.forEach(this::withPendingSessions);
+        return decks;
+    }
+
     private FlashcardDeck findDeckByIdAndOwner(UUID deckId, UUID userId) {
         return deckRepository.findByIdAndOwnerIdAndIsActiveTrue(deckId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", deckId));
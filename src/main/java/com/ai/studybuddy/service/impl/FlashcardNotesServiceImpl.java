@@ -0,0 +1,309 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.dto.flashcard.FlashcardCreateRequest;
+import com.ai.studybuddy.dto.flashcard.FlashcardNotesGenerateRequest;
+import com.ai.studybuddy.exception.AIServiceException;
+import com.ai.studybuddy.exception.AIServiceException.AIErrorType;
+import com.ai.studybuddy.exception.ResourceNotFoundException;
+import com.ai.studybuddy.exception.StudyBuddyException;
+import com.ai.studybuddy.exception.UnauthorizedException;
+import com.ai.studybuddy.mapper.FlashcardMapper;
+import com.ai.studybuddy.model.flashcard.Flashcard;
+import com.ai.studybuddy.model.flashcard.FlashcardContent;
+import com.ai.studybuddy.model.flashcard.FlashcardDeck;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.repository.FlashcardDeckRepository;
+import com.ai.studybuddy.repository.FlashcardRepository;
+import com.ai.studybuddy.service.inter.AIGenerationPool;
+import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.FlashcardContentService;
+import com.ai.studybuddy.service.inter.FlashcardNotesService;
+import com.ai.studybuddy.service.inter.TopicService;
+import com.ai.studybuddy.util.NotesFileSegmenter;
+import com.ai.studybuddy.util.TextChunker;
+import com.ai.studybuddy.util.TopicNormalizer;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+/**
+ * Implementazione FlashcardNotesService
+ *
+ * - Le chiamate AI girano su AIGenerationPool, che limita le chiamate
+ *   contemporanee per tutta l'applicazione; per richiesta al massimo
+ *   flashcards.notes.max-in-flight parti in corso
+ * - Il thread della richiesta raccoglie le parti nell'ordine in cui finiscono e
+ *   salva ciascuna in una propria transazione: le carte compaiono nel deck
+ *   mentre le altre parti sono ancora in generazione
+ * - Le parti si sovrappongono, quindi la stessa domanda può tornare due volte:
+ *   si tiene la prima (stessa domanda normalizzata o stesso contenuto)
+ * - I file caricati vengono salvati su disco e letti a parti con NotesFileSegmenter:
+ *   in memoria restano solo le parti in corso, qualunque sia la dimensione del file
+ * - Con più parti che carte richieste si genera una parte ogni "passo", scelto in
+ *   modo da coprire tutto il testo: anche le ultime sezioni ricevono parte del budget
+ */
+@Service
+public class FlashcardNotesServiceImpl implements FlashcardNotesService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashcardNotesServiceImpl.class);
+
+    private static final List<String> NOTES_EXTENSIONS = List.of(".txt", ".md", ".markdown");
+    private static final int MAX_CARDS = 300;
+
+    private final FlashcardRepository flashcardRepository;
+    private final FlashcardDeckRepository deckRepository;
+    private final AIService aiService;
+    private final FlashcardMapper flashcardMapper;
+    private final FlashcardContentService contentService;
+    private final TopicService topicService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AIGenerationPool generationPool;
+
+    @Value("${flashcards.notes.chunk-chars:6000}")
+    private int chunkChars = 6000;
+
+    @Value("${flashcards.notes.overlap-chars:400}")
+    private int overlapChars = 400;
+
+    @Value("${flashcards.notes.max-cards-per-chunk:10}")
+    private int maxCardsPerChunk = 10;
+
+    @Value("${flashcards.notes.max-in-flight:4}")
+    private int maxInFlight = 4;
+
+    public FlashcardNotesServiceImpl(FlashcardRepository flashcardRepository,
+                                     FlashcardDeckRepository deckRepository,
+                                     AIService aiService,
+                                     FlashcardMapper flashcardMapper,
+                                     FlashcardContentService contentService,
+                                     TopicService topicService,
+                                     TransactionTemplate transactionTemplate,
+                                     AIGenerationPool generationPool) {
+        this.flashcardRepository = flashcardRepository;
+        this.deckRepository = deckRepository;
+        this.aiService = aiService;
+        this.flashcardMapper = flashcardMapper;
+        this.contentService = contentService;
+        this.topicService = topicService;
+        this.transactionTemplate = transactionTemplate;
+        this.generationPool = generationPool;
+    }
+
+    @Override
+    public List<Flashcard> generateFromNotes(UUID deckId, FlashcardNotesGenerateRequest request, User user) {
+        FlashcardDeck deck = findOwnedDeck(deckId, user);
+        List<String> chunks = TextChunker.split(request.getNotes(), chunkChars, overlapChars);
+
+        log.info("Generazione flashcards da appunti - deck: {}, caratteri: {}, parti: {}",
+                deckId, request.getNotes().length(), chunks.size());
+        return generate(deck, request, user, chunks.iterator(), chunks.size(), chunks.size());
+    }
+
+    @Override
+    public List<Flashcard> generateFromFile(UUID deckId, MultipartFile file, FlashcardNotesGenerateRequest request,
+                                            User user) {
+        FlashcardDeck deck = findOwnedDeck(deckId, user);
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename() : "";
+        if (file.isEmpty() || !isNotesFile(filename)) {
+            throw new StudyBuddyException("NOTES_INVALID_FILE",
+                    "Carica un file di testo non vuoto (" + String.join(", ", NOTES_EXTENSIONS) + ")");
+        }
+
+        Path notesFile = null;
+        try {
+            // Il contenuto va su disco senza passare dall'heap, poi viene letto a finestre mappate
+            notesFile = Files.createTempFile("notes-", ".txt");
+            file.transferTo(notesFile);
+            long bytes = Files.size(notesFile);
+            int estimatedParts = (int) Math.max(1, bytes / Math.max(chunkChars - overlapChars, 1));
+
+            log.info("Generazione flashcards da file '{}' - deck: {}, byte: {}, parti stimate: {}",
+                    filename, deckId, bytes, estimatedParts);
+            try (NotesFileSegmenter sections = NotesFileSegmenter.open(notesFile, chunkChars, overlapChars)) {
+                return generate(deck, request, user, sections, estimatedParts, 0);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new StudyBuddyException("Impossibile leggere il file di appunti: " + filename, e);
+        } finally {
+            deleteQuietly(notesFile);
+        }
+    }
+
+    // ==================== PARTI ====================
+
+    /**
+     * Al massimo maxInFlight parti in corso per richiesta: la parte successiva
+     * viene letta solo quando una delle precedenti è finita. Se le parti stimate
+     * superano le carte richieste (almeno una carta per parte), si salta da una
+     * parte all'altra con passo fisso, così il budget copre l'intero testo
+     *
+     * @param estimatedParts numero di parti previsto, per dividere il budget di carte
+     * @param totalParts     numero esatto di parti, 0 se non noto in anticipo
+     */
+    private List<Flashcard> generate(FlashcardDeck deck, FlashcardNotesGenerateRequest request, User user,
+                                     Iterator<String> sections, int estimatedParts, int totalParts) {
+        String language = request.getLanguage() != null ? request.getLanguage() : user.getPreferredLanguage();
+        String topic = topicService.canonicalize(request.getTopic(), language);
+        int maxCards = Math.clamp(request.getMaxCards() != null ? request.getMaxCards() : 50, 1, MAX_CARDS);
+        int cardsPerChunk = Math.clamp((maxCards + estimatedParts - 1) / Math.max(estimatedParts, 1),
+                1, maxCardsPerChunk);
+        int stride = Math.max(1, (estimatedParts + maxCards - 1) / maxCards);
+
+        CompletionService<JsonArray> completion = new ExecutorCompletionService<>(generationPool);
+        Set<Future<JsonArray>> running = new HashSet<>();
+        List<Flashcard> created = new ArrayList<>();
+        Set<String> seenFronts = new HashSet<>();
+        Set<String> seenHashes = new HashSet<>();
+        RuntimeException firstError = null;
+        int read = 0;
+        int parts = 0;
+        int failed = 0;
+
+        try {
+            while (created.size() < maxCards) {
+                while (running.size() < maxInFlight && sections.hasNext()) {
+                    String excerpt = sections.next();
+                    int part = ++read;
+                    if ((part - 1) % stride != 0) continue;
+                    parts++;
+                    running.add(completion.submit(() -> generateChunk(topic, cardsPerChunk, request, excerpt,
+                            part, totalParts, language)));
+                }
+                if (running.isEmpty()) break;
+
+                Future<JsonArray> done = completion.take();
+                running.remove(done);
+                JsonArray cardsJson;
+                try {
+                    cardsJson = done.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    RuntimeException cause = e.getCause() instanceof RuntimeException runtime
+                            ? runtime
+                            : new AIServiceException(AIErrorType.SERVICE_UNAVAILABLE, e.getCause());
+                    if (firstError == null) firstError = cause;
+                    log.warn("Parte degli appunti non generata (deck {}): {}", deck.getId(), cause.getMessage());
+                    continue;
+                }
+
+                List<Flashcard> cards = toCards(cardsJson, deck, user, topic, language, request,
+                        seenFronts, seenHashes, maxCards - created.size());
+                if (!cards.isEmpty()) {
+                    created.addAll(saveChunk(deck.getId(), cards));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AIServiceException(AIErrorType.TIMEOUT, "Generazione da appunti interrotta", e);
+        } finally {
+            // Budget di carte raggiunto o richiesta interrotta: le parti ancora in corso non servono più
+            running.forEach(future -> future.cancel(true));
+        }
+
+        if (created.isEmpty() && firstError != null) {
+            throw firstError;
+        }
+        log.info("Generate {} flashcards da {} parti di appunti su {} lette (passo {}, {} fallite) nel deck {}",
+                created.size(), parts, read, stride, failed, deck.getId());
+        return created;
+    }
+
+    private JsonArray generateChunk(String topic, int numCards, FlashcardNotesGenerateRequest request,
+                                    String excerpt, int part, int totalParts, String language) {
+        String response = aiService.generateFlashcardsFromNotes(topic, numCards,
+                request.getDifficultyLevel(), excerpt, part, totalParts, language);
+        return aiService.parseGeneratedItems(response, numCards).items();
+    }
+
+    /**
+     * Carte di una parte, senza quelle già viste nelle parti precedenti
+     */
+    private List<Flashcard> toCards(JsonArray cardsJson, FlashcardDeck deck, User user, String topic,
+                                    String language, FlashcardNotesGenerateRequest request,
+                                    Set<String> seenFronts, Set<String> seenHashes, int remaining) {
+        List<Flashcard> cards = new ArrayList<>();
+        for (JsonElement element : cardsJson) {
+            if (cards.size() >= remaining) break;
+            if (!element.isJsonObject()) continue;
+            JsonObject cardJson = element.getAsJsonObject();
+            if (!cardJson.has("front") || !cardJson.has("back")) continue;
+
+            FlashcardCreateRequest cardRequest = FlashcardCreateRequest.builder()
+                    .frontContent(cardJson.get("front").getAsString())
+                    .backContent(cardJson.get("back").getAsString())
+                    .difficultyLevel(request.getDifficultyLevel())
+                    .tags("ai-generated", topic, "notes", "lang-" + language)
+                    .build();
+            Flashcard flashcard = flashcardMapper.toAIGeneratedEntity(cardRequest, deck, user);
+
+            boolean newFront = seenFronts.add(
+                    TopicNormalizer.normalize(flashcard.getContent().getFrontContent(), null));
+            boolean newContent = seenHashes.add(flashcard.getContent().getContentHash());
+            if (newFront && newContent) {
+                cards.add(flashcard);
+            }
+        }
+        return cards;
+    }
+
+    private List<Flashcard> saveChunk(UUID deckId, List<Flashcard> cards) {
+        return transactionTemplate.execute(status -> {
+            List<FlashcardContent> contents = contentService.resolveAll(
+                    cards.stream().map(Flashcard::getContent).toList());
+            for (int i = 0; i < cards.size(); i++) {
+                cards.get(i).setContent(contents.get(i));
+            }
+            List<Flashcard> saved = flashcardRepository.saveAll(cards);
+            deckRepository.addTotalCards(deckId, saved.size());
+            return saved;
+        });
+    }
+
+    // ==================== UTILITY ====================
+
+    private FlashcardDeck findOwnedDeck(UUID deckId, User user) {
+        FlashcardDeck deck = deckRepository.findById(deckId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", deckId));
+        if (!deck.getOwner().getId().equals(user.getId())) {
+            throw new UnauthorizedException("deck", "accedere");
+        }
+        return deck;
+    }
+
+    private static boolean isNotesFile(String filename) {
+        String name = filename.toLowerCase(Locale.ROOT);
+        return NOTES_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("File temporaneo di appunti non eliminato: {}", file);
+        }
+    }
+}
@@ -2,17 +2,30 @@ package com.ai.studybuddy.service.impl;
 
 import com.ai.studybuddy.dto.flashcard.FlashcardAIGenerateRequest;
 import com.ai.studybuddy.dto.flashcard.FlashcardCreateRequest;
+import com.ai.studybuddy.dto.flashcard.FlashcardReviewResult;
+import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
 import com.ai.studybuddy.exception.ResourceNotFoundException;
 import com.ai.studybuddy.exception.UnauthorizedException;
 import com.ai.studybuddy.mapper.FlashcardMapper;
 import com.ai.studybuddy.model.flashcard.Flashcard;
+import com.ai.studybuddy.model.flashcard.FlashcardContent;
 import com.ai.studybuddy.model.flashcard.FlashcardDeck;
+import com.ai.studybuddy.model.flashcard.FlashcardReviewState;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.repository.FlashcardDeckRepository;
 import com.ai.studybuddy.repository.FlashcardRepository;
+import com.ai.studybuddy.repository.FlashcardReviewStateRepository;
 import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.CounterBufferService;
+import com.ai.studybuddy.service.inter.CounterBufferService.CounterType;
+import com.ai.studybuddy.service.inter.FlashcardContentService;
 import com.ai.studybuddy.service.inter.FlashcardService;
+import com.ai.studybuddy.service.inter.GamificationEventService;
+import com.ai.studybuddy.service.inter.PredictiveGenerationService;
+import com.ai.studybuddy.service.inter.TopicService;
+import com.ai.studybuddy.service.inter.WarmPoolService;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import org.slf4j.Logger;
@@ -24,8 +37,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class FlashcardServiceImpl implements FlashcardService {
@@ -37,17 +55,38 @@ public class FlashcardServiceImpl implements FlashcardService {
     private final FlashcardDeckRepository deckRepository;
     private final AIService aiService;
     private final FlashcardMapper flashcardMapper;
+    private final CounterBufferService counterBufferService;
+    private final TopicService topicService;
+    private final FlashcardContentService contentService;
+    private final FlashcardReviewStateRepository reviewStateRepository;
+    private final PredictiveGenerationService predictiveGenerationService;
+    private final WarmPoolService warmPoolService;
+    private final GamificationEventService gamificationEventService;
     
     private FlashcardService selfProxy;
 
     public FlashcardServiceImpl(FlashcardRepository flashcardRepository,
                                 FlashcardDeckRepository deckRepository,
                                 AIService aiService,
-                                FlashcardMapper flashcardMapper) {
+                                FlashcardMapper flashcardMapper,
+                                CounterBufferService counterBufferService,
+                                TopicService topicService,
+                                FlashcardContentService contentService,
+                                FlashcardReviewStateRepository reviewStateRepository,
+                                PredictiveGenerationService predictiveGenerationService,
+                                WarmPoolService warmPoolService,
+                                GamificationEventService gamificationEventService) {
         this.flashcardRepository = flashcardRepository;
         this.deckRepository = deckRepository;
         this.aiService = aiService;
         this.flashcardMapper = flashcardMapper;
+        this.counterBufferService = counterBufferService;
+        this.topicService = topicService;
+        this.contentService = contentService;
+        this.reviewStateRepository = reviewStateRepository;
+        this.predictiveGenerationService = predictiveGenerationService;
+        this.warmPoolService = warmPoolService;
+        this.gamificationEventService = gamificationEventService;
     }
 
     @Autowired
@@ -62,6 +101,7 @@ public class FlashcardServiceImpl implements FlashcardService {
         FlashcardDeck deck = findDeckOrThrow(deckId);
         verifyOwnership(deck, user);
         Flashcard flashcard = flashcardMapper.toEntity(request, deck, user);
+        flashcard.setContent(contentService.resolve(flashcard.getContent()));
         Flashcard saved = flashcardRepository.save(flashcard);
         updateDeckCardCount(deck, 1);
         log.info("Flashcard creata con ID: {}", saved.getId());
@@ -97,6 +137,7 @@ public class FlashcardServiceImpl implements FlashcardService {
                                                      FlashcardAIGenerateRequest request,
                                                      User user) {
         String language = request.getLanguage() != null ? request.getLanguage() : user.getPreferredLanguage();
+        request.setTopic(topicService.canonicalize(request.getTopic(), language));
         
         log.info("Generazione AI flashcards - deck: {}, topic: {}, cards: {}, lingua: {}",
                 deckId, request.getTopic(), request.getNumberOfCards(), language);
@@ -104,27 +145,51 @@ public class FlashcardServiceImpl implements FlashcardService {
         FlashcardDeck deck = findDeckOrThrow(deckId);
         verifyOwnership(deck, user);
 
-        String aiResponse;
-        if (request.hasContext()) {
-            aiResponse = aiService.generateFlashcardsWithContext(
-                    request.getTopic(),
-                    request.getNumberOfCards(),
-                    request.getDifficultyLevel(),
-                    request.getContext(),
-                    language
-            );
-        } else {
-            aiResponse = aiService.generateFlashcards(
-                    request.getTopic(),
-                    request.getNumberOfCards(),
-                    request.getDifficultyLevel(),
-                    user.getEducationLevel(),
-                    language
-            );
+        // Carte pre-generate per questo utente o per gli argomenti di tendenza (solo senza contesto),
+        // l'AI solo per quelle mancanti
+        JsonArray flashcardsJson = new JsonArray();
+        WarmPoolService.PoolKey poolKey = WarmPoolService.PoolKey.of(GeneratedContentType.FLASHCARDS,
+                request.getTopic(), request.getDifficultyLevel(), user.getEducationLevel(), language);
+        List<JsonObject> predicted = List.of();
+        List<JsonObject> pooled = List.of();
+        if (!request.hasContext()) {
+            predicted = predictiveGenerationService.take(user.getId(), GeneratedContentType.FLASHCARDS,
+                    request.getTopic(), request.getDifficultyLevel(), user.getEducationLevel(), language,
+                    request.getNumberOfCards());
+            predicted.forEach(flashcardsJson::add);
+            pooled = warmPoolService.take(poolKey, request.getNumberOfCards() - flashcardsJson.size());
+            pooled.forEach(flashcardsJson::add);
         }
-
-        JsonArray flashcardsJson = aiService.parseFlashcardsResponse(aiResponse);
-        List<Flashcard> createdCards = new ArrayList<>();
+        int toGenerate = request.getNumberOfCards() - flashcardsJson.size();
+        if (toGenerate > 0) {
+            try {
+                flashcardsJson.addAll(aiService.generateWithShortfall(toGenerate, "front",
+                        (count, excluded) -> request.hasContext()
+                                ? aiService.generateFlashcardsWithContext(
+                                        request.getTopic(),
+                                        count,
+                                        request.getDifficultyLevel(),
+                                        request.getContext(),
+                                        language,
+                                        excluded)
+                                : aiService.generateFlashcards(
+                                        request.getTopic(),
+                                        count,
+                                        request.getDifficultyLevel(),
+                                        user.getEducationLevel(),
+                                        language,
+                                        excluded)));
+            } catch (RuntimeException e) {
+                // Carte non generate: quelle pre-generate e del pool restano per la prossima richiesta
+                predictiveGenerationService.putBack(user.getId(), GeneratedContentType.FLASHCARDS,
+                        request.getTopic(), request.getDifficultyLevel(), user.getEducationLevel(), language,
+                        predicted);
+                warmPoolService.putBack(poolKey, pooled);
+                throw e;
+            }
+        }
+        List<Flashcard> cards = new ArrayList<>();
+        Set<String> seenHashes = new HashSet<>();
 
         for (int i = 0; i < flashcardsJson.size(); i++) {
             JsonObject cardJson = flashcardsJson.get(i).getAsJsonObject();
@@ -135,9 +200,20 @@ public class FlashcardServiceImpl implements FlashcardService {
                     .tags("ai-generated", request.getTopic(), "lang-" + language)
                     .build();
             Flashcard flashcard = flashcardMapper.toAIGeneratedEntity(cardRequest, deck, user);
-            createdCards.add(flashcardRepository.save(flashcard));
+            // Card ripetute nella stessa risposta dell'AI: una sola
+            if (seenHashes.add(flashcard.getContent().getContentHash())) {
+                cards.add(flashcard);
+            }
         }
 
+        // Contenuti identici a quelli già salvati (anche da altri utenti) non vengono duplicati
+        List<FlashcardContent> contents = contentService.resolveAll(
+                cards.stream().map(Flashcard::getContent).toList());
+        for (int i = 0; i < cards.size(); i++) {
+            cards.get(i).setContent(contents.get(i));
+        }
+        List<Flashcard> createdCards = flashcardRepository.saveAll(cards);
+
         updateDeckCardCount(deck, createdCards.size());
         log.info("Generate {} flashcards con AI in lingua: {}", createdCards.size(), language);
         return createdCards;
@@ -146,34 +222,42 @@ public class FlashcardServiceImpl implements FlashcardService {
     @Override
     public List<Flashcard> getFlashcardsByDeck(UUID deckId, UUID userId) {
         FlashcardDeck deck = findDeckOrThrow(deckId);
-        verifyOwnership(deck, userId);
-        return flashcardRepository.findByDeckIdAndIsActiveTrue(deckId);
+        verifyReadAccess(deck, userId);
+        return withReviewState(flashcardRepository.findByDeckIdAndIsActiveTrue(deckId), userId);
     }
 
     @Override
     @Transactional
-    public Flashcard reviewFlashcard(UUID flashcardId, boolean wasCorrect, UUID userId) {
+    public FlashcardReviewResult reviewFlashcard(UUID flashcardId, boolean wasCorrect, User user) {
         log.debug("Review flashcard: {}, correct: {}", flashcardId, wasCorrect);
+        UUID userId = user.getId();
         Flashcard flashcard = findFlashcardOrThrow(flashcardId);
-        verifyOwnership(flashcard.getDeck(), userId);
-        flashcard.recordReview(wasCorrect);
-        return flashcardRepository.save(flashcard);
+        verifyReadAccess(flashcard.getDeck(), userId);
+
+        UUID stateId = findOrCreateReviewState(userId, flashcardId);
+        // Evento XP nella transazione della review, prima dei contatori: se fallisce non resta nulla
+        XpEventResponse xpEvent = gamificationEventService.publishFlashcardsStudied(user, 1);
+
+        // Contatori caldi sullo stato dell'utente: scritti dal buffer write-behind, non dalla singola review
+        counterBufferService.increment(CounterType.FLASHCARD_TIMES_REVIEWED, stateId, 1);
+        counterBufferService.increment(CounterType.FLASHCARD_TIMES_CORRECT, stateId, wasCorrect ? 1 : 0);
+        return new FlashcardReviewResult(withReviewState(flashcard, userId), xpEvent);
     }
 
     @Override
     public List<Flashcard> getStudySession(UUID deckId, int numberOfCards, UUID userId) {
         FlashcardDeck deck = findDeckOrThrow(deckId);
-        verifyOwnership(deck, userId);
-        List<Flashcard> neverReviewed = flashcardRepository.findNeverReviewedByDeckId(deckId);
+        verifyReadAccess(deck, userId);
+        List<Flashcard> neverReviewed = flashcardRepository.findNeverReviewedByDeckId(deckId, userId);
         if (neverReviewed.size() >= numberOfCards) {
-            return neverReviewed.subList(0, numberOfCards);
+            return withReviewState(neverReviewed.subList(0, numberOfCards), userId);
         }
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(DEFAULT_REVIEW_DAYS);
-        List<Flashcard> needReview = flashcardRepository.findNeedingReview(deckId, cutoffDate);
+        List<Flashcard> needReview = flashcardRepository.findNeedingReview(deckId, userId, cutoffDate);
         if (needReview.size() >= numberOfCards) {
-            return needReview.subList(0, numberOfCards);
+            return withReviewState(needReview.subList(0, numberOfCards), userId);
         }
-        return flashcardRepository.findRandomForStudy(deckId, numberOfCards);
+        return withReviewState(flashcardRepository.findRandomForStudy(deckId, numberOfCards), userId);
     }
 
     @Override
@@ -183,6 +267,8 @@ public class FlashcardServiceImpl implements FlashcardService {
         Flashcard flashcard = findFlashcardOrThrow(flashcardId);
         verifyOwnership(flashcard.getDeck(), userId);
         flashcardMapper.updateEntity(flashcard, request);
+        // Il contenuto precedente resta alle altre flashcard che lo condividono
+        flashcard.setContent(contentService.resolve(flashcard.getContent()));
         return flashcardRepository.save(flashcard);
     }
 
@@ -200,15 +286,15 @@ public class FlashcardServiceImpl implements FlashcardService {
     @Override
     public List<Flashcard> searchFlashcards(UUID deckId, String searchTerm, UUID userId) {
         FlashcardDeck deck = findDeckOrThrow(deckId);
-        verifyOwnership(deck, userId);
-        return flashcardRepository.searchByContent(deckId, searchTerm);
+        verifyReadAccess(deck, userId);
+        return withReviewState(flashcardRepository.searchByContent(deckId, searchTerm), userId);
     }
 
     @Override
     public FlashcardStats getFlashcardStats(UUID deckId, UUID userId) {
         FlashcardDeck deck = findDeckOrThrow(deckId);
-        verifyOwnership(deck, userId);
-        List<Flashcard> allCards = flashcardRepository.findByDeckIdAndIsActiveTrue(deckId);
+        verifyReadAccess(deck, userId);
+        List<Flashcard> allCards = withReviewState(flashcardRepository.findByDeckIdAndIsActiveTrue(deckId), userId);
         long total = allCards.size();
         long mastered = allCards.stream()
                 .filter(card -> card.getSuccessRate() >= 80.0)
@@ -219,6 +305,47 @@ public class FlashcardServiceImpl implements FlashcardService {
         return new FlashcardStats(total, mastered, needReview);
     }
 
+    /**
+     * Mostra sulle flashcard l'andamento dell'utente (una sola query),
+     * sommando le review non ancora scritte su DB
+     */
+    private List<Flashcard> withReviewState(List<Flashcard> cards, UUID userId) {
+        if (cards.isEmpty()) return cards;
+
+        Map<UUID, FlashcardReviewState> states = reviewStateRepository
+                .findByUserIdAndFlashcardIds(userId, cards.stream().map(Flashcard::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(state -> state.getFlashcard().getId(), Function.identity()));
+
+        for (Flashcard card : cards) {
+            FlashcardReviewState state = states.get(card.getId());
+            long pendingReviews = 0;
+            long pendingCorrect = 0;
+            if (state != null) {
+                pendingReviews = counterBufferService.getPending(CounterType.FLASHCARD_TIMES_REVIEWED, state.getId());
+                pendingCorrect = counterBufferService.getPending(CounterType.FLASHCARD_TIMES_CORRECT, state.getId());
+            }
+            card.showReviewState(state, pendingReviews, pendingCorrect);
+        }
+        return cards;
+    }
+
+    private Flashcard withReviewState(Flashcard card, UUID userId) {
+        return withReviewState(List.of(card), userId).get(0);
+    }
+
+    /**
+     * Stato dell'utente sulla flashcard, creato alla prima revisione
+     */
+    private UUID findOrCreateReviewState(UUID userId, UUID flashcardId) {
+        return reviewStateRepository.findIdByUserIdAndFlashcardId(userId, flashcardId)
+                .orElseGet(() -> {
+                    reviewStateRepository.insertIfAbsent(userId, flashcardId, LocalDateTime.now());
+                    return reviewStateRepository.findIdByUserIdAndFlashcardId(userId, flashcardId)
+                            .orElseThrow(() -> new ResourceNotFoundException("Flashcard", "id", flashcardId));
+                });
+    }
+
     private FlashcardDeck findDeckOrThrow(UUID deckId) {
         return deckRepository.findById(deckId)
                 .orElseThrow(() -> new ResourceNotFoundException("Deck", "id", deckId));
@@ -239,6 +366,15 @@ public class FlashcardServiceImpl implements FlashcardService {
         }
     }
 
+    /**
+     * Studio e lettura: il proprietario oppure chiunque se il deck è pubblico
+     */
+    private void verifyReadAccess(FlashcardDeck deck, UUID userId) {
+        if (!Boolean.TRUE.equals(deck.getIsPublic())) {
+            verifyOwnership(deck, userId);
+        }
+    }
+
     private void updateDeckCardCount(FlashcardDeck deck, int delta) {
         deck.setTotalCards(deck.getTotalCards() + delta);
         deckRepository.save(deck);
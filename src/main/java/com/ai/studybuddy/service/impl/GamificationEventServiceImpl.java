@@ -0,0 +1,270 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
+import com.ai.studybuddy.model.gamification.GamificationEvent;
+import com.ai.studybuddy.model.gamification.GamificationEvent.EventType;
+import com.ai.studybuddy.model.gamification.GamificationEvent.Status;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.repository.GamificationEventRepository;
+import com.ai.studybuddy.service.inter.GamificationEventService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementazione GamificationEventService
+ *
+ * - Pubblicazione: l'evento viene salvato nella tabella outbox e affidato ai
+ *   worker dopo il commit; la risposta contiene solo l'anteprima XP
+ * - Worker: virtual thread, al massimo gamification.outbox.max-concurrency
+ *   in parallelo; gli eventi oltre il limite restano in coda per il poller
+ * - Gli eventi dello stesso utente vengono processati uno alla volta
+ * - In caso di errore l'evento torna in coda fino a gamification.outbox.max-attempts
+ */
+@Service
+public class GamificationEventServiceImpl implements GamificationEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(GamificationEventServiceImpl.class);
+
+    private static final Set<Status> QUEUED_STATUSES = EnumSet.of(Status.PENDING, Status.PROCESSING);
+    private static final int USER_LOCK_STRIPES = 64;
+
+    private final GamificationEventRepository eventRepository;
+    private final GamificationServiceImpl gamificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Semaphore permits;
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("gamification-worker-", 0).factory());
+    private final ReentrantLock[] userLocks = new ReentrantLock[USER_LOCK_STRIPES];
+
+    @Value("${gamification.outbox.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${gamification.outbox.stuck-after-ms:60000}")
+    private long stuckAfterMs = 60000;
+
+    public GamificationEventServiceImpl(GamificationEventRepository eventRepository,
+                                        GamificationServiceImpl gamificationService,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${gamification.outbox.max-concurrency:8}") int maxConcurrency) {
+        this.eventRepository = eventRepository;
+        this.gamificationService = gamificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.permits = new Semaphore(maxConcurrency);
+        for (int i = 0; i < USER_LOCK_STRIPES; i++) {
+            userLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // ==================== PUBBLICAZIONE ====================
+
+    @Override
+    @Transactional
+    public XpEventResponse publishExplanation(User user, String topic, String subject) {
+        GamificationEvent event = newEvent(user, EventType.EXPLANATION, GamificationServiceImpl.XP_EXPLANATION);
+        event.setTopic(topic);
+        event.setSubject(subject);
+
+        return publish(user, event, "EXPLANATION");
+    }
+
+    @Override
+    @Transactional
+    public XpEventResponse publishQuizCompleted(User user, boolean passed, String topic, String subject,
+                                                double score, int totalQuestions, int correctAnswers) {
+        int xp = GamificationServiceImpl.XP_QUIZ_COMPLETED
+                + (passed ? GamificationServiceImpl.XP_QUIZ_PASSED_BONUS : 0);
+
+        GamificationEvent event = newEvent(user, EventType.QUIZ, xp);
+        event.setPassed(passed);
+        event.setTopic(topic);
+        event.setSubject(subject);
+        event.setScore(score);
+        event.setTotalQuestions(totalQuestions);
+        event.setCorrectAnswers(correctAnswers);
+
+        return publish(user, event, "QUIZ");
+    }
+
+    @Override
+    @Transactional
+    public XpEventResponse publishFlashcardsStudied(User user, int cardsStudied) {
+        GamificationEvent event = newEvent(user, EventType.FLASHCARD,
+                cardsStudied * GamificationServiceImpl.XP_FLASHCARD_PER_CARD);
+        event.setCardsStudied(cardsStudied);
+
+        return publish(user, event, "FLASHCARD");
+    }
+
+    private GamificationEvent newEvent(User user, EventType type, int xp) {
+        GamificationEvent event = new GamificationEvent();
+        event.setUser(user);
+        event.setEventType(type);
+        event.setXpAwarded(xp);
+        return event;
+    }
+
+    private XpEventResponse publish(User user, GamificationEvent event, String responseType) {
+        // XP di eventi precedenti non ancora processati, per un'anteprima coerente
+        long queuedXp = eventRepository.sumXpByUserIdAndStatusIn(user.getId(), QUEUED_STATUSES);
+
+        GamificationEvent saved = eventRepository.save(event);
+        dispatchAfterCommit(saved.getId());
+
+        log.debug("Evento {} pubblicato per utente {}: {} XP", saved.getEventType(), user.getEmail(),
+                saved.getXpAwarded());
+        return gamificationService.previewXp(user, responseType, saved.getXpAwarded(), queuedXp);
+    }
+
+    private void dispatchAfterCommit(UUID eventId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(eventId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(eventId);
+            }
+        });
+    }
+
+    // ==================== WORKER ====================
+
+    @Override
+    @Scheduled(fixedDelayString = "${gamification.outbox.poll-interval-ms:1000}")
+    public int dispatchPending() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(stuckAfterMs * 1_000_000);
+        Integer released = transactionTemplate.execute(status ->
+                eventRepository.releaseStuck(Status.PROCESSING, Status.PENDING, cutoff));
+        if (released != null && released > 0) {
+            log.warn("{} eventi gamification rimessi in coda dopo timeout", released);
+        }
+
+        int capacity = permits.availablePermits();
+        if (capacity == 0) {
+            return 0;
+        }
+
+        List<UUID> ids = transactionTemplate.execute(status ->
+                eventRepository.findIdsByStatus(Status.PENDING, capacity));
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+
+        ids.forEach(this::dispatch);
+        return ids.size();
+    }
+
+    /**
+     * Affida l'evento a un worker se c'è capacità; altrimenti resta in coda
+     */
+    private void dispatch(UUID eventId) {
+        if (!permits.tryAcquire()) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    process(eventId);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Processa un evento: presa in carico, aggiornamento statistiche e badge, eliminazione
+     */
+    void process(UUID eventId) {
+        GamificationEvent claimed = transactionTemplate.execute(status ->
+                eventRepository.claim(eventId, Status.PENDING, Status.PROCESSING, LocalDateTime.now()) == 1
+                        ? eventRepository.findById(eventId).orElse(null)
+                        : null);
+        if (claimed == null) {
+            return;  // già preso da un altro worker
+        }
+
+        ReentrantLock lock = lockFor(claimed.getUser().getId());
+        lock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                GamificationEvent event = eventRepository.findById(eventId).orElseThrow();
+                apply(event);
+                eventRepository.delete(event);
+            });
+        } catch (RuntimeException e) {
+            Status next = claimed.getAttempts() >= maxAttempts ? Status.FAILED : Status.PENDING;
+            log.error("Errore evento gamification {} (tentativo {}): {}", eventId, claimed.getAttempts(),
+                    e.getMessage());
+            transactionTemplate.executeWithoutResult(status ->
+                    eventRepository.release(eventId, next, truncate(e.getMessage())));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(GamificationEvent event) {
+        User user = event.getUser();
+        switch (event.getEventType()) {
+            case EXPLANATION -> gamificationService.recordExplanationXp(
+                    user, event.getTopic(), event.getSubject());
+            case QUIZ -> gamificationService.recordQuizXp(
+                    user,
+                    Boolean.TRUE.equals(event.getPassed()),
+                    event.getTopic(),
+                    event.getSubject(),
+                    event.getScore() != null ? event.getScore() : 0,
+                    event.getTotalQuestions() != null ? event.getTotalQuestions() : 0,
+                    event.getCorrectAnswers() != null ? event.getCorrectAnswers() : 0);
+            case FLASHCARD -> gamificationService.recordFlashcardXp(
+                    user, event.getCardsStudied() != null ? event.getCardsStudied() : 0);
+        }
+    }
+
+    private ReentrantLock lockFor(UUID userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), USER_LOCK_STRIPES)];
+    }
+
+    private String truncate(String message) {
+        if (message == null) return null;
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            // Gli eventi non completati restano in PROCESSING e tornano in coda al riavvio
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
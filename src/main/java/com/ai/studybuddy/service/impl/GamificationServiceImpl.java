@@ -2,6 +2,8 @@ package com.ai.studybuddy.service.impl;
 
 import com.ai.studybuddy.dto.gamification.GamificationDTO.*;
 import com.ai.studybuddy.dto.recommendation.RecommendationResponse;
+import com.ai.studybuddy.event.ProgressUpdatedEvent;
+import com.ai.studybuddy.event.StatsUpdatedEvent;
 import com.ai.studybuddy.model.gamification.*;
 import com.ai.studybuddy.model.recommendation.Recommendation;
 import com.ai.studybuddy.model.recommendation.Recommendation.Priority;
@@ -10,12 +12,17 @@ import com.ai.studybuddy.model.gamification.UserStats;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.model.user.UserProgress;
 import com.ai.studybuddy.repository.*;
+import com.ai.studybuddy.service.inter.CounterBufferService;
+import com.ai.studybuddy.service.inter.CounterBufferService.CounterType;
+import com.ai.studybuddy.service.inter.EventStreamService;
 import com.ai.studybuddy.service.inter.GamificationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -28,6 +35,12 @@ import java.util.stream.Collectors;
  *   questo service aggiorna ENTRAMBE le tabelle:
  *   1. UserProgress → per tracciare progressi per argomento
  *   2. UserStats → per XP globali, badge, streak
+ *
+ * XP e flashcards studiate passano da CounterBufferService (write-behind):
+ * le risposte usano una copia di UserStats con i delta pendenti applicati.
+ *
+ * Ogni aggiornamento pubblica ProgressUpdatedEvent / StatsUpdatedEvent,
+ * usati da RecommendationService per aggiornare le raccomandazioni.
  */
 @Service
 public class GamificationServiceImpl implements GamificationService {
@@ -35,10 +48,10 @@ public class GamificationServiceImpl implements GamificationService {
     private static final Logger logger = LoggerFactory.getLogger(GamificationServiceImpl.class);
 
     // ==================== COSTANTI XP (dalla documentazione) ====================
-    private static final int XP_EXPLANATION = 10;      // +10 XP per spiegazione
-    private static final int XP_QUIZ_COMPLETED = 20;   // +20 XP per quiz completato
-    private static final int XP_QUIZ_PASSED_BONUS = 10;// +10 XP bonus se superato
-    private static final int XP_FLASHCARD_PER_CARD = 2;// +2 XP per flashcard
+    static final int XP_EXPLANATION = 10;      // +10 XP per spiegazione
+    static final int XP_QUIZ_COMPLETED = 20;   // +20 XP per quiz completato
+    static final int XP_QUIZ_PASSED_BONUS = 10;// +10 XP bonus se superato
+    static final int XP_FLASHCARD_PER_CARD = 2;// +2 XP per flashcard
     private static final int XP_FOCUS_SESSION = 15;    // +15 XP per sessione focus
 
     private final UserStatsRepository userStatsRepository;
@@ -47,6 +60,9 @@ public class GamificationServiceImpl implements GamificationService {
     private final RecommendationRepository recommendationRepository;
     private final UserRepository userRepository;
     private final UserProgressRepository userProgressRepository;
+    private final CounterBufferService counterBufferService;
+    private final EventStreamService eventStreamService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public GamificationServiceImpl(
             UserStatsRepository userStatsRepository,
@@ -54,13 +70,19 @@ public class GamificationServiceImpl implements GamificationService {
             UserBadgeRepository userBadgeRepository,
             RecommendationRepository recommendationRepository,
             UserRepository userRepository,
-            UserProgressRepository userProgressRepository) {
+            UserProgressRepository userProgressRepository,
+            CounterBufferService counterBufferService,
+            EventStreamService eventStreamService,
+            ApplicationEventPublisher eventPublisher) {
         this.userStatsRepository = userStatsRepository;
         this.badgeRepository = badgeRepository;
         this.userBadgeRepository = userBadgeRepository;
         this.recommendationRepository = recommendationRepository;
         this.userRepository = userRepository;
         this.userProgressRepository = userProgressRepository;
+        this.counterBufferService = counterBufferService;
+        this.eventStreamService = eventStreamService;
+        this.eventPublisher = eventPublisher;
     }
 
     // ==================== XP & STATISTICHE ====================
@@ -79,7 +101,7 @@ public class GamificationServiceImpl implements GamificationService {
     @Override
     @Transactional(readOnly = true)
     public UserStatsResponse getUserStatsResponse(UUID userId) {
-        UserStats stats = getOrCreateUserStats(userId);
+        UserStats stats = withPendingCounters(getOrCreateUserStats(userId));
         long badgeCount = userBadgeRepository.countByUserId(userId);
 
         // Arricchisci con dati da UserProgress
@@ -88,6 +110,41 @@ public class GamificationServiceImpl implements GamificationService {
         return UserStatsResponse.fromUserStats(stats, badgeCount);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ActivityCalendarResponse getActivityCalendar(UUID userId, LocalDate from, LocalDate to) {
+        return ActivityCalendarResponse.fromUserStats(getOrCreateUserStats(userId), from, to, LocalDate.now());
+    }
+
+    @Override
+    @Transactional
+    public XpEventResponse previewXp(User user, String eventType, int xpEarned, long queuedXp) {
+        UserStats stats = withPendingCounters(getOrCreateUserStats(user.getId()));
+        stats.addXp((int) queuedXp);
+        boolean leveledUp = stats.addXp(xpEarned);
+
+        return new XpEventResponse(eventType, xpEarned, stats, leveledUp, new ArrayList<>());
+    }
+
+    /**
+     * Copia di UserStats con XP e flashcards non ancora scritti su DB
+     */
+    private UserStats withPendingCounters(UserStats stats) {
+        UUID userId = stats.getUser().getId();
+        return stats.withPendingDeltas(
+                counterBufferService.getPending(CounterType.USER_XP, userId),
+                counterBufferService.getPending(CounterType.USER_FLASHCARDS_STUDIED, userId));
+    }
+
+    /**
+     * Accoda gli XP nel buffer e li applica alla copia usata per la risposta
+     * @return true se l'utente è salito di livello
+     */
+    private boolean awardXp(UserStats view, int xp) {
+        counterBufferService.increment(CounterType.USER_XP, view.getUser().getId(), xp);
+        return view.addXp(xp);
+    }
+
     /**
      * Arricchisce UserStats con dati aggregati da UserProgress
      * Nota: i minuti di studio sono già tracciati in UserStats.totalStudyTimeMinutes
@@ -115,9 +172,11 @@ public class GamificationServiceImpl implements GamificationService {
         // Aggiorna UserStats (globale)
         stats.incrementExplanations();
         stats.updateStreak();
-        boolean leveledUp = stats.addXp(XP_EXPLANATION);
         userStatsRepository.save(stats);
 
+        stats = withPendingCounters(stats);
+        boolean leveledUp = awardXp(stats, XP_EXPLANATION);
+
         // Aggiorna UserProgress (per topic) se specificato
         if (topic != null && !topic.isEmpty()) {
             updateUserProgress(user, topic, subject, 0, 0, 0, 0);
@@ -129,7 +188,10 @@ public class GamificationServiceImpl implements GamificationService {
         logger.info("Utente {} ha guadagnato {} XP per spiegazione. Totale: {}",
                 user.getEmail(), XP_EXPLANATION, stats.getTotalXp());
 
-        return new XpEventResponse("EXPLANATION", XP_EXPLANATION, stats, leveledUp, newBadges);
+        XpEventResponse xpEvent = new XpEventResponse("EXPLANATION", XP_EXPLANATION, stats, leveledUp, newBadges);
+        notifySubscribers(user.getId(), stats, xpEvent);
+        publishStatsUpdated(user, stats);
+        return xpEvent;
     }
 
     @Override
@@ -154,9 +216,11 @@ public class GamificationServiceImpl implements GamificationService {
         // Aggiorna UserStats (globale)
         stats.incrementQuizzesCompleted(passed);
         stats.updateStreak();
-        boolean leveledUp = stats.addXp(xpEarned);
         userStatsRepository.save(stats);
 
+        stats = withPendingCounters(stats);
+        boolean leveledUp = awardXp(stats, xpEarned);
+
         // Aggiorna UserProgress (per topic) se specificato
         if (topic != null && !topic.isEmpty()) {
             updateUserProgress(user, topic, subject, 1, score, totalQuestions, correctAnswers);
@@ -168,7 +232,10 @@ public class GamificationServiceImpl implements GamificationService {
         logger.info("Utente {} ha guadagnato {} XP per quiz (passed: {}). Totale: {}",
                 user.getEmail(), xpEarned, passed, stats.getTotalXp());
 
-        return new XpEventResponse("QUIZ", xpEarned, stats, leveledUp, newBadges);
+        XpEventResponse xpEvent = new XpEventResponse("QUIZ", xpEarned, stats, leveledUp, newBadges);
+        notifySubscribers(user.getId(), stats, xpEvent);
+        publishStatsUpdated(user, stats);
+        return xpEvent;
     }
 
     @Override
@@ -178,17 +245,24 @@ public class GamificationServiceImpl implements GamificationService {
 
         int xpEarned = cardsStudied * XP_FLASHCARD_PER_CARD;
 
-        stats.incrementFlashcardsStudied(cardsStudied);
+        // Contatore caldo: solo lo streak viene scritto subito
         stats.updateStreak();
-        boolean leveledUp = stats.addXp(xpEarned);
         userStatsRepository.save(stats);
 
+        stats = withPendingCounters(stats);
+        counterBufferService.increment(CounterType.USER_FLASHCARDS_STUDIED, user.getId(), cardsStudied);
+        stats.incrementFlashcardsStudied(cardsStudied);
+        boolean leveledUp = awardXp(stats, xpEarned);
+
         List<Badge> newBadges = checkAndUnlockBadges(user, stats);
 
         logger.info("Utente {} ha guadagnato {} XP per {} flashcards. Totale: {}",
                 user.getEmail(), xpEarned, cardsStudied, stats.getTotalXp());
 
-        return new XpEventResponse("FLASHCARD", xpEarned, stats, leveledUp, newBadges);
+        XpEventResponse xpEvent = new XpEventResponse("FLASHCARD", xpEarned, stats, leveledUp, newBadges);
+        notifySubscribers(user.getId(), stats, xpEvent);
+        publishStatsUpdated(user, stats);
+        return xpEvent;
     }
 
     @Override
@@ -198,15 +272,48 @@ public class GamificationServiceImpl implements GamificationService {
 
         stats.incrementFocusSessions(durationMinutes);
         stats.updateStreak();
-        boolean leveledUp = stats.addXp(xpToAward);
         userStatsRepository.save(stats);
 
+        stats = withPendingCounters(stats);
+        boolean leveledUp = awardXp(stats, xpToAward);
+
         List<Badge> newBadges = checkAndUnlockBadges(user, stats);
 
         logger.info("Utente {} ha guadagnato {} XP per sessione focus ({} min). Totale: {}",
                 user.getEmail(), xpToAward, durationMinutes, stats.getTotalXp());
 
-        return new XpEventResponse("FOCUS_SESSION", xpToAward, stats, leveledUp, newBadges);
+        XpEventResponse xpEvent = new XpEventResponse("FOCUS_SESSION", xpToAward, stats, leveledUp, newBadges);
+        notifySubscribers(user.getId(), stats, xpEvent);
+        publishStatsUpdated(user, stats);
+        return xpEvent;
+    }
+
+    /**
+     * Invia via SSE statistiche, XP, level-up e badge (solo se l'utente è connesso)
+     */
+    private void notifySubscribers(UUID userId, UserStats stats, XpEventResponse xpEvent) {
+        if (!eventStreamService.hasSubscribers(userId)) return;
+
+        long badgeCount = userBadgeRepository.countByUserId(userId);
+        eventStreamService.publish(userId, EventStreamService.EVENT_STATS,
+                UserStatsResponse.fromUserStats(stats, badgeCount));
+        eventStreamService.publish(userId, EventStreamService.EVENT_XP, xpEvent);
+
+        if (xpEvent.isLeveledUp()) {
+            eventStreamService.publish(userId, EventStreamService.EVENT_LEVEL_UP,
+                    Map.of("level", xpEvent.getNewLevel()));
+        }
+        for (Badge badge : xpEvent.getNewBadges()) {
+            eventStreamService.publish(userId, EventStreamService.EVENT_BADGE,
+                    BadgeResponse.fromBadge(badge, true, LocalDateTime.now(), 100.0));
+        }
+    }
+
+    private void publishStatsUpdated(User user, UserStats stats) {
+        eventPublisher.publishEvent(new StatsUpdatedEvent(user,
+                stats.getEffectiveStreak(),
+                stats.getLastActivityDate(),
+                stats.getFlashcardsStudied() != null ? stats.getFlashcardsStudied() : 0));
     }
 
     // ==================== INTEGRAZIONE USER PROGRESS ====================
@@ -261,6 +368,7 @@ public class GamificationServiceImpl implements GamificationService {
             progress.setMasteryLevel(calculateMasteryLevel(progress.getAverageScore()));
 
             userProgressRepository.save(progress);
+            eventPublisher.publishEvent(new ProgressUpdatedEvent(user, topic));
         } catch (Exception e) {
             logger.warn("Errore aggiornamento UserProgress: {}", e.getMessage());
         }
@@ -283,7 +391,7 @@ public class GamificationServiceImpl implements GamificationService {
     @Transactional(readOnly = true)
     public List<BadgeResponse> getAllBadgesWithStatus(UUID userId) {
         List<Badge> allBadges = badgeRepository.findByIsActiveTrueOrderByRequirementValueAsc();
-        UserStats stats = getOrCreateUserStats(userId);
+        UserStats stats = withPendingCounters(getOrCreateUserStats(userId));
 
         Map<UUID, UserBadge> unlockedMap = userBadgeRepository.findByUserIdOrderByUnlockedAtDesc(userId)
                 .stream()
@@ -339,7 +447,7 @@ public class GamificationServiceImpl implements GamificationService {
         checkAndUnlockByType(user, stats, "FLASHCARDS_STUDIED",
                 stats.getFlashcardsStudied(), newlyUnlocked);
         checkAndUnlockByType(user, stats, "STREAK_DAYS",
-                stats.getCurrentStreak(), newlyUnlocked);
+                stats.getEffectiveStreak(), newlyUnlocked);
         checkAndUnlockByType(user, stats, "TOTAL_XP",
                 stats.getTotalXp(), newlyUnlocked);
         checkAndUnlockByType(user, stats, "LEVEL",
@@ -367,7 +475,7 @@ public class GamificationServiceImpl implements GamificationService {
 
                 // Aggiungi XP bonus del badge
                 if (badge.getXpReward() != null && badge.getXpReward() > 0) {
-                    stats.addXp(badge.getXpReward());
+                    awardXp(stats, badge.getXpReward());
                 }
 
                 newlyUnlocked.add(badge);
@@ -386,7 +494,7 @@ public class GamificationServiceImpl implements GamificationService {
             case "QUIZZES_COMPLETED" -> stats.getQuizzesCompleted();
             case "QUIZZES_PASSED" -> stats.getQuizzesPassed();
             case "FLASHCARDS_STUDIED" -> stats.getFlashcardsStudied();
-            case "STREAK_DAYS" -> stats.getCurrentStreak();
+            case "STREAK_DAYS" -> stats.getEffectiveStreak();
             case "TOTAL_XP" -> stats.getTotalXp();
             case "LEVEL" -> stats.getLevel();
             case "FOCUS_SESSIONS" -> stats.getFocusSessionsCompleted();
@@ -422,7 +530,7 @@ public class GamificationServiceImpl implements GamificationService {
     @Override
     @Transactional(readOnly = true)
     public List<LeaderboardEntry> getStreakLeaderboard(int limit) {
-        return userStatsRepository.findTopByStreak(limit)
+        return userStatsRepository.findTopByStreak(LocalDate.now().minusDays(1), limit)
                 .stream()
                 .map(stats -> new LeaderboardEntry(0, stats, "STREAK"))
                 .collect(Collectors.toList());
@@ -434,7 +542,7 @@ public class GamificationServiceImpl implements GamificationService {
         List<UserStats> allStats = switch (type) {
             case "XP" -> userStatsRepository.findTopByTotalXp(1000);
             case "WEEKLY_XP" -> userStatsRepository.findTopByWeeklyXp(1000);
-            case "STREAK" -> userStatsRepository.findTopByStreak(1000);
+            case "STREAK" -> userStatsRepository.findTopByStreak(LocalDate.now().minusDays(1), 1000);
             default -> userStatsRepository.findTopByLevel(1000);
         };
 
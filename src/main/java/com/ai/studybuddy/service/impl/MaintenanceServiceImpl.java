@@ -0,0 +1,340 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.flashcard.FlashcardContent;
+import com.ai.studybuddy.model.gamification.GamificationEvent;
+import com.ai.studybuddy.model.maintenance.MaintenanceJob;
+import com.ai.studybuddy.model.maintenance.MaintenanceJob.Status;
+import com.ai.studybuddy.repository.FlashcardContentRepository;
+import com.ai.studybuddy.repository.FlashcardRepository;
+import com.ai.studybuddy.repository.FlashcardReviewStateRepository;
+import com.ai.studybuddy.repository.GamificationEventRepository;
+import com.ai.studybuddy.repository.MaintenanceJobRepository;
+import com.ai.studybuddy.repository.RecommendationRepository;
+import com.ai.studybuddy.repository.UserStatsRepository;
+import com.ai.studybuddy.service.inter.FlashcardContentService;
+import com.ai.studybuddy.service.inter.MaintenanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementazione MaintenanceService
+ *
+ * - Ogni blocco seleziona al massimo maintenance.chunk-size id e li elimina/aggiorna
+ *   in una transazione propria; tra due blocchi c'è una pausa (maintenance.chunk-pause-ms)
+ *   per non monopolizzare DB e connessioni
+ * - Prima di partire il nodo acquisisce la lease del job con un UPDATE condizionale;
+ *   la lease viene rinnovata dopo ogni blocco insieme all'avanzamento
+ * - Un job completato non viene ripetuto da un altro nodo entro il suo intervallo minimo
+ * - Al termine vengono registrati stato, righe processate, blocchi e durata
+ */
+@Service
+public class MaintenanceServiceImpl implements MaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(MaintenanceServiceImpl.class);
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    private static final Duration DAILY_MIN_INTERVAL = Duration.ofHours(1);
+    private static final Duration PERIODIC_MIN_INTERVAL = Duration.ofDays(1);
+
+    private final MaintenanceJobRepository jobRepository;
+    private final RecommendationRepository recommendationRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final GamificationEventRepository gamificationEventRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final FlashcardContentRepository contentRepository;
+    private final FlashcardReviewStateRepository reviewStateRepository;
+    private final FlashcardContentService contentService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName()
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+    private final Set<String> knownJobs = ConcurrentHashMap.newKeySet();
+
+    @Value("${maintenance.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    @Value("${maintenance.chunk-pause-ms:200}")
+    private long chunkPauseMs = 200;
+
+    @Value("${maintenance.lease-ms:600000}")
+    private long leaseMs = 600000;
+
+    @Value("${maintenance.recommendations.retention-days:30}")
+    private int recommendationRetentionDays = 30;
+
+    @Value("${maintenance.gamification-events.retention-days:7}")
+    private int failedEventRetentionDays = 7;
+
+    @Value("${maintenance.flashcard-contents.orphan-grace-hours:24}")
+    private int orphanContentGraceHours = 24;
+
+    public MaintenanceServiceImpl(MaintenanceJobRepository jobRepository,
+                                  RecommendationRepository recommendationRepository,
+                                  UserStatsRepository userStatsRepository,
+                                  GamificationEventRepository gamificationEventRepository,
+                                  FlashcardRepository flashcardRepository,
+                                  FlashcardContentRepository contentRepository,
+                                  FlashcardReviewStateRepository reviewStateRepository,
+                                  FlashcardContentService contentService,
+                                  TransactionTemplate transactionTemplate) {
+        this.jobRepository = jobRepository;
+        this.recommendationRepository = recommendationRepository;
+        this.userStatsRepository = userStatsRepository;
+        this.gamificationEventRepository = gamificationEventRepository;
+        this.flashcardRepository = flashcardRepository;
+        this.contentRepository = contentRepository;
+        this.reviewStateRepository = reviewStateRepository;
+        this.contentService = contentService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // ==================== JOB ====================
+
+    @Override
+    @Scheduled(cron = "${maintenance.recommendations.cron:0 15 3 * * *}")
+    public void purgeRecommendations() {
+        runJob(JOB_EXPIRED_RECOMMENDATIONS, DAILY_MIN_INTERVAL, limit -> {
+            List<UUID> ids = recommendationRepository.findExpiredIds(LocalDateTime.now(), limit);
+            return ids.isEmpty() ? 0 : recommendationRepository.deleteByIds(ids);
+        });
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(recommendationRetentionDays);
+        runJob(JOB_OLD_RECOMMENDATIONS, DAILY_MIN_INTERVAL, limit -> {
+            List<UUID> ids = recommendationRepository.findOldCompletedIds(cutoff, limit);
+            return ids.isEmpty() ? 0 : recommendationRepository.deleteByIds(ids);
+        });
+    }
+
+    @Override
+    @Scheduled(cron = "${maintenance.weekly-xp.cron:0 0 0 * * MON}")
+    public void resetWeeklyXp() {
+        UUID[] cursor = {MIN_UUID};
+        runJob(JOB_WEEKLY_XP_RESET, PERIODIC_MIN_INTERVAL, limit -> {
+            List<UUID> ids = userStatsRepository.findIdsWithWeeklyXpAfter(cursor[0], limit);
+            if (ids.isEmpty()) return 0;
+            userStatsRepository.resetWeeklyXp(ids);
+            cursor[0] = ids.get(ids.size() - 1);
+            return ids.size();
+        });
+    }
+
+    @Override
+    @Scheduled(cron = "${maintenance.monthly-xp.cron:0 0 0 1 * *}")
+    public void resetMonthlyXp() {
+        UUID[] cursor = {MIN_UUID};
+        runJob(JOB_MONTHLY_XP_RESET, PERIODIC_MIN_INTERVAL, limit -> {
+            List<UUID> ids = userStatsRepository.findIdsWithMonthlyXpAfter(cursor[0], limit);
+            if (ids.isEmpty()) return 0;
+            userStatsRepository.resetMonthlyXp(ids);
+            cursor[0] = ids.get(ids.size() - 1);
+            return ids.size();
+        });
+    }
+
+    @Override
+    @Scheduled(cron = "${maintenance.gamification-events.cron:0 30 3 * * *}")
+    public void purgeFailedGamificationEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(failedEventRetentionDays);
+        runJob(JOB_FAILED_GAMIFICATION_EVENTS, DAILY_MIN_INTERVAL, limit -> {
+            List<UUID> ids = gamificationEventRepository.findIdsByStatusCreatedBefore(
+                    GamificationEvent.Status.FAILED, cutoff, limit);
+            return ids.isEmpty() ? 0 : gamificationEventRepository.deleteByIds(ids);
+        });
+    }
+
+    @Override
+    @Scheduled(cron = "${maintenance.flashcard-contents.cron:0 45 3 * * *}")
+    public void maintainFlashcardContents() {
+        if (flashcardRepository.existsByContentIsNullAndLegacyFrontContentIsNotNull()) {
+            runJob(JOB_FLASHCARD_CONTENT_BACKFILL, DAILY_MIN_INTERVAL, this::backfillFlashcardContents);
+        }
+
+        // Il periodo di grazia protegge i contenuti appena creati e non ancora collegati
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(orphanContentGraceHours);
+        runJob(JOB_ORPHAN_FLASHCARD_CONTENTS, DAILY_MIN_INTERVAL, limit -> {
+            List<UUID> ids = contentRepository.findOrphanIds(cutoff, limit);
+            return ids.isEmpty() ? 0 : contentRepository.deleteOrphans(ids);
+        });
+    }
+
+    @Override
+    public List<MaintenanceJob> getJobs() {
+        return jobRepository.findAllByOrderByNameAsc();
+    }
+
+    // ==================== FLASHCARD ====================
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillFlashcardContentsOnStartup() {
+        if (flashcardRepository.existsByContentIsNullAndLegacyFrontContentIsNotNull()) {
+            runJob(JOB_FLASHCARD_CONTENT_BACKFILL, Duration.ZERO, this::backfillFlashcardContents);
+        }
+    }
+
+    /**
+     * Un blocco di flashcard senza contenuto condiviso: il testo diventa un contenuto
+     * deduplicato, le statistiche lo stato di revisione dell'autore
+     */
+    int backfillFlashcardContents(int limit) {
+        List<Object[]> rows = flashcardRepository.findLegacyRows(limit);
+        if (rows.isEmpty()) return 0;
+
+        List<FlashcardContent> contents = contentService.resolveAll(rows.stream()
+                .map(row -> new FlashcardContent((String) row[2], (String) row[3], (String) row[4]))
+                .toList());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            UUID flashcardId = toUuid(row[0]);
+            flashcardRepository.attachContent(flashcardId, contents.get(i).getId());
+
+            int reviewed = row[5] != null ? ((Number) row[5]).intValue() : 0;
+            if (row[1] != null && reviewed > 0) {
+                int correct = row[6] != null ? ((Number) row[6]).intValue() : 0;
+                reviewStateRepository.insertLegacy(toUuid(row[1]), flashcardId, reviewed, correct,
+                        toLocalDateTime(row[7]), now);
+            }
+        }
+        return rows.size();
+    }
+
+    /**
+     * I valori delle query native dipendono dal driver (UUID su PostgreSQL, byte[] su H2)
+     */
+    private static UUID toUuid(Object value) {
+        if (value instanceof byte[] bytes) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+        return (UUID) value;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) return timestamp.toLocalDateTime();
+        return (LocalDateTime) value;
+    }
+
+    // ==================== ESECUZIONE A BLOCCHI ====================
+
+    /**
+     * Esegue il job a blocchi finché un blocco processa meno di chunkSize righe
+     *
+     * @return righe processate, -1 se il job è in esecuzione altrove o già completato
+     */
+    long runJob(String jobName, Duration minInterval, ChunkStep step) {
+        ensureJob(jobName);
+
+        LocalDateTime now = LocalDateTime.now();
+        Integer acquired = transactionTemplate.execute(status -> jobRepository.tryAcquire(
+                jobName, owner, now, now.plusNanos(leaseMs * 1_000_000), now.minus(minInterval)));
+        if (acquired == null || acquired == 0) {
+            log.debug("Job {} in esecuzione su un altro nodo o già completato", jobName);
+            return -1;
+        }
+
+        long startNanos = System.nanoTime();
+        long rows = 0;
+        int chunks = 0;
+        Status result = Status.COMPLETED;
+        String error = null;
+
+        try {
+            while (true) {
+                Integer processed = transactionTemplate.execute(status -> step.run(chunkSize));
+                int count = processed != null ? processed : 0;
+                rows += count;
+                chunks++;
+
+                if (count < chunkSize) break;
+
+                if (!renew(jobName, rows, chunks)) {
+                    result = Status.ABORTED;
+                    error = "Lease persa";
+                    log.warn("Job {}: lease persa dopo {} righe, interrotto", jobName, rows);
+                    break;
+                }
+                Thread.sleep(chunkPauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = Status.ABORTED;
+            error = "Interrotto";
+        } catch (RuntimeException e) {
+            result = Status.FAILED;
+            error = truncate(e.getMessage());
+            log.error("Job {} fallito dopo {} righe: {}", jobName, rows, e.getMessage());
+        }
+
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        release(jobName, result, durationMs, rows, chunks, error);
+
+        log.info("Job {} {}: {} righe in {} blocchi, {} ms", jobName, result, rows, chunks, durationMs);
+        return rows;
+    }
+
+    private boolean renew(String jobName, long rows, int chunks) {
+        LocalDateTime until = LocalDateTime.now().plusNanos(leaseMs * 1_000_000);
+        Integer renewed = transactionTemplate.execute(status ->
+                jobRepository.renew(jobName, owner, until, rows, chunks));
+        return renewed != null && renewed > 0;
+    }
+
+    private void release(String jobName, Status result, long durationMs, long rows, int chunks, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.release(
+                    jobName, owner, result, LocalDateTime.now(), durationMs, rows, chunks, error));
+        } catch (RuntimeException e) {
+            // La lease scade comunque dopo maintenance.lease-ms
+            log.warn("Job {}: rilascio lease fallito: {}", jobName, e.getMessage());
+        }
+    }
+
+    /**
+     * Crea la riga del job al primo utilizzo (più nodi possono provarci insieme)
+     */
+    private void ensureJob(String jobName) {
+        if (knownJobs.contains(jobName)) return;
+
+        if (!jobRepository.existsById(jobName)) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jobRepository.saveAndFlush(new MaintenanceJob(jobName)));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Job {} creato da un altro nodo", jobName);
+            }
+        }
+        knownJobs.add(jobName);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) return null;
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    /**
+     * Un blocco di lavoro: processa al massimo limit righe e restituisce quante
+     */
+    @FunctionalInterface
+    interface ChunkStep {
+        int run(int limit);
+    }
+}
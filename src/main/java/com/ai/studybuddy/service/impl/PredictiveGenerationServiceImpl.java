@@ -0,0 +1,308 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.event.ProgressUpdatedEvent;
+import com.ai.studybuddy.model.recommendation.Recommendation;
+import com.ai.studybuddy.model.recommendation.Recommendation.RecommendationType;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.model.user.UserProgress;
+import com.ai.studybuddy.repository.RecommendationRepository;
+import com.ai.studybuddy.repository.UserProgressRepository;
+import com.ai.studybuddy.service.inter.AIGenerationPool;
+import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.PredictiveGenerationService;
+import com.ai.studybuddy.util.TopicNormalizer;
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.EducationLevel;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementazione PredictiveGenerationService
+ *
+ * - Ogni aggiornamento dei progressi (quiz completato) mette l'utente in coda
+ * - Il ciclo periodico prevede e genera solo finché restano permessi AI liberi
+ *   oltre ai.pregeneration.reserved-permits: le richieste degli utenti hanno
+ *   sempre la precedenza
+ * - Previsione: RETRY_QUIZ → quiz a difficoltà superiore, WEAKNESS_FOCUS →
+ *   flashcards di ripasso, altrimenti quiz sull'ultimo argomento studiato
+ * - Uno slot per utente: una nuova previsione sostituisce la precedente
+ */
+@Service
+public class PredictiveGenerationServiceImpl implements PredictiveGenerationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictiveGenerationServiceImpl.class);
+
+    private static final double STRONG_SCORE = 80.0;
+    private static final Set<RecommendationType> PREDICTIVE_TYPES =
+            Set.of(RecommendationType.RETRY_QUIZ, RecommendationType.WEAKNESS_FOCUS);
+
+    private final RecommendationRepository recommendationRepository;
+    private final UserProgressRepository userProgressRepository;
+    private final AIService aiService;
+    private final AIGenerationPool generationPool;
+
+    private final Queue<UUID> queue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<UUID, Candidate> pending = new ConcurrentHashMap<>();
+    private final Set<UUID> generating = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<UUID, ReadySlot> slots = new ConcurrentHashMap<>();
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder served = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    @Value("${ai.pregeneration.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${ai.pregeneration.reserved-permits:3}")
+    private int reservedPermits = 3;
+
+    @Value("${ai.pregeneration.slot-ttl-ms:1800000}")
+    private long slotTtlMs = 1_800_000;
+
+    @Value("${ai.pregeneration.max-slots:2000}")
+    private int maxSlots = 2000;
+
+    @Value("${ai.pregeneration.quiz-questions:5}")
+    private int quizQuestions = 5;
+
+    @Value("${ai.pregeneration.flashcard-cards:5}")
+    private int flashcardCards = 5;
+
+    public PredictiveGenerationServiceImpl(RecommendationRepository recommendationRepository,
+                                           UserProgressRepository userProgressRepository,
+                                           AIService aiService,
+                                           AIGenerationPool generationPool) {
+        this.recommendationRepository = recommendationRepository;
+        this.userProgressRepository = userProgressRepository;
+        this.aiService = aiService;
+        this.generationPool = generationPool;
+    }
+
+    /**
+     * Dopo il commit, così il ciclo successivo vede progressi e raccomandazioni aggiornati
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressUpdated(ProgressUpdatedEvent event) {
+        schedule(event.user());
+    }
+
+    @Override
+    public void schedule(User user) {
+        if (!enabled || user == null || user.getId() == null) return;
+        if (pending.size() >= maxSlots) return;
+
+        Candidate candidate = new Candidate(user.getId(), user.getEducationLevel(), user.getPreferredLanguage());
+        if (pending.put(user.getId(), candidate) == null) {
+            queue.add(user.getId());
+        }
+    }
+
+    // ==================== PREVISIONE ====================
+
+    @Override
+    public Optional<Prediction> predict(UUID userId) {
+        Optional<Recommendation> recommendation = recommendationRepository
+                .findActiveByUserId(userId, LocalDateTime.now()).stream()
+                .filter(rec -> PREDICTIVE_TYPES.contains(rec.getType()) && rec.getTopic() != null)
+                .sorted(Comparator.comparing(Recommendation::getPriority,
+                        Comparator.nullsFirst(Comparator.naturalOrder())).reversed())
+                .findFirst();
+
+        if (recommendation.isPresent()) {
+            Recommendation rec = recommendation.get();
+            UserProgress progress = userProgressRepository.findByUserIdAndTopic(userId, rec.getTopic()).orElse(null);
+            DifficultyLevel mastery = progress != null && progress.getMasteryLevel() != null
+                    ? progress.getMasteryLevel() : DifficultyLevel.PRINCIPIANTE;
+            return Optional.of(rec.getType() == RecommendationType.RETRY_QUIZ
+                    ? new Prediction(GeneratedContentType.QUIZ, rec.getTopic(), harder(mastery), quizQuestions)
+                    : new Prediction(GeneratedContentType.FLASHCARDS, rec.getTopic(), mastery, flashcardCards));
+        }
+
+        // Nessuna raccomandazione: di solito si rifà l'ultimo argomento, più difficile se è andato bene
+        return userProgressRepository.findRecentTopics(userId, 1).stream()
+                .filter(progress -> progress.getTopic() != null)
+                .findFirst()
+                .map(progress -> {
+                    DifficultyLevel mastery = progress.getMasteryLevel() != null
+                            ? progress.getMasteryLevel() : DifficultyLevel.PRINCIPIANTE;
+                    boolean strong = progress.getAverageScore() != null && progress.getAverageScore() >= STRONG_SCORE;
+                    return new Prediction(GeneratedContentType.QUIZ, progress.getTopic(),
+                            strong ? harder(mastery) : mastery, quizQuestions);
+                });
+    }
+
+    private static DifficultyLevel harder(DifficultyLevel level) {
+        DifficultyLevel[] levels = DifficultyLevel.values();
+        return levels[Math.min(level.ordinal() + 1, levels.length - 1)];
+    }
+
+    // ==================== GENERAZIONE IN BACKGROUND ====================
+
+    @Scheduled(fixedDelayString = "${ai.pregeneration.interval-ms:15000}")
+    public void runPending() {
+        evictExpired();
+        if (!enabled) return;
+
+        int idlePermits = generationPool.availablePermits() - reservedPermits;
+        while (idlePermits > 0) {
+            UUID userId = queue.poll();
+            if (userId == null) return;
+            Candidate candidate = pending.remove(userId);
+            if (candidate == null || generating.contains(userId)) continue;
+
+            Prediction prediction;
+            try {
+                prediction = predict(userId).orElse(null);
+            } catch (RuntimeException e) {
+                log.warn("Previsione non riuscita per utente {}: {}", userId, e.getMessage());
+                continue;
+            }
+            if (prediction == null || alreadyReady(candidate, prediction)) continue;
+            if (slots.size() >= maxSlots && !slots.containsKey(userId)) continue;
+
+            if (generating.add(userId)) {
+                idlePermits--;
+                generationPool.execute(() -> generate(candidate, prediction));
+            }
+        }
+    }
+
+    private void generate(Candidate candidate, Prediction prediction) {
+        try {
+            String response = prediction.type() == GeneratedContentType.QUIZ
+                    ? aiService.generateQuiz(prediction.topic(), prediction.count(), prediction.difficulty(),
+                            candidate.educationLevel(), candidate.language())
+                    : aiService.generateFlashcards(prediction.topic(), prediction.count(), prediction.difficulty(),
+                            candidate.educationLevel(), candidate.language());
+
+            List<JsonObject> items = new ArrayList<>();
+            for (JsonElement element : aiService.parseGeneratedItems(response, prediction.count()).items()) {
+                if (element.isJsonObject()) items.add(element.getAsJsonObject());
+            }
+            if (items.isEmpty()) return;
+
+            slots.put(candidate.userId(), new ReadySlot(prediction.type(),
+                    TopicNormalizer.normalize(prediction.topic(), candidate.language()),
+                    prediction.difficulty(), candidate.educationLevel(), languageKey(candidate.language()),
+                    List.copyOf(items), System.currentTimeMillis() + slotTtlMs));
+            generated.increment();
+            log.debug("Pre-generato {} per utente {}: {} ({}), {} elementi",
+                    prediction.type(), candidate.userId(), prediction.topic(), prediction.difficulty(), items.size());
+        } catch (RuntimeException e) {
+            log.warn("Pre-generazione non riuscita per utente {}: {}", candidate.userId(), e.getMessage());
+        } finally {
+            generating.remove(candidate.userId());
+        }
+    }
+
+    private boolean alreadyReady(Candidate candidate, Prediction prediction) {
+        ReadySlot slot = slots.get(candidate.userId());
+        return slot != null && !slot.isExpired(System.currentTimeMillis())
+                && slot.matches(prediction.type(), TopicNormalizer.normalize(prediction.topic(), candidate.language()),
+                        prediction.difficulty(), candidate.educationLevel(), languageKey(candidate.language()));
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        slots.forEach((userId, slot) -> {
+            if (slot.isExpired(now) && slots.remove(userId, slot)) {
+                expired.increment();
+            }
+        });
+    }
+
+    // ==================== CONSUMO ====================
+
+    @Override
+    public List<JsonObject> take(UUID userId, GeneratedContentType type, String topic, DifficultyLevel difficulty,
+                                 EducationLevel educationLevel, String language, int max) {
+        if (userId == null || topic == null || max <= 0) return List.of();
+
+        ReadySlot slot = slots.get(userId);
+        if (slot == null || !slot.matches(type, TopicNormalizer.normalize(topic, language),
+                difficulty, educationLevel, languageKey(language))) {
+            return List.of();
+        }
+        if (!slots.remove(userId, slot)) return List.of();
+        if (slot.isExpired(System.currentTimeMillis())) {
+            expired.increment();
+            return List.of();
+        }
+
+        served.increment();
+        log.info("Richiesta servita dalla pre-generazione - utente: {}, {}: {}", userId, type, topic);
+        List<JsonObject> items = slot.items();
+        if (items.size() <= max) {
+            return items;
+        }
+        // Il resto dello slot resta disponibile per la richiesta successiva (se nel frattempo
+        // non è arrivata una nuova previsione)
+        slots.putIfAbsent(userId, slot.withItems(List.copyOf(items.subList(max, items.size()))));
+        return List.copyOf(items.subList(0, max));
+    }
+
+    @Override
+    public void putBack(UUID userId, GeneratedContentType type, String topic, DifficultyLevel difficulty,
+                        EducationLevel educationLevel, String language, List<JsonObject> items) {
+        if (userId == null || topic == null || items.isEmpty()) return;
+
+        ReadySlot slot = new ReadySlot(type, TopicNormalizer.normalize(topic, language), difficulty,
+                educationLevel, languageKey(language), List.copyOf(items), System.currentTimeMillis() + slotTtlMs);
+        if (slots.putIfAbsent(userId, slot) == null) {
+            served.decrement();
+            log.debug("Pre-generazione rimessa nello slot dopo una richiesta fallita - utente: {}, {}: {}",
+                    userId, type, topic);
+        }
+    }
+
+    @Override
+    public Stats getStats() {
+        return new Stats(generated.sum(), served.sum(), expired.sum(), slots.size());
+    }
+
+    private static String languageKey(String language) {
+        return language != null ? language.trim().toLowerCase() : "";
+    }
+
+    private record Candidate(UUID userId, EducationLevel educationLevel, String language) {
+    }
+
+    private record ReadySlot(GeneratedContentType type, String topicKey, DifficultyLevel difficulty,
+                             EducationLevel educationLevel, String language,
+                             List<JsonObject> items, long expiresAt) {
+
+        boolean matches(GeneratedContentType type, String topicKey, DifficultyLevel difficulty,
+                        EducationLevel educationLevel, String language) {
+            return this.type == type && this.topicKey.equals(topicKey) && this.difficulty == difficulty
+                    && Objects.equals(this.educationLevel, educationLevel) && this.language.equals(language);
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        ReadySlot withItems(List<JsonObject> items) {
+            return new ReadySlot(type, topicKey, difficulty, educationLevel, language, items, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.dto.flashcard.PublicDeckCatalogResponse;
+import com.ai.studybuddy.model.flashcard.PublicDeck;
+import com.ai.studybuddy.repository.FlashcardDeckRepository;
+import com.ai.studybuddy.service.inter.PublicDeckCatalogService;
+import com.ai.studybuddy.util.TopicNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementazione PublicDeckCatalogService
+ *
+ * - Lo snapshot (immutabile, letto tramite un campo volatile) contiene i deck già
+ *   ordinati per popolarità: timesStudied con decadimento esponenziale dall'ultimo
+ *   studio (emivita catalog.popularity-half-life-days)
+ * - Indice sul nome normalizzato: trigrammi per le ricerche di 3+ caratteri,
+ *   prefissi di 1-2 caratteri di ogni parola per quelle più corte. Le liste di
+ *   posizioni sono in ordine di popolarità, quindi l'intersezione è già ordinata
+ * - La versione (usata come ETag) è un'impronta del contenuto: cambia solo se
+ *   un refresh trova deck diversi
+ */
+@Service
+public class PublicDeckCatalogServiceImpl implements PublicDeckCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(PublicDeckCatalogServiceImpl.class);
+
+    private static final int GRAM = 3;
+    private static final char PREFIX_MARK = '^';
+    private static final String NO_SUBJECT = "";
+    private static final int[] NONE = new int[0];
+
+    private final FlashcardDeckRepository deckRepository;
+
+    // null finché il primo refresh non è riuscito
+    private volatile Snapshot snapshot;
+
+    @Value("${catalog.max-decks:20000}")
+    private int maxDecks = 20000;
+
+    @Value("${catalog.popularity-half-life-days:14}")
+    private double halfLifeDays = 14;
+
+    @Value("${catalog.max-page-size:100}")
+    private int maxPageSize = 100;
+
+    public PublicDeckCatalogServiceImpl(FlashcardDeckRepository deckRepository) {
+        this.deckRepository = deckRepository;
+    }
+
+    @Override
+    public PublicDeckCatalogResponse search(String query, String subject, int offset, int limit) {
+        Snapshot current = snapshot != null ? snapshot : loadFirst();
+        int from = Math.max(offset, 0);
+        int size = Math.clamp(limit, 1, maxPageSize);
+        String text = TopicNormalizer.normalize(query, null);
+        String subjectKey = subject == null || subject.isBlank() ? null : TopicNormalizer.normalize(subject, null);
+
+        // Catalogo completo: pagina e facet già pronti
+        if (text.isEmpty() && subjectKey == null) {
+            List<PublicDeck> decks = current.decks();
+            return PublicDeckCatalogResponse.of(page(decks, from, size), decks.size(), from, size,
+                    current.subjects(), current.version());
+        }
+
+        int[] candidates = text.isEmpty() ? null : current.match(text);
+        int count = candidates != null ? candidates.length : current.decks().size();
+
+        Map<String, Long> facets = new HashMap<>();
+        List<PublicDeck> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int position = candidates != null ? candidates[i] : i;
+            String key = current.subjectKeys()[position];
+            facets.merge(key, 1L, Long::sum);
+            if (subjectKey == null || subjectKey.equals(key)) {
+                results.add(current.decks().get(position));
+            }
+        }
+
+        return PublicDeckCatalogResponse.of(page(results, from, size), results.size(), from, size,
+                current.namedFacets(facets), current.version());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval-ms:300000}",
+            initialDelayString = "${catalog.refresh-interval-ms:300000}")
+    public synchronized int refresh() {
+        long start = System.currentTimeMillis();
+        try {
+            Snapshot next = build(deckRepository.findPublicCatalog(maxDecks), LocalDateTime.now());
+            Snapshot previous = snapshot;
+            snapshot = next;
+
+            if (previous == null || !previous.version().equals(next.version())) {
+                log.info("Catalogo deck pubblici aggiornato: {} deck, {} chiavi indice in {} ms",
+                        next.decks().size(), next.postings().size(), System.currentTimeMillis() - start);
+            }
+            return next.decks().size();
+        } catch (RuntimeException e) {
+            // Si continua a servire lo snapshot precedente
+            log.error("Aggiornamento catalogo deck pubblici fallito: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    private synchronized Snapshot loadFirst() {
+        if (snapshot == null) {
+            refresh();
+        }
+        return snapshot != null ? snapshot : Snapshot.EMPTY;
+    }
+
+    private Snapshot build(List<PublicDeck> rows, LocalDateTime now) {
+        record Ranked(PublicDeck deck, double score) {}
+        List<PublicDeck> decks = rows.stream()
+                .map(deck -> new Ranked(deck, popularity(deck, now)))
+                .sorted(Comparator.comparingDouble(Ranked::score).reversed()
+                        .thenComparing(ranked -> ranked.deck().name(), Comparator.nullsLast(String::compareTo)))
+                .map(Ranked::deck)
+                .toList();
+
+        String[] names = new String[decks.size()];
+        String[] subjectKeys = new String[decks.size()];
+        Map<String, String> subjectNames = new HashMap<>();
+        Map<String, Long> subjects = new HashMap<>();
+        Map<String, List<Integer>> lists = new HashMap<>();
+        long fingerprint = 17;
+
+        for (int i = 0; i < decks.size(); i++) {
+            PublicDeck deck = decks.get(i);
+            names[i] = TopicNormalizer.normalize(deck.name(), null);
+            subjectKeys[i] = deck.subject() != null ? TopicNormalizer.normalize(deck.subject(), null) : NO_SUBJECT;
+            if (!subjectKeys[i].isEmpty()) {
+                subjectNames.putIfAbsent(subjectKeys[i], deck.subject().trim());
+            }
+            subjects.merge(subjectKeys[i], 1L, Long::sum);
+            for (String key : indexKeys(names[i])) {
+                lists.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+            fingerprint = 31 * fingerprint + deck.hashCode();
+        }
+
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, positions) -> postings.put(key, positions.stream().mapToInt(Integer::intValue).toArray()));
+
+        Snapshot next = new Snapshot(decks, names, subjectKeys, Map.copyOf(subjectNames), null,
+                Map.copyOf(postings), Long.toHexString(fingerprint ^ ((long) decks.size() << 32)));
+        return next.withSubjects(next.namedFacets(subjects));
+    }
+
+    /**
+     * timesStudied dimezzato ogni halfLifeDays dall'ultimo studio (o dalla creazione)
+     */
+    double popularity(PublicDeck deck, LocalDateTime now) {
+        int studied = deck.timesStudied() != null ? deck.timesStudied() : 0;
+        if (studied == 0) return 0;
+        LocalDateTime last = deck.lastStudiedAt() != null ? deck.lastStudiedAt() : deck.createdAt();
+        if (last == null) return studied;
+        double ageDays = Math.max(0, Duration.between(last, now).toMinutes() / 1440.0);
+        return studied * Math.pow(0.5, ageDays / halfLifeDays);
+    }
+
+    /**
+     * Trigrammi del nome più i prefissi di 1-2 caratteri di ogni parola
+     */
+    static Set<String> indexKeys(String name) {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            keys.add(name.substring(i, i + GRAM));
+        }
+        for (String word : name.split(" ")) {
+            if (word.isEmpty()) continue;
+            keys.add(PREFIX_MARK + word.substring(0, 1));
+            if (word.length() > 1) keys.add(PREFIX_MARK + word.substring(0, 2));
+        }
+        return keys;
+    }
+
+    private static List<PublicDeck> page(List<PublicDeck> decks, int from, int size) {
+        if (from >= decks.size()) return List.of();
+        return decks.subList(from, Math.min(decks.size(), from + size));
+    }
+
+    /**
+     * Snapshot immutabile del catalogo; decks è in ordine di popolarità e le
+     * posizioni nelle liste dell'indice si riferiscono a questo ordine
+     */
+    private record Snapshot(List<PublicDeck> decks, String[] names, String[] subjectKeys,
+                            Map<String, String> subjectNames, Map<String, Long> subjects,
+                            Map<String, int[]> postings, String version) {
+
+        static final Snapshot EMPTY = new Snapshot(List.of(), new String[0], new String[0],
+                Map.of(), Map.of(), Map.of(), "0");
+
+        Snapshot withSubjects(Map<String, Long> facets) {
+            return new Snapshot(decks, names, subjectKeys, subjectNames, facets, postings, version);
+        }
+
+        /**
+         * Posizioni dei deck il cui nome contiene il testo (1-2 caratteri: inizio di una parola)
+         */
+        int[] match(String text) {
+            if (text.length() < GRAM) {
+                return postings.getOrDefault(PREFIX_MARK + text, NONE);
+            }
+
+            List<int[]> lists = new ArrayList<>();
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                int[] list = postings.get(text.substring(i, i + GRAM));
+                if (list == null) return NONE;
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.length));
+
+            int[] result = lists.get(0);
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = intersect(result, lists.get(i));
+            }
+            // I trigrammi possono comparire nel nome in un ordine diverso: verifica finale
+            return Arrays.stream(result).filter(position -> names[position].contains(text)).toArray();
+        }
+
+        /**
+         * Facet con il nome della materia come scritto nei deck, dalla più frequente
+         */
+        Map<String, Long> namedFacets(Map<String, Long> counts) {
+            Map<String, Long> facets = new LinkedHashMap<>();
+            counts.entrySet().stream()
+                    .filter(entry -> !entry.getKey().isEmpty())
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(entry -> facets.put(subjectNames.get(entry.getKey()), entry.getValue()));
+            return facets;
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) i++;
+                else if (a[i] > b[j]) j++;
+                else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.quiz.Question;
+import com.ai.studybuddy.model.quiz.QuestionBankKey;
+import com.ai.studybuddy.repository.QuestionRepository;
+import com.ai.studybuddy.service.inter.QuestionBankService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Implementazione QuestionBankService
+ *
+ * - Una sola query indicizzata (idx_quiz_bank + idx_question_content_hash) che
+ *   esclude già su DB le domande presenti nei quiz dell'utente
+ * - Si leggono count * candidate-factor candidati, poi in memoria: solo domande
+ *   valide (4 opzioni, risposta A-D), una per impronta, ordine casuale
+ * - Le domande restituite sono copie: risposte e ordine restano per quiz
+ */
+@Service
+public class QuestionBankServiceImpl implements QuestionBankService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionBankServiceImpl.class);
+
+    private final QuestionRepository questionRepository;
+
+    @Value("${quiz.bank.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${quiz.bank.candidate-factor:4}")
+    private int candidateFactor = 4;
+
+    public QuestionBankServiceImpl(QuestionRepository questionRepository) {
+        this.questionRepository = questionRepository;
+    }
+
+    @Override
+    public List<Question> takeQuestions(QuestionBankKey key, UUID userId, int count) {
+        if (!enabled || count <= 0 || key.topic() == null || key.difficulty() == null || key.language() == null) {
+            return List.of();
+        }
+
+        try {
+            List<Question> candidates = questionRepository.findBankCandidates(
+                    key.topic(), key.difficulty(), key.language(), key.educationLevel(),
+                    userId, count * candidateFactor);
+
+            Map<String, Question> unique = new LinkedHashMap<>();
+            for (Question candidate : candidates) {
+                if (isValid(candidate)) {
+                    unique.putIfAbsent(candidate.getContentHash(), candidate);
+                }
+            }
+
+            List<Question> pool = new ArrayList<>(unique.values());
+            Collections.shuffle(pool, ThreadLocalRandom.current());
+
+            List<Question> taken = pool.stream()
+                    .limit(count)
+                    .map(Question::copyForQuiz)
+                    .toList();
+            log.debug("Banca domande {}: {} domande su {} richieste", key, taken.size(), count);
+            return taken;
+        } catch (Exception e) {
+            // La banca è un'ottimizzazione: in caso di errore si genera tutto con l'AI
+            log.warn("Banca domande non disponibile per {}: {}", key, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static boolean isValid(Question question) {
+        return notBlank(question.getQuestionText())
+                && notBlank(question.getOptionA()) && notBlank(question.getOptionB())
+                && notBlank(question.getOptionC()) && notBlank(question.getOptionD())
+                && question.getCorrectAnswer() != null
+                && question.getCorrectAnswer().matches("[ABCD]");
+    }
+
+    private static boolean notBlank(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -1,55 +1,117 @@
 package com.ai.studybuddy.service.impl;
 
+import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
 import com.ai.studybuddy.dto.quiz.QuizAnswerRequest;
 import com.ai.studybuddy.dto.quiz.QuizGenerateRequest;
 import com.ai.studybuddy.dto.quiz.QuizResultResponse;
+import com.ai.studybuddy.exception.AIServiceException;
+import com.ai.studybuddy.exception.AIServiceException.AIErrorType;
 import com.ai.studybuddy.exception.ResourceNotFoundException;
 import com.ai.studybuddy.mapper.QuizMapper;
 import com.ai.studybuddy.model.quiz.Question;
+import com.ai.studybuddy.model.quiz.QuestionBankKey;
 import com.ai.studybuddy.model.quiz.Quiz;
+import com.ai.studybuddy.model.quiz.QuizAttempt;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.repository.QuestionRepository;
+import com.ai.studybuddy.repository.QuizAttemptRepository;
 import com.ai.studybuddy.repository.QuizRepository;
+import com.ai.studybuddy.service.inter.AIGenerationPool;
 import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.GamificationEventService;
+import com.ai.studybuddy.service.inter.PredictiveGenerationService;
+import com.ai.studybuddy.service.inter.QuestionBankService;
 import com.ai.studybuddy.service.inter.QuizService;
+import com.ai.studybuddy.service.inter.TopicService;
+import com.ai.studybuddy.service.inter.WarmPoolService;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
-import com.google.gson.Gson;
+import com.ai.studybuddy.util.enums.EducationLevel;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 @Service
 public class QuizServiceImpl implements QuizService {
 
     private static final Logger log = LoggerFactory.getLogger(QuizServiceImpl.class);
 
+    // Aspetti assegnati ai blocchi di un quiz grande, uno per blocco
+    private static final List<String> SHARD_FOCUSES = List.of(
+            "definizioni e concetti chiave",
+            "processi e meccanismi",
+            "cause ed effetti",
+            "esempi e applicazioni pratiche",
+            "confronti e differenze",
+            "dati, date, formule e numeri",
+            "errori e misconcezioni comuni",
+            "collegamenti con altri argomenti"
+    );
+
     private final QuizRepository quizRepository;
     private final QuestionRepository questionRepository;
+    private final QuizAttemptRepository quizAttemptRepository;
     private final AIService aiService;
     private final QuizMapper quizMapper;
-    private final Gson gson = new Gson();
+    private final TopicService topicService;
+    private final QuestionBankService questionBankService;
+    private final AIGenerationPool generationPool;
+    private final PredictiveGenerationService predictiveGenerationService;
+    private final WarmPoolService warmPoolService;
+    private final GamificationEventService gamificationEventService;
+
+    @Value("${quiz.shards.size:8}")
+    private int shardSize = 8;
+
+    @Value("${quiz.shards.max:8}")
+    private int maxShards = 8;
+
+    // Stesso limite di QuizGenerateRequest: i controller costruiscono la richiesta senza @Valid
+    @Value("${quiz.max-questions:50}")
+    private int maxQuestions = 50;
 
     private QuizService selfProxy;
 
     public QuizServiceImpl(QuizRepository quizRepository,
                            QuestionRepository questionRepository,
+                           QuizAttemptRepository quizAttemptRepository,
                            AIService aiService,
-                           QuizMapper quizMapper) {
+                           QuizMapper quizMapper,
+                           TopicService topicService,
+                           QuestionBankService questionBankService,
+                           AIGenerationPool generationPool,
+                           PredictiveGenerationService predictiveGenerationService,
+                           WarmPoolService warmPoolService,
+                           GamificationEventService gamificationEventService) {
         this.quizRepository = quizRepository;
         this.questionRepository = questionRepository;
+        this.quizAttemptRepository = quizAttemptRepository;
         this.aiService = aiService;
         this.quizMapper = quizMapper;
+        this.topicService = topicService;
+        this.questionBankService = questionBankService;
+        this.generationPool = generationPool;
+        this.predictiveGenerationService = predictiveGenerationService;
+        this.warmPoolService = warmPoolService;
+        this.gamificationEventService = gamificationEventService;
     }
 
     @Autowired
@@ -60,6 +122,8 @@ public class QuizServiceImpl implements QuizService {
     @Override
     @Transactional
     public Quiz generateQuiz(QuizGenerateRequest request, User user) {
+        request.setNumberOfQuestions(boundedQuestions(request.getNumberOfQuestions()));
+        request.setTopic(topicService.canonicalize(request.getTopic(), request.getLanguage()));
         log.info("Generazione quiz - topic: {}, domande: {}, difficoltà: {}, lingua: {}",
                 request.getTopic(), request.getNumberOfQuestions(), 
                 request.getDifficultyLevel(), request.getLanguage());
@@ -67,26 +131,69 @@ public class QuizServiceImpl implements QuizService {
         Quiz quiz = quizMapper.toEntity(request, user);
         quiz = quizRepository.save(quiz);
 
-        // ✅ PASSA LA LINGUA DALLA REQUEST!
-        String aiResponse = aiService.generateQuiz(
-                request.getTopic(),
-                request.getNumberOfQuestions(),
-                request.getDifficultyLevel(),
-                user.getEducationLevel(),
-                request.getLanguage()
-        );
+        // Prima le domande già generate per la stessa chiave e mai viste dall'utente
+        Set<String> seenHashes = new HashSet<>();
+        List<Question> banked = questionBankService.takeQuestions(
+                QuestionBankKey.of(quiz), user.getId(), request.getNumberOfQuestions());
+        for (Question question : banked) {
+            seenHashes.add(question.getContentHash());
+            quiz.addQuestion(question);
+        }
 
-        JsonArray questionsJson = parseQuizJson(aiResponse);
+        // Poi le domande pre-generate per questo utente o per gli argomenti di tendenza,
+        // l'AI solo per quelle mancanti
+        int missing = request.getNumberOfQuestions() - banked.size();
+        WarmPoolService.PoolKey poolKey = WarmPoolService.PoolKey.of(GeneratedContentType.QUIZ, request.getTopic(),
+                request.getDifficultyLevel(), user.getEducationLevel(), request.getLanguage());
+        if (missing <= 0) {
+            // Quiz servito tutto dalla banca: la richiesta conta comunque per le tendenze del pool
+            warmPoolService.take(poolKey, 0);
+        } else {
+            JsonArray questionsJson = new JsonArray();
+            List<JsonObject> predicted = predictiveGenerationService.take(user.getId(), GeneratedContentType.QUIZ,
+                    request.getTopic(), request.getDifficultyLevel(), user.getEducationLevel(),
+                    request.getLanguage(), missing);
+            predicted.forEach(questionsJson::add);
+            List<JsonObject> pooled = warmPoolService.take(poolKey, missing - questionsJson.size());
+            pooled.forEach(questionsJson::add);
+            int toGenerate = missing - questionsJson.size();
+            try {
+                if (toGenerate > shardSize) {
+                    questionsJson.addAll(generateSharded(request, toGenerate, user.getEducationLevel()));
+                } else if (toGenerate > 0) {
+                    // ✅ PASSA LA LINGUA DALLA REQUEST!
+                    questionsJson.addAll(aiService.generateWithShortfall(toGenerate, "question",
+                            (count, excluded) -> aiService.generateQuiz(
+                                    request.getTopic(),
+                                    count,
+                                    request.getDifficultyLevel(),
+                                    user.getEducationLevel(),
+                                    request.getLanguage(),
+                                    excluded
+                            )));
+                }
+            } catch (RuntimeException e) {
+                // Quiz non generato: le domande pre-generate e del pool restano per la prossima richiesta
+                predictiveGenerationService.putBack(user.getId(), GeneratedContentType.QUIZ, request.getTopic(),
+                        request.getDifficultyLevel(), user.getEducationLevel(), request.getLanguage(), predicted);
+                warmPoolService.putBack(poolKey, pooled);
+                throw e;
+            }
 
-        for (int i = 0; i < questionsJson.size(); i++) {
-            JsonObject questionJson = questionsJson.get(i).getAsJsonObject();
-            Question question = quizMapper.toQuestionEntity(questionJson, quiz, i + 1);
-            quiz.addQuestion(question);
+            for (int i = 0; i < questionsJson.size() && quiz.getQuestions().size() < request.getNumberOfQuestions(); i++) {
+                JsonObject questionJson = questionsJson.get(i).getAsJsonObject();
+                Question question = quizMapper.toQuestionEntity(questionJson, quiz, banked.size() + i + 1);
+                question.setContentHash(Question.hashOf(question.getQuestionText()));
+                // Scarta le domande uguali a quelle prese dalla banca o già generate da un altro blocco
+                if (seenHashes.add(question.getContentHash())) {
+                    quiz.addQuestion(question);
+                }
+            }
         }
 
         quiz = quizRepository.save(quiz);
-        log.info("Quiz generato con ID: {}, {} domande, lingua: {}", 
-                quiz.getId(), quiz.getNumberOfQuestions(), request.getLanguage());
+        log.info("Quiz generato con ID: {}, {} domande ({} dalla banca), lingua: {}",
+                quiz.getId(), quiz.getNumberOfQuestions(), banked.size(), request.getLanguage());
 
         return quiz;
     }
@@ -103,45 +210,88 @@ public class QuizServiceImpl implements QuizService {
         return selfProxy.generateQuiz(request, user);
     }
 
+    /**
+     * Apre un tentativo (o riprende quello in corso); le domande non vengono toccate
+     */
     @Override
     @Transactional
     public Quiz startQuiz(UUID quizId, UUID userId) {
-        Quiz quiz = findQuizByIdAndUser(quizId, userId);
-        quiz.start();
-        return quizRepository.save(quiz);
+        Quiz quiz = findAccessibleQuiz(quizId, userId);
+        QuizAttempt latest = latestAttempt(quiz, userId).orElse(null);
+        QuizAttempt attempt = latest != null && !latest.isCompleted() ? latest : newAttempt(quiz, latest);
+        attempt.start();
+        quizAttemptRepository.save(attempt);
+
+        quiz.applyAttempt(attempt);
+        return saveIfOwner(quiz, userId);
     }
 
     @Override
     @Transactional
-    public QuizResultResponse submitAnswers(QuizAnswerRequest request, UUID userId) {
+    public QuizResultResponse submitAnswers(QuizAnswerRequest request, User user) {
         log.info("Invio risposte quiz: {}", request.getQuizId());
+        UUID userId = user.getId();
 
-        Quiz quiz = findQuizByIdAndUser(request.getQuizId(), userId);
+        Quiz quiz = findAccessibleQuiz(request.getQuizId(), userId);
+        QuizAttempt attempt = latestAttempt(quiz, userId).orElse(null);
 
-        if (Boolean.TRUE.equals(quiz.getIsCompleted())) {
+        // Senza tentativi vale lo stato salvato sul quiz (quiz completati prima dello storico tentativi)
+        boolean completed = attempt != null ? attempt.isCompleted() : Boolean.TRUE.equals(quiz.getIsCompleted());
+        if (completed) {
             log.warn("Quiz {} già completato", request.getQuizId());
+            if (attempt != null) quiz.applyAttempt(attempt);
             return buildQuizResultResponse(quiz);
         }
 
-        Map<UUID, String> answers = request.getAnswers();
-        int correctCount = 0;
+        // Qui il tentativo, se c'è, è ancora aperto: serve crearne uno solo per i quiz senza storico
+        if (attempt == null) {
+            attempt = newAttempt(quiz, null);
+        }
 
+        Map<UUID, String> answers = request.getAnswers();
         for (Question question : quiz.getQuestions()) {
             String answer = answers.get(question.getId());
             if (answer != null) {
-                question.setUserAnswer(answer);
-                boolean isCorrect = question.checkAnswer(answer);
-                if (isCorrect) correctCount++;
+                attempt.answer(question, answer);
             }
         }
 
-        quiz.complete();
-        quiz = quizRepository.save(quiz);
+        attempt.complete(quiz.getQuestions().size());
+        quizAttemptRepository.save(attempt);
+
+        quiz.applyAttempt(attempt);
+        quiz = saveIfOwner(quiz, userId);
 
-        log.info("Quiz completato - Score: {}/{} ({}%)",
-                quiz.getScore(), quiz.getTotalPoints(), quiz.getPercentage());
+        log.info("Quiz completato - Tentativo {}, Score: {}/{} ({}%)",
+                attempt.getAttemptNumber(), quiz.getScore(), quiz.getTotalPoints(), quiz.getPercentage());
 
-        return buildQuizResultResponse(quiz);
+        // Evento XP nella transazione del tentativo: se non viene salvato, il tentativo torna indietro
+        QuizResultResponse result = buildQuizResultResponse(quiz);
+        XpEventResponse xpEvent = gamificationEventService.publishQuizCompleted(user, result.isPassed(),
+                result.getTopic(), result.getSubject(), result.getScorePercentage(),
+                result.getTotalQuestions(), result.getScore());
+        applyXpEvent(result, xpEvent);
+        return result;
+    }
+
+    private static void applyXpEvent(QuizResultResponse result, XpEventResponse xpEvent) {
+        result.setXpEarned(xpEvent.getXpEarned());
+        result.setTotalXp(xpEvent.getNewTotalXp());
+        result.setLevel(xpEvent.getNewLevel());
+        result.setLeveledUp(xpEvent.isLeveledUp());
+
+        if (xpEvent.getNewBadges() != null && !xpEvent.getNewBadges().isEmpty()) {
+            List<Map<String, Object>> badgesList = new ArrayList<>();
+            for (var badge : xpEvent.getNewBadges()) {
+                Map<String, Object> badgeMap = new HashMap<>();
+                badgeMap.put("name", badge.getName());
+                badgeMap.put("icon", badge.getIcon());
+                badgeMap.put("description", badge.getDescription());
+                badgeMap.put("xpReward", badge.getXpReward() != null ? badge.getXpReward() : 0);
+                badgesList.add(badgeMap);
+            }
+            result.setNewBadges(badgesList);
+        }
     }
 
     private QuizResultResponse buildQuizResultResponse(Quiz quiz) {
@@ -218,8 +368,18 @@ public class QuizServiceImpl implements QuizService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Quiz getQuiz(UUID quizId, UUID userId) {
-        return findQuizByIdAndUser(quizId, userId);
+        Quiz quiz = findAccessibleQuiz(quizId, userId);
+        latestAttempt(quiz, userId).ifPresent(quiz::applyAttempt);
+        return quiz;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<QuizAttempt> getAttempts(UUID quizId, UUID userId) {
+        findAccessibleQuiz(quizId, userId);
+        return quizAttemptRepository.findByQuizIdAndUserIdOrderByAttemptNumberDesc(quizId, userId);
     }
 
     @Override
@@ -239,7 +399,8 @@ public class QuizServiceImpl implements QuizService {
 
     @Override
     public List<Quiz> searchByTopic(UUID userId, String topic) {
-        return quizRepository.findByUserIdAndTopicContainingIgnoreCaseOrderByCreatedAtDesc(userId, topic);
+        String canonical = topicService.findCanonical(topic, null).orElse(topic);
+        return quizRepository.findByUserIdAndTopicContainingIgnoreCaseOrderByCreatedAtDesc(userId, canonical);
     }
 
     @Override
@@ -255,12 +416,18 @@ public class QuizServiceImpl implements QuizService {
         log.info("Quiz eliminato: {}", quizId);
     }
 
+    /**
+     * Nuovo tentativo: i precedenti restano nello storico, le domande non vengono copiate
+     */
     @Override
     @Transactional
     public Quiz retryQuiz(UUID quizId, UUID userId) {
-        Quiz quiz = findQuizByIdAndUser(quizId, userId);
-        quiz.resetAllAnswers();
-        return quizRepository.save(quiz);
+        Quiz quiz = findAccessibleQuiz(quizId, userId);
+        QuizAttempt attempt = newAttempt(quiz, latestAttempt(quiz, userId).orElse(null));
+        quizAttemptRepository.save(attempt);
+
+        quiz.applyAttempt(attempt);
+        return saveIfOwner(quiz, userId);
     }
 
     @Override
@@ -286,16 +453,112 @@ public class QuizServiceImpl implements QuizService {
         return quizRepository.findRecentQuizzes(userId, since);
     }
 
+    private Optional<QuizAttempt> latestAttempt(Quiz quiz, UUID userId) {
+        return quizAttemptRepository.findFirstByQuizIdAndUserIdOrderByAttemptNumberDesc(quiz.getId(), userId);
+    }
+
+    /**
+     * Il nuovo tentativo è dello stesso utente del precedente (anche per i quiz assegnati);
+     * l'assegnazione resta solo sul primo, così i risultati della classe contano un tentativo per studente
+     */
+    private QuizAttempt newAttempt(Quiz quiz, QuizAttempt previous) {
+        if (previous == null) {
+            return new QuizAttempt(quiz, quiz.getUser(), 1);
+        }
+        return new QuizAttempt(previous.getQuiz(), previous.getUser(), previous.getAttemptNumber() + 1);
+    }
+
     private Quiz findQuizByIdAndUser(UUID quizId, UUID userId) {
         return quizRepository.findByIdAndUserId(quizId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Quiz", "id", quizId));
     }
 
-    private JsonArray parseQuizJson(String aiResponse) {
-        String cleaned = aiResponse
-                .replaceAll("```json\\s*", "")
-                .replaceAll("```\\s*", "")
-                .trim();
-        return gson.fromJson(cleaned, JsonArray.class);
+    /**
+     * Quiz dell'utente oppure assegnato all'utente da un docente (vista non gestita)
+     */
+    private Quiz findAccessibleQuiz(UUID quizId, UUID userId) {
+        Optional<Quiz> owned = quizRepository.findByIdAndUserId(quizId, userId);
+        if (owned.isPresent()) {
+            return owned.get();
+        }
+        return quizRepository.findById(quizId)
+                .filter(quiz -> quizAttemptRepository.existsByQuizIdAndUserId(quizId, userId))
+                .map(Quiz::viewForAssignee)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz", "id", quizId));
+    }
+
+    /**
+     * Il riepilogo sul quiz è quello del proprietario; per uno studente assegnato basta il tentativo
+     */
+    private Quiz saveIfOwner(Quiz quiz, UUID userId) {
+        if (quiz.getUser() != null && userId.equals(quiz.getUser().getId())) {
+            return quizRepository.save(quiz);
+        }
+        return quiz;
+    }
+
+    // ==================== QUIZ GRANDI ====================
+
+    /**
+     * Numero di domande tra 1 e quiz.max-questions (5 se non indicato)
+     */
+    private int boundedQuestions(Integer requested) {
+        return Math.clamp(requested != null ? requested : 5, 1, maxQuestions);
+    }
+
+    /**
+     * Blocchi di circa quiz.shards.size domande generati in parallelo, ciascuno su un
+     * aspetto diverso dell'argomento; uniti nell'ordine dei blocchi.
+     * Al massimo quiz.shards.max blocchi: oltre, i blocchi diventano più grandi.
+     * Ogni blocco chiede una domanda in più per compensare i duplicati scartati.
+     * Un blocco fallito viene saltato; l'errore viene propagato solo se falliscono tutti.
+     */
+    private JsonArray generateSharded(QuizGenerateRequest request, int count, EducationLevel educationLevel) {
+        int shards = Math.min((count + shardSize - 1) / shardSize, maxShards);
+        List<String> focuses = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            String focus = SHARD_FOCUSES.get(i % SHARD_FOCUSES.size());
+            focuses.add(i < SHARD_FOCUSES.size() ? focus : focus + " (" + (i / SHARD_FOCUSES.size() + 1) + ")");
+        }
+        log.info("Quiz grande diviso in {} blocchi - topic: {}, domande: {}", shards, request.getTopic(), count);
+
+        List<FutureTask<JsonArray>> tasks = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            int size = count / shards + (i < count % shards ? 1 : 0) + 1;
+            String focus = focuses.get(i);
+            List<String> others = focuses.stream().filter(other -> !other.equals(focus)).toList();
+            FutureTask<JsonArray> task = new FutureTask<>(() -> aiService.generateWithShortfall(size, "question",
+                    (shardCount, excluded) -> aiService.generateQuizShard(request.getTopic(), shardCount,
+                            request.getDifficultyLevel(), educationLevel, request.getLanguage(),
+                            focus, others, excluded)));
+            generationPool.execute(task);
+            tasks.add(task);
+        }
+
+        JsonArray merged = new JsonArray();
+        RuntimeException firstError = null;
+        try {
+            for (FutureTask<JsonArray> task : tasks) {
+                try {
+                    merged.addAll(task.get());
+                } catch (ExecutionException e) {
+                    RuntimeException cause = e.getCause() instanceof RuntimeException runtime
+                            ? runtime
+                            : new AIServiceException(AIErrorType.SERVICE_UNAVAILABLE, e.getCause());
+                    if (firstError == null) firstError = cause;
+                    log.warn("Blocco quiz non generato (topic {}): {}", request.getTopic(), cause.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AIServiceException(AIErrorType.TIMEOUT, "Generazione quiz interrotta", e);
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+        }
+
+        if (merged.isEmpty() && firstError != null) {
+            throw firstError;
+        }
+        return merged;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,244 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.dto.quiz.QuizGenerateRequest;
+import com.ai.studybuddy.exception.AIServiceException;
+import com.ai.studybuddy.exception.AIServiceException.AIErrorType;
+import com.ai.studybuddy.mapper.QuizMapper;
+import com.ai.studybuddy.model.quiz.Question;
+import com.ai.studybuddy.model.quiz.QuestionBankKey;
+import com.ai.studybuddy.model.quiz.Quiz;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.repository.QuestionRepository;
+import com.ai.studybuddy.repository.QuizRepository;
+import com.ai.studybuddy.service.inter.AIGenerationMetrics;
+import com.ai.studybuddy.service.inter.AIGenerationPool;
+import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.QuestionBankService;
+import com.ai.studybuddy.service.inter.QuizStreamService;
+import com.ai.studybuddy.service.inter.TopicService;
+import com.ai.studybuddy.service.inter.WarmPoolService;
+import com.ai.studybuddy.util.JsonArrayStreamParser;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementazione QuizStreamService
+ *
+ * - Il quiz (con le domande dalla banca) viene salvato prima della chiamata AI
+ * - La risposta AI arriva in streaming e viene letta con JsonArrayStreamParser:
+ *   ogni domanda completa viene salvata nella propria transazione e inviata subito
+ * - La generazione gira su AIGenerationPool, quindi conta nel limite globale di chiamate AI
+ * - Se il client si disconnette la generazione prosegue: il quiz resta consultabile
+ */
+@Service
+public class QuizStreamServiceImpl implements QuizStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizStreamServiceImpl.class);
+
+    private final QuizRepository quizRepository;
+    private final QuestionRepository questionRepository;
+    private final AIService aiService;
+    private final QuizMapper quizMapper;
+    private final TopicService topicService;
+    private final QuestionBankService questionBankService;
+    private final TransactionTemplate transactionTemplate;
+    private final AIGenerationPool generationPool;
+    private final AIGenerationMetrics generationMetrics;
+    private final WarmPoolService warmPoolService;
+
+    @Value("${quiz.stream.emitter-timeout-ms:180000}")
+    private long emitterTimeoutMs = 180000;
+
+    // Stesso limite di QuizServiceImpl: la richiesta arriva dai parametri della URL, senza @Valid
+    @Value("${quiz.max-questions:50}")
+    private int maxQuestions = 50;
+
+    public QuizStreamServiceImpl(QuizRepository quizRepository,
+                                 QuestionRepository questionRepository,
+                                 AIService aiService,
+                                 QuizMapper quizMapper,
+                                 TopicService topicService,
+                                 QuestionBankService questionBankService,
+                                 TransactionTemplate transactionTemplate,
+                                 AIGenerationPool generationPool,
+                                 AIGenerationMetrics generationMetrics,
+                                 WarmPoolService warmPoolService) {
+        this.quizRepository = quizRepository;
+        this.questionRepository = questionRepository;
+        this.aiService = aiService;
+        this.quizMapper = quizMapper;
+        this.topicService = topicService;
+        this.questionBankService = questionBankService;
+        this.transactionTemplate = transactionTemplate;
+        this.generationPool = generationPool;
+        this.generationMetrics = generationMetrics;
+        this.warmPoolService = warmPoolService;
+    }
+
+    @Override
+    public SseEmitter streamQuiz(QuizGenerateRequest request, User user) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        EmitterListener listener = new EmitterListener(emitter);
+        emitter.onTimeout(emitter::complete);
+
+        try {
+            generationPool.execute(() -> {
+                try {
+                    Quiz quiz = generateProgressive(request, user, listener);
+                    listener.send(EVENT_COMPLETE, quiz);
+                    emitter.complete();
+                } catch (RuntimeException e) {
+                    log.warn("Generazione progressiva quiz fallita (topic {}): {}", request.getTopic(), e.getMessage());
+                    listener.send(EVENT_ERROR, Map.of("message", String.valueOf(e.getMessage())));
+                    emitter.complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            emitter.completeWithError(new AIServiceException(AIErrorType.SERVICE_UNAVAILABLE, e));
+        }
+        return emitter;
+    }
+
+    @Override
+    public Quiz generateProgressive(QuizGenerateRequest request, User user, Listener listener) {
+        int requested = request.getNumberOfQuestions() != null ? request.getNumberOfQuestions() : 5;
+        request.setNumberOfQuestions(Math.clamp(requested, 1, maxQuestions));
+        request.setTopic(topicService.canonicalize(request.getTopic(), request.getLanguage()));
+        // Solo registrazione per le tendenze del pool: le domande arrivano dallo streaming
+        warmPoolService.take(WarmPoolService.PoolKey.of(GeneratedContentType.QUIZ, request.getTopic(),
+                request.getDifficultyLevel(), user.getEducationLevel(), request.getLanguage()), 0);
+        log.info("Generazione progressiva quiz - topic: {}, domande: {}, difficoltà: {}, lingua: {}",
+                request.getTopic(), request.getNumberOfQuestions(),
+                request.getDifficultyLevel(), request.getLanguage());
+
+        // Prima le domande già generate per la stessa chiave e mai viste dall'utente
+        Quiz quiz = transactionTemplate.execute(status -> {
+            Quiz created = quizMapper.toEntity(request, user);
+            created = quizRepository.save(created);
+            for (Question question : questionBankService.takeQuestions(
+                    QuestionBankKey.of(created), user.getId(), request.getNumberOfQuestions())) {
+                created.addQuestion(question);
+            }
+            created.setNumberOfQuestions(created.getQuestions().size());
+            return quizRepository.save(created);
+        });
+        listener.onQuizCreated(quiz);
+
+        int banked = quiz.getQuestions().size();
+        int missing = request.getNumberOfQuestions() - banked;
+        if (missing <= 0) {
+            return quiz;
+        }
+
+        Set<String> seenHashes = new HashSet<>();
+        quiz.getQuestions().forEach(question -> seenHashes.add(question.getContentHash()));
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+        AtomicInteger parsed = new AtomicInteger();
+
+        try {
+            aiService.streamQuiz(request.getTopic(), missing, request.getDifficultyLevel(),
+                    user.getEducationLevel(), request.getLanguage(), chunk -> {
+                        for (JsonObject questionJson : parser.feed(chunk)) {
+                            parsed.incrementAndGet();
+                            if (quiz.getQuestions().size() >= request.getNumberOfQuestions()) return;
+                            addQuestion(quiz, questionJson, seenHashes, listener);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            recordOutcome(missing, parsed.get(), true);
+            if (quiz.getQuestions().isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> quizRepository.deleteById(quiz.getId()));
+                throw e;
+            }
+            log.warn("Generazione quiz {} interrotta dopo {} domande: {}",
+                    quiz.getId(), quiz.getQuestions().size(), e.getMessage());
+            return quiz;
+        }
+
+        recordOutcome(missing, parsed.get(), !parser.isComplete());
+        if (quiz.getQuestions().isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> quizRepository.deleteById(quiz.getId()));
+            throw new AIServiceException(AIErrorType.PARSE_ERROR, "Nessuna domanda valida nella risposta AI");
+        }
+
+        log.info("Quiz generato progressivamente con ID: {}, {} domande ({} dalla banca)",
+                quiz.getId(), quiz.getQuestions().size(), banked);
+        return quiz;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void recordOutcome(int requested, int parsed, boolean incomplete) {
+        if (parsed == 0) {
+            generationMetrics.recordFailure(requested);
+        } else {
+            generationMetrics.recordResponse(requested, parsed, incomplete);
+        }
+    }
+
+    /**
+     * Salva una domanda appena completa (scartando i duplicati) e la invia al client
+     */
+    private void addQuestion(Quiz quiz, JsonObject questionJson, Set<String> seenHashes, Listener listener) {
+        Question question = quizMapper.toQuestionEntity(questionJson, quiz, quiz.getQuestions().size() + 1);
+        question.setContentHash(Question.hashOf(question.getQuestionText()));
+        if (!seenHashes.add(question.getContentHash())) {
+            return;
+        }
+
+        quiz.addQuestion(question);
+        Question saved = transactionTemplate.execute(status -> {
+            Question persisted = questionRepository.save(question);
+            quizRepository.updateNumberOfQuestions(quiz.getId(), quiz.getQuestions().size());
+            return persisted;
+        });
+        listener.onQuestion(saved);
+    }
+
+    /**
+     * Invia gli eventi sulla connessione SSE; dopo il primo invio fallito
+     * (client disconnesso) gli eventi vengono ignorati
+     */
+    private static class EmitterListener implements Listener {
+
+        private final SseEmitter emitter;
+        private volatile boolean closed;
+
+        EmitterListener(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onQuizCreated(Quiz quiz) {
+            send(EVENT_QUIZ, quiz);
+        }
+
+        @Override
+        public void onQuestion(Question question) {
+            send(EVENT_QUESTION, question);
+        }
+
+        void send(String eventName, Object payload) {
+            if (closed) return;
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(payload));
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+                log.debug("Connessione SSE del quiz chiusa: {}", e.getMessage());
+            }
+        }
+    }
+}
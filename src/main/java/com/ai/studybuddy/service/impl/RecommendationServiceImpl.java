@@ -1,44 +1,80 @@
 package com.ai.studybuddy.service.impl;
 
 import com.ai.studybuddy.dto.recommendation.RecommendationResponse;
+import com.ai.studybuddy.event.ProgressUpdatedEvent;
+import com.ai.studybuddy.event.StatsUpdatedEvent;
 import com.ai.studybuddy.model.gamification.UserStats;
 import com.ai.studybuddy.model.recommendation.Recommendation;
 import com.ai.studybuddy.model.recommendation.Recommendation.RecommendationType;
 import com.ai.studybuddy.model.recommendation.Recommendation.Priority;
+import com.ai.studybuddy.model.recommendation.RecommendationKey;
+import com.ai.studybuddy.model.topic.RelatedTopic;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.model.user.UserProgress;
 import com.ai.studybuddy.repository.RecommendationRepository;
 import com.ai.studybuddy.repository.UserProgressRepository;
+import com.ai.studybuddy.service.inter.EventStreamService;
 import com.ai.studybuddy.service.inter.GamificationService;
 import com.ai.studybuddy.service.inter.RecommendationService;
+import com.ai.studybuddy.service.inter.RelatedTopicService;
+import com.ai.studybuddy.util.TopicNormalizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.Set;
 import java.util.UUID;
-
+import java.util.stream.Collectors;
+
+/**
+ * Implementazione RecommendationService
+ *
+ * - generateRecommendations: ricalcolo completo su richiesta (POST /generate)
+ * - onProgressUpdated / onStatsUpdated: aggiornamento incrementale guidato dagli
+ *   eventi di GamificationService, solo per le regole toccate
+ * - getActiveRecommendations: sola lettura indicizzata, nessuna generazione
+ */
 @Service
 public class RecommendationServiceImpl implements RecommendationService {
 
     private static final Logger logger = LoggerFactory.getLogger(RecommendationServiceImpl.class);
 
+    private static final double WEAK_SCORE = 60.0;
+    private static final double STRONG_SCORE = 80.0;
+    private static final int MAX_RELATED_SUGGESTIONS = 2;
+
     private final RecommendationRepository recommendationRepository;
     private final UserProgressRepository userProgressRepository;
     private final GamificationService gamificationService;
+    private final EventStreamService eventStreamService;
+    private final RelatedTopicService relatedTopicService;
 
     public RecommendationServiceImpl(RecommendationRepository recommendationRepository,
                                      UserProgressRepository userProgressRepository,
-                                     GamificationService gamificationService) {
+                                     GamificationService gamificationService,
+                                     EventStreamService eventStreamService,
+                                     RelatedTopicService relatedTopicService) {
         this.recommendationRepository = recommendationRepository;
         this.userProgressRepository = userProgressRepository;
         this.gamificationService = gamificationService;
+        this.eventStreamService = eventStreamService;
+        this.relatedTopicService = relatedTopicService;
     }
 
     @Override
@@ -47,56 +83,41 @@ public class RecommendationServiceImpl implements RecommendationService {
         return RecommendationResponse.fromList(active);
     }
 
+    /**
+     * Genera le raccomandazioni su uno snapshot dei progressi:
+     * - una sola query per i progressi dell'utente, regole valutate in memoria
+     * - una sola query per le chiavi (tipo, topic) già esistenti
+     * - un solo saveAll (insert in batch) per le nuove raccomandazioni
+     */
     @Override
     @Transactional
     public List<Recommendation> generateRecommendations(User user) {
-        List<Recommendation> newRecs = new ArrayList<>();
+        List<Recommendation> candidates = new ArrayList<>();
         UserStats stats = gamificationService.getOrCreateUserStats(user.getId());
         UUID userId = user.getId();
 
         try {
             // 1. STREAK REMINDER
-            if (stats.getCurrentStreak() > 0 &&
-                    stats.getLastActivityDate() != null &&
-                    stats.getLastActivityDate().isBefore(LocalDate.now())) {
-
-                Recommendation streakRec = createRecommendation(
-                        user,
-                        RecommendationType.STREAK_REMINDER,
-                        "Mantieni il tuo streak!",
-                        "Hai uno streak di " + stats.getCurrentStreak() + " giorni. Non perderlo!",
-                        null,
-                        "Non perdere il tuo streak di studio",
-                        Priority.URGENT
-                );
-                if (streakRec != null) newRecs.add(streakRec);
+            if (needsStreakReminder(stats.getEffectiveStreak(), stats.getLastActivityDate())) {
+                candidates.add(streakReminder(user, stats.getEffectiveStreak()));
             }
 
+            ProgressSnapshot snapshot = ProgressSnapshot.of(userProgressRepository.findByUserId(userId));
+
             // 2. ARGOMENTI DEBOLI (score < 60%)
-            List<UserProgress> weakTopics = userProgressRepository.findWeakTopics(userId, 60.0);
-            for (UserProgress progress : weakTopics) {
-                Recommendation weakTopicRec = createRecommendation(
-                        user,
-                        RecommendationType.WEAKNESS_FOCUS,
-                        "Ripassa: " + progress.getTopic(),
-                        "Il tuo punteggio medio e' " + Math.round(progress.getAverageScore()) + "%. Puoi migliorare!",
-                        progress.getTopic(),
-                        "Punteggio sotto il 60%",
-                        Priority.HIGH
-                );
-                if (weakTopicRec != null) newRecs.add(weakTopicRec);
+            for (UserProgress progress : snapshot.weakTopics(WEAK_SCORE)) {
+                candidates.add(weakTopic(user, progress));
             }
 
             // 3. ARGOMENTI DA RIPASSARE (non studiati da 7+ giorni)
             LocalDateTime cutoffDate = LocalDateTime.now().minusDays(7);
-            List<UserProgress> topicsToReview = userProgressRepository.findTopicsNeedingReview(userId, cutoffDate);
-            for (UserProgress progress : topicsToReview) {
+            for (UserProgress progress : snapshot.topicsNeedingReview(cutoffDate)) {
                 long daysAgo = ChronoUnit.DAYS.between(
                         progress.getLastActivityAt().toLocalDate(),
                         LocalDate.now()
                 );
 
-                Recommendation reviewRec = createRecommendation(
+                candidates.add(buildRecommendation(
                         user,
                         RecommendationType.REVIEW_TOPIC,
                         "Ripasso consigliato: " + progress.getTopic(),
@@ -104,56 +125,33 @@ public class RecommendationServiceImpl implements RecommendationService {
                         progress.getTopic(),
                         "Il ripasso periodico migliora la memoria a lungo termine",
                         daysAgo > 14 ? Priority.HIGH : Priority.MEDIUM
-                );
-                if (reviewRec != null) newRecs.add(reviewRec);
+                ));
             }
 
             // 4. ARGOMENTI RECENTI - CONTINUA A STUDIARE
-            List<UserProgress> recentTopics = userProgressRepository.findRecentTopics(userId, 3);
-            for (UserProgress progress : recentTopics) {
-                if (progress.getAverageScore() != null &&
-                        progress.getAverageScore() >= 60 &&
-                        progress.getAverageScore() < 80) {
-
-                    Recommendation continueRec = createRecommendation(
-                            user,
-                            RecommendationType.REVIEW_TOPIC,
-                            "Continua con: " + progress.getTopic(),
-                            "Sei sulla buona strada! Punteggio attuale: " + Math.round(progress.getAverageScore()) + "%",
-                            progress.getTopic(),
-                            "Ancora un po' di pratica per padroneggiare l'argomento",
-                            Priority.MEDIUM
-                    );
-                    if (continueRec != null) newRecs.add(continueRec);
+            for (UserProgress progress : snapshot.recentTopics(3)) {
+                if (isContinueScore(progress.getAverageScore())) {
+                    candidates.add(continueTopic(user, progress));
                 }
             }
 
-            // 5. ARGOMENTI PIU' STUDIATI - SFIDA TE STESSO
-            List<UserProgress> mostStudied = userProgressRepository.findMostStudiedTopics(userId);
-            if (!mostStudied.isEmpty()) {
-                UserProgress topTopic = mostStudied.get(0);
-                if (topTopic.getAverageScore() != null && topTopic.getAverageScore() >= 80) {
-                    Recommendation challengeRec = createRecommendation(
-                            user,
-                            RecommendationType.RETRY_QUIZ,
-                            "Sfida te stesso: " + topTopic.getTopic(),
-                            "Sei forte in questo argomento! Prova un quiz difficile.",
-                            topTopic.getTopic(),
-                            "Punteggio attuale: " + Math.round(topTopic.getAverageScore()) + "% - Punta al 100%!",
-                            Priority.LOW
-                    );
-                    if (challengeRec != null) newRecs.add(challengeRec);
-                }
+            // 5. ARGOMENTO PIU' STUDIATO - SFIDA TE STESSO
+            UserProgress topTopic = snapshot.mostStudiedTopic();
+            if (topTopic != null && isChallengeScore(topTopic.getAverageScore())) {
+                candidates.add(challengeTopic(user, topTopic));
             }
 
+            // 5b. ARGOMENTI CORRELATI A QUELLI RECENTI (indice locale, nessuna chiamata AI)
+            candidates.addAll(relatedTopics(user, snapshot));
+
             // 6. STATISTICHE GENERALI
-            Double overallAverage = userProgressRepository.getOverallAverageScore(userId);
-            Integer totalStudyMinutes = userProgressRepository.getTotalStudyMinutes(userId);
-            long totalTopics = userProgressRepository.countByUserId(userId);
+            Double overallAverage = snapshot.overallAverageScore();
+            int totalStudyMinutes = snapshot.totalStudyMinutes();
+            long totalTopics = snapshot.totalTopics();
 
             // Suggerimento basato sulla media generale
             if (overallAverage != null && overallAverage < 70) {
-                Recommendation improveRec = createRecommendation(
+                candidates.add(buildRecommendation(
                         user,
                         RecommendationType.WEAKNESS_FOCUS,
                         "Migliora la tua media!",
@@ -161,13 +159,12 @@ public class RecommendationServiceImpl implements RecommendationService {
                         null,
                         "Una media sopra il 70% ti aiutera' a consolidare le conoscenze",
                         Priority.MEDIUM
-                );
-                if (improveRec != null) newRecs.add(improveRec);
+                ));
             }
 
             // Suggerimento basato sul tempo di studio
-            if (totalStudyMinutes == null || totalStudyMinutes < 60) {
-                Recommendation studyMoreRec = createRecommendation(
+            if (totalStudyMinutes < 60) {
+                candidates.add(buildRecommendation(
                         user,
                         RecommendationType.DAILY_GOAL,
                         "Aumenta il tempo di studio",
@@ -175,13 +172,12 @@ public class RecommendationServiceImpl implements RecommendationService {
                         null,
                         "Anche 15 minuti al giorno fanno la differenza",
                         Priority.MEDIUM
-                );
-                if (studyMoreRec != null) newRecs.add(studyMoreRec);
+                ));
             }
 
             // Suggerimento per esplorare nuovi argomenti
             if (totalTopics < 5) {
-                Recommendation exploreRec = createRecommendation(
+                candidates.add(buildRecommendation(
                         user,
                         RecommendationType.NEW_TOPIC,
                         "Esplora nuovi argomenti!",
@@ -189,8 +185,7 @@ public class RecommendationServiceImpl implements RecommendationService {
                         null,
                         "La varieta' aiuta a mantenere alta la motivazione",
                         Priority.LOW
-                );
-                if (exploreRec != null) newRecs.add(exploreRec);
+                ));
             }
 
         } catch (Exception e) {
@@ -199,7 +194,7 @@ public class RecommendationServiceImpl implements RecommendationService {
 
         // 7. OBIETTIVO XP GIORNALIERO
         if (stats.getWeeklyXp() == null || stats.getWeeklyXp() < 50) {
-            Recommendation dailyGoal = createRecommendation(
+            candidates.add(buildRecommendation(
                     user,
                     RecommendationType.DAILY_GOAL,
                     "Raggiungi 50 XP oggi!",
@@ -207,13 +202,12 @@ public class RecommendationServiceImpl implements RecommendationService {
                     null,
                     "Guadagna XP per salire di livello",
                     Priority.MEDIUM
-            );
-            if (dailyGoal != null) newRecs.add(dailyGoal);
+            ));
         }
 
         // 8. SUGGERISCI QUIZ SE MAI FATTO
         if (stats.getQuizzesCompleted() == null || stats.getQuizzesCompleted() == 0) {
-            Recommendation tryQuiz = createRecommendation(
+            candidates.add(buildRecommendation(
                     user,
                     RecommendationType.NEW_TOPIC,
                     "Prova a creare un Quiz!",
@@ -221,13 +215,12 @@ public class RecommendationServiceImpl implements RecommendationService {
                     null,
                     "Non hai ancora completato nessun quiz",
                     Priority.MEDIUM
-            );
-            if (tryQuiz != null) newRecs.add(tryQuiz);
+            ));
         }
 
         // 9. SUGGERISCI FLASHCARD SE MAI USATE
         if (stats.getFlashcardsStudied() == null || stats.getFlashcardsStudied() == 0) {
-            Recommendation tryFlashcards = createRecommendation(
+            candidates.add(buildRecommendation(
                     user,
                     RecommendationType.STUDY_FLASHCARDS,
                     "Scopri le Flashcards!",
@@ -235,13 +228,12 @@ public class RecommendationServiceImpl implements RecommendationService {
                     null,
                     "Non hai ancora studiato nessuna flashcard",
                     Priority.MEDIUM
-            );
-            if (tryFlashcards != null) newRecs.add(tryFlashcards);
+            ));
         }
 
         // 10. CONGRATULAZIONI PER TRAGUARDI
         if (stats.getQuizzesCompleted() != null && stats.getQuizzesCompleted() >= 10) {
-            Recommendation milestoneRec = createRecommendation(
+            candidates.add(buildRecommendation(
                     user,
                     RecommendationType.DAILY_GOAL,
                     "Complimenti! 10+ Quiz completati",
@@ -249,14 +241,13 @@ public class RecommendationServiceImpl implements RecommendationService {
                     null,
                     "Sei tra gli studenti piu' attivi",
                     Priority.LOW
-            );
-            if (milestoneRec != null) newRecs.add(milestoneRec);
+            ));
         }
 
         // 11. BONUS WEEKEND
         DayOfWeek today = LocalDate.now().getDayOfWeek();
         if (today == DayOfWeek.SATURDAY || today == DayOfWeek.SUNDAY) {
-            Recommendation weekendRec = createRecommendation(
+            candidates.add(buildRecommendation(
                     user,
                     RecommendationType.DAILY_GOAL,
                     "Studio del weekend!",
@@ -264,27 +255,52 @@ public class RecommendationServiceImpl implements RecommendationService {
                     null,
                     "Il weekend e' perfetto per sessioni di studio piu' lunghe",
                     Priority.LOW
-            );
-            if (weekendRec != null) newRecs.add(weekendRec);
+            ));
+        }
+
+        List<Recommendation> newRecs = saveNew(userId, candidates);
+
+        if (!newRecs.isEmpty()) {
+            eventStreamService.publish(userId, EventStreamService.EVENT_RECOMMENDATION,
+                    RecommendationResponse.fromList(newRecs));
         }
 
         return newRecs;
     }
 
     /**
-     * Crea una raccomandazione se non esiste gia' una dello stesso tipo/topic
-     * FIX: Controlla QUALSIASI stato (anche dismissed/completed) per evitare duplicati
+     * Salva solo i candidati la cui chiave (tipo, topic) non esiste ancora
+     * FIX: Considera QUALSIASI stato (anche dismissed/completed) per evitare duplicati,
+     * così una raccomandazione ignorata non viene ricreata
      */
-    private Recommendation createRecommendation(User user, RecommendationType type,
-                                                String title, String description,
-                                                String topic, String reason, Priority priority) {
-
-        // FIX: Controlla se esiste GIA' una raccomandazione di questo tipo/topic (qualsiasi stato)
-        // Questo previene la ricreazione dopo il dismiss
-        if (recommendationRepository.existsByUserIdAndTypeAndTopic(user.getId(), type, topic)) {
-            return null;
+    private List<Recommendation> saveNew(UUID userId, List<Recommendation> candidates) {
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
         }
 
+        Set<RecommendationType> types = EnumSet.noneOf(RecommendationType.class);
+        candidates.forEach(rec -> types.add(rec.getType()));
+
+        Set<RecommendationKey> existing = new HashSet<>(
+                recommendationRepository.findKeysByUserIdAndTypeIn(userId, types));
+
+        // add() scarta anche i duplicati generati nello stesso ciclo
+        List<Recommendation> toSave = new ArrayList<>();
+        for (Recommendation rec : candidates) {
+            if (existing.add(RecommendationKey.of(rec))) {
+                toSave.add(rec);
+            }
+        }
+
+        if (toSave.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(recommendationRepository.saveAll(toSave));
+    }
+
+    private Recommendation buildRecommendation(User user, RecommendationType type,
+                                               String title, String description,
+                                               String topic, String reason, Priority priority) {
         Recommendation rec = new Recommendation();
         rec.setUser(user);
         rec.setType(type);
@@ -294,8 +310,217 @@ public class RecommendationServiceImpl implements RecommendationService {
         rec.setReason(reason);
         rec.setPriority(priority);
         rec.setExpiresAt(LocalDateTime.now().plusDays(1));
+        return rec;
+    }
+
+    // ==================== AGGIORNAMENTO INCREMENTALE ====================
+
+    /**
+     * Quiz/spiegazione su un argomento: rivaluta solo le regole di quell'argomento
+     * (punto debole, continua a studiare, sfida) e aggiorna le raccomandazioni attive.
+     * Eseguito dopo il commit dell'aggiornamento, in una transazione separata:
+     * un errore qui non annulla XP e progressi.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onProgressUpdated(ProgressUpdatedEvent event) {
+        User user = event.user();
+        String topic = event.topic();
+        if (user == null || topic == null) return;
+
+        try {
+            UserProgress progress = userProgressRepository.findByUserIdAndTopic(user.getId(), topic).orElse(null);
+            if (progress == null) return;
+
+            Double score = progress.getAverageScore();
+            UserProgress topTopic = isChallengeScore(score)
+                    ? userProgressRepository.findFirstByUserIdOrderByQuizCompletedDesc(user.getId()).orElse(null)
+                    : null;
+            boolean challenge = topTopic != null && topic.equals(topTopic.getTopic());
+
+            // L'argomento è appena stato studiato: il ripasso "7+ giorni" non serve più,
+            // REVIEW_TOPIC resta solo come "continua a studiare"
+            Map<RecommendationType, Recommendation> desired = new EnumMap<>(RecommendationType.class);
+            desired.put(RecommendationType.WEAKNESS_FOCUS,
+                    score != null && score < WEAK_SCORE ? weakTopic(user, progress) : null);
+            desired.put(RecommendationType.REVIEW_TOPIC,
+                    isContinueScore(score) ? continueTopic(user, progress) : null);
+            desired.put(RecommendationType.RETRY_QUIZ,
+                    challenge ? challengeTopic(user, progress) : null);
+
+            upsertAndPublish(user.getId(), recommendationRepository.findByUserIdAndTopic(user.getId(), topic), desired);
+        } catch (Exception e) {
+            logger.warn("Errore aggiornamento raccomandazioni per topic {}: {}", topic, e.getMessage());
+        }
+    }
+
+    /**
+     * Statistiche cambiate: rivaluta le regole sullo streak e sulle flashcards
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onStatsUpdated(StatsUpdatedEvent event) {
+        User user = event.user();
+        if (user == null) return;
+
+        try {
+            Map<RecommendationType, Recommendation> desired = new EnumMap<>(RecommendationType.class);
+            desired.put(RecommendationType.STREAK_REMINDER,
+                    needsStreakReminder(event.currentStreak(), event.lastActivityDate())
+                            ? streakReminder(user, event.currentStreak()) : null);
+            if (event.flashcardsStudied() > 0) {
+                desired.put(RecommendationType.STUDY_FLASHCARDS, null);
+            }
+
+            upsertAndPublish(user.getId(), recommendationRepository.findByUserIdAndTopicIsNull(user.getId()), desired);
+        } catch (Exception e) {
+            logger.warn("Errore aggiornamento raccomandazioni per utente {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Per ogni tipo: inserisce o aggiorna la raccomandazione desiderata,
+     * oppure ritira (scadenza immediata) quella attiva se la regola non vale più.
+     * Le raccomandazioni ignorate/completate dall'utente non vengono toccate.
+     */
+    private void upsertAndPublish(UUID userId, List<Recommendation> existing,
+                                  Map<RecommendationType, Recommendation> desired) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Recommendation> toSave = new ArrayList<>();
+        List<Recommendation> changed = new ArrayList<>();
+
+        for (Map.Entry<RecommendationType, Recommendation> entry : desired.entrySet()) {
+            List<Recommendation> rows = existing.stream()
+                    .filter(rec -> rec.getType() == entry.getKey())
+                    .toList();
+            if (rows.stream().anyMatch(rec -> Boolean.TRUE.equals(rec.getIsDismissed())
+                    || Boolean.TRUE.equals(rec.getIsCompleted()))) {
+                continue;
+            }
+
+            Recommendation current = rows.isEmpty() ? null : rows.get(0);
+            Recommendation target = entry.getValue();
 
-        return recommendationRepository.save(rec);
+            if (target == null) {
+                if (current != null && !current.isExpired()) {
+                    current.setExpiresAt(now);
+                    toSave.add(current);
+                }
+            } else if (current == null) {
+                toSave.add(target);
+                changed.add(target);
+            } else {
+                boolean visibleChange = current.isExpired()
+                        || !Objects.equals(current.getTitle(), target.getTitle())
+                        || !Objects.equals(current.getDescription(), target.getDescription())
+                        || current.getPriority() != target.getPriority();
+                current.setTitle(target.getTitle());
+                current.setDescription(target.getDescription());
+                current.setReason(target.getReason());
+                current.setPriority(target.getPriority());
+                current.setExpiresAt(target.getExpiresAt());
+                toSave.add(current);
+                if (visibleChange) changed.add(current);
+            }
+        }
+
+        if (toSave.isEmpty()) return;
+        recommendationRepository.saveAll(toSave);
+
+        if (!changed.isEmpty()) {
+            eventStreamService.publish(userId, EventStreamService.EVENT_RECOMMENDATION,
+                    RecommendationResponse.fromList(changed));
+        }
+    }
+
+    // ==================== REGOLE ====================
+
+    private static boolean needsStreakReminder(Integer currentStreak, LocalDate lastActivityDate) {
+        return currentStreak != null && currentStreak > 0
+                && lastActivityDate != null
+                && lastActivityDate.isBefore(LocalDate.now());
+    }
+
+    private static boolean isContinueScore(Double score) {
+        return score != null && score >= WEAK_SCORE && score < STRONG_SCORE;
+    }
+
+    private static boolean isChallengeScore(Double score) {
+        return score != null && score >= STRONG_SCORE;
+    }
+
+    private Recommendation streakReminder(User user, int currentStreak) {
+        return buildRecommendation(
+                user,
+                RecommendationType.STREAK_REMINDER,
+                "Mantieni il tuo streak!",
+                "Hai uno streak di " + currentStreak + " giorni. Non perderlo!",
+                null,
+                "Non perdere il tuo streak di studio",
+                Priority.URGENT
+        );
+    }
+
+    private Recommendation weakTopic(User user, UserProgress progress) {
+        return buildRecommendation(
+                user,
+                RecommendationType.WEAKNESS_FOCUS,
+                "Ripassa: " + progress.getTopic(),
+                "Il tuo punteggio medio e' " + Math.round(progress.getAverageScore()) + "%. Puoi migliorare!",
+                progress.getTopic(),
+                "Punteggio sotto il 60%",
+                Priority.HIGH
+        );
+    }
+
+    private Recommendation continueTopic(User user, UserProgress progress) {
+        return buildRecommendation(
+                user,
+                RecommendationType.REVIEW_TOPIC,
+                "Continua con: " + progress.getTopic(),
+                "Sei sulla buona strada! Punteggio attuale: " + Math.round(progress.getAverageScore()) + "%",
+                progress.getTopic(),
+                "Ancora un po' di pratica per padroneggiare l'argomento",
+                Priority.MEDIUM
+        );
+    }
+
+    private Recommendation challengeTopic(User user, UserProgress progress) {
+        return buildRecommendation(
+                user,
+                RecommendationType.RETRY_QUIZ,
+                "Sfida te stesso: " + progress.getTopic(),
+                "Sei forte in questo argomento! Prova un quiz difficile.",
+                progress.getTopic(),
+                "Punteggio attuale: " + Math.round(progress.getAverageScore()) + "% - Punta al 100%!",
+                Priority.LOW
+        );
+    }
+
+    /**
+     * Argomenti spesso studiati insieme a quelli recenti e non ancora affrontati
+     */
+    private List<Recommendation> relatedTopics(User user, ProgressSnapshot snapshot) {
+        Set<String> studied = snapshot.topicKeys();
+        List<Recommendation> suggestions = new ArrayList<>();
+
+        for (UserProgress progress : snapshot.recentTopics(3)) {
+            for (RelatedTopic related : relatedTopicService.getRelatedTopics(progress.getTopic(), MAX_RELATED_SUGGESTIONS + 1)) {
+                if (suggestions.size() >= MAX_RELATED_SUGGESTIONS) return suggestions;
+                if (!studied.add(TopicNormalizer.normalize(related.topic(), null))) continue;
+
+                suggestions.add(buildRecommendation(
+                        user,
+                        RecommendationType.NEW_TOPIC,
+                        "Prova: " + related.topic(),
+                        "Chi studia " + progress.getTopic() + " spesso approfondisce anche questo argomento",
+                        related.topic(),
+                        "Spesso studiato insieme a " + progress.getTopic(),
+                        Priority.LOW
+                ));
+            }
+        }
+        return suggestions;
     }
 
     @Override
@@ -325,4 +550,71 @@ public class RecommendationServiceImpl implements RecommendationService {
         rec.complete();
         recommendationRepository.save(rec);
     }
-}
\ No newline at end of file
+
+    // ==================== SNAPSHOT ====================
+
+    /**
+     * Progressi dell'utente caricati una sola volta; le selezioni replicano
+     * le query di UserProgressRepository (findWeakTopics, findTopicsNeedingReview,
+     * findRecentTopics, findMostStudiedTopics e gli aggregati)
+     */
+    private record ProgressSnapshot(List<UserProgress> progress) {
+
+        static ProgressSnapshot of(List<UserProgress> progress) {
+            return new ProgressSnapshot(progress != null ? progress : List.of());
+        }
+
+        List<UserProgress> weakTopics(double threshold) {
+            return progress.stream()
+                    .filter(p -> p.getAverageScore() != null && p.getAverageScore() < threshold)
+                    .toList();
+        }
+
+        List<UserProgress> topicsNeedingReview(LocalDateTime cutoffDate) {
+            return progress.stream()
+                    .filter(p -> p.getLastActivityAt() != null && p.getLastActivityAt().isBefore(cutoffDate))
+                    .toList();
+        }
+
+        List<UserProgress> recentTopics(int limit) {
+            return progress.stream()
+                    .sorted(Comparator.comparing(UserProgress::getLastActivityAt,
+                            Comparator.nullsLast(Comparator.reverseOrder())))
+                    .limit(limit)
+                    .toList();
+        }
+
+        UserProgress mostStudiedTopic() {
+            return progress.stream()
+                    .max(Comparator.comparingInt(p -> p.getQuizCompleted() != null ? p.getQuizCompleted() : 0))
+                    .orElse(null);
+        }
+
+        Double overallAverageScore() {
+            OptionalDouble average = progress.stream()
+                    .map(UserProgress::getAverageScore)
+                    .filter(Objects::nonNull)
+                    .mapToDouble(Double::doubleValue)
+                    .average();
+            return average.isPresent() ? average.getAsDouble() : null;
+        }
+
+        int totalStudyMinutes() {
+            return progress.stream()
+                    .map(UserProgress::getTotalStudyMinutes)
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .sum();
+        }
+
+        long totalTopics() {
+            return progress.size();
+        }
+
+        Set<String> topicKeys() {
+            return progress.stream()
+                    .map(p -> TopicNormalizer.normalize(p.getTopic(), null))
+                    .collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.event.ProgressUpdatedEvent;
+import com.ai.studybuddy.model.topic.RelatedTopic;
+import com.ai.studybuddy.model.topic.TopicDocument;
+import com.ai.studybuddy.model.topic.UserTopic;
+import com.ai.studybuddy.repository.FlashcardRepository;
+import com.ai.studybuddy.repository.QuestionRepository;
+import com.ai.studybuddy.repository.UserProgressRepository;
+import com.ai.studybuddy.service.inter.RelatedTopicService;
+import com.ai.studybuddy.util.TopicNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Implementazione RelatedTopicService
+ *
+ * - Per ogni argomento sono salvati solo i primi related-topics.max-neighbors vicini:
+ *   la lettura è una get su una mappa immutabile (snapshot volatile), senza lock
+ * - Punteggio = peso * cosine(utenti in comune) + (1 - peso) * cosine(TF-IDF)
+ * - ProgressUpdatedEvent aggiorna subito le co-occorrenze e marca come modificati
+ *   l'argomento e gli altri argomenti dell'utente; refresh() ricalcola solo quelli
+ * - I vettori TF-IDF (IDF globale) vengono ricalcolati con la ricostruzione completa
+ */
+@Service
+public class RelatedTopicServiceImpl implements RelatedTopicService {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedTopicServiceImpl.class);
+
+    private static final String AI_TAG = "ai-generated";
+    private static final String NOTES_TAG = "notes";
+    private static final int MIN_TERM_LENGTH = 4;
+    private static final Set<String> STOPWORDS = Set.of(
+            "della", "delle", "dello", "degli", "dell", "nella", "nelle", "nello", "negli", "alla", "alle",
+            "dalla", "dalle", "sono", "come", "quale", "quali", "quanto", "questo", "questa", "questi",
+            "anche", "dove", "quando", "perche", "essere", "viene", "tutti", "tutte", "ogni", "cosa",
+            "what", "which", "with", "that", "this", "from", "have", "their", "they", "there", "about",
+            "into", "more", "most", "other", "some", "such", "than", "then", "these", "were", "when",
+            "will", "your", "does", "following");
+
+    private final UserProgressRepository userProgressRepository;
+    private final QuestionRepository questionRepository;
+    private final FlashcardRepository flashcardRepository;
+
+    // Snapshot letto dalle richieste: chiave normalizzata → vicini ordinati
+    private volatile Map<String, List<RelatedTopic>> neighbors = Map.of();
+
+    // Stato dell'indice: accessibile solo con il lock su this
+    private final Map<String, String> names = new HashMap<>();
+    private final Map<String, Set<UUID>> usersByTopic = new HashMap<>();
+    private final Map<UUID, Set<String>> topicsByUser = new HashMap<>();
+    private Map<String, Map<String, Double>> termVectors = Map.of();
+    private Map<String, List<Posting>> postings = Map.of();
+    private final Set<String> dirty = new HashSet<>();
+    private List<UserTopic> replay;  // eventi arrivati durante una ricostruzione
+
+    @Value("${related-topics.max-neighbors:10}")
+    private int maxNeighbors = 10;
+
+    @Value("${related-topics.cooccurrence-weight:0.6}")
+    private double cooccurrenceWeight = 0.6;
+
+    @Value("${related-topics.max-documents:50000}")
+    private int maxDocuments = 50000;
+
+    @Value("${related-topics.max-terms-per-topic:64}")
+    private int maxTermsPerTopic = 64;
+
+    public RelatedTopicServiceImpl(UserProgressRepository userProgressRepository,
+                                   QuestionRepository questionRepository,
+                                   FlashcardRepository flashcardRepository) {
+        this.userProgressRepository = userProgressRepository;
+        this.questionRepository = questionRepository;
+        this.flashcardRepository = flashcardRepository;
+    }
+
+    @Override
+    public List<RelatedTopic> getRelatedTopics(String topic, int limit) {
+        List<RelatedTopic> related = neighbors.get(TopicNormalizer.normalize(topic, null));
+        if (related == null || limit <= 0) return List.of();
+        return related.size() <= limit ? related : related.subList(0, limit);
+    }
+
+    // ==================== AGGIORNAMENTO ====================
+
+    /**
+     * Co-occorrenze aggiornate subito; i vicini al prossimo refresh()
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressUpdated(ProgressUpdatedEvent event) {
+        if (event.user() == null || event.topic() == null || event.topic().isBlank()) return;
+
+        UserTopic pair = new UserTopic(event.user().getId(), event.topic());
+        synchronized (this) {
+            if (replay != null) {
+                replay.add(pair);
+            }
+            addPair(pair, true);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${related-topics.refresh-interval-ms:60000}",
+            initialDelayString = "${related-topics.refresh-interval-ms:60000}")
+    public synchronized int refresh() {
+        if (dirty.isEmpty()) return 0;
+
+        Map<String, List<RelatedTopic>> next = new HashMap<>(neighbors);
+        for (String key : dirty) {
+            next.put(key, computeNeighbors(key));
+        }
+        int refreshed = dirty.size();
+        dirty.clear();
+        neighbors = Map.copyOf(next);
+
+        log.debug("Argomenti correlati ricalcolati per {} argomenti", refreshed);
+        return refreshed;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Scheduled(initialDelayString = "${related-topics.initial-delay-ms:30000}",
+            fixedDelayString = "${related-topics.rebuild-interval-ms:86400000}")
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+
+        try {
+            // Letture su DB fuori dal lock: gli eventi nel frattempo finiscono in replay
+            List<UserTopic> pairs = userProgressRepository.findAllUserTopics();
+            Map<String, Map<String, Integer>> termCounts = new HashMap<>();
+            Map<String, String> documentNames = new HashMap<>();
+            for (TopicDocument document : questionRepository.findTopicDocuments(maxDocuments)) {
+                addDocument(document.topic(), document.text(), termCounts, documentNames);
+            }
+            for (TopicDocument document : flashcardRepository.findAiGeneratedDocuments(maxDocuments)) {
+                addDocument(topicFromTags(document.topic()), document.text(), termCounts, documentNames);
+            }
+
+            synchronized (this) {
+                names.clear();
+                usersByTopic.clear();
+                topicsByUser.clear();
+                dirty.clear();
+                documentNames.forEach(names::putIfAbsent);
+                pairs.forEach(pair -> addPair(pair, false));
+                replay.forEach(pair -> addPair(pair, false));
+                replay = null;
+
+                buildTermVectors(termCounts);
+
+                Map<String, List<RelatedTopic>> next = new HashMap<>();
+                for (String key : names.keySet()) {
+                    List<RelatedTopic> related = computeNeighbors(key);
+                    if (!related.isEmpty()) next.put(key, related);
+                }
+                neighbors = Map.copyOf(next);
+
+                log.info("Indice argomenti correlati ricostruito: {} argomenti, {} termini in {} ms",
+                        names.size(), postings.size(), System.currentTimeMillis() - start);
+                return names.size();
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                replay = null;
+            }
+            log.error("Ricostruzione indice argomenti correlati fallita: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Registra la coppia (utente, argomento); se nuova marca come modificati
+     * l'argomento, gli altri argomenti dell'utente e i vicini dell'argomento
+     */
+    private void addPair(UserTopic pair, boolean markDirty) {
+        String key = TopicNormalizer.normalize(pair.topic(), null);
+        if (key.isEmpty()) return;
+        names.putIfAbsent(key, pair.topic().trim());
+
+        Set<String> userTopics = topicsByUser.computeIfAbsent(pair.userId(), id -> new HashSet<>());
+        if (!userTopics.add(key)) return;
+        usersByTopic.computeIfAbsent(key, k -> new HashSet<>()).add(pair.userId());
+
+        if (markDirty) {
+            // Cambia anche il numero di utenti dell'argomento: ricalcola i suoi vicini attuali
+            dirty.addAll(userTopics);
+            neighbors.getOrDefault(key, List.of())
+                    .forEach(related -> dirty.add(TopicNormalizer.normalize(related.topic(), null)));
+        }
+    }
+
+    private void addDocument(String topic, String text, Map<String, Map<String, Integer>> termCounts,
+                             Map<String, String> documentNames) {
+        if (topic == null || text == null) return;
+        String key = TopicNormalizer.normalize(topic, null);
+        if (key.isEmpty()) return;
+        documentNames.putIfAbsent(key, topic.trim());
+
+        Map<String, Integer> counts = termCounts.computeIfAbsent(key, k -> new HashMap<>());
+        for (String term : TopicNormalizer.normalize(text, null).split(" ")) {
+            if (term.length() >= MIN_TERM_LENGTH && !STOPWORDS.contains(term)) {
+                counts.merge(term, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Vettori TF-IDF normalizzati (solo i termini più pesanti per argomento)
+     * e liste invertite termine → argomenti
+     */
+    private void buildTermVectors(Map<String, Map<String, Integer>> termCounts) {
+        int documents = termCounts.size();
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        termCounts.values().forEach(counts ->
+                counts.keySet().forEach(term -> documentFrequency.merge(term, 1, Integer::sum)));
+
+        Map<String, Map<String, Double>> vectors = new HashMap<>();
+        Map<String, List<Posting>> inverted = new HashMap<>();
+        termCounts.forEach((key, counts) -> {
+            Map<String, Double> weights = new HashMap<>();
+            counts.forEach((term, count) -> {
+                int df = documentFrequency.get(term);
+                // Termini presenti in un solo argomento o in più di metà: nessuna informazione
+                if (df < 2 || df > documents / 2) return;
+                weights.put(term, (1 + Math.log(count)) * Math.log((double) documents / df));
+            });
+
+            Map<String, Double> vector = new HashMap<>();
+            weights.entrySet().stream()
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                    .limit(maxTermsPerTopic)
+                    .forEach(entry -> vector.put(entry.getKey(), entry.getValue()));
+
+            double norm = Math.sqrt(vector.values().stream().mapToDouble(w -> w * w).sum());
+            if (norm == 0) return;
+            vector.replaceAll((term, weight) -> weight / norm);
+            vectors.put(key, vector);
+            vector.forEach((term, weight) ->
+                    inverted.computeIfAbsent(term, t -> new ArrayList<>()).add(new Posting(key, weight)));
+        });
+
+        termVectors = vectors;
+        postings = inverted;
+    }
+
+    private List<RelatedTopic> computeNeighbors(String key) {
+        Map<String, Double> scores = new HashMap<>();
+
+        Set<UUID> users = usersByTopic.get(key);
+        if (users != null && cooccurrenceWeight > 0) {
+            Map<String, Integer> common = new HashMap<>();
+            for (UUID userId : users) {
+                for (String other : topicsByUser.get(userId)) {
+                    if (!other.equals(key)) common.merge(other, 1, Integer::sum);
+                }
+            }
+            common.forEach((other, count) -> scores.merge(other,
+                    cooccurrenceWeight * count / Math.sqrt((double) users.size() * usersByTopic.get(other).size()),
+                    Double::sum));
+        }
+
+        Map<String, Double> vector = termVectors.get(key);
+        if (vector != null && cooccurrenceWeight < 1) {
+            Map<String, Double> dots = new HashMap<>();
+            vector.forEach((term, weight) -> {
+                for (Posting posting : postings.getOrDefault(term, List.of())) {
+                    if (!posting.topic().equals(key)) dots.merge(posting.topic(), weight * posting.weight(), Double::sum);
+                }
+            });
+            dots.forEach((other, dot) -> scores.merge(other, (1 - cooccurrenceWeight) * dot, Double::sum));
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(maxNeighbors)
+                .map(entry -> new RelatedTopic(names.getOrDefault(entry.getKey(), entry.getKey()), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Argomento di una flashcard generata con AI: il tag che segue "ai-generated"
+     * (saltando il marcatore "notes" delle carte da appunti salvate con l'ordine precedente)
+     */
+    static String topicFromTags(String tags) {
+        if (tags == null) return null;
+        String[] parts = tags.split(",");
+        for (int i = 0; i < parts.length - 1; i++) {
+            if (AI_TAG.equals(parts[i].trim())) {
+                int next = NOTES_TAG.equals(parts[i + 1].trim()) ? i + 2 : i + 1;
+                if (next >= parts.length) return null;
+                String topic = parts[next].trim();
+                return topic.isEmpty() || topic.startsWith("lang-") ? null : topic;
+            }
+        }
+        return null;
+    }
+
+    private record Posting(String topic, double weight) {
+    }
+}
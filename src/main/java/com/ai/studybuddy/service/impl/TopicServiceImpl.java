@@ -0,0 +1,331 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.topic.Topic;
+import com.ai.studybuddy.repository.TopicRepository;
+import com.ai.studybuddy.service.inter.CounterBufferService;
+import com.ai.studybuddy.service.inter.CounterBufferService.CounterType;
+import com.ai.studybuddy.service.inter.TopicService;
+import com.ai.studybuddy.util.TopicNormalizer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementazione TopicService
+ *
+ * - Dizionario in memoria caricato all'avvio dalla tabella topics
+ * - Trie sulle chiavi normalizzate (indicizzate anche dall'inizio di ogni parola)
+ *   per l'autocompletamento
+ * - La canonicalizzazione usa solo la corrispondenza esatta sulla chiave normalizzata
+ * - Indice di trigrammi per trovare i candidati della ricerca fuzzy, verificati
+ *   poi con la distanza di Levenshtein (al massimo topics.fuzzy.max-distance):
+ *   usata solo per i suggerimenti dell'autocompletamento, mai per unire argomenti
+ * - Due chiavi con parole in numero diverso, numeri diversi o una parola che
+ *   differisce per più di un carattere non sono mai simili
+ *   ("Analisi 1"/"Analisi 2", "chimica organica"/"chimica inorganica")
+ * - I nuovi argomenti vengono inseriti in una transazione separata: se un altro
+ *   nodo o thread lo ha appena inserito si usa la riga esistente
+ * - Gli utilizzi passano dal buffer write-behind (CounterBufferService)
+ */
+@Service
+public class TopicServiceImpl implements TopicService {
+
+    private static final Logger log = LoggerFactory.getLogger(TopicServiceImpl.class);
+
+    private static final int MAX_AUTOCOMPLETE_SCAN = 500;
+
+    private final TopicRepository topicRepository;
+    private final CounterBufferService counterBufferService;
+    private final TransactionTemplate requiresNew;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, TopicEntry> byKey = new HashMap<>();
+    private final Map<String, List<TopicEntry>> byTrigram = new HashMap<>();
+    private final TrieNode trie = new TrieNode();
+
+    @Value("${topics.fuzzy.max-distance:2}")
+    private int fuzzyMaxDistance = 2;
+
+    @Value("${topics.fuzzy.min-length:4}")
+    private int fuzzyMinLength = 4;
+
+    public TopicServiceImpl(TopicRepository topicRepository,
+                            CounterBufferService counterBufferService,
+                            PlatformTransactionManager transactionManager) {
+        this.topicRepository = topicRepository;
+        this.counterBufferService = counterBufferService;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    void loadDictionary() {
+        List<Topic> topics = topicRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            topics.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Dizionario argomenti caricato: {} argomenti", topics.size());
+    }
+
+    // ==================== CANONICALIZZAZIONE ====================
+
+    @Override
+    public String canonicalize(String topic, String language) {
+        if (topic == null || topic.isBlank()) return topic;
+
+        String key = TopicNormalizer.normalize(topic, language);
+        if (key.isEmpty()) return topic.trim();
+
+        TopicEntry entry = exactMatch(key);
+        if (entry == null) {
+            entry = register(key, TopicNormalizer.displayName(topic, language), language);
+        }
+
+        entry.usage().incrementAndGet();
+        counterBufferService.increment(CounterType.TOPIC_USAGE, entry.id(), 1);
+        return entry.name();
+    }
+
+    @Override
+    public Optional<String> findCanonical(String topic, String language) {
+        if (topic == null || topic.isBlank()) return Optional.empty();
+        TopicEntry entry = exactMatch(TopicNormalizer.normalize(topic, language));
+        return Optional.ofNullable(entry).map(TopicEntry::name);
+    }
+
+    @Override
+    public List<String> autocomplete(String prefix, String language, int limit) {
+        String key = TopicNormalizer.normalize(prefix, language);
+        if (key.isEmpty() || limit <= 0) return List.of();
+
+        Set<TopicEntry> found = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            TrieNode node = trie;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node != null) {
+                collect(node, found);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<String> suggestions = new ArrayList<>(found.stream()
+                .sorted(Comparator.comparingLong((TopicEntry e) -> e.usage().get()).reversed()
+                        .thenComparing(TopicEntry::name))
+                .limit(limit)
+                .map(TopicEntry::name)
+                .toList());
+
+        // Nessun prefisso sufficiente: suggerisce gli argomenti scritti in modo simile
+        if (suggestions.size() < limit && key.length() >= fuzzyMinLength) {
+            for (TopicEntry entry : fuzzyMatches(key)) {
+                if (suggestions.size() >= limit) break;
+                if (!suggestions.contains(entry.name())) suggestions.add(entry.name());
+            }
+        }
+        return suggestions;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private TopicEntry exactMatch(String key) {
+        if (key.isEmpty()) return null;
+
+        lock.readLock().lock();
+        try {
+            return byKey.get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Argomenti entro la distanza massima, dal più vicino (a parità il più usato)
+     */
+    private List<TopicEntry> fuzzyMatches(String key) {
+        lock.readLock().lock();
+        try {
+            return findSimilar(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<TopicEntry> findSimilar(String key) {
+        int maxDistance = key.length() >= 2 * fuzzyMinLength ? fuzzyMaxDistance : Math.min(1, fuzzyMaxDistance);
+        Set<String> trigrams = trigrams(key);
+
+        // Ogni edit altera al massimo 3 trigrammi: gli altri devono essere in comune
+        int minShared = Math.max(1, trigrams.size() - 3 * maxDistance);
+        Map<TopicEntry, Integer> shared = new HashMap<>();
+        for (String trigram : trigrams) {
+            for (TopicEntry entry : byTrigram.getOrDefault(trigram, List.of())) {
+                shared.merge(entry, 1, Integer::sum);
+            }
+        }
+
+        Map<TopicEntry, Integer> distances = new HashMap<>();
+        for (Map.Entry<TopicEntry, Integer> candidate : shared.entrySet()) {
+            TopicEntry entry = candidate.getKey();
+            if (candidate.getValue() < minShared
+                    || Math.abs(entry.key().length() - key.length()) > maxDistance
+                    || !sameTokens(key, entry.key())) continue;
+
+            int distance = levenshtein(key, entry.key(), maxDistance);
+            if (distance <= maxDistance) {
+                distances.put(entry, distance);
+            }
+        }
+
+        return distances.keySet().stream()
+                .sorted(Comparator.comparingInt((TopicEntry e) -> distances.get(e))
+                        .thenComparing(Comparator.comparingLong((TopicEntry e) -> e.usage().get()).reversed()))
+                .toList();
+    }
+
+    /**
+     * Stesse parole a meno di un errore di battitura per parola, con gli stessi numeri:
+     * "analisi 1"/"analisi 2" o "chimica organica"/"chimica inorganica" restano distinti
+     */
+    static boolean sameTokens(String a, String b) {
+        String[] left = a.split(" ");
+        String[] right = b.split(" ");
+        if (left.length != right.length) return false;
+
+        for (int i = 0; i < left.length; i++) {
+            if (left[i].equals(right[i])) continue;
+            if (!digits(left[i]).equals(digits(right[i]))
+                    || levenshtein(left[i], right[i], 1) > 1) return false;
+        }
+        return true;
+    }
+
+    private static String digits(String token) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.isDigit(token.charAt(i))) result.append(token.charAt(i));
+        }
+        return result.toString();
+    }
+
+    private TopicEntry register(String key, String name, String language) {
+        Topic topic;
+        try {
+            topic = requiresNew.execute(status -> topicRepository.saveAndFlush(new Topic(name, key, language)));
+        } catch (DataIntegrityViolationException e) {
+            topic = topicRepository.findByNormalizedName(key).orElseThrow(() -> e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            TopicEntry existing = byKey.get(key);
+            if (existing != null) return existing;
+            log.debug("Nuovo argomento registrato: '{}'", name);
+            return index(topic);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aggiunge l'argomento a mappa, trie e indice dei trigrammi (con il write lock acquisito)
+     */
+    private TopicEntry index(Topic topic) {
+        String key = topic.getNormalizedName();
+        TopicEntry entry = new TopicEntry(topic.getId(), topic.getName(), key,
+                new AtomicLong(topic.getUsageCount() != null ? topic.getUsageCount() : 0));
+        byKey.put(key, entry);
+
+        for (int start = 0; start < key.length(); start++) {
+            if (start == 0 || key.charAt(start - 1) == ' ') {
+                TrieNode node = trie;
+                for (int i = start; i < key.length(); i++) {
+                    node = node.children.computeIfAbsent(key.charAt(i), c -> new TrieNode());
+                }
+                node.entries.add(entry);
+            }
+        }
+
+        for (String trigram : trigrams(key)) {
+            byTrigram.computeIfAbsent(trigram, t -> new ArrayList<>()).add(entry);
+        }
+        return entry;
+    }
+
+    private void collect(TrieNode node, Set<TopicEntry> found) {
+        List<TrieNode> stack = new ArrayList<>();
+        stack.add(node);
+        while (!stack.isEmpty() && found.size() < MAX_AUTOCOMPLETE_SCAN) {
+            TrieNode current = stack.remove(stack.size() - 1);
+            found.addAll(current.entries);
+            stack.addAll(current.children.values());
+        }
+    }
+
+    private static Set<String> trigrams(String key) {
+        String padded = " " + key + " ";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Distanza di Levenshtein con uscita anticipata: restituisce max + 1 se la supera
+     */
+    static int levenshtein(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private record TopicEntry(UUID id, String name, String key, AtomicLong usage) {
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private final List<TopicEntry> entries = new ArrayList<>(1);
+    }
+}
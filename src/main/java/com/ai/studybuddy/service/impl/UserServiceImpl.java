@@ -1,5 +1,7 @@
 package com.ai.studybuddy.service.impl;
 
+import com.ai.studybuddy.config.security.AuthenticatedUser;
+import com.ai.studybuddy.config.security.AuthenticatedUserCache;
 import com.ai.studybuddy.service.inter.UserService;
 import com.ai.studybuddy.util.Const;
 import com.ai.studybuddy.model.user.User;
@@ -9,6 +11,7 @@ import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,7 +21,6 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.security.Principal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -33,10 +35,13 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AuthenticatedUserCache userCache;
 
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           AuthenticatedUserCache userCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
     }
 
     // ==================== CRUD BASE ====================
@@ -59,27 +64,32 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     @Override
     public User save(User user) {
         user.setUpdatedAt(LocalDateTime.now());
+        userCache.evict(user.getEmail());
         return userRepository.save(user);
     }
 
     @Override
     public void deleteById(UUID id) {
         userRepository.deleteById(id);
+        userCache.evictById(id);
     }
 
+    /**
+     * Usato dal JwtFilter a ogni richiesta: legge prima dalla cache
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> {
-                    logger.warn("User not found with email: {}", email);
-                    return new UsernameNotFoundException(Const.USER_NOT_FOUND);
-                });
+        User user = userCache.get(email);
+        if (user == null) {
+            user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> {
+                        logger.warn("User not found with email: {}", email);
+                        return new UsernameNotFoundException(Const.USER_NOT_FOUND);
+                    });
+            userCache.put(user);
+        }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPasswordHash(),
-                new ArrayList<>()
-        );
+        return new AuthenticatedUser(user);
     }
 
     // ==================== REGISTRAZIONE UNIFICATA ====================
@@ -154,6 +164,12 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     @Override
     public User getCurrentUser(Principal principal) {
+        // Utente già caricato dal JwtFilter: nessuna query
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.getUser();
+        }
+
         return userRepository.findByEmail(principal.getName())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, Const.UNAUTHORIZED));
     }
@@ -161,7 +177,9 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     @Override
     @Transactional
     public User updateProfile(Principal principal, String firstName, String lastName, String avatarUrl) {
-        User user = getCurrentUser(principal);
+        // Legge dal DB: l'utente del principal è una copia non gestita
+        User user = userRepository.findByEmail(principal.getName())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, Const.UNAUTHORIZED));
 
         if (firstName != null && !firstName.isBlank()) {
             user.setFirstName(firstName);
@@ -174,6 +192,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         }
 
         user.setUpdatedAt(LocalDateTime.now());
+        userCache.evict(user.getEmail());
         return userRepository.save(user);
     }
 
@@ -190,6 +209,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         user.setLevel(newLevel);
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userCache.evict(user.getEmail());
 
         logger.info("Utente {} ha guadagnato {} punti. Totale: {}, Livello: {}",
                 userId, points, user.getTotalPoints(), user.getLevel());
@@ -204,6 +224,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         user.setStreakDays(user.getStreakDays() + 1);
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userCache.evict(user.getEmail());
 
         logger.info("Utente {} streak aggiornato a {} giorni", userId, user.getStreakDays());
     }
@@ -217,6 +238,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         user.setStreakDays(0);
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userCache.evict(user.getEmail());
 
         logger.info("Utente {} streak resettato", userId);
     }
@@ -239,6 +261,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         user.setPreferredLanguage(language);
         user.setUpdatedAt(LocalDateTime.now());
         User updated = userRepository.save(user);
+        userCache.evict(user.getEmail());
 
         logger.info("Lingua aggiornata per utente {}: {} -> {}", 
                 userId, oldLanguage != null ? oldLanguage : "it", language);
@@ -0,0 +1,211 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.service.inter.AIGenerationPool;
+import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.WarmPoolService;
+import com.ai.studybuddy.util.HeavyHitters;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementazione WarmPoolService
+ *
+ * - Tendenze: sketch Space-Saving con 4 contatori per chiave servita, dimezzato
+ *   ogni ai.warmpool.decay-interval-ms così contano le richieste recenti
+ * - Refill periodico: un set per chiave a giro, dalla più richiesta, finché
+ *   restano permessi AI oltre ai.warmpool.reserved-permits e budget al minuto
+ * - I set delle chiavi uscite dalle tendenze e quelli scaduti vengono scartati
+ */
+@Service
+public class WarmPoolServiceImpl implements WarmPoolService {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmPoolServiceImpl.class);
+
+    private static final long BUDGET_WINDOW_MS = 60_000;
+
+    private final AIService aiService;
+    private final AIGenerationPool generationPool;
+    private final int maxKeys;
+    private final HeavyHitters<PoolKey> trending;
+
+    private final ConcurrentHashMap<PoolKey, Deque<ReadySet>> pool = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<PoolKey, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder served = new LongAdder();
+
+    // Accessibili solo dal thread dello scheduler (refill)
+    private long budgetWindowStart;
+    private int budgetWindowGenerations;
+
+    @Value("${ai.warmpool.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${ai.warmpool.sets-per-key:3}")
+    private int setsPerKey = 3;
+
+    @Value("${ai.warmpool.min-requests:3}")
+    private int minRequests = 3;
+
+    @Value("${ai.warmpool.reserved-permits:4}")
+    private int reservedPermits = 4;
+
+    @Value("${ai.warmpool.max-generations-per-minute:10}")
+    private int maxGenerationsPerMinute = 10;
+
+    @Value("${ai.warmpool.set-ttl-ms:21600000}")
+    private long setTtlMs = 21_600_000;
+
+    @Value("${ai.warmpool.quiz-questions:5}")
+    private int quizQuestions = 5;
+
+    @Value("${ai.warmpool.flashcard-cards:5}")
+    private int flashcardCards = 5;
+
+    public WarmPoolServiceImpl(AIService aiService,
+                               AIGenerationPool generationPool,
+                               @Value("${ai.warmpool.max-keys:20}") int maxKeys) {
+        this.aiService = aiService;
+        this.generationPool = generationPool;
+        this.maxKeys = maxKeys;
+        this.trending = new HeavyHitters<>(maxKeys * 4);
+    }
+
+    // ==================== CONSUMO ====================
+
+    @Override
+    public List<JsonObject> take(PoolKey key, int max) {
+        if (key == null || key.topic() == null) return List.of();
+        trending.offer(key);
+        if (max <= 0) return List.of();
+
+        Deque<ReadySet> sets = pool.get(key);
+        if (sets == null) return List.of();
+
+        long now = System.currentTimeMillis();
+        ReadySet set;
+        while ((set = sets.pollFirst()) != null) {
+            if (set.isExpired(now)) continue;
+
+            served.increment();
+            log.info("Richiesta servita dal pool: {} {} ({}, {})",
+                    key.type(), key.topic(), key.difficulty(), key.language());
+            if (set.items().size() <= max) {
+                return set.items();
+            }
+            // Il resto del set resta disponibile per la richiesta successiva
+            sets.offerFirst(new ReadySet(set.items().subList(max, set.items().size()), set.expiresAt()));
+            return set.items().subList(0, max);
+        }
+        return List.of();
+    }
+
+    @Override
+    public void putBack(PoolKey key, List<JsonObject> items) {
+        if (key == null || items.isEmpty()) return;
+
+        Deque<ReadySet> sets = pool.get(key);
+        if (sets == null) return;
+        sets.offerFirst(new ReadySet(List.copyOf(items), System.currentTimeMillis() + setTtlMs));
+        served.decrement();
+        log.debug("Set rimesso nel pool dopo una richiesta fallita: {} {}", key.type(), key.topic());
+    }
+
+    @Override
+    public Stats getStats() {
+        int readySets = pool.values().stream().mapToInt(Deque::size).sum();
+        return new Stats(generated.sum(), served.sum(), readySets, trendingKeys().size());
+    }
+
+    // ==================== REFILL ====================
+
+    @Scheduled(fixedDelayString = "${ai.warmpool.refill-interval-ms:30000}")
+    public void refill() {
+        long now = System.currentTimeMillis();
+        List<PoolKey> keys = trendingKeys();
+        Set<PoolKey> trendingSet = new HashSet<>(keys);
+        pool.keySet().removeIf(key -> !trendingSet.contains(key));
+        inFlight.entrySet().removeIf(entry -> !trendingSet.contains(entry.getKey()) && entry.getValue().get() == 0);
+        pool.values().forEach(sets -> sets.removeIf(set -> set.isExpired(now)));
+        if (!enabled || keys.isEmpty()) return;
+
+        if (now - budgetWindowStart >= BUDGET_WINDOW_MS) {
+            budgetWindowStart = now;
+            budgetWindowGenerations = 0;
+        }
+
+        int idlePermits = generationPool.availablePermits() - reservedPermits;
+        boolean submitted = true;
+        while (submitted) {
+            submitted = false;
+            for (PoolKey key : keys) {
+                if (idlePermits <= 0 || budgetWindowGenerations >= maxGenerationsPerMinute) return;
+
+                AtomicInteger running = inFlight.computeIfAbsent(key, k -> new AtomicInteger());
+                int ready = pool.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>()).size();
+                if (ready + running.get() >= setsPerKey) continue;
+
+                running.incrementAndGet();
+                idlePermits--;
+                budgetWindowGenerations++;
+                submitted = true;
+                generationPool.execute(() -> generate(key, running));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ai.warmpool.decay-interval-ms:600000}")
+    public void decayTrends() {
+        trending.decay();
+    }
+
+    private List<PoolKey> trendingKeys() {
+        return trending.top(maxKeys, minRequests).stream().map(HeavyHitters.Entry::key).toList();
+    }
+
+    private void generate(PoolKey key, AtomicInteger running) {
+        try {
+            int count = key.type() == GeneratedContentType.QUIZ ? quizQuestions : flashcardCards;
+            String response = key.type() == GeneratedContentType.QUIZ
+                    ? aiService.generateQuiz(key.topic(), count, key.difficulty(), key.educationLevel(), key.language())
+                    : aiService.generateFlashcards(key.topic(), count, key.difficulty(), key.educationLevel(), key.language());
+
+            List<JsonObject> items = new ArrayList<>();
+            for (JsonElement element : aiService.parseGeneratedItems(response, count).items()) {
+                if (element.isJsonObject()) items.add(element.getAsJsonObject());
+            }
+            if (items.isEmpty()) return;
+
+            pool.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>())
+                    .add(new ReadySet(List.copyOf(items), System.currentTimeMillis() + setTtlMs));
+            generated.increment();
+        } catch (RuntimeException e) {
+            log.warn("Generazione per il pool non riuscita ({} {}): {}", key.type(), key.topic(), e.getMessage());
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private record ReadySet(List<JsonObject> items, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
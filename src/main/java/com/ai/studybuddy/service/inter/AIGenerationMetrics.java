@@ -0,0 +1,59 @@
+package com.ai.studybuddy.service.inter;
+
+/**
+ * Metriche sull'esito delle generazioni AI (quiz e flashcards)
+ *
+ * Il tasso di spreco è la quota di elementi richiesti all'AI che non sono
+ * arrivati utilizzabili: risposte illeggibili, troncate o con elementi malformati.
+ */
+public interface AIGenerationMetrics {
+
+    /**
+     * Risposta letta (anche solo in parte)
+     *
+     * @param requestedItems elementi richiesti (0 se non noto)
+     * @param usableItems    elementi letti
+     * @param recovered      true se la risposta non era JSON valido ed è stata recuperata
+     */
+    void recordResponse(int requestedItems, int usableItems, boolean recovered);
+
+    /**
+     * Risposta da cui non è stato possibile leggere nulla: generazione persa
+     */
+    void recordFailure(int requestedItems);
+
+    /**
+     * Contatori dall'avvio dell'applicazione
+     */
+    Snapshot snapshot();
+
+    /**
+     * Classe per le metriche di generazione
+     */
+    class Snapshot {
+        private final long responses;
+        private final long recoveredResponses;
+        private final long failedResponses;
+        private final long requestedItems;
+        private final long usableItems;
+        private final double wastedGenerationRate;
+
+        public Snapshot(long responses, long recoveredResponses, long failedResponses,
+                        long requestedItems, long usableItems) {
+            this.responses = responses;
+            this.recoveredResponses = recoveredResponses;
+            this.failedResponses = failedResponses;
+            this.requestedItems = requestedItems;
+            this.usableItems = usableItems;
+            this.wastedGenerationRate = requestedItems > 0
+                    ? (double) Math.max(0, requestedItems - usableItems) / requestedItems : 0.0;
+        }
+
+        public long getResponses() { return responses; }
+        public long getRecoveredResponses() { return recoveredResponses; }
+        public long getFailedResponses() { return failedResponses; }
+        public long getRequestedItems() { return requestedItems; }
+        public long getUsableItems() { return usableItems; }
+        public double getWastedGenerationRate() { return wastedGenerationRate; }
+    }
+}
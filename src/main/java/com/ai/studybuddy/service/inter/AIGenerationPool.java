@@ -0,0 +1,19 @@
+package com.ai.studybuddy.service.inter;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor condiviso per le chiamate AI eseguite in parallelo
+ * (parti di appunti, blocchi di domande di un quiz)
+ *
+ * Ogni task gira su un virtual thread e attende un permesso prima di partire:
+ * al massimo ai.generation.max-concurrency chiamate contemporanee in tutta
+ * l'applicazione, qualunque sia il numero di richieste.
+ */
+public interface AIGenerationPool extends Executor {
+
+    /**
+     * Permessi liberi in questo momento
+     */
+    int availablePermits();
+}
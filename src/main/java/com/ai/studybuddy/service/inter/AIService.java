@@ -1,14 +1,26 @@
 package com.ai.studybuddy.service.inter;
 
+import com.ai.studybuddy.util.JsonArrayRecovery;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
 import com.ai.studybuddy.util.enums.EducationLevel;
 import com.google.gson.JsonArray;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 /**
  * Interfaccia per il servizio AI
  */
 public interface AIService {
 
+    /**
+     * Chiamata AI di una generazione: count elementi, diversi da quelli con i testi indicati
+     */
+    @FunctionalInterface
+    interface Generator {
+        String generate(int count, List<String> excludedTexts);
+    }
+
     /**
      * Genera spiegazione personalizzata
      */
@@ -42,21 +54,88 @@ public interface AIService {
     String generateFlashcardsWithContext(String topic, int numCards, DifficultyLevel difficulty, String context);
 
     /**
-     * Parsa la risposta JSON delle flashcards
+     * Parsa la risposta JSON delle flashcards (recuperando gli elementi completi di una risposta non valida)
      */
     JsonArray parseFlashcardsResponse(String aiResponse);
 
+    /**
+     * Legge l'array JSON di una generazione (quiz o flashcards) e ne registra l'esito nelle metriche
+     *
+     * Da una risposta troncata o circondata da testo vengono recuperati gli oggetti completi;
+     * l'eccezione viene lanciata solo se non c'è nulla da recuperare.
+     *
+     * @param requested elementi richiesti all'AI (0 se non noto)
+     */
+    JsonArrayRecovery.Result parseGeneratedItems(String aiResponse, int requested);
+
+    /**
+     * Una generazione di count elementi (quiz o flashcards) letta con {@link #parseGeneratedItems}
+     *
+     * Se la risposta era troncata si tengono gli elementi completi e si chiedono solo quelli
+     * mancanti, una volta, escludendo i testi già ricevuti; se anche questa chiamata fallisce
+     * restano gli elementi già letti.
+     *
+     * @param textField campo che identifica un elemento ("question" per i quiz, "front" per le flashcards)
+     */
+    JsonArray generateWithShortfall(int count, String textField, Generator generator);
+
 	String generateExplanation(String topic, EducationLevel educationLevel, String language);
 
 	String generateQuiz(String topic, int numQuestions, String difficulty, EducationLevel educationLevel,  String language);
 
 	String generateQuiz(String topic, int numQuestions, DifficultyLevel difficulty, EducationLevel educationLevel,  String language);
 
+	/**
+	 * Genera quiz senza ripetere le domande indicate
+	 */
+	String generateQuiz(String topic, int numQuestions, DifficultyLevel difficulty, EducationLevel educationLevel,
+			String language, List<String> excludedQuestions);
+
+	/**
+	 * Genera un blocco di domande di un quiz grande diviso in blocchi paralleli
+	 *
+	 * @param focus        aspetto dell'argomento su cui concentrare le domande
+	 * @param otherFocuses aspetti assegnati agli altri blocchi, da non coprire
+	 * @param excludedQuestions domande già ricevute, da non ripetere
+	 */
+	String generateQuizShard(String topic, int numQuestions, DifficultyLevel difficulty, EducationLevel educationLevel,
+			String language, String focus, List<String> otherFocuses, List<String> excludedQuestions);
+
+	/**
+	 * Genera un quiz in streaming: il testo dell'array JSON arriva a pezzi man mano che il modello lo produce
+	 *
+	 * Se il modello principale fallisce prima del primo pezzo si passa al fallback (risposta in un solo pezzo);
+	 * un errore dopo il primo pezzo viene propagato.
+	 */
+	void streamQuiz(String topic, int numQuestions, DifficultyLevel difficulty, EducationLevel educationLevel,
+			String language, Consumer<String> onChunk);
+
 	String generateFlashcards(String topic, int numCards, DifficultyLevel difficulty, EducationLevel educationLevel,  String language);
 
+	/**
+	 * Genera flashcard senza ripetere i fronti indicati
+	 */
+	String generateFlashcards(String topic, int numCards, DifficultyLevel difficulty, EducationLevel educationLevel,
+			String language, List<String> excludedFronts);
+
 	String generateFlashcardsWithContext(String topic, int numCards, DifficultyLevel difficulty, String context,
 			String language);
 
+	/**
+	 * Genera flashcard con contesto senza ripetere i fronti indicati
+	 */
+	String generateFlashcardsWithContext(String topic, int numCards, DifficultyLevel difficulty, String context,
+			String language, List<String> excludedFronts);
+
+	/**
+	 * Genera flashcard basate esclusivamente su un estratto di appunti
+	 *
+	 * @param part       posizione dell'estratto (da 1)
+	 * @param totalParts numero di estratti in cui sono stati divisi gli appunti (0 se non noto)
+	 */
+	String generateFlashcardsFromNotes(String topic, int numCards, DifficultyLevel difficulty, String excerpt,
+			int part, int totalParts, String language);
+
 	String getAvailableModel();
 
 	boolean isAnyModelAvailable();
@@ -0,0 +1,61 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.dto.quiz.AssignmentRequest;
+import com.ai.studybuddy.dto.quiz.AssignmentResponse;
+import com.ai.studybuddy.dto.quiz.AssignmentResultsResponse;
+import com.ai.studybuddy.dto.quiz.EnrollmentResponse;
+import com.ai.studybuddy.model.quiz.AssignmentSubmission;
+import com.ai.studybuddy.model.user.User;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Interfaccia per le assegnazioni di quiz a una classe
+ */
+public interface AssignmentService {
+
+    /**
+     * Genera (o riusa) il quiz una sola volta e crea un tentativo per ogni studente
+     * della classe che ha accettato l'iscrizione
+     */
+    AssignmentResponse createAssignment(AssignmentRequest request, User teacher);
+
+    /**
+     * Assegnazioni create dal docente
+     */
+    List<AssignmentResponse> getTeacherAssignments(UUID teacherId);
+
+    /**
+     * Assegnazioni ricevute dallo studente, con lo stato del suo tentativo
+     */
+    List<AssignmentResponse> getStudentAssignments(UUID studentId);
+
+    /**
+     * Risultati aggregati della classe e statistiche per domanda
+     */
+    AssignmentResultsResponse getResults(UUID assignmentId, UUID teacherId);
+
+    /**
+     * Registro degli studenti, a pagine
+     */
+    List<AssignmentSubmission> getSubmissions(UUID assignmentId, UUID teacherId, int offset, int limit);
+
+    // ==================== ISCRIZIONI ====================
+
+    /**
+     * Invita gli studenti alla classe del docente. Non rivela quali email
+     * corrispondono a utenti registrati; gli inviti già presenti non vengono ripetuti
+     */
+    void inviteStudents(List<String> studentEmails, User teacher);
+
+    /**
+     * Inviti in attesa della risposta dello studente
+     */
+    List<EnrollmentResponse> getPendingInvitations(UUID studentId);
+
+    /**
+     * Risposta dello studente a un invito in attesa
+     */
+    EnrollmentResponse answerInvitation(UUID enrollmentId, boolean accepted, User student);
+}
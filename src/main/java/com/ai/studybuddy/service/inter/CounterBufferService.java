@@ -0,0 +1,50 @@
+package com.ai.studybuddy.service.inter;
+
+import java.util.UUID;
+
+/**
+ * Service interface per l'aggregazione write-behind dei contatori "caldi"
+ *
+ * I contatori di engagement (XP, flashcards studiate, sessioni di un deck,
+ * revisioni di una card, utilizzi di un argomento) vengono accumulati in memoria e scritti su DB
+ * periodicamente con UPDATE incrementali (x = x + delta), invece di una
+ * scrittura per ogni interazione.
+ *
+ * Finestra di perdita: al massimo gli incrementi di un intervallo di flush
+ * (counters.flush-interval-ms) in caso di crash del processo; allo shutdown
+ * regolare il buffer viene svuotato.
+ */
+public interface CounterBufferService {
+
+    /**
+     * Contatori gestiti dal buffer, con l'entità a cui si riferisce l'ID
+     */
+    enum CounterType {
+        USER_XP,                    // UserStats (per userId): totale, settimanale e mensile
+        USER_FLASHCARDS_STUDIED,    // UserStats (per userId)
+        DECK_TIMES_STUDIED,         // FlashcardDeck (per deckId)
+        FLASHCARD_TIMES_REVIEWED,   // FlashcardReviewState (per id dello stato utente/flashcard)
+        FLASHCARD_TIMES_CORRECT,    // FlashcardReviewState (per id dello stato utente/flashcard)
+        TOPIC_USAGE                 // Topic (per topicId)
+    }
+
+    /**
+     * Accumula un delta per il contatore indicato
+     * (dentro una transazione viene applicato solo dopo il commit)
+     */
+    void increment(CounterType type, UUID entityId, long delta);
+
+    /**
+     * Delta non ancora scritto su DB (da sommare al valore letto dal DB).
+     * Solo i contatori sono corretti: lastReviewedAt/lastStudiedAt letti dal DB
+     * restano indietro fino al prossimo flush, che li scrive con l'istante
+     * dell'ultimo incremento.
+     */
+    long getPending(CounterType type, UUID entityId);
+
+    /**
+     * Scrive su DB tutti i delta accumulati
+     * @return numero di contatori scritti
+     */
+    int flush();
+}
@@ -0,0 +1,47 @@
+package com.ai.studybuddy.service.inter;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+/**
+ * Service interface per le notifiche push via Server-Sent Events
+ *
+ * Ogni utente può avere più connessioni aperte (una per scheda).
+ * Eventi inviati:
+ * - stats: statistiche aggiornate (XP, livello, streak)
+ * - xp: XP guadagnati da un'attività
+ * - level-up: nuovo livello raggiunto
+ * - badge: badge sbloccato
+ * - recommendation: nuove raccomandazioni
+ */
+public interface EventStreamService {
+
+    String EVENT_STATS = "stats";
+    String EVENT_XP = "xp";
+    String EVENT_LEVEL_UP = "level-up";
+    String EVENT_BADGE = "badge";
+    String EVENT_RECOMMENDATION = "recommendation";
+
+    /**
+     * Registra una nuova connessione SSE per l'utente
+     */
+    SseEmitter subscribe(UUID userId);
+
+    /**
+     * Invia un evento a tutte le connessioni dell'utente
+     * (dentro una transazione viene inviato solo dopo il commit)
+     */
+    void publish(UUID userId, String eventName, Object payload);
+
+    /**
+     * true se l'utente ha almeno una connessione aperta
+     * (permette di evitare query per utenti non connessi)
+     */
+    boolean hasSubscribers(UUID userId);
+
+    /**
+     * Numero totale di connessioni aperte
+     */
+    int getSubscriberCount();
+}
@@ -0,0 +1,24 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.model.flashcard.FlashcardContent;
+
+import java.util.List;
+
+/**
+ * Service interface per i contenuti condivisi delle flashcard
+ *
+ * Il testo di una flashcard viene salvato una sola volta: contenuti identici
+ * (stesso hash, es. la stessa risposta dell'AI) usano la stessa riga.
+ */
+public interface FlashcardContentService {
+
+    /**
+     * Contenuto salvato equivalente alla bozza (esistente o appena inserito)
+     */
+    FlashcardContent resolve(FlashcardContent draft);
+
+    /**
+     * Come resolve, per più bozze con una sola lettura: stesso ordine dell'input
+     */
+    List<FlashcardContent> resolveAll(List<FlashcardContent> drafts);
+}
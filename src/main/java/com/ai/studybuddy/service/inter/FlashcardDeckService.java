@@ -47,6 +47,11 @@ public interface FlashcardDeckService {
      */
     void updateMasteredCount(UUID deckId, UUID userId);
 
+    /**
+     * Copia un deck pubblico (o proprio) con tutte le flashcard attive nell'account dell'utente
+     */
+    FlashcardDeck cloneDeck(UUID deckId, User user);
+
     /**
      * Cerca deck per nome
      */
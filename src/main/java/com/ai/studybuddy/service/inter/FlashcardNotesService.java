@@ -0,0 +1,37 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.dto.flashcard.FlashcardNotesGenerateRequest;
+import com.ai.studybuddy.model.flashcard.Flashcard;
+import com.ai.studybuddy.model.user.User;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service interface per la generazione di flashcards da appunti lunghi
+ *
+ * Gli appunti vengono divisi in parti sovrapposte (flashcards.notes.chunk-chars),
+ * generate in parallelo (al massimo flashcards.notes.max-in-flight per richiesta).
+ * Le carte di ogni parte vengono salvate nel deck appena la parte è pronta.
+ */
+public interface FlashcardNotesService {
+
+    /**
+     * Genera e salva flashcards da appunti, senza duplicati tra le parti
+     *
+     * Le parti fallite vengono saltate; l'errore viene propagato solo se nessuna parte è riuscita.
+     *
+     * @return le flashcards create, nell'ordine in cui sono state salvate
+     */
+    List<Flashcard> generateFromNotes(UUID deckId, FlashcardNotesGenerateRequest request, User user);
+
+    /**
+     * Come {@link #generateFromNotes}, con gli appunti letti da un file di testo o Markdown
+     * caricato dall'utente (request.notes viene ignorato)
+     *
+     * Il file non viene mai caricato in memoria per intero.
+     */
+    List<Flashcard> generateFromFile(UUID deckId, MultipartFile file, FlashcardNotesGenerateRequest request,
+                                     User user);
+}
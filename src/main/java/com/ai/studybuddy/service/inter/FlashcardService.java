@@ -2,6 +2,7 @@ package com.ai.studybuddy.service.inter;
 
 import com.ai.studybuddy.dto.flashcard.FlashcardAIGenerateRequest;
 import com.ai.studybuddy.dto.flashcard.FlashcardCreateRequest;
+import com.ai.studybuddy.dto.flashcard.FlashcardReviewResult;
 import com.ai.studybuddy.model.flashcard.Flashcard;
 import com.ai.studybuddy.model.user.User;
 
@@ -37,9 +38,9 @@ public interface FlashcardService {
     List<Flashcard> getFlashcardsByDeck(UUID deckId, UUID userId);
 
     /**
-     * Registra una revisione di una flashcard
+     * Registra una revisione di una flashcard e gli XP nella stessa transazione
      */
-    Flashcard reviewFlashcard(UUID flashcardId, boolean wasCorrect, UUID userId);
+    FlashcardReviewResult reviewFlashcard(UUID flashcardId, boolean wasCorrect, User user);
 
     /**
      * Aggiorna una flashcard esistente
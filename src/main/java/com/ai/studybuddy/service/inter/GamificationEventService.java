@@ -0,0 +1,39 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
+import com.ai.studybuddy.model.user.User;
+
+/**
+ * Service interface per la pipeline asincrona di gamification
+ *
+ * Le attività che assegnano XP vengono salvate come eventi (outbox) e processate
+ * da un pool limitato di worker: aggiornamento UserStats, UserProgress e badge
+ * avvengono fuori dal percorso della richiesta.
+ *
+ * Le risposte contengono un'anteprima ottimistica degli XP; i badge sbloccati
+ * vengono consegnati dopo (GET /api/gamification/badges/new).
+ */
+public interface GamificationEventService {
+
+    /**
+     * Pubblica l'evento per una spiegazione richiesta (+10 XP)
+     */
+    XpEventResponse publishExplanation(User user, String topic, String subject);
+
+    /**
+     * Pubblica l'evento per un quiz completato (+20 XP base, +10 bonus se superato)
+     */
+    XpEventResponse publishQuizCompleted(User user, boolean passed, String topic, String subject,
+                                         double score, int totalQuestions, int correctAnswers);
+
+    /**
+     * Pubblica l'evento per flashcards studiate (+2 XP per card)
+     */
+    XpEventResponse publishFlashcardsStudied(User user, int cardsStudied);
+
+    /**
+     * Affida ai worker gli eventi in attesa (eseguito periodicamente)
+     * @return numero di eventi affidati
+     */
+    int dispatchPending();
+}
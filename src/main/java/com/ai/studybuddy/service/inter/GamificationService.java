@@ -7,6 +7,7 @@ import com.ai.studybuddy.model.recommendation.Recommendation;
 import com.ai.studybuddy.model.gamification.UserStats;
 import com.ai.studybuddy.model.user.User;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -34,6 +35,11 @@ public interface GamificationService {
      */
     UserStatsResponse getUserStatsResponse(UUID userId);
 
+    /**
+     * Calendario delle attività nell'intervallo [from, to] (una sola lettura di UserStats)
+     */
+    ActivityCalendarResponse getActivityCalendar(UUID userId, LocalDate from, LocalDate to);
+
     // ==================== XP TRACKING ====================
 
     /**
@@ -59,6 +65,12 @@ public interface GamificationService {
      */
     XpEventResponse recordFocusSessionXp(User user, int durationMinutes, int xpToAward);
 
+    /**
+     * Anteprima ottimistica di un evento XP non ancora processato (senza badge)
+     * @param queuedXp XP di eventi precedenti ancora in coda
+     */
+    XpEventResponse previewXp(User user, String eventType, int xpEarned, long queuedXp);
+
     // ==================== BADGES ====================
 
     /**
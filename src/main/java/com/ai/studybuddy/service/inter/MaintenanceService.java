@@ -0,0 +1,60 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.model.maintenance.MaintenanceJob;
+
+import java.util.List;
+
+/**
+ * Service interface per i job di manutenzione pianificati
+ *
+ * Ogni job lavora a blocchi (maintenance.chunk-size righe per transazione, con
+ * una pausa tra un blocco e l'altro) e viene eseguito da un solo nodo alla volta
+ * grazie a una lease su DB (tabella maintenance_jobs).
+ */
+public interface MaintenanceService {
+
+    String JOB_EXPIRED_RECOMMENDATIONS = "expired-recommendations";
+    String JOB_OLD_RECOMMENDATIONS = "old-recommendations";
+    String JOB_WEEKLY_XP_RESET = "weekly-xp-reset";
+    String JOB_MONTHLY_XP_RESET = "monthly-xp-reset";
+    String JOB_FAILED_GAMIFICATION_EVENTS = "failed-gamification-events";
+    String JOB_FLASHCARD_CONTENT_BACKFILL = "flashcard-content-backfill";
+    String JOB_ORPHAN_FLASHCARD_CONTENTS = "orphan-flashcard-contents";
+
+    /**
+     * Elimina le raccomandazioni scadute e quelle ignorate/completate da tempo
+     */
+    void purgeRecommendations();
+
+    /**
+     * Azzera gli XP settimanali
+     */
+    void resetWeeklyXp();
+
+    /**
+     * Azzera gli XP mensili
+     */
+    void resetMonthlyXp();
+
+    /**
+     * Elimina gli eventi di gamification FAILED più vecchi della retention
+     */
+    void purgeFailedGamificationEvents();
+
+    /**
+     * Sposta testo e statistiche delle vecchie flashcard su contenuti condivisi e stati per utente,
+     * poi elimina i contenuti non più usati da nessuna flashcard
+     */
+    void maintainFlashcardContents();
+
+    /**
+     * All'avvio: migra subito le flashcard legacy invece di attendere il job notturno
+     * (nel frattempo il testo viene letto dalle vecchie colonne)
+     */
+    void backfillFlashcardContentsOnStartup();
+
+    /**
+     * Stato, avanzamento e durata dell'ultima esecuzione di ogni job
+     */
+    List<MaintenanceJob> getJobs();
+}
@@ -0,0 +1,85 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.EducationLevel;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
+import com.google.gson.JsonObject;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Pre-generazione del contenuto che l'utente chiederà probabilmente subito dopo
+ *
+ * Dopo un quiz completato si prevede la richiesta successiva (raccomandazioni
+ * attive RETRY_QUIZ / WEAKNESS_FOCUS, altrimenti l'ultimo argomento studiato) e
+ * la si genera in background, solo quando l'AI ha capacità libera. Il risultato
+ * resta in uno slot per utente fino alla scadenza: se la richiesta successiva
+ * corrisponde viene servita senza attendere l'AI.
+ */
+public interface PredictiveGenerationService {
+
+    /**
+     * Contenuto previsto per un utente
+     */
+    record Prediction(GeneratedContentType type, String topic, DifficultyLevel difficulty, int count) {
+    }
+
+    /**
+     * Mette l'utente in coda per la prossima previsione
+     */
+    void schedule(User user);
+
+    /**
+     * Richiesta più probabile dell'utente (vuota se non ci sono indizi)
+     */
+    Optional<Prediction> predict(UUID userId);
+
+    /**
+     * Consuma lo slot dell'utente se corrisponde alla richiesta
+     *
+     * @param max elementi richiesti: se lo slot ne contiene meno si usano quelli disponibili,
+     *            se ne contiene di più il resto rimane nello slot
+     * @return elementi pronti (vuota se lo slot manca, è scaduto o è per un'altra richiesta)
+     */
+    List<JsonObject> take(UUID userId, GeneratedContentType type, String topic, DifficultyLevel difficulty,
+                          EducationLevel educationLevel, String language, int max);
+
+    /**
+     * Rimette nello slot dell'utente gli elementi presi con take da una richiesta poi fallita
+     *
+     * Lo slot riparte con una nuova scadenza; se nel frattempo è arrivata una nuova previsione
+     * si tiene quella.
+     */
+    void putBack(UUID userId, GeneratedContentType type, String topic, DifficultyLevel difficulty,
+                 EducationLevel educationLevel, String language, List<JsonObject> items);
+
+    /**
+     * Contatori dall'avvio dell'applicazione
+     */
+    Stats getStats();
+
+    /**
+     * Classe per le statistiche di pre-generazione
+     */
+    class Stats {
+        private final long generated;
+        private final long served;
+        private final long expired;
+        private final int readySlots;
+
+        public Stats(long generated, long served, long expired, int readySlots) {
+            this.generated = generated;
+            this.served = served;
+            this.expired = expired;
+            this.readySlots = readySlots;
+        }
+
+        public long getGenerated() { return generated; }
+        public long getServed() { return served; }
+        public long getExpired() { return expired; }
+        public int getReadySlots() { return readySlots; }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.dto.flashcard.PublicDeckCatalogResponse;
+
+/**
+ * Service interface per il catalogo dei deck pubblici
+ *
+ * Pagine, ricerche e facet per materia sono serviti da uno snapshot in memoria
+ * ricostruito periodicamente (catalog.refresh-interval-ms): nessuna query per richiesta.
+ * Un deck reso pubblico o privato compare/scompare al refresh successivo.
+ */
+public interface PublicDeckCatalogService {
+
+    /**
+     * Deck ordinati per popolarità, filtrati per testo (nome) e materia
+     *
+     * @param query   testo da cercare nel nome (null/vuoto = tutti)
+     * @param subject materia (null/vuoto = tutte)
+     */
+    PublicDeckCatalogResponse search(String query, String subject, int offset, int limit);
+
+    /**
+     * Ricostruisce lo snapshot dal database
+     *
+     * @return numero di deck nel catalogo
+     */
+    int refresh();
+}
@@ -0,0 +1,23 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.model.quiz.Question;
+import com.ai.studybuddy.model.quiz.QuestionBankKey;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service interface per la banca domande
+ *
+ * Riutilizza le domande già generate per la stessa chiave
+ * (argomento canonico, difficoltà, lingua, livello di istruzione):
+ * l'AI viene chiamata solo per le domande mancanti.
+ */
+public interface QuestionBankService {
+
+    /**
+     * Fino a count domande dalla banca mai viste dall'utente,
+     * già copiate e pronte da aggiungere al nuovo quiz
+     */
+    List<Question> takeQuestions(QuestionBankKey key, UUID userId, int count);
+}
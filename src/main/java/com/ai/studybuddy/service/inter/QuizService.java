@@ -4,6 +4,7 @@ import com.ai.studybuddy.dto.quiz.QuizAnswerRequest;
 import com.ai.studybuddy.dto.quiz.QuizGenerateRequest;
 import com.ai.studybuddy.dto.quiz.QuizResultResponse;
 import com.ai.studybuddy.model.quiz.Quiz;
+import com.ai.studybuddy.model.quiz.QuizAttempt;
 import com.ai.studybuddy.model.user.User;
 
 import java.util.List;
@@ -32,9 +33,9 @@ public interface QuizService {
     Quiz startQuiz(UUID quizId, UUID userId);
 
     /**
-     * Invia le risposte e calcola il punteggio
+     * Invia le risposte, calcola il punteggio e registra gli XP nella stessa transazione
      */
-    QuizResultResponse submitAnswers(QuizAnswerRequest request, UUID userId);
+    QuizResultResponse submitAnswers(QuizAnswerRequest request, User user);
 
     /**
      * Ottiene un quiz per ID
@@ -72,10 +73,15 @@ public interface QuizService {
     void deleteQuiz(UUID quizId, UUID userId);
 
     /**
-     * Ripeti un quiz (resetta le risposte)
+     * Ripeti un quiz (nuovo tentativo, lo storico resta)
      */
     Quiz retryQuiz(UUID quizId, UUID userId);
 
+    /**
+     * Storico dei tentativi dell'utente su un quiz, dal più recente
+     */
+    List<QuizAttempt> getAttempts(UUID quizId, UUID userId);
+
     /**
      * Ottiene statistiche quiz dell'utente
      */
@@ -0,0 +1,52 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.dto.quiz.QuizGenerateRequest;
+import com.ai.studybuddy.model.quiz.Question;
+import com.ai.studybuddy.model.quiz.Quiz;
+import com.ai.studybuddy.model.user.User;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service interface per la generazione progressiva dei quiz
+ *
+ * Il quiz viene salvato subito; la risposta AI arriva in streaming e ogni domanda
+ * viene salvata e inviata al client appena completa, così lo studente può iniziare
+ * dalla prima mentre le altre sono ancora in generazione.
+ * Eventi inviati:
+ * - quiz: quiz creato (con le eventuali domande prese dalla banca)
+ * - question: nuova domanda salvata
+ * - complete: quiz completo
+ * - error: generazione fallita (messaggio)
+ */
+public interface QuizStreamService {
+
+    String EVENT_QUIZ = "quiz";
+    String EVENT_QUESTION = "question";
+    String EVENT_COMPLETE = "complete";
+    String EVENT_ERROR = "error";
+
+    /**
+     * Avvia la generazione in background e restituisce la connessione SSE su cui arrivano gli eventi
+     */
+    SseEmitter streamQuiz(QuizGenerateRequest request, User user);
+
+    /**
+     * Genera il quiz salvando ogni domanda appena completa
+     *
+     * Se la generazione si interrompe restano le domande già salvate; se non ne è stata
+     * salvata nessuna il quiz viene eliminato e l'errore propagato.
+     *
+     * @return il quiz con tutte le domande salvate
+     */
+    Quiz generateProgressive(QuizGenerateRequest request, User user, Listener listener);
+
+    /**
+     * Riceve il quiz e le domande man mano che vengono salvati
+     */
+    interface Listener {
+
+        void onQuizCreated(Quiz quiz);
+
+        void onQuestion(Question question);
+    }
+}
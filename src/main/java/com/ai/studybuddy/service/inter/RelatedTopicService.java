@@ -0,0 +1,33 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.model.topic.RelatedTopic;
+
+import java.util.List;
+
+/**
+ * Service interface per gli argomenti correlati
+ *
+ * Indice locale (nessuna chiamata AI) costruito da:
+ * - co-occorrenze: argomenti studiati dagli stessi utenti (UserProgress)
+ * - similarità TF-IDF dei testi di domande dei quiz e flashcard generate
+ */
+public interface RelatedTopicService {
+
+    /**
+     * Argomenti correlati a quello indicato, dal più simile
+     * (lettura in memoria dall'ultimo snapshot dell'indice)
+     */
+    List<RelatedTopic> getRelatedTopics(String topic, int limit);
+
+    /**
+     * Ricostruisce l'intero indice dai dati su DB
+     * @return numero di argomenti indicizzati
+     */
+    int rebuild();
+
+    /**
+     * Ricalcola i vicini degli argomenti modificati dall'ultimo aggiornamento
+     * @return numero di argomenti ricalcolati
+     */
+    int refresh();
+}
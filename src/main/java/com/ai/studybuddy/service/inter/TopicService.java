@@ -0,0 +1,32 @@
+package com.ai.studybuddy.service.inter;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface per il dizionario canonico degli argomenti
+ *
+ * Tutti i percorsi che usano un argomento come chiave (quiz, spiegazioni,
+ * flashcard AI, progressi, raccomandazioni) passano da canonicalize():
+ * "Fotosintesi", "fotosintesi " e "la fotosintesi" diventano lo stesso argomento.
+ */
+public interface TopicService {
+
+    /**
+     * Restituisce il nome canonico dell'argomento: corrispondenza esatta sulla
+     * chiave normalizzata, altrimenti registra un nuovo argomento.
+     * Non usa la ricerca fuzzy: argomenti simili ma diversi restano distinti
+     */
+    String canonicalize(String topic, String language);
+
+    /**
+     * Come canonicalize, ma senza registrare nuovi argomenti
+     */
+    Optional<String> findCanonical(String topic, String language);
+
+    /**
+     * Argomenti che iniziano con il prefisso (anche su una parola successiva alla prima),
+     * ordinati per utilizzo; se non bastano, argomenti scritti in modo simile
+     */
+    List<String> autocomplete(String prefix, String language, int limit);
+}
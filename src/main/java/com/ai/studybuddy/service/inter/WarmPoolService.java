@@ -0,0 +1,74 @@
+package com.ai.studybuddy.service.inter;
+
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.EducationLevel;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
+import com.google.gson.JsonObject;
+
+import java.util.List;
+
+/**
+ * Quiz e flashcards pronti per le combinazioni più richieste da tutti gli utenti
+ *
+ * Ogni richiesta di generazione viene contata in uno sketch delle chiavi più
+ * frequenti (argomento, difficoltà, livello di istruzione, lingua); per le chiavi
+ * di tendenza si tengono fino a ai.warmpool.sets-per-key set pronti, rigenerati in
+ * background con la capacità AI libera ed entro ai.warmpool.max-generations-per-minute.
+ * Ogni set viene consumato da una sola richiesta.
+ */
+public interface WarmPoolService {
+
+    /**
+     * Chiave di una richiesta di generazione (argomento già canonico, lingua in minuscolo)
+     */
+    record PoolKey(GeneratedContentType type, String topic, DifficultyLevel difficulty,
+                   EducationLevel educationLevel, String language) {
+
+        public static PoolKey of(GeneratedContentType type, String topic, DifficultyLevel difficulty,
+                                 EducationLevel educationLevel, String language) {
+            return new PoolKey(type, topic, difficulty, educationLevel,
+                    language != null ? language.trim().toLowerCase() : null);
+        }
+    }
+
+    /**
+     * Registra la richiesta per le tendenze e consuma un set pronto per la sua chiave
+     *
+     * @param max elementi ancora da generare (0 = solo registrazione)
+     * @return al massimo max elementi (vuota se non ci sono set pronti)
+     */
+    List<JsonObject> take(PoolKey key, int max);
+
+    /**
+     * Rimette nel pool gli elementi presi con take da una richiesta poi fallita
+     * (scartati se la chiave non è più di tendenza)
+     */
+    void putBack(PoolKey key, List<JsonObject> items);
+
+    /**
+     * Contatori dall'avvio dell'applicazione
+     */
+    Stats getStats();
+
+    /**
+     * Classe per le statistiche del pool
+     */
+    class Stats {
+        private final long generated;
+        private final long served;
+        private final int readySets;
+        private final int trendingKeys;
+
+        public Stats(long generated, long served, int readySets, int trendingKeys) {
+            this.generated = generated;
+            this.served = served;
+            this.readySets = readySets;
+            this.trendingKeys = trendingKeys;
+        }
+
+        public long getGenerated() { return generated; }
+        public long getServed() { return served; }
+        public int getReadySets() { return readySets; }
+        public int getTrendingKeys() { return trendingKeys; }
+    }
+}
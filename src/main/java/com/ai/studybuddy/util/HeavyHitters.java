@@ -0,0 +1,98 @@
+package com.ai.studybuddy.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chiavi più frequenti di un flusso, in memoria limitata (algoritmo Space-Saving)
+ *
+ * Si tengono al massimo capacity contatori. Una chiave nuova, a contatori pieni,
+ * prende il posto della meno frequente ereditandone il conteggio come errore:
+ * ogni chiave con più di N/capacity occorrenze è sempre presente, e il conteggio
+ * meno l'errore è un limite inferiore garantito. {@link #decay()} dimezza i
+ * conteggi, così pesano di più le occorrenze recenti.
+ */
+public final class HeavyHitters<K> {
+
+    /**
+     * @param count conteggio stimato (mai inferiore al reale)
+     * @param error sovrastima massima di count
+     */
+    public record Entry<K>(K key, long count, long error) {
+
+        /**
+         * Occorrenze garantite
+         */
+        public long guaranteed() {
+            return count - error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<K, long[]> counters = new HashMap<>();
+
+    public HeavyHitters(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity deve essere positiva");
+        }
+        this.capacity = capacity;
+    }
+
+    public synchronized void offer(K key) {
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[]{1, 0});
+            return;
+        }
+
+        Map.Entry<K, long[]> min = null;
+        for (Map.Entry<K, long[]> entry : counters.entrySet()) {
+            if (min == null || entry.getValue()[0] < min.getValue()[0]) {
+                min = entry;
+            }
+        }
+        long minCount = min.getValue()[0];
+        counters.remove(min.getKey());
+        counters.put(key, new long[]{minCount + 1, minCount});
+    }
+
+    /**
+     * Al massimo limit chiavi con almeno minGuaranteed occorrenze garantite,
+     * dalla più frequente
+     */
+    public synchronized List<Entry<K>> top(int limit, long minGuaranteed) {
+        List<Entry<K>> entries = new ArrayList<>();
+        counters.forEach((key, counter) -> {
+            if (counter[0] - counter[1] >= minGuaranteed) {
+                entries.add(new Entry<>(key, counter[0], counter[1]));
+            }
+        });
+        entries.sort(Comparator.comparingLong((Entry<K> entry) -> entry.count()).reversed());
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * Dimezza tutti i conteggi; le chiavi arrivate a zero vengono rimosse
+     */
+    public synchronized void decay() {
+        Iterator<long[]> iterator = counters.values().iterator();
+        while (iterator.hasNext()) {
+            long[] counter = iterator.next();
+            counter[0] /= 2;
+            counter[1] /= 2;
+            if (counter[0] == 0) iterator.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return counters.size();
+    }
+}
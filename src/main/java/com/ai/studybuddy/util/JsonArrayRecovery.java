@@ -0,0 +1,57 @@
+package com.ai.studybuddy.util;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParseException;
+
+/**
+ * Lettura tollerante dell'array JSON restituito dall'AI
+ *
+ * Una risposta valida viene letta normalmente. Altrimenti (risposta interrotta a
+ * max_tokens, JSON preceduto o seguito da testo) si recuperano con
+ * {@link JsonArrayStreamParser} tutti gli oggetti completi, invece di perdere
+ * l'intera generazione.
+ */
+public final class JsonArrayRecovery {
+
+    private static final Gson GSON = new Gson();
+
+    private JsonArrayRecovery() {}
+
+    /**
+     * @param items     elementi letti (vuoto se non c'era nulla da recuperare)
+     * @param recovered true se la risposta non era un array JSON valido
+     * @param truncated true se l'array non è stato chiuso (risposta interrotta)
+     */
+    public record Result(JsonArray items, boolean recovered, boolean truncated) {
+
+        /**
+         * Elementi mancanti rispetto a quelli richiesti
+         */
+        public int missing(int requested) {
+            return Math.max(0, requested - items.size());
+        }
+    }
+
+    public static Result parse(String response) {
+        if (response == null) {
+            return new Result(new JsonArray(), true, false);
+        }
+        String cleaned = response.trim();
+        if (cleaned.startsWith("[")) {
+            try {
+                JsonArray array = GSON.fromJson(cleaned, JsonArray.class);
+                if (array != null) {
+                    return new Result(array, false, false);
+                }
+            } catch (JsonParseException e) {
+                // Risposta troncata o con testo dopo l'array: si recupera sotto
+            }
+        }
+
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+        JsonArray items = new JsonArray();
+        parser.feed(cleaned).forEach(items::add);
+        return new Result(items, true, !parser.isComplete());
+    }
+}
@@ -0,0 +1,108 @@
+package com.ai.studybuddy.util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lettura incrementale di un array JSON di oggetti ricevuto a pezzi (risposta AI in streaming)
+ *
+ * Ogni oggetto dell'array viene restituito appena la sua parentesi di chiusura è arrivata,
+ * senza attendere il resto della risposta. Il testo prima del primo '[' (introduzioni,
+ * ```json) e dopo la chiusura dell'array viene ignorato; un oggetto non valido viene saltato.
+ * Non thread-safe: un parser per risposta.
+ */
+public class JsonArrayStreamParser {
+
+    private final StringBuilder current = new StringBuilder();
+    private boolean arrayOpen;
+    private boolean arrayClosed;
+    private int depth;          // profondità dentro l'oggetto corrente (0 = tra un oggetto e l'altro)
+    private boolean inString;
+    private boolean escaped;
+
+    /**
+     * Aggiunge un pezzo di testo
+     *
+     * @return gli oggetti completati da questo pezzo, nell'ordine dell'array
+     */
+    public List<JsonObject> feed(CharSequence chunk) {
+        List<JsonObject> completed = new ArrayList<>();
+        for (int i = 0; i < chunk.length() && !arrayClosed; i++) {
+            char c = chunk.charAt(i);
+            if (!arrayOpen) {
+                arrayOpen = c == '[';
+            } else if (depth == 0) {
+                if (c == '{') {
+                    current.append(c);
+                    depth = 1;
+                } else if (c == ']') {
+                    arrayClosed = true;
+                }
+            } else {
+                current.append(c);
+                if (scan(c)) {
+                    parse(current.toString(), completed);
+                    current.setLength(0);
+                }
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * true se l'array è stato chiuso (il testo successivo viene ignorato)
+     */
+    public boolean isComplete() {
+        return arrayClosed;
+    }
+
+    /**
+     * true se c'è un oggetto iniziato e non ancora chiuso (risposta troncata)
+     */
+    public boolean hasPartialObject() {
+        return depth > 0;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Aggiorna lo stato con un carattere dell'oggetto corrente
+     *
+     * @return true se il carattere chiude l'oggetto
+     */
+    private boolean scan(char c) {
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+            }
+            return false;
+        }
+        switch (c) {
+            case '"' -> inString = true;
+            case '{', '[' -> depth++;
+            case '}', ']' -> depth--;
+            default -> { }
+        }
+        return depth == 0;
+    }
+
+    private static void parse(String json, List<JsonObject> completed) {
+        try {
+            JsonElement element = JsonParser.parseString(json);
+            if (element.isJsonObject()) {
+                completed.add(element.getAsJsonObject());
+            }
+        } catch (JsonParseException e) {
+            // Oggetto malformato: saltato, gli altri restano validi
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.ai.studybuddy.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lettura a parti di un file di appunti (testo o Markdown, UTF-8) senza caricarlo in memoria
+ *
+ * Il file viene mappato a finestre (FileChannel.map) e decodificato poco alla
+ * volta; il testo decodificato è diviso con {@link TextChunker} man mano, tenendo
+ * in memoria al massimo un paio di parti. Ogni ripresa avviene su un confine di
+ * paragrafo o su uno spazio, mai a metà parola (salvo testo senza spazi).
+ */
+public class NotesFileSegmenter implements Iterator<String>, Closeable {
+
+    private static final long WINDOW_BYTES = 4L * 1024 * 1024;
+    private static final int DECODE_CHARS = 16 * 1024;
+    private static final String PARAGRAPH = "\n\n";
+
+    private final FileChannel channel;
+    private final long windowBytes;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer decoded = CharBuffer.allocate(DECODE_CHARS);
+    private final int maxChars;
+    private final int overlapChars;
+
+    // Testo letto ma non ancora diviso: inizia con l'ultima parte non emessa
+    private final StringBuilder pending = new StringBuilder();
+    private final Deque<String> ready = new ArrayDeque<>();
+    private long position;
+    private boolean endOfFile;
+    private boolean firstChars = true;
+
+    private NotesFileSegmenter(FileChannel channel, long windowBytes, int maxChars, int overlapChars) {
+        this.channel = channel;
+        this.windowBytes = windowBytes;
+        this.maxChars = maxChars;
+        this.overlapChars = overlapChars;
+    }
+
+    /**
+     * @param maxChars     lunghezza massima di una parte
+     * @param overlapChars lunghezza massima delle frasi ripetute dalla parte precedente
+     */
+    public static NotesFileSegmenter open(Path file, int maxChars, int overlapChars) throws IOException {
+        return open(file, WINDOW_BYTES, maxChars, overlapChars);
+    }
+
+    static NotesFileSegmenter open(Path file, long windowBytes, int maxChars, int overlapChars) throws IOException {
+        if (maxChars < 1) {
+            throw new IllegalArgumentException("maxChars deve essere positivo");
+        }
+        return new NotesFileSegmenter(FileChannel.open(file, StandardOpenOption.READ), windowBytes,
+                maxChars, overlapChars);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (ready.isEmpty() && (!endOfFile || !pending.isEmpty())) {
+            try {
+                fill();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segment();
+        }
+        return !ready.isEmpty();
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return ready.poll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ==================== LETTURA ====================
+
+    /**
+     * Decodifica finché il testo in attesa basta per almeno due parti o il file è finito
+     */
+    private void fill() throws IOException {
+        long size = channel.size();
+        while (!endOfFile && pending.length() < 2 * maxChars) {
+            if (position >= size) {
+                decoder.decode(ByteBuffer.allocate(0), decoded, true);
+                decoder.flush(decoded);
+                drainDecoded();
+                endOfFile = true;
+                return;
+            }
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(windowBytes, size - position));
+            while (pending.length() < 2 * maxChars) {
+                CoderResult result = decoder.decode(window, decoded, false);
+                drainDecoded();
+                if (result.isUnderflow()) break;
+            }
+            // I byte di un carattere a cavallo della finestra vengono rimappati con la successiva
+            position += window.position();
+            if (window.hasRemaining() && position + window.remaining() == size && window.remaining() < 4) {
+                // Sequenza troncata a fine file: il decoder la sostituisce
+                decoder.decode(window, decoded, true);
+                drainDecoded();
+                position = size;
+            }
+        }
+    }
+
+    private void drainDecoded() {
+        decoded.flip();
+        if (firstChars && decoded.hasRemaining()) {
+            firstChars = false;
+            if (decoded.get(decoded.position()) == '\uFEFF') decoded.get();
+        }
+        pending.append(decoded);
+        decoded.clear();
+    }
+
+    // ==================== DIVISIONE ====================
+
+    /**
+     * Divide il testo in attesa fino all'ultimo confine sicuro (paragrafo o spazio);
+     * l'ultima parte torna in attesa per proseguire con il testo successivo
+     */
+    private void segment() {
+        if (pending.isEmpty()) return;
+
+        if (endOfFile) {
+            ready.addAll(TextChunker.split(pending.toString(), maxChars, overlapChars));
+            pending.setLength(0);
+            return;
+        }
+
+        // Senza un confine oltre maxChars (testo senza spazi) si divide tutto il testo in attesa
+        int cut = pending.lastIndexOf(PARAGRAPH);
+        if (cut <= maxChars) cut = lastWhitespace(pending);
+        if (cut <= maxChars) cut = pending.length();
+
+        List<String> chunks = TextChunker.split(pending.substring(0, cut), maxChars, overlapChars);
+        String rest = pending.substring(cut);
+        pending.setLength(0);
+        if (chunks.isEmpty()) {
+            pending.append(rest.stripLeading());
+            return;
+        }
+        ready.addAll(chunks.subList(0, chunks.size() - 1));
+        pending.append(chunks.getLast()).append(rest);
+    }
+
+    private static int lastWhitespace(CharSequence text) {
+        for (int i = text.length() - 1; i > 0; i--) {
+            if (Character.isWhitespace(text.charAt(i))) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,114 @@
+package com.ai.studybuddy.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Suddivisione di testi lunghi (appunti, dispense) in parti da inviare all'AI
+ *
+ * Le parti finiscono su un confine di frase, preferibilmente di paragrafo, e
+ * ripetono all'inizio le ultime frasi della parte precedente (sovrapposizione)
+ * così che un concetto a cavallo di due parti non vada perso.
+ */
+public final class TextChunker {
+
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?…;])\\s+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TextChunker() {
+    }
+
+    /**
+     * @param maxChars     lunghezza massima di una parte
+     * @param overlapChars lunghezza massima delle frasi ripetute dalla parte precedente
+     * @return le parti in ordine; un testo corto resta una sola parte
+     */
+    public static List<String> split(String text, int maxChars, int overlapChars) {
+        if (maxChars < 1) {
+            throw new IllegalArgumentException("maxChars deve essere positivo");
+        }
+        List<Sentence> sentences = sentences(text, maxChars);
+        List<String> chunks = new ArrayList<>();
+
+        int start = 0;
+        while (start < sentences.size()) {
+            int end = start;
+            int length = 0;
+            int paragraphBreak = -1;
+            while (end < sentences.size()
+                    && (end == start || length + 1 + sentences.get(end).text().length() <= maxChars)) {
+                // Ultimo inizio di paragrafo oltre metà parte: punto di taglio preferito
+                if (end > start && sentences.get(end).paragraphStart() && length >= maxChars / 2) {
+                    paragraphBreak = end;
+                }
+                length += (end > start ? 1 : 0) + sentences.get(end).text().length();
+                end++;
+            }
+            if (end < sentences.size() && paragraphBreak > 0) {
+                end = paragraphBreak;
+            }
+            chunks.add(join(sentences, start, end));
+            if (end >= sentences.size()) {
+                break;
+            }
+
+            // La parte successiva riparte dalle ultime frasi, senza mai tornare all'inizio di questa
+            int next = end;
+            int overlap = 0;
+            while (next - 1 > start && overlap + sentences.get(next - 1).text().length() <= overlapChars) {
+                next--;
+                overlap += sentences.get(next).text().length() + 1;
+            }
+            start = next;
+        }
+        return chunks;
+    }
+
+    // ==================== FRASI ====================
+
+    private record Sentence(String text, boolean paragraphStart) {}
+
+    /**
+     * Frasi con spazi compattati; quelle più lunghe di maxChars sono spezzate su uno spazio
+     */
+    private static List<Sentence> sentences(String text, int maxChars) {
+        List<Sentence> sentences = new ArrayList<>();
+        if (text == null) return sentences;
+
+        for (String paragraph : PARAGRAPH_BREAK.split(text.replace("\r\n", "\n"))) {
+            String collapsed = WHITESPACE.matcher(paragraph).replaceAll(" ").trim();
+            if (collapsed.isEmpty()) continue;
+
+            boolean first = true;
+            for (String sentence : SENTENCE_END.split(collapsed)) {
+                String rest = sentence;
+                while (rest.length() > maxChars) {
+                    int cut = rest.lastIndexOf(' ', maxChars);
+                    if (cut <= 0) cut = maxChars;
+                    sentences.add(new Sentence(rest.substring(0, cut).trim(), first));
+                    first = false;
+                    rest = rest.substring(cut).trim();
+                }
+                if (!rest.isEmpty()) {
+                    sentences.add(new Sentence(rest, first));
+                    first = false;
+                }
+            }
+        }
+        return sentences;
+    }
+
+    private static String join(List<Sentence> sentences, int from, int to) {
+        StringBuilder chunk = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            Sentence sentence = sentences.get(i);
+            if (i > from) {
+                chunk.append(sentence.paragraphStart() ? "\n\n" : " ");
+            }
+            chunk.append(sentence.text());
+        }
+        return chunk.toString();
+    }
+}
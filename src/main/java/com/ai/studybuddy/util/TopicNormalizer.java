@@ -0,0 +1,76 @@
+package com.ai.studybuddy.util;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizzazione degli argomenti inseriti dall'utente
+ *
+ * La chiave normalizzata identifica l'argomento indipendentemente da
+ * maiuscole, accenti, punteggiatura, spazi e articolo iniziale
+ * ("La Fotosintesi " → "fotosintesi").
+ */
+public final class TopicNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Articoli iniziali rimossi per lingua (quelli elisi finiscono con l'apostrofo)
+    private static final Map<String, List<String>> ARTICLES = Map.of(
+            "it", List.of("il", "lo", "la", "i", "gli", "le", "un", "uno", "una", "l'", "un'"),
+            "en", List.of("the", "a", "an"),
+            "es", List.of("el", "la", "los", "las", "un", "una"),
+            "fr", List.of("le", "la", "les", "un", "une", "des", "l'"),
+            "de", List.of("der", "die", "das", "ein", "eine")
+    );
+
+    private TopicNormalizer() {
+    }
+
+    /**
+     * Chiave di confronto: minuscolo, senza accenti né articolo iniziale,
+     * solo lettere/cifre separate da un singolo spazio
+     */
+    public static String normalize(String topic, String language) {
+        if (topic == null) return "";
+        String text = stripArticle(collapse(topic).toLowerCase(Locale.ROOT), language);
+        text = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(text).replaceAll(" ").trim();
+    }
+
+    /**
+     * Forma da mostrare per un nuovo argomento: spazi compattati,
+     * articolo iniziale rimosso, iniziale maiuscola
+     */
+    public static String displayName(String topic, String language) {
+        String text = collapse(topic);
+        String withoutArticle = stripArticle(text, language);
+        if (withoutArticle.isEmpty()) withoutArticle = text;
+        return withoutArticle.substring(0, 1).toUpperCase(Locale.ROOT) + withoutArticle.substring(1);
+    }
+
+    private static String collapse(String topic) {
+        return WHITESPACE.matcher(topic.replace('’', '\'')).replaceAll(" ").trim();
+    }
+
+    /**
+     * Rimuove l'articolo iniziale (confronto senza distinzione di maiuscole)
+     * solo se resta almeno una parola
+     */
+    private static String stripArticle(String text, String language) {
+        List<String> articles = ARTICLES.getOrDefault(language != null ? language : "it", ARTICLES.get("it"));
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (String article : articles) {
+            boolean elided = article.endsWith("'");
+            String prefix = elided ? article : article + " ";
+            if (lower.startsWith(prefix) && lower.length() > prefix.length()) {
+                return text.substring(prefix.length()).trim();
+            }
+        }
+        return text;
+    }
+}
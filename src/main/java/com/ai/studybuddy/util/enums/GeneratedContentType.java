@@ -0,0 +1,9 @@
+package com.ai.studybuddy.util.enums;
+
+/**
+ * Tipi di contenuto generati dall'AI che possono essere preparati in anticipo
+ */
+public enum GeneratedContentType {
+    QUIZ,
+    FLASHCARDS
+}
@@ -0,0 +1,7 @@
+-- Contenuti condivisi delle flashcard: le vecchie colonne di testo restano in sola lettura
+-- fino al backfill (MaintenanceService) e le nuove flashcard non le valorizzano più.
+-- ddl-auto=update non rilassa i vincoli NOT NULL: eseguire una volta, prima del deploy,
+-- sui database creati con le versioni precedenti. Rieseguibile senza effetti.
+
+ALTER TABLE flashcards ALTER COLUMN front_content DROP NOT NULL;
+ALTER TABLE flashcards ALTER COLUMN back_content DROP NOT NULL;
@@ -89,7 +89,6 @@ function renderSidebar(activePage = '') {
 
     document.body.insertAdjacentHTML('afterbegin', sidebarHTML);
     setupSidebarEvents();
-    loadSidebarStats();
 
     // Intercetta i click sui link per gestire il Focus Mode
     setupNavigationInterception();
@@ -132,25 +131,6 @@ function setupNavigationInterception() {
     });
 }
 
-async function loadSidebarStats() {
-    try {
-        const token = localStorage.getItem('token');
-        if (!token) return;
-
-        const response = await fetch('/api/gamification/stats', {
-            headers: { 'Authorization': `Bearer ${token}` }
-        });
-
-        if (response.ok) {
-            const stats = await response.json();
-            const levelEl = document.getElementById('sidebarLevel');
-            if (levelEl) levelEl.textContent = stats.level || 1;
-        }
-    } catch (e) {
-        console.error('Errore stats sidebar:', e);
-    }
-}
-
 // ==================== TOPBAR ====================
 function renderTopbar(pageTitle = '', pageSubtitle = '') {
     const topbarHTML = `
@@ -181,10 +161,43 @@ function renderTopbar(pageTitle = '', pageSubtitle = '') {
         mainContent.insertAdjacentHTML('afterbegin', topbarHTML);
     }
 
-    loadTopbarStats();
+    if (lastLayoutStats) applyLayoutStats(lastLayoutStats);
 }
 
-async function loadTopbarStats() {
+// ==================== STATS & EVENTI LIVE ====================
+let lastLayoutStats = null;
+let eventStreamAbort = null;
+
+/**
+ * Aggiorna sidebar e topbar con le statistiche ricevute
+ */
+function applyLayoutStats(stats) {
+    lastLayoutStats = stats;
+
+    const sidebarLevelEl = document.getElementById('sidebarLevel');
+    const streakEl = document.getElementById('topbarStreak');
+    const xpEl = document.getElementById('topbarXp');
+    const levelEl = document.getElementById('topbarLevel');
+
+    if (sidebarLevelEl) sidebarLevelEl.textContent = stats.level || 1;
+    if (streakEl) streakEl.textContent = stats.currentStreak || 0;
+    if (xpEl) xpEl.textContent = formatNumber(stats.totalXp || 0);
+    if (levelEl) levelEl.textContent = stats.level || 1;
+}
+
+/**
+ * Le pagine ricevono le statistiche dallo stesso canale del layout:
+ * subito se già arrivate, poi a ogni evento 'stats' (nessuna richiesta in più)
+ */
+function onLayoutStats(callback) {
+    window.addEventListener('studybuddy:stats', e => callback(e.detail));
+    if (lastLayoutStats) callback(lastLayoutStats);
+}
+
+/**
+ * Fallback senza stream: una sola richiesta per sidebar, topbar e pagina
+ */
+async function loadLayoutStats() {
     try {
         const token = localStorage.getItem('token');
         if (!token) return;
@@ -195,17 +208,103 @@ async function loadTopbarStats() {
 
         if (response.ok) {
             const stats = await response.json();
-            const streakEl = document.getElementById('topbarStreak');
-            const xpEl = document.getElementById('topbarXp');
-            const levelEl = document.getElementById('topbarLevel');
+            applyLayoutStats(stats);
+            window.dispatchEvent(new CustomEvent('studybuddy:stats', { detail: stats }));
+        }
+    } catch (e) {
+        console.error('Errore stats layout:', e);
+    }
+}
 
-            if (streakEl) streakEl.textContent = stats.currentStreak || 0;
-            if (xpEl) xpEl.textContent = formatNumber(stats.totalXp || 0);
-            if (levelEl) levelEl.textContent = stats.level || 1;
+/**
+ * Canale SSE /api/events/stream (letto con fetch per poter inviare il token JWT).
+ * Il primo evento contiene le statistiche correnti; poi arrivano XP, level-up,
+ * badge e raccomandazioni. In caso di disconnessione riprova con backoff.
+ */
+async function connectEventStream(retryDelay = 1000) {
+    const token = localStorage.getItem('token');
+    if (!token) return;
+
+    if (!window.ReadableStream || !window.TextDecoder) {
+        loadLayoutStats();
+        return;
+    }
+
+    eventStreamAbort = new AbortController();
+    let receivedData = false;
+
+    try {
+        const response = await fetch('/api/events/stream', {
+            headers: {
+                'Authorization': `Bearer ${token}`,
+                'Accept': 'text/event-stream'
+            },
+            signal: eventStreamAbort.signal
+        });
+
+        // Token non valido: nessun nuovo tentativo
+        if (response.status === 401 || response.status === 403) return;
+        if (!response.ok || !response.body) throw new Error(`HTTP ${response.status}`);
+
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) break;
+
+            buffer += decoder.decode(value, { stream: true }).replace(/\r\n/g, '\n');
+            let separator;
+            while ((separator = buffer.indexOf('\n\n')) >= 0) {
+                handleStreamEvent(buffer.slice(0, separator));
+                buffer = buffer.slice(separator + 2);
+                receivedData = true;
+            }
         }
     } catch (e) {
-        console.error('Errore stats topbar:', e);
+        if (e.name === 'AbortError') return;
+        console.warn('Stream eventi interrotto:', e.message);
+        if (!lastLayoutStats) loadLayoutStats();
     }
+
+    const nextDelay = receivedData ? 1000 : Math.min(retryDelay * 2, 30000);
+    setTimeout(() => connectEventStream(nextDelay), receivedData ? 1000 : retryDelay);
+}
+
+function handleStreamEvent(raw) {
+    let eventName = 'message';
+    const dataLines = [];
+
+    raw.split('\n').forEach(line => {
+        if (line.startsWith(':')) return; // heartbeat
+        if (line.startsWith('event:')) eventName = line.slice(6).trim();
+        else if (line.startsWith('data:')) dataLines.push(line.slice(5).replace(/^ /, ''));
+    });
+
+    if (dataLines.length === 0) return;
+
+    let data;
+    try {
+        data = JSON.parse(dataLines.join('\n'));
+    } catch (e) {
+        data = dataLines.join('\n');
+    }
+
+    switch (eventName) {
+        case 'stats':
+            applyLayoutStats(data);
+            break;
+        case 'level-up':
+            if (window.showToast) showToast(`Livello ${data.level} raggiunto!`, 'success');
+            break;
+        case 'badge':
+            if (window.showToast) showToast(`Badge sbloccato: ${data.name}`, 'success');
+            break;
+    }
+
+    // Le pagine possono ascoltare es. 'studybuddy:xp' o 'studybuddy:recommendation'
+    window.dispatchEvent(new CustomEvent(`studybuddy:${eventName}`, { detail: data }));
 }
 
 function formatNumber(num) {
@@ -222,6 +321,8 @@ function initLayout(options = {}) {
 
     renderSidebar(activePage);
     if (showTopbar && pageTitle) renderTopbar(pageTitle, pageSubtitle);
+
+    if (!eventStreamAbort) connectEventStream();
 }
 
 // ==================== AUTH ====================
@@ -261,6 +362,7 @@ function logout() {
         return;
     }
 
+    if (eventStreamAbort) eventStreamAbort.abort();
     localStorage.removeItem('token');
     localStorage.removeItem('user');
     window.location.href = 'login.html';
@@ -0,0 +1,97 @@
+package com.ai.studybuddy.config.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JwtUtils - Test Suite Completo")
+class JwtUtilsTest {
+
+    private static final String SECRET = "test-secret-di-almeno-trentadue-caratteri";
+    private static final String TEST_EMAIL = "test@example.com";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = createJwtUtils(SECRET, 3600000);
+    }
+
+    private JwtUtils createJwtUtils(String secret, long expiration) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(utils, "jwtExpiration", expiration);
+        utils.init();
+        return utils;
+    }
+
+    // ========================================
+    // TEST: verify
+    // ========================================
+
+    @Test
+    @DisplayName("verify - Token valido restituisce email e scadenza")
+    void testVerify_ValidToken() {
+        // Arrange
+        String token = jwtUtils.generateToken(TEST_EMAIL);
+
+        // Act
+        JwtUtils.VerifiedToken result = jwtUtils.verify(token);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(TEST_EMAIL, result.email());
+        assertTrue(result.expiresAt() > System.currentTimeMillis());
+        assertTrue(jwtUtils.validateToken(token));
+        assertEquals(TEST_EMAIL, jwtUtils.getEmailFromToken(token));
+    }
+
+    @Test
+    @DisplayName("verify - Seconda verifica servita dalla cache")
+    void testVerify_CachedResult() {
+        // Arrange
+        String token = jwtUtils.generateToken(TEST_EMAIL);
+
+        // Act
+        JwtUtils.VerifiedToken first = jwtUtils.verify(token);
+        JwtUtils.VerifiedToken second = jwtUtils.verify(token);
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("verify - Firma non valida")
+    void testVerify_InvalidSignature() {
+        // Arrange
+        JwtUtils other = createJwtUtils("un-altro-secret-di-almeno-trentadue-caratteri", 3600000);
+        String token = other.generateToken(TEST_EMAIL);
+
+        // Act & Assert
+        assertNull(jwtUtils.verify(token));
+        assertFalse(jwtUtils.validateToken(token));
+    }
+
+    @Test
+    @DisplayName("verify - Token scaduto")
+    void testVerify_ExpiredToken() {
+        // Arrange
+        JwtUtils expiring = createJwtUtils(SECRET, -1000);
+        String token = expiring.generateToken(TEST_EMAIL);
+
+        // Act & Assert
+        assertNull(jwtUtils.verify(token));
+    }
+
+    @Test
+    @DisplayName("verify - Token malformato o vuoto")
+    void testVerify_MalformedToken() {
+        // Act & Assert
+        assertNull(jwtUtils.verify("non.un.token"));
+        assertNull(jwtUtils.verify(""));
+        assertNull(jwtUtils.verify(null));
+    }
+}
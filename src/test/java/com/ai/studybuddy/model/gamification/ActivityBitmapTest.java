@@ -0,0 +1,145 @@
+package com.ai.studybuddy.model.gamification;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ActivityBitmap - Test Suite Completo")
+class ActivityBitmapTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    private ActivityBitmap bitmapWith(LocalDate start, int days) {
+        ActivityBitmap bitmap = ActivityBitmap.empty();
+        for (int i = 0; i < days; i++) {
+            bitmap.set(start.plusDays(i));
+        }
+        return bitmap;
+    }
+
+    // ========================================
+    // TEST: streak
+    // ========================================
+
+    @Test
+    @DisplayName("streakEndingAt - Sequenza che attraversa più parole")
+    void testStreakEndingAt_AcrossWords() {
+        // Arrange
+        ActivityBitmap bitmap = bitmapWith(DAY, 150);
+
+        // Act & Assert
+        assertEquals(150, bitmap.streakEndingAt(DAY.plusDays(149)));
+        assertEquals(70, bitmap.streakEndingAt(DAY.plusDays(69)));
+        assertEquals(0, bitmap.streakEndingAt(DAY.plusDays(150)));
+        assertEquals(0, bitmap.streakEndingAt(DAY.minusDays(1)));
+    }
+
+    @Test
+    @DisplayName("streakEndingAt - Un giorno saltato interrompe lo streak")
+    void testStreakEndingAt_Gap() {
+        // Arrange
+        ActivityBitmap bitmap = bitmapWith(DAY, 10);
+        bitmap.set(DAY.plusDays(11));
+        bitmap.set(DAY.plusDays(12));
+
+        // Act & Assert
+        assertEquals(2, bitmap.streakEndingAt(DAY.plusDays(12)));
+        assertFalse(bitmap.isActive(DAY.plusDays(10)));
+    }
+
+    @Test
+    @DisplayName("longestStreak - Sequenza più lunga a cavallo di una parola piena")
+    void testLongestStreak() {
+        // Arrange
+        ActivityBitmap bitmap = bitmapWith(DAY, 5);
+        LocalDate longRunStart = DAY.plusDays(20);
+        for (int i = 0; i < 140; i++) {
+            bitmap.set(longRunStart.plusDays(i));
+        }
+        bitmap.set(longRunStart.plusDays(145));
+
+        // Act & Assert
+        assertEquals(140, bitmap.longestStreak());
+        assertEquals(0, ActivityBitmap.empty().longestStreak());
+    }
+
+    // ========================================
+    // TEST: intervalli
+    // ========================================
+
+    @Test
+    @DisplayName("countActive / activeDays - Solo i giorni nell'intervallo")
+    void testRangeQueries() {
+        // Arrange
+        ActivityBitmap bitmap = ActivityBitmap.empty();
+        bitmap.set(DAY);
+        bitmap.set(DAY.plusDays(2));
+        bitmap.set(DAY.plusDays(100));
+
+        // Act
+        List<LocalDate> days = bitmap.activeDays(DAY.plusDays(1), DAY.plusDays(200));
+
+        // Assert
+        assertEquals(List.of(DAY.plusDays(2), DAY.plusDays(100)), days);
+        assertEquals(3, bitmap.countActive(DAY.minusDays(365), DAY.plusDays(365)));
+        assertEquals(0, bitmap.countActive(DAY.plusDays(5), DAY));
+    }
+
+    @Test
+    @DisplayName("set - Un giorno precedente all'origine estende la bitmap all'indietro")
+    void testSet_BeforeOrigin() {
+        // Arrange
+        ActivityBitmap bitmap = ActivityBitmap.empty();
+        bitmap.set(DAY);
+
+        // Act
+        bitmap.set(DAY.minusDays(200));
+
+        // Assert
+        assertTrue(bitmap.isActive(DAY));
+        assertTrue(bitmap.isActive(DAY.minusDays(200)));
+        assertEquals(2, bitmap.countActive(DAY.minusDays(300), DAY));
+    }
+
+    @Test
+    @DisplayName("encode / decode - Round trip")
+    void testEncodeDecode() {
+        // Arrange
+        ActivityBitmap bitmap = bitmapWith(DAY, 70);
+
+        // Act
+        ActivityBitmap decoded = ActivityBitmap.decode(bitmap.getOrigin(), bitmap.encode());
+
+        // Assert
+        assertEquals(70, decoded.streakEndingAt(DAY.plusDays(69)));
+        assertEquals(bitmap.getOrigin(), decoded.getOrigin());
+        assertTrue(ActivityBitmap.decode(null, null).isEmpty());
+    }
+
+    // ========================================
+    // TEST: UserStats
+    // ========================================
+
+    @Test
+    @DisplayName("UserStats.updateStreak - Ricostruisce lo streak salvato prima della bitmap")
+    void testUserStatsUpdateStreak_BackfillsLegacyStreak() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        UserStats stats = new UserStats();
+        stats.setCurrentStreak(4);
+        stats.setLongestStreak(9);
+        stats.setLastActivityDate(today.minusDays(1));
+
+        // Act
+        stats.updateStreak();
+
+        // Assert
+        assertEquals(5, stats.getCurrentStreak());
+        assertEquals(9, stats.getLongestStreak());
+        assertEquals(5, stats.getActivity().countActive(today.minusDays(10), today));
+    }
+}
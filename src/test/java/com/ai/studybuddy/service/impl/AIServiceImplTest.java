@@ -2,6 +2,8 @@ package com.ai.studybuddy.service.impl;
 
 import com.ai.studybuddy.exception.AIServiceException;
 import com.ai.studybuddy.integration.AIClient;
+import com.ai.studybuddy.service.inter.AIGenerationMetrics;
+import com.ai.studybuddy.util.JsonArrayRecovery;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
 import com.ai.studybuddy.util.enums.EducationLevel;
 import com.google.gson.JsonArray;
@@ -10,6 +12,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,7 +20,10 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.function.Consumer;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -32,6 +38,9 @@ class AIServiceImplTest {
     @Mock
     private AIClient fallbackClient;
 
+    @Mock
+    private AIGenerationMetrics generationMetrics;
+
     @InjectMocks
     private AIServiceImpl aiService;
 
@@ -251,6 +260,148 @@ class AIServiceImplTest {
         assertEquals(1, result.size());
     }
 
+    // ========================================
+    // TEST: parseGeneratedItems - Recupero risposte non valide
+    // ========================================
+
+    @Test
+    @DisplayName("parseGeneratedItems - Risposta troncata: oggetti completi recuperati")
+    void testParseGeneratedItems_Truncated() {
+        String truncated = "[{\"front\":\"Q1\",\"back\":\"A1\"},{\"front\":\"Q2\",\"back\":\"A2\"},{\"front\":\"Q";
+
+        JsonArrayRecovery.Result result = aiService.parseGeneratedItems(truncated, 5);
+
+        assertEquals(2, result.items().size());
+        assertTrue(result.recovered());
+        assertTrue(result.truncated());
+        assertEquals(3, result.missing(5));
+        verify(generationMetrics).recordResponse(5, 2, true);
+    }
+
+    @Test
+    @DisplayName("parseGeneratedItems - JSON tra testo introduttivo e finale recuperato per intero")
+    void testParseGeneratedItems_Prose() {
+        String withProse = "Ecco le flashcards richieste:\n[{\"front\":\"Q1\",\"back\":\"A1\"}]\nBuono studio!";
+
+        JsonArrayRecovery.Result result = aiService.parseGeneratedItems(withProse, 1);
+
+        assertEquals(1, result.items().size());
+        assertTrue(result.recovered());
+        assertFalse(result.truncated());
+    }
+
+    @Test
+    @DisplayName("parseGeneratedItems - Risposta valida: nessun recupero")
+    void testParseGeneratedItems_Valid() {
+        JsonArrayRecovery.Result result = aiService.parseGeneratedItems("[{\"front\":\"Q1\",\"back\":\"A1\"}]", 3);
+
+        assertFalse(result.recovered());
+        verify(generationMetrics).recordResponse(3, 1, false);
+    }
+
+    @Test
+    @DisplayName("parseGeneratedItems - Niente da recuperare: errore e generazione persa")
+    void testParseGeneratedItems_NothingRecoverable() {
+        assertThrows(AIServiceException.class, () -> aiService.parseGeneratedItems("Non posso aiutarti.", 4));
+        verify(generationMetrics).recordFailure(4);
+    }
+
+    // ========================================
+    // TEST: generateWithShortfall - Completamento risposte troncate
+    // ========================================
+
+    @Test
+    @DisplayName("generateWithShortfall - Risposta troncata: chieste solo le mancanti, escludendo quelle ricevute")
+    void testGenerateWithShortfall_Truncated() {
+        when(primaryClient.generateText(anyString()))
+                .thenReturn("[{\"question\": \"Q1?\"},{\"question\": \"Q2?\"},{\"question\": \"Q")
+                .thenReturn("[{\"question\": \"Q3?\"},{\"question\": \"Q4?\"}]");
+
+        AIServiceImpl service = serviceWithClients();
+
+        JsonArray result = service.generateWithShortfall(4, "question", (count, excluded) ->
+                service.generateQuiz(TEST_TOPIC, count, TEST_DIFFICULTY, TEST_EDUCATION_LEVEL, TEST_LANGUAGE, excluded));
+
+        assertEquals(4, result.size());
+        assertEquals("Q4?", result.get(3).getAsJsonObject().get("question").getAsString());
+        ArgumentCaptor<String> prompts = ArgumentCaptor.forClass(String.class);
+        verify(primaryClient, times(2)).generateText(prompts.capture());
+        assertFalse(prompts.getAllValues().get(0).contains("NON ripetere"));
+        assertTrue(prompts.getAllValues().get(1).contains("Genera 2 domande"));
+        assertTrue(prompts.getAllValues().get(1).contains("NON ripetere queste domande, già generate:\n- Q1?\n- Q2?"));
+    }
+
+    @Test
+    @DisplayName("generateWithShortfall - Completamento fallito: restano gli elementi già letti")
+    void testGenerateWithShortfall_FollowUpFailed() {
+        when(primaryClient.generateText(anyString()))
+                .thenReturn("[{\"front\": \"F1\", \"back\": \"B1\"},{\"front\": \"F")
+                .thenReturn("Non posso aiutarti.");
+
+        AIServiceImpl service = serviceWithClients();
+
+        JsonArray result = service.generateWithShortfall(3, "front", (count, excluded) ->
+                service.generateFlashcards(TEST_TOPIC, count, TEST_DIFFICULTY, TEST_EDUCATION_LEVEL, TEST_LANGUAGE, excluded));
+
+        assertEquals(1, result.size());
+        verify(primaryClient, times(2)).generateText(anyString());
+        verify(generationMetrics).recordFailure(2);
+    }
+
+    @Test
+    @DisplayName("generateWithShortfall - Risposta completa: una sola chiamata")
+    void testGenerateWithShortfall_Complete() {
+        when(primaryClient.generateText(anyString())).thenReturn("[{\"front\": \"F1\", \"back\": \"B1\"}]");
+
+        AIServiceImpl service = serviceWithClients();
+
+        JsonArray result = service.generateWithShortfall(3, "front", (count, excluded) ->
+                service.generateFlashcards(TEST_TOPIC, count, TEST_DIFFICULTY, TEST_EDUCATION_LEVEL, TEST_LANGUAGE, excluded));
+
+        assertEquals(1, result.size());
+        verify(primaryClient, times(1)).generateText(anyString());
+    }
+
+    // ========================================
+    // TEST: streamQuiz - Fallback
+    // ========================================
+
+    // @InjectMocks assegna lo stesso mock a entrambi i client (stesso tipo): servizio costruito a mano
+    private AIServiceImpl serviceWithClients() {
+        AIServiceImpl service = new AIServiceImpl(primaryClient, fallbackClient, generationMetrics);
+        ReflectionTestUtils.setField(service, "testFallback", false);
+        return service;
+    }
+
+    @Test
+    @DisplayName("streamQuiz - Primary fallito prima del primo pezzo: risposta completa dal fallback")
+    void testStreamQuiz_FallbackBeforeFirstChunk() {
+        doThrow(new RuntimeException("503")).when(primaryClient).streamText(anyString(), any());
+        when(fallbackClient.generateText(anyString())).thenReturn("[{\"question\": \"Q\"}]");
+        StringBuilder received = new StringBuilder();
+
+        serviceWithClients().streamQuiz(TEST_TOPIC, TEST_NUM_QUESTIONS, TEST_DIFFICULTY, TEST_EDUCATION_LEVEL,
+                TEST_LANGUAGE, received::append);
+
+        assertEquals("[{\"question\": \"Q\"}]", received.toString());
+    }
+
+    @Test
+    @DisplayName("streamQuiz - Primary interrotto dopo il primo pezzo: errore senza fallback")
+    void testStreamQuiz_FailureAfterFirstChunk() {
+        doAnswer(invocation -> {
+            Consumer<String> onDelta = invocation.getArgument(1);
+            onDelta.accept("[{\"question\"");
+            throw new RuntimeException("connessione chiusa");
+        }).when(primaryClient).streamText(anyString(), any());
+        StringBuilder received = new StringBuilder();
+
+        assertThrows(AIServiceException.class, () -> serviceWithClients().streamQuiz(TEST_TOPIC, TEST_NUM_QUESTIONS,
+                TEST_DIFFICULTY, TEST_EDUCATION_LEVEL, TEST_LANGUAGE, received::append));
+        assertEquals("[{\"question\"", received.toString());
+        verify(fallbackClient, never()).generateText(anyString());
+    }
+
     // ========================================
     // TEST: Metodi Deprecati - Coverage Completo
     // ========================================
@@ -0,0 +1,304 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.dto.quiz.AssignmentRequest;
+import com.ai.studybuddy.dto.quiz.AssignmentResponse;
+import com.ai.studybuddy.dto.quiz.AssignmentResultsResponse;
+import com.ai.studybuddy.dto.quiz.EnrollmentResponse;
+import com.ai.studybuddy.dto.quiz.QuizGenerateRequest;
+import com.ai.studybuddy.exception.ResourceNotFoundException;
+import com.ai.studybuddy.exception.StudyBuddyException;
+import com.ai.studybuddy.model.quiz.AssignmentSummary;
+import com.ai.studybuddy.model.quiz.ClassEnrollment;
+import com.ai.studybuddy.model.quiz.QuestionStats;
+import com.ai.studybuddy.model.quiz.Quiz;
+import com.ai.studybuddy.model.quiz.QuizAssignment;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.repository.ClassEnrollmentRepository;
+import com.ai.studybuddy.repository.QuizAssignmentRepository;
+import com.ai.studybuddy.repository.QuizAttemptRepository;
+import com.ai.studybuddy.repository.QuizRepository;
+import com.ai.studybuddy.service.inter.QuizService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AssignmentServiceImpl - Test Suite Completo")
+class AssignmentServiceImplTest {
+
+    @Mock
+    private QuizService quizService;
+
+    @Mock
+    private QuizRepository quizRepository;
+
+    @Mock
+    private QuizAssignmentRepository quizAssignmentRepository;
+
+    @Mock
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Mock
+    private ClassEnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AssignmentServiceImpl assignmentService;
+
+    private User teacher;
+    private Quiz quiz;
+
+    @BeforeEach
+    void setUp() {
+        assignmentService = new AssignmentServiceImpl(quizService, quizRepository,
+                quizAssignmentRepository, quizAttemptRepository, enrollmentRepository,
+                new TransactionTemplate(transactionManager));
+
+        teacher = createUser("docente@scuola.it");
+        quiz = new Quiz();
+        quiz.setId(UUID.randomUUID());
+        quiz.setTopic("Fotosintesi");
+        quiz.setNumberOfQuestions(5);
+        quiz.setUser(teacher);
+    }
+
+    private User createUser(String email) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        user.setPreferredLanguage("it");
+        return user;
+    }
+
+    private AssignmentRequest createRequest(List<String> emails) {
+        AssignmentRequest request = new AssignmentRequest();
+        request.setTitle("Verifica di biologia");
+        request.setTopic("Fotosintesi");
+        request.setStudentEmails(emails);
+        return request;
+    }
+
+    private void stubAssignmentSave() {
+        when(quizAssignmentRepository.save(any(QuizAssignment.class))).thenAnswer(invocation -> {
+            QuizAssignment assignment = invocation.getArgument(0);
+            if (assignment.getId() == null) assignment.setId(UUID.randomUUID());
+            return assignment;
+        });
+    }
+
+    // ========================================
+    // TEST: createAssignment
+    // ========================================
+
+    @Test
+    @DisplayName("createAssignment - Una sola generazione, tentativi creati a blocchi")
+    void testCreateAssignment_GeneratesOnceAndProvisionsInChunks() {
+        // Arrange
+        ReflectionTestUtils.setField(assignmentService, "chunkSize", 2);
+        List<String> emails = List.of("s1@scuola.it", "s2@scuola.it", " s1@scuola.it ", "s3@scuola.it", "nessuno@scuola.it");
+        User s1 = createUser("s1@scuola.it");
+        User s2 = createUser("s2@scuola.it");
+        User s3 = createUser("s3@scuola.it");
+
+        when(quizService.generateQuiz(any(QuizGenerateRequest.class), eq(teacher))).thenReturn(quiz);
+        stubAssignmentSave();
+        when(enrollmentRepository.findAcceptedStudents(teacher.getId(), List.of("s1@scuola.it", "s2@scuola.it")))
+                .thenReturn(List.of(s1, s2));
+        when(enrollmentRepository.findAcceptedStudents(teacher.getId(), List.of("s3@scuola.it", "nessuno@scuola.it")))
+                .thenReturn(List.of(s3));
+        when(quizAttemptRepository.provision(any(), anyCollection(), any())).thenAnswer(
+                invocation -> ((Collection<?>) invocation.getArgument(1)).size());
+
+        // Act
+        AssignmentResponse response = assignmentService.createAssignment(createRequest(emails), teacher);
+
+        // Assert
+        assertEquals(3, response.getStudentCount());
+        assertEquals(quiz.getId(), response.getQuizId());
+        assertEquals(1, response.getUnmatchedCount());
+        verify(quizService, times(1)).generateQuiz(any(QuizGenerateRequest.class), eq(teacher));
+        verify(quizAttemptRepository, times(2)).provision(eq(response.getAssignmentId()), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("createAssignment - Quiz generato prima della transazione, assegnazione in una transazione breve")
+    void testCreateAssignment_GeneratesOutsideTransaction() {
+        // Arrange
+        User student = createUser("s1@scuola.it");
+        when(quizService.generateQuiz(any(QuizGenerateRequest.class), eq(teacher))).thenReturn(quiz);
+        stubAssignmentSave();
+        when(enrollmentRepository.findAcceptedStudents(eq(teacher.getId()), anyList())).thenReturn(List.of(student));
+        when(quizAttemptRepository.provision(any(), anyCollection(), any())).thenReturn(1);
+
+        // Act
+        assignmentService.createAssignment(createRequest(List.of("s1@scuola.it")), teacher);
+
+        // Assert
+        InOrder inOrder = inOrder(quizService, transactionManager, quizAssignmentRepository, quizAttemptRepository);
+        inOrder.verify(quizService).generateQuiz(any(QuizGenerateRequest.class), eq(teacher));
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(quizAssignmentRepository).save(any(QuizAssignment.class));
+        inOrder.verify(quizAttemptRepository).provision(any(), anyCollection(), any());
+        inOrder.verify(transactionManager).commit(any());
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    @DisplayName("createAssignment - Quiz esistente del docente, nessuna chiamata AI")
+    void testCreateAssignment_ReusesExistingQuiz() {
+        // Arrange
+        User student = createUser("s1@scuola.it");
+        AssignmentRequest request = createRequest(List.of("s1@scuola.it"));
+        request.setQuizId(quiz.getId());
+
+        when(quizRepository.findByIdAndUserId(quiz.getId(), teacher.getId())).thenReturn(Optional.of(quiz));
+        stubAssignmentSave();
+        when(enrollmentRepository.findAcceptedStudents(eq(teacher.getId()), anyList())).thenReturn(List.of(student));
+        when(quizAttemptRepository.provision(any(), anyCollection(), any())).thenReturn(1);
+
+        // Act
+        AssignmentResponse response = assignmentService.createAssignment(request, teacher);
+
+        // Assert
+        assertEquals(1, response.getStudentCount());
+        verify(quizService, never()).generateQuiz(any(QuizGenerateRequest.class), any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<UUID>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(quizAttemptRepository).provision(any(), captor.capture(), any());
+        assertEquals(List.of(student.getId()), new ArrayList<>(captor.getValue()));
+    }
+
+    @Test
+    @DisplayName("createAssignment - Nessuno studente iscritto: nessuna generazione né tentativo")
+    void testCreateAssignment_NoEnrolledStudents() {
+        // Arrange
+        when(enrollmentRepository.findAcceptedStudents(eq(teacher.getId()), anyList())).thenReturn(List.of());
+
+        // Act & Assert
+        StudyBuddyException exception = assertThrows(StudyBuddyException.class,
+                () -> assignmentService.createAssignment(createRequest(List.of("estraneo@scuola.it")), teacher));
+        assertFalse(exception.getMessage().contains("estraneo@scuola.it"));
+        verifyNoInteractions(quizService, quizAssignmentRepository, quizAttemptRepository);
+    }
+
+    @Test
+    @DisplayName("createAssignment - Classe vuota o troppo grande")
+    void testCreateAssignment_InvalidClass() {
+        // Arrange
+        ReflectionTestUtils.setField(assignmentService, "maxStudents", 2);
+
+        // Act & Assert
+        assertThrows(StudyBuddyException.class,
+                () -> assignmentService.createAssignment(createRequest(List.of(" ")), teacher));
+        assertThrows(StudyBuddyException.class,
+                () -> assignmentService.createAssignment(createRequest(List.of("a@x.it", "b@x.it", "c@x.it")), teacher));
+        verifyNoInteractions(quizService, quizAssignmentRepository, quizAttemptRepository);
+    }
+
+    // ========================================
+    // TEST: iscrizioni
+    // ========================================
+
+    @Test
+    @DisplayName("inviteStudents - Inviti a blocchi, email normalizzate")
+    void testInviteStudents() {
+        // Arrange
+        ReflectionTestUtils.setField(assignmentService, "chunkSize", 2);
+
+        // Act
+        assignmentService.inviteStudents(List.of("s1@scuola.it", " s2@scuola.it", "s1@scuola.it", "s3@scuola.it"), teacher);
+
+        // Assert
+        verify(enrollmentRepository).invite(eq(teacher.getId()), eq(List.of("s1@scuola.it", "s2@scuola.it")), any());
+        verify(enrollmentRepository).invite(eq(teacher.getId()), eq(List.of("s3@scuola.it")), any());
+    }
+
+    @Test
+    @DisplayName("answerInvitation - Solo lo studente invitato, solo inviti in attesa")
+    void testAnswerInvitation() {
+        // Arrange
+        User student = createUser("s1@scuola.it");
+        ClassEnrollment enrollment = new ClassEnrollment();
+        enrollment.setId(UUID.randomUUID());
+        enrollment.setTeacher(teacher);
+        enrollment.setStudent(student);
+        UUID otherInvitation = UUID.randomUUID();
+
+        when(enrollmentRepository.findByIdAndStudentIdAndStatus(enrollment.getId(), student.getId(),
+                ClassEnrollment.Status.PENDING)).thenReturn(Optional.of(enrollment));
+        when(enrollmentRepository.save(enrollment)).thenReturn(enrollment);
+
+        // Act
+        EnrollmentResponse response = assignmentService.answerInvitation(enrollment.getId(), true, student);
+
+        // Assert
+        assertEquals("ACCEPTED", response.getStatus());
+        assertNotNull(enrollment.getAnsweredAt());
+        assertThrows(ResourceNotFoundException.class,
+                () -> assignmentService.answerInvitation(otherInvitation, true, student));
+    }
+
+    // ========================================
+    // TEST: risultati
+    // ========================================
+
+    @Test
+    @DisplayName("getResults - Aggregati della classe")
+    void testGetResults() {
+        // Arrange
+        QuizAssignment assignment = new QuizAssignment(quiz, teacher, "Verifica", null);
+        assignment.setId(UUID.randomUUID());
+        when(quizAssignmentRepository.findByIdAndTeacherId(assignment.getId(), teacher.getId()))
+                .thenReturn(Optional.of(assignment));
+        when(quizAttemptRepository.summarizeAssignment(assignment.getId()))
+                .thenReturn(new AssignmentSummary(4, 3L, 2L, 70.0, 40.0, 100.0, 300.0));
+        when(quizAttemptRepository.findQuestionStats(assignment.getId()))
+                .thenReturn(List.of(new QuestionStats(UUID.randomUUID(), 1, "Domanda", 3, 2L)));
+
+        // Act
+        AssignmentResultsResponse results = assignmentService.getResults(assignment.getId(), teacher.getId());
+
+        // Assert
+        assertEquals(4, results.getStudents());
+        assertEquals(75.0, results.getCompletionRate(), 0.001);
+        assertEquals(70.0, results.getAveragePercentage());
+        assertEquals(66.67, results.getQuestions().get(0).getCorrectRate(), 0.01);
+    }
+
+    @Test
+    @DisplayName("getSubmissions - Solo il docente, pagina limitata")
+    void testGetSubmissions() {
+        // Arrange
+        UUID assignmentId = UUID.randomUUID();
+        UUID otherTeacherId = UUID.randomUUID();
+        when(quizAssignmentRepository.findByIdAndTeacherId(assignmentId, teacher.getId()))
+                .thenReturn(Optional.of(new QuizAssignment(quiz, teacher, "Verifica", null)));
+
+        // Act
+        assignmentService.getSubmissions(assignmentId, teacher.getId(), -5, 10_000);
+
+        // Assert
+        verify(quizAttemptRepository).findSubmissions(assignmentId, 200, 0);
+        assertThrows(ResourceNotFoundException.class,
+                () -> assignmentService.getSubmissions(assignmentId, otherTeacherId, 0, 50));
+    }
+}
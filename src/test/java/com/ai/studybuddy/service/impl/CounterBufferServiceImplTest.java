@@ -0,0 +1,219 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.gamification.UserStats;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.repository.FlashcardDeckRepository;
+import com.ai.studybuddy.repository.FlashcardReviewStateRepository;
+import com.ai.studybuddy.repository.TopicRepository;
+import com.ai.studybuddy.repository.UserStatsRepository;
+import com.ai.studybuddy.service.inter.CounterBufferService.CounterType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CounterBufferServiceImpl - Test Suite Completo")
+class CounterBufferServiceImplTest {
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private FlashcardDeckRepository deckRepository;
+
+    @Mock
+    private FlashcardReviewStateRepository reviewStateRepository;
+
+    @Mock
+    private TopicRepository topicRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CounterBufferServiceImpl counterBufferService;
+
+    private UUID userId;
+    private UUID deckId;
+    private UUID reviewStateId;
+
+    @BeforeEach
+    void setUp() {
+        counterBufferService = new CounterBufferServiceImpl(
+                userStatsRepository, deckRepository, reviewStateRepository, topicRepository,
+                new TransactionTemplate(transactionManager));
+        userId = UUID.randomUUID();
+        deckId = UUID.randomUUID();
+        reviewStateId = UUID.randomUUID();
+    }
+
+    // ========================================
+    // TEST: increment / getPending
+    // ========================================
+
+    @Test
+    @DisplayName("increment - Accumula i delta per chiave")
+    void testIncrement_AccumulatesDeltas() {
+        // Act
+        counterBufferService.increment(CounterType.USER_XP, userId, 10);
+        counterBufferService.increment(CounterType.USER_XP, userId, 5);
+        counterBufferService.increment(CounterType.DECK_TIMES_STUDIED, deckId, 1);
+
+        // Assert
+        assertEquals(15, counterBufferService.getPending(CounterType.USER_XP, userId));
+        assertEquals(1, counterBufferService.getPending(CounterType.DECK_TIMES_STUDIED, deckId));
+        assertEquals(0, counterBufferService.getPending(CounterType.USER_FLASHCARDS_STUDIED, userId));
+    }
+
+    @Test
+    @DisplayName("increment - Ignora delta nulli")
+    void testIncrement_ZeroDelta() {
+        // Act
+        counterBufferService.increment(CounterType.FLASHCARD_TIMES_CORRECT, reviewStateId, 0);
+
+        // Assert
+        assertEquals(0, counterBufferService.flush());
+        verifyNoInteractions(reviewStateRepository);
+    }
+
+    // ========================================
+    // TEST: flush
+    // ========================================
+
+    @Test
+    @DisplayName("flush - Scrive i delta aggregati con un UPDATE per entità")
+    void testFlush_AppliesAggregatedDeltas() {
+        // Arrange
+        counterBufferService.increment(CounterType.USER_XP, userId, 10);
+        counterBufferService.increment(CounterType.USER_XP, userId, 4);
+        counterBufferService.increment(CounterType.USER_FLASHCARDS_STUDIED, userId, 2);
+        counterBufferService.increment(CounterType.DECK_TIMES_STUDIED, deckId, 1);
+        counterBufferService.increment(CounterType.DECK_TIMES_STUDIED, deckId, 1);
+        counterBufferService.increment(CounterType.FLASHCARD_TIMES_REVIEWED, reviewStateId, 3);
+        counterBufferService.increment(CounterType.FLASHCARD_TIMES_CORRECT, reviewStateId, 1);
+        when(userStatsRepository.addPendingCounters(eq(userId), eq(14), eq(2), any())).thenReturn(1);
+        when(userStatsRepository.findByUserIdIn(anyCollection())).thenReturn(List.of());
+
+        // Act
+        int written = counterBufferService.flush();
+
+        // Assert
+        assertEquals(5, written);
+        verify(userStatsRepository).addPendingCounters(eq(userId), eq(14), eq(2), any());
+        verify(deckRepository).addTimesStudied(eq(deckId), eq(2), any());
+        verify(reviewStateRepository).addReviews(eq(reviewStateId), eq(3), eq(1), any());
+        assertEquals(0, counterBufferService.getPending(CounterType.USER_XP, userId));
+        assertEquals(0, counterBufferService.getPending(CounterType.DECK_TIMES_STUDIED, deckId));
+    }
+
+    @Test
+    @DisplayName("flush - Riallinea il livello dopo l'incremento XP")
+    void testFlush_SyncsLevel() {
+        // Arrange
+        User user = new User();
+        user.setId(userId);
+        UserStats stats = new UserStats();
+        stats.setUser(user);
+        stats.setTotalXp(150);
+
+        counterBufferService.increment(CounterType.USER_XP, userId, 50);
+        when(userStatsRepository.addPendingCounters(eq(userId), eq(50), eq(0), any())).thenReturn(1);
+        when(userStatsRepository.findByUserIdIn(anyCollection())).thenReturn(List.of(stats));
+
+        // Act
+        counterBufferService.flush();
+
+        // Assert
+        assertEquals(2, stats.getLevel());
+        verify(userStatsRepository).save(stats);
+    }
+
+    @Test
+    @DisplayName("flush - Scrive l'istante dell'ultimo incremento, non quello del flush")
+    void testFlush_UsesLastIncrementTime() {
+        // Arrange
+        LocalDateTime before = LocalDateTime.now();
+        counterBufferService.increment(CounterType.FLASHCARD_TIMES_REVIEWED, reviewStateId, 1);
+        LocalDateTime after = LocalDateTime.now();
+        ArgumentCaptor<LocalDateTime> reviewedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+
+        // Act
+        counterBufferService.flush();
+
+        // Assert
+        verify(reviewStateRepository).addReviews(eq(reviewStateId), eq(1), eq(0), reviewedAt.capture());
+        assertFalse(reviewedAt.getValue().isBefore(before));
+        assertFalse(reviewedAt.getValue().isAfter(after));
+    }
+
+    @Test
+    @DisplayName("flush - In caso di errore i delta restano nel buffer")
+    void testFlush_FailureRequeuesDeltas() {
+        // Arrange
+        counterBufferService.increment(CounterType.DECK_TIMES_STUDIED, deckId, 2);
+        when(deckRepository.addTimesStudied(eq(deckId), eq(2), any()))
+                .thenThrow(new RuntimeException("DB non disponibile"));
+
+        // Act
+        int written = counterBufferService.flush();
+
+        // Assert
+        assertEquals(0, written);
+        assertEquals(2, counterBufferService.getPending(CounterType.DECK_TIMES_STUDIED, deckId));
+    }
+
+    @Test
+    @DisplayName("getPending - Durante flush falliti concorrenti il valore letto non cambia")
+    void testGetPending_StableDuringFailingFlush() throws InterruptedException {
+        // Arrange
+        counterBufferService.increment(CounterType.DECK_TIMES_STUDIED, deckId, 2);
+        when(deckRepository.addTimesStudied(eq(deckId), eq(2), any()))
+                .thenThrow(new RuntimeException("DB non disponibile"));
+        AtomicBoolean running = new AtomicBoolean(true);
+        Set<Long> observed = ConcurrentHashMap.newKeySet();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                observed.add(counterBufferService.getPending(CounterType.DECK_TIMES_STUDIED, deckId));
+            }
+        });
+
+        // Act
+        reader.start();
+        for (int i = 0; i < 500; i++) {
+            counterBufferService.flush();
+        }
+        running.set(false);
+        reader.join(5000);
+
+        // Assert: né sotto (delta estratti ma non ancora in volo) né sopra (rimessi ma ancora in volo)
+        assertEquals(Set.of(2L), observed);
+        assertEquals(2, counterBufferService.getPending(CounterType.DECK_TIMES_STUDIED, deckId));
+    }
+
+    @Test
+    @DisplayName("flush - Buffer vuoto, nessuna scrittura")
+    void testFlush_Empty() {
+        // Act
+        int written = counterBufferService.flush();
+
+        // Assert
+        assertEquals(0, written);
+        verifyNoInteractions(userStatsRepository, deckRepository, reviewStateRepository, transactionManager);
+    }
+}
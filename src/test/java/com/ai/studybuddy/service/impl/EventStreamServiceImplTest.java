@@ -0,0 +1,85 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.service.inter.EventStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EventStreamServiceImpl - Test Suite Completo")
+class EventStreamServiceImplTest {
+
+    private EventStreamServiceImpl eventStreamService;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        eventStreamService = new EventStreamServiceImpl();
+        userId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventStreamService.shutdown();
+    }
+
+    // ========================================
+    // TEST: subscribe
+    // ========================================
+
+    @Test
+    @DisplayName("subscribe - Registra la connessione dell'utente")
+    void testSubscribe_RegistersSubscriber() {
+        // Act
+        SseEmitter emitter = eventStreamService.subscribe(userId);
+
+        // Assert
+        assertNotNull(emitter);
+        assertTrue(eventStreamService.hasSubscribers(userId));
+        assertFalse(eventStreamService.hasSubscribers(UUID.randomUUID()));
+        assertEquals(1, eventStreamService.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("subscribe - Limite di connessioni per utente")
+    void testSubscribe_MaxConnectionsPerUser() {
+        // Act
+        for (int i = 0; i < 7; i++) {
+            eventStreamService.subscribe(userId);
+        }
+
+        // Assert
+        assertEquals(5, eventStreamService.getSubscriberCount());
+    }
+
+    // ========================================
+    // TEST: publish
+    // ========================================
+
+    @Test
+    @DisplayName("publish - Utente non connesso, nessun errore")
+    void testPublish_NoSubscribers() {
+        // Act & Assert
+        assertDoesNotThrow(() -> eventStreamService.publish(
+                userId, EventStreamService.EVENT_LEVEL_UP, Map.of("level", 3)));
+        assertEquals(0, eventStreamService.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("publish - Evento accodato per l'utente connesso")
+    void testPublish_WithSubscriber() {
+        // Arrange
+        eventStreamService.subscribe(userId);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> eventStreamService.publish(
+                userId, EventStreamService.EVENT_XP, Map.of("xpEarned", 10)));
+        assertDoesNotThrow(() -> eventStreamService.sendHeartbeats());
+    }
+}
@@ -5,6 +5,8 @@ import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
 import com.ai.studybuddy.model.gamification.UserStats;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.GamificationEventService;
+import com.ai.studybuddy.service.inter.TopicService;
 import com.ai.studybuddy.util.enums.EducationLevel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +19,7 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.util.ArrayList;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,7 +35,10 @@ class ExplanationServiceImplTest {
     private AIService aiService;
 
     @Mock
-    private GamificationServiceImpl gamificationService;
+    private GamificationEventService gamificationEventService;
+
+    @Mock
+    private TopicService topicService;
 
     @InjectMocks
     private ExplanationServiceImpl explanationService;
@@ -44,6 +50,9 @@ class ExplanationServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(topicService.canonicalize(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(topicService.findCanonical(any(), any())).thenReturn(Optional.empty());
+
         testUser = createTestUser();
     }
 
@@ -81,7 +90,7 @@ class ExplanationServiceImplTest {
 
         when(aiService.generateExplanation(TEST_TOPIC, EducationLevel.UNIVERSITY, "it"))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(testUser, TEST_TOPIC, TEST_SUBJECT))
+        when(gamificationEventService.publishExplanation(testUser, TEST_TOPIC, TEST_SUBJECT))
                 .thenReturn(xpEvent);
 
         // Act
@@ -100,7 +109,7 @@ class ExplanationServiceImplTest {
 
         verify(aiService, times(1)).generateExplanation(
                 eq(TEST_TOPIC), eq(EducationLevel.UNIVERSITY), eq("it"));
-        verify(gamificationService, times(1)).recordExplanationXp(testUser, TEST_TOPIC, TEST_SUBJECT);
+        verify(gamificationEventService, times(1)).publishExplanation(testUser, TEST_TOPIC, TEST_SUBJECT);
     }
 
     @Test
@@ -112,7 +121,7 @@ class ExplanationServiceImplTest {
 
         when(aiService.generateExplanation(anyString(), any(), eq("en")))
                 .thenReturn("Photosynthesis is the process...");
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(xpEvent);
 
         // Act
@@ -135,7 +144,7 @@ class ExplanationServiceImplTest {
 
         when(aiService.generateExplanation(anyString(), any(), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(testUser, TEST_TOPIC, TEST_SUBJECT))
+        when(gamificationEventService.publishExplanation(testUser, TEST_TOPIC, TEST_SUBJECT))
                 .thenReturn(xpEvent);
 
         // Act
@@ -168,7 +177,7 @@ class ExplanationServiceImplTest {
         assertEquals(TEST_EXPLANATION, result);
         verify(aiService, times(1)).generateExplanation(
                 eq(TEST_TOPIC), eq(EducationLevel.HIGH_SCHOOL), eq("it"));
-        verify(gamificationService, never()).recordExplanationXp(any(), anyString(), anyString());
+        verify(gamificationEventService, never()).publishExplanation(any(), anyString(), anyString());
     }
 
     @Test
@@ -196,7 +205,7 @@ class ExplanationServiceImplTest {
         // Arrange
         when(aiService.generateExplanation(anyString(), eq(EducationLevel.UNIVERSITY), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(createXpEventResponse());
 
         // Act
@@ -213,7 +222,7 @@ class ExplanationServiceImplTest {
         // Arrange
         when(aiService.generateExplanation(anyString(), eq(EducationLevel.UNIVERSITY), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(createXpEventResponse());
 
         // Act
@@ -230,7 +239,7 @@ class ExplanationServiceImplTest {
         // Arrange
         when(aiService.generateExplanation(anyString(), eq(EducationLevel.HIGH_SCHOOL), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(createXpEventResponse());
 
         // Act
@@ -247,7 +256,7 @@ class ExplanationServiceImplTest {
         // Arrange
         when(aiService.generateExplanation(anyString(), eq(EducationLevel.HIGH_SCHOOL), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(createXpEventResponse());
 
         // Act
@@ -264,7 +273,7 @@ class ExplanationServiceImplTest {
         // Arrange
         when(aiService.generateExplanation(anyString(), eq(EducationLevel.MIDDLE_SCHOOL), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(createXpEventResponse());
 
         // Act
@@ -281,7 +290,7 @@ class ExplanationServiceImplTest {
         // Arrange
         when(aiService.generateExplanation(anyString(), eq(EducationLevel.MIDDLE_SCHOOL), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(createXpEventResponse());
 
         // Act
@@ -298,7 +307,7 @@ class ExplanationServiceImplTest {
         // Arrange
         when(aiService.generateExplanation(anyString(), eq(EducationLevel.UNIVERSITY), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(createXpEventResponse());
 
         // Act
@@ -315,7 +324,7 @@ class ExplanationServiceImplTest {
         // Arrange
         when(aiService.generateExplanation(anyString(), eq(EducationLevel.UNIVERSITY), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(createXpEventResponse());
 
         // Act
@@ -332,7 +341,7 @@ class ExplanationServiceImplTest {
         // Arrange
         when(aiService.generateExplanation(anyString(), eq(EducationLevel.UNIVERSITY), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(createXpEventResponse());
 
         // Act
@@ -354,7 +363,7 @@ class ExplanationServiceImplTest {
         XpEventResponse xpEvent = createXpEventResponse();
         when(aiService.generateExplanation(anyString(), any(), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(testUser, TEST_TOPIC, TEST_SUBJECT))
+        when(gamificationEventService.publishExplanation(testUser, TEST_TOPIC, TEST_SUBJECT))
                 .thenReturn(xpEvent);
 
         // Act
@@ -363,7 +372,7 @@ class ExplanationServiceImplTest {
 
         // Assert
         assertEquals(10, result.getXpEarned());
-        verify(gamificationService, times(1)).recordExplanationXp(
+        verify(gamificationEventService, times(1)).publishExplanation(
                 eq(testUser), eq(TEST_TOPIC), eq(TEST_SUBJECT));
     }
 
@@ -379,7 +388,7 @@ class ExplanationServiceImplTest {
 
         when(aiService.generateExplanation(anyString(), any(), anyString()))
                 .thenReturn(TEST_EXPLANATION);
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(xpEvent);
 
         // Act
@@ -403,7 +412,7 @@ class ExplanationServiceImplTest {
 
         when(aiService.generateExplanation(anyString(), any(), eq("es")))
                 .thenReturn("La fotosíntesis es el proceso...");
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(xpEvent);
 
         // Act
@@ -423,7 +432,7 @@ class ExplanationServiceImplTest {
 
         when(aiService.generateExplanation(anyString(), any(), eq("fr")))
                 .thenReturn("La photosynthèse est le processus...");
-        when(gamificationService.recordExplanationXp(any(), anyString(), anyString()))
+        when(gamificationEventService.publishExplanation(any(), anyString(), anyString()))
                 .thenReturn(xpEvent);
 
         // Act
@@ -0,0 +1,96 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.flashcard.FlashcardContent;
+import com.ai.studybuddy.repository.FlashcardContentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FlashcardContentServiceImpl - Test Suite Completo")
+class FlashcardContentServiceImplTest {
+
+    @Mock
+    private FlashcardContentRepository contentRepository;
+
+    private FlashcardContentServiceImpl contentService;
+
+    @BeforeEach
+    void setUp() {
+        contentService = new FlashcardContentServiceImpl(contentRepository);
+    }
+
+    private FlashcardContent stored(String front, String back) {
+        FlashcardContent content = new FlashcardContent(front, back, null);
+        content.setId(UUID.randomUUID());
+        return content;
+    }
+
+    // ========================================
+    // TEST: hash
+    // ========================================
+
+    @Test
+    @DisplayName("hashOf - Spazi ignorati, testo e suggerimento distinti")
+    void testHashOf() {
+        assertEquals(FlashcardContent.hashOf("Cos'è il DNA?", "Un acido", null),
+                FlashcardContent.hashOf("  Cos'è   il DNA? ", "Un acido\n", ""));
+        assertNotEquals(FlashcardContent.hashOf("Q", "A", null), FlashcardContent.hashOf("Q", "A", "hint"));
+        assertNotEquals(FlashcardContent.hashOf("QA", "", null), FlashcardContent.hashOf("Q", "A", null));
+    }
+
+    // ========================================
+    // TEST: resolveAll
+    // ========================================
+
+    @Test
+    @DisplayName("resolveAll - Contenuti già presenti riusati senza insert")
+    void testResolveAll_ExistingContent() {
+        // Arrange
+        FlashcardContent existing = stored("Q1", "A1");
+        when(contentRepository.findByContentHashIn(anyCollection())).thenReturn(List.of(existing));
+
+        // Act
+        List<FlashcardContent> result = contentService.resolveAll(List.of(
+                new FlashcardContent("Q1", "A1", null), new FlashcardContent(" Q1", "A1 ", null)));
+
+        // Assert
+        assertSame(existing, result.get(0));
+        assertSame(existing, result.get(1));
+        verify(contentRepository, never()).insertIfAbsent(any(), any(), any(), any(), any());
+        verify(contentRepository, times(1)).findByContentHashIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("resolveAll - Solo i contenuti nuovi vengono inseriti, una volta per hash")
+    void testResolveAll_InsertsMissing() {
+        // Arrange
+        FlashcardContent existing = stored("Q1", "A1");
+        FlashcardContent inserted = stored("Q2", "A2");
+        when(contentRepository.findByContentHashIn(anyCollection()))
+                .thenReturn(List.of(existing))
+                .thenReturn(List.of(inserted));
+
+        // Act
+        List<FlashcardContent> result = contentService.resolveAll(List.of(
+                new FlashcardContent("Q2", "A2", null),
+                new FlashcardContent("Q1", "A1", null),
+                new FlashcardContent("Q2", "A2", null)));
+
+        // Assert
+        assertEquals(List.of(inserted, existing, inserted), result);
+        verify(contentRepository, times(1)).insertIfAbsent(eq(inserted.getContentHash()),
+                eq("Q2"), eq("A2"), isNull(), any());
+        verify(contentRepository).findByContentHashIn(List.of(inserted.getContentHash()));
+    }
+}
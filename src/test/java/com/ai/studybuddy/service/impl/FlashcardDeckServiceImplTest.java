@@ -2,10 +2,14 @@ package com.ai.studybuddy.service.impl;
 
 import com.ai.studybuddy.dto.flashcard.FlashcardDeckCreateRequest;
 import com.ai.studybuddy.exception.ResourceNotFoundException;
+import com.ai.studybuddy.exception.UnauthorizedException;
 import com.ai.studybuddy.mapper.FlashcardMapper;
 import com.ai.studybuddy.model.flashcard.FlashcardDeck;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.repository.FlashcardDeckRepository;
+import com.ai.studybuddy.repository.FlashcardRepository;
+import com.ai.studybuddy.service.inter.CounterBufferService;
+import com.ai.studybuddy.service.inter.CounterBufferService.CounterType;
 import com.ai.studybuddy.service.inter.FlashcardDeckService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -36,6 +40,12 @@ class FlashcardDeckServiceImplTest {
     @Mock
     private FlashcardMapper flashcardMapper;
 
+    @Mock
+    private CounterBufferService counterBufferService;
+
+    @Mock
+    private FlashcardRepository flashcardRepository;
+
     @InjectMocks
     private FlashcardDeckServiceImpl flashcardDeckService;
 
@@ -275,16 +285,31 @@ class FlashcardDeckServiceImplTest {
     @DisplayName("recordStudySession - Incrementa contatore")
     void testRecordStudySession_Success() {
         // Arrange
-        int initialStudyCount = testDeck.getTimesStudied();
         when(deckRepository.findByIdAndOwnerIdAndIsActiveTrue(deckId, userId))
                 .thenReturn(Optional.of(testDeck));
-        when(deckRepository.save(any(FlashcardDeck.class))).thenReturn(testDeck);
 
         // Act
         flashcardDeckService.recordStudySession(deckId, userId);
 
+        // Assert - il contatore passa dal buffer write-behind, nessun save
+        verify(counterBufferService, times(1)).increment(CounterType.DECK_TIMES_STUDIED, deckId, 1);
+        verify(deckRepository, never()).save(any(FlashcardDeck.class));
+    }
+
+    @Test
+    @DisplayName("getDeck - Include le sessioni non ancora scritte su DB")
+    void testGetDeck_IncludesPendingSessions() {
+        // Arrange
+        int storedCount = testDeck.getTimesStudied();
+        when(deckRepository.findByIdAndOwnerIdAndIsActiveTrue(deckId, userId))
+                .thenReturn(Optional.of(testDeck));
+        when(counterBufferService.getPending(CounterType.DECK_TIMES_STUDIED, deckId)).thenReturn(3L);
+
+        // Act
+        FlashcardDeck result = flashcardDeckService.getDeck(deckId, userId);
+
         // Assert
-        verify(deckRepository, times(1)).save(testDeck);
+        assertEquals(storedCount + 3, result.getTimesStudied());
     }
 
     // ========================================
@@ -298,14 +323,72 @@ class FlashcardDeckServiceImplTest {
         when(deckRepository.findByIdAndOwnerIdAndIsActiveTrue(deckId, userId))
                 .thenReturn(Optional.of(testDeck));
         when(deckRepository.save(any(FlashcardDeck.class))).thenReturn(testDeck);
+        when(flashcardRepository.countMasteredByDeckId(deckId, userId)).thenReturn(7L);
 
         // Act
         flashcardDeckService.updateMasteredCount(deckId, userId);
 
         // Assert
+        assertEquals(7, testDeck.getCardsMastered());
         verify(deckRepository, times(1)).save(testDeck);
     }
 
+    // ========================================
+    // TEST: cloneDeck
+    // ========================================
+
+    @Test
+    @DisplayName("cloneDeck - Deck pubblico copiato con un solo INSERT ... SELECT")
+    void testCloneDeck_PublicDeck() {
+        // Arrange
+        User cloner = new User();
+        cloner.setId(UUID.randomUUID());
+        testDeck.setIsPublic(true);
+        testDeck.setTotalCards(5000);
+        FlashcardDeck copy = new FlashcardDeck();
+        copy.setId(UUID.randomUUID());
+        copy.setOwner(cloner);
+
+        when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
+        when(flashcardMapper.toCopy(testDeck, cloner)).thenReturn(copy);
+        when(deckRepository.saveAndFlush(copy)).thenReturn(copy);
+        when(flashcardRepository.copyToDeck(eq(deckId), eq(copy.getId()), eq(cloner.getId()), any(LocalDateTime.class)))
+                .thenReturn(4998);
+
+        // Act
+        FlashcardDeck result = flashcardDeckService.cloneDeck(deckId, cloner);
+
+        // Assert
+        assertSame(copy, result);
+        assertEquals(4998, result.getTotalCards());
+        verify(flashcardRepository, never()).findByDeckIdAndIsActiveTrue(any());
+    }
+
+    @Test
+    @DisplayName("cloneDeck - Deck privato di un altro utente")
+    void testCloneDeck_PrivateDeckUnauthorized() {
+        // Arrange
+        User other = new User();
+        other.setId(UUID.randomUUID());
+        when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () -> flashcardDeckService.cloneDeck(deckId, other));
+        verifyNoInteractions(flashcardRepository);
+    }
+
+    @Test
+    @DisplayName("cloneDeck - Deck eliminato")
+    void testCloneDeck_InactiveDeck() {
+        // Arrange
+        testDeck.setIsPublic(true);
+        testDeck.setIsActive(false);
+        when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> flashcardDeckService.cloneDeck(deckId, testUser));
+    }
+
     // ========================================
     // TEST: searchDecks
     // ========================================
@@ -0,0 +1,314 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.dto.flashcard.FlashcardNotesGenerateRequest;
+import com.ai.studybuddy.exception.AIServiceException;
+import com.ai.studybuddy.exception.AIServiceException.AIErrorType;
+import com.ai.studybuddy.exception.StudyBuddyException;
+import com.ai.studybuddy.exception.UnauthorizedException;
+import com.ai.studybuddy.mapper.FlashcardMapper;
+import com.ai.studybuddy.model.flashcard.Flashcard;
+import com.ai.studybuddy.model.flashcard.FlashcardDeck;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.repository.FlashcardDeckRepository;
+import com.ai.studybuddy.repository.FlashcardRepository;
+import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.FlashcardContentService;
+import com.ai.studybuddy.service.inter.TopicService;
+import com.ai.studybuddy.util.JsonArrayRecovery;
+import com.ai.studybuddy.util.TopicNormalizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FlashcardNotesServiceImpl - Test Suite Completo")
+class FlashcardNotesServiceImplTest {
+
+    // Tre paragrafi da 30 caratteri: con parti da 40 caratteri, una parte ciascuno
+    private static final String NOTES = "Alfa alfa alfa alfa alfa alfa.\n\nBeta beta beta beta beta beta.\n\n"
+            + "Gamma gamma gamma gamma gamma.";
+
+    @Mock
+    private FlashcardRepository flashcardRepository;
+
+    @Mock
+    private FlashcardDeckRepository deckRepository;
+
+    @Mock
+    private AIService aiService;
+
+    @Mock
+    private FlashcardContentService contentService;
+
+    @Mock
+    private TopicService topicService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AIGenerationPoolImpl generationPool;
+    private FlashcardNotesServiceImpl notesService;
+
+    private User testUser;
+    private FlashcardDeck testDeck;
+    private UUID deckId;
+
+    @BeforeEach
+    void setUp() {
+        generationPool = new AIGenerationPoolImpl(2);
+        notesService = new FlashcardNotesServiceImpl(flashcardRepository, deckRepository,
+                aiService, new FlashcardMapper(), contentService, topicService,
+                new TransactionTemplate(transactionManager), generationPool);
+        ReflectionTestUtils.setField(notesService, "chunkChars", 40);
+        ReflectionTestUtils.setField(notesService, "overlapChars", 0);
+
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+        testUser.setPreferredLanguage("it");
+
+        deckId = UUID.randomUUID();
+        testDeck = new FlashcardDeck();
+        testDeck.setId(deckId);
+        testDeck.setOwner(testUser);
+
+        lenient().when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
+        lenient().when(topicService.canonicalize(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(contentService.resolveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(flashcardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(aiService.parseGeneratedItems(anyString(), anyInt()))
+                .thenAnswer(invocation -> JsonArrayRecovery.parse(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        generationPool.shutdown();
+    }
+
+    private void stubGeneration(String alfa, String beta, String gamma) {
+        when(aiService.generateFlashcardsFromNotes(anyString(), anyInt(), any(), anyString(), anyInt(), anyInt(),
+                anyString())).thenAnswer(invocation -> {
+            String excerpt = invocation.getArgument(3);
+            String response = excerpt.startsWith("Alfa") ? alfa : excerpt.startsWith("Beta") ? beta : gamma;
+            if (response == null) {
+                throw new AIServiceException(AIErrorType.RATE_LIMIT);
+            }
+            return response;
+        });
+    }
+
+    private static String cards(String... fronts) {
+        StringBuilder json = new StringBuilder("[");
+        for (String front : fronts) {
+            if (json.length() > 1) json.append(',');
+            json.append("{\"front\":\"").append(front).append("\",\"back\":\"Risposta ").append(front).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static List<String> fronts(List<Flashcard> flashcards) {
+        return flashcards.stream().map(card -> card.getContent().getFrontContent()).sorted().toList();
+    }
+
+    // ========================================
+    // TEST: generazione a parti
+    // ========================================
+
+    @Test
+    @DisplayName("generateFromNotes - Una chiamata AI per parte, salvataggio per parte, duplicati scartati")
+    void testGenerateFromNotes_MergesChunks() {
+        // Arrange
+        stubGeneration(cards("Cos'è alfa?", "Alfa e beta?"), cards("alfa e BETA ?", "Cos'è beta?"),
+                cards("Cos'è gamma?"));
+
+        // Act
+        List<Flashcard> result = notesService.generateFromNotes(deckId,
+                new FlashcardNotesGenerateRequest("Lettere greche", NOTES, 30), testUser);
+
+        // Assert
+        assertEquals(4, result.size());
+        assertEquals(Set.of("alfa e beta", "cos e alfa", "cos e beta", "cos e gamma"), result.stream()
+                .map(card -> TopicNormalizer.normalize(card.getContent().getFrontContent(), null))
+                .collect(Collectors.toSet()));
+        verify(aiService).generateFlashcardsFromNotes(eq("Lettere greche"), eq(10), any(),
+                startsWith("Alfa"), eq(1), eq(3), eq("it"));
+        verify(flashcardRepository, times(3)).saveAll(anyList());
+        verify(deckRepository, times(3)).addTotalCards(eq(deckId), anyInt());
+        assertTrue(result.stream().allMatch(card -> card.getAiGenerated() && card.getDeck() == testDeck));
+    }
+
+    @Test
+    @DisplayName("generateFromNotes - Carte indicizzate sotto l'argomento della richiesta, non sotto \"notes\"")
+    void testGenerateFromNotes_TopicTag() {
+        // Arrange
+        stubGeneration(cards("A1"), cards("B1"), cards("C1"));
+
+        // Act
+        List<Flashcard> result = notesService.generateFromNotes(deckId,
+                new FlashcardNotesGenerateRequest("Lettere greche", NOTES, 3), testUser);
+
+        // Assert
+        assertFalse(result.isEmpty());
+        assertTrue(result.stream().allMatch(card ->
+                "Lettere greche".equals(RelatedTopicServiceImpl.topicFromTags(card.getTags()))));
+    }
+
+    @Test
+    @DisplayName("generateFromNotes - Numero massimo di carte rispettato")
+    void testGenerateFromNotes_MaxCards() {
+        // Arrange
+        stubGeneration(cards("A1", "A2"), cards("B1", "B2"), cards("C1", "C2"));
+
+        // Act
+        List<Flashcard> result = notesService.generateFromNotes(deckId,
+                new FlashcardNotesGenerateRequest("Lettere", NOTES, 3), testUser);
+
+        // Assert
+        assertEquals(3, result.size());
+        verify(aiService, atLeastOnce()).generateFlashcardsFromNotes(anyString(), eq(1), any(), anyString(),
+                anyInt(), anyInt(), anyString());
+    }
+
+    @Test
+    @DisplayName("generateFromNotes - Parte fallita saltata, le altre salvate")
+    void testGenerateFromNotes_PartialFailure() {
+        // Arrange
+        stubGeneration(cards("A1"), null, cards("C1"));
+
+        // Act
+        List<Flashcard> result = notesService.generateFromNotes(deckId,
+                new FlashcardNotesGenerateRequest("Lettere", NOTES, 30), testUser);
+
+        // Assert
+        assertEquals(List.of("A1", "C1"), fronts(result));
+    }
+
+    @Test
+    @DisplayName("generateFromNotes - Tutte le parti fallite: errore AI propagato")
+    void testGenerateFromNotes_AllFailed() {
+        // Arrange
+        stubGeneration(null, null, null);
+
+        // Act & Assert
+        AIServiceException exception = assertThrows(AIServiceException.class, () ->
+                notesService.generateFromNotes(deckId,
+                        new FlashcardNotesGenerateRequest("Lettere", NOTES, 30), testUser));
+        assertEquals(AIErrorType.RATE_LIMIT, exception.getErrorType());
+        verify(flashcardRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("generateFromNotes - Chiamate AI contemporanee entro il limite")
+    void testGenerateFromNotes_ConcurrencyLimit() {
+        // Arrange
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(aiService.generateFlashcardsFromNotes(anyString(), anyInt(), any(), anyString(), anyInt(), anyInt(),
+                anyString())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return cards("Parte " + invocation.getArgument(4));
+        });
+
+        // Act
+        List<Flashcard> result = notesService.generateFromNotes(deckId,
+                new FlashcardNotesGenerateRequest("Lettere", NOTES, 30), testUser);
+
+        // Assert
+        assertEquals(3, result.size());
+        assertTrue(peak.get() <= 2);
+    }
+
+    @Test
+    @DisplayName("generateFromNotes - Deck di un altro utente: nessuna chiamata AI")
+    void testGenerateFromNotes_Unauthorized() {
+        // Arrange
+        User other = new User();
+        other.setId(UUID.randomUUID());
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () -> notesService.generateFromNotes(deckId,
+                new FlashcardNotesGenerateRequest("Lettere", NOTES, 30), other));
+        verifyNoInteractions(aiService);
+    }
+
+    // ========================================
+    // TEST: file di appunti
+    // ========================================
+
+    @Test
+    @DisplayName("generateFromFile - File Markdown letto a parti e generato come gli appunti")
+    void testGenerateFromFile() {
+        // Arrange
+        stubGeneration(cards("A1"), cards("B1"), cards("C1"));
+        MockMultipartFile file = new MockMultipartFile("file", "lezione.md", "text/markdown",
+                NOTES.getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        List<Flashcard> result = notesService.generateFromFile(deckId, file,
+                new FlashcardNotesGenerateRequest("Lettere", null, 30), testUser);
+
+        // Assert
+        assertEquals(List.of("A1", "B1", "C1"), fronts(result));
+        // Numero di parti non noto in anticipo
+        verify(aiService).generateFlashcardsFromNotes(eq("Lettere"), anyInt(), any(), startsWith("Alfa"),
+                anyInt(), eq(0), eq("it"));
+    }
+
+    @Test
+    @DisplayName("generateFromFile - Più parti che carte: le parti campionate coprono tutto il file")
+    void testGenerateFromFile_MoreChunksThanCards() {
+        // Arrange: 12 sezioni da 40 byte, una per parte, e 3 carte richieste
+        StringBuilder notes = new StringBuilder();
+        for (int i = 1; i <= 12; i++) {
+            notes.append(String.format("Sezione %02d ", i)).append("x".repeat(27)).append("\n\n");
+        }
+        when(aiService.generateFlashcardsFromNotes(anyString(), anyInt(), any(), anyString(), anyInt(), anyInt(),
+                anyString())).thenAnswer(invocation -> cards(((String) invocation.getArgument(3)).substring(0, 10)));
+        MockMultipartFile file = new MockMultipartFile("file", "lezione.txt", "text/plain",
+                notes.toString().getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        List<Flashcard> result = notesService.generateFromFile(deckId, file,
+                new FlashcardNotesGenerateRequest("Lettere", null, 3), testUser);
+
+        // Assert
+        assertEquals(List.of("Sezione 01", "Sezione 05", "Sezione 09"), fronts(result));
+        verify(aiService, times(3)).generateFlashcardsFromNotes(anyString(), eq(1), any(), anyString(),
+                anyInt(), eq(0), anyString());
+    }
+
+    @Test
+    @DisplayName("generateFromFile - Formato non supportato o file vuoto rifiutati")
+    void testGenerateFromFile_InvalidFile() {
+        // Arrange
+        MockMultipartFile pdf = new MockMultipartFile("file", "lezione.pdf", "application/pdf", new byte[] {1, 2});
+        MockMultipartFile empty = new MockMultipartFile("file", "vuoto.txt", "text/plain", new byte[0]);
+        FlashcardNotesGenerateRequest request = new FlashcardNotesGenerateRequest("Lettere", null, 30);
+
+        // Act & Assert
+        assertThrows(StudyBuddyException.class, () -> notesService.generateFromFile(deckId, pdf, request, testUser));
+        assertThrows(StudyBuddyException.class, () -> notesService.generateFromFile(deckId, empty, request, testUser));
+        verifyNoInteractions(aiService);
+    }
+}
@@ -2,19 +2,37 @@ package com.ai.studybuddy.service.impl;
 
 import com.ai.studybuddy.dto.flashcard.FlashcardAIGenerateRequest;
 import com.ai.studybuddy.dto.flashcard.FlashcardCreateRequest;
+import com.ai.studybuddy.dto.flashcard.FlashcardReviewResult;
+import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
+import com.ai.studybuddy.exception.AIServiceException;
+import com.ai.studybuddy.exception.AIServiceException.AIErrorType;
 import com.ai.studybuddy.exception.ResourceNotFoundException;
 import com.ai.studybuddy.exception.UnauthorizedException;
 import com.ai.studybuddy.mapper.FlashcardMapper;
 import com.ai.studybuddy.model.flashcard.Flashcard;
+import com.ai.studybuddy.model.flashcard.FlashcardContent;
 import com.ai.studybuddy.model.flashcard.FlashcardDeck;
+import com.ai.studybuddy.model.flashcard.FlashcardReviewState;
+import com.ai.studybuddy.model.gamification.UserStats;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.repository.FlashcardDeckRepository;
 import com.ai.studybuddy.repository.FlashcardRepository;
+import com.ai.studybuddy.repository.FlashcardReviewStateRepository;
 import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.CounterBufferService;
+import com.ai.studybuddy.service.inter.CounterBufferService.CounterType;
+import com.ai.studybuddy.service.inter.FlashcardContentService;
 import com.ai.studybuddy.service.inter.FlashcardService;
+import com.ai.studybuddy.service.inter.GamificationEventService;
+import com.ai.studybuddy.service.inter.PredictiveGenerationService;
+import com.ai.studybuddy.service.inter.TopicService;
+import com.ai.studybuddy.service.inter.WarmPoolService;
+import com.ai.studybuddy.util.JsonArrayRecovery;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
 import com.ai.studybuddy.util.enums.EducationLevel;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -23,8 +41,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -51,9 +76,33 @@ class FlashcardServiceImplTest {
     @Mock
     private FlashcardMapper flashcardMapper;
 
+    @Mock
+    private CounterBufferService counterBufferService;
+
     @Mock
     private FlashcardService selfProxy;
 
+    @Mock
+    private TopicService topicService;
+
+    @Mock
+    private FlashcardContentService contentService;
+
+    @Mock
+    private FlashcardReviewStateRepository reviewStateRepository;
+
+    @Mock
+    private PredictiveGenerationService predictiveGenerationService;
+
+    @Mock
+    private WarmPoolService warmPoolService;
+
+    @Mock
+    private GamificationEventService gamificationEventService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private FlashcardServiceImpl flashcardService;
 
@@ -63,18 +112,50 @@ class FlashcardServiceImplTest {
     private UUID userId;
     private UUID deckId;
     private UUID flashcardId;
+    private UUID reviewStateId;
 
     @BeforeEach
     void setUp() {
+        lenient().when(topicService.canonicalize(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(topicService.findCanonical(any(), any())).thenReturn(Optional.empty());
+        lenient().when(contentService.resolve(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(contentService.resolveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        // La logica sui troncamenti è testata in AIServiceImplTest: qui una sola chiamata
+        lenient().when(aiService.generateWithShortfall(anyInt(), anyString(), any()))
+                .thenAnswer(invocation -> aiService.parseGeneratedItems(invocation.<AIService.Generator>getArgument(2)
+                        .generate(invocation.getArgument(0), List.of()), invocation.getArgument(0)).items());
+
         userId = UUID.randomUUID();
         deckId = UUID.randomUUID();
         flashcardId = UUID.randomUUID();
+        reviewStateId = UUID.randomUUID();
 
         testUser = createTestUser();
         testDeck = createTestDeck();
         testFlashcard = createTestFlashcard();
 
         flashcardService.setSelfProxy(selfProxy);
+
+        UserStats stats = new UserStats();
+        stats.setTotalXp(102);
+        stats.setLevel(1);
+        lenient().when(gamificationEventService.publishFlashcardsStudied(any(), anyInt()))
+                .thenReturn(new XpEventResponse("FLASHCARD", 2, stats, false, new ArrayList<>()));
+    }
+
+    /**
+     * Il servizio dietro un TransactionInterceptor, come nel contesto Spring
+     */
+    private FlashcardService transactional(FlashcardService target) {
+        ProxyFactory proxy = new ProxyFactory(target);
+        proxy.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        return (FlashcardService) proxy.getProxy();
+    }
+
+    private static User userWithId(UUID id) {
+        User user = new User();
+        user.setId(id);
+        return user;
     }
 
     private User createTestUser() {
@@ -103,16 +184,33 @@ class FlashcardServiceImplTest {
         flashcard.setId(flashcardId);
         flashcard.setDeck(testDeck);
         flashcard.setCreatedBy(testUser);
-        flashcard.setFrontContent("Domanda test");
-        flashcard.setBackContent("Risposta test");
+        flashcard.setContent(new FlashcardContent("Domanda test", "Risposta test", null));
         flashcard.setDifficultyLevel(DifficultyLevel.INTERMEDIO);
         flashcard.setIsActive(true);
-        flashcard.setTimesReviewed(0);
-        flashcard.setTimesCorrect(0);
         flashcard.setAiGenerated(false);
         return flashcard;
     }
 
+    private Flashcard createAIFlashcard(FlashcardCreateRequest request) {
+        Flashcard flashcard = new Flashcard();
+        flashcard.setDeck(testDeck);
+        flashcard.setCreatedBy(testUser);
+        flashcard.setContent(new FlashcardContent(request.getFrontContent(), request.getBackContent(), null));
+        flashcard.setAiGenerated(true);
+        return flashcard;
+    }
+
+    private FlashcardReviewState createReviewState(Flashcard flashcard, int reviewed, int correct) {
+        FlashcardReviewState state = new FlashcardReviewState();
+        state.setId(UUID.randomUUID());
+        state.setUser(testUser);
+        state.setFlashcard(flashcard);
+        state.setTimesReviewed(reviewed);
+        state.setTimesCorrect(correct);
+        state.setLastReviewedAt(LocalDateTime.now());
+        return state;
+    }
+
     // ========================================
     // TEST: createFlashcard
     // ========================================
@@ -205,11 +303,13 @@ class FlashcardServiceImplTest {
         JsonArray jsonArray = JsonParser.parseString(aiResponse).getAsJsonArray();
 
         when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
-        when(aiService.generateFlashcards(anyString(), anyInt(), any(), any(), anyString()))
+        when(aiService.generateFlashcards(anyString(), anyInt(), any(), any(), anyString(), anyList()))
                 .thenReturn(aiResponse);
-        when(aiService.parseFlashcardsResponse(aiResponse)).thenReturn(jsonArray);
-        when(flashcardMapper.toAIGeneratedEntity(any(), any(), any())).thenReturn(testFlashcard);
-        when(flashcardRepository.save(any(Flashcard.class))).thenReturn(testFlashcard);
+        when(aiService.parseGeneratedItems(eq(aiResponse), anyInt()))
+                .thenReturn(new JsonArrayRecovery.Result(jsonArray, false, false));
+        when(flashcardMapper.toAIGeneratedEntity(any(), any(), any()))
+                .thenAnswer(invocation -> createAIFlashcard(invocation.getArgument(0)));
+        when(flashcardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
         when(deckRepository.save(any(FlashcardDeck.class))).thenReturn(testDeck);
 
         // Act
@@ -220,8 +320,100 @@ class FlashcardServiceImplTest {
         assertEquals(3, result.size());
         verify(aiService, times(1)).generateFlashcards(
                 eq("Fotosintesi"), eq(3), eq(DifficultyLevel.INTERMEDIO), 
-                eq(EducationLevel.UNIVERSITY), eq("it"));
-        verify(flashcardRepository, times(3)).save(any(Flashcard.class));
+                eq(EducationLevel.UNIVERSITY), eq("it"), anyList());
+        verify(flashcardRepository, times(1)).saveAll(anyList());
+        verify(contentService, times(1)).resolveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("generateAndSaveFlashcards - Card ripetute dall'AI salvate una sola volta")
+    void testGenerateAndSaveFlashcards_DuplicateCards() {
+        // Arrange
+        FlashcardAIGenerateRequest request = FlashcardAIGenerateRequest.builder()
+                .topic("Fotosintesi")
+                .numberOfCards(3)
+                .difficultyLevel(DifficultyLevel.INTERMEDIO)
+                .language("it")
+                .build();
+
+        String aiResponse = "[{\"front\": \"Q1\", \"back\": \"A1\"},{\"front\": \" Q1 \", \"back\": \"A1\"}," +
+                "{\"front\": \"Q2\", \"back\": \"A2\"}]";
+        JsonArray jsonArray = JsonParser.parseString(aiResponse).getAsJsonArray();
+
+        when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
+        when(aiService.generateFlashcards(anyString(), anyInt(), any(), any(), anyString(), anyList())).thenReturn(aiResponse);
+        when(aiService.parseGeneratedItems(eq(aiResponse), anyInt()))
+                .thenReturn(new JsonArrayRecovery.Result(jsonArray, false, false));
+        when(flashcardMapper.toAIGeneratedEntity(any(), any(), any()))
+                .thenAnswer(invocation -> createAIFlashcard(invocation.getArgument(0)));
+        when(flashcardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(deckRepository.save(any(FlashcardDeck.class))).thenReturn(testDeck);
+
+        // Act
+        List<Flashcard> result = flashcardService.generateAndSaveFlashcards(deckId, request, testUser);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Q1", result.get(0).getFrontContent());
+        assertEquals("Q2", result.get(1).getFrontContent());
+    }
+
+    @Test
+    @DisplayName("generateAndSaveFlashcards - Carte dal pool degli argomenti di tendenza, nessuna chiamata AI")
+    void testGenerateAndSaveFlashcards_FromWarmPool() {
+        // Arrange
+        FlashcardAIGenerateRequest request = FlashcardAIGenerateRequest.builder()
+                .topic("Fotosintesi")
+                .numberOfCards(2)
+                .difficultyLevel(DifficultyLevel.INTERMEDIO)
+                .language("IT")
+                .build();
+        List<JsonObject> ready = new ArrayList<>();
+        JsonParser.parseString("[{\"front\": \"Q1\", \"back\": \"A1\"},{\"front\": \"Q2\", \"back\": \"A2\"}]")
+                .getAsJsonArray().forEach(element -> ready.add(element.getAsJsonObject()));
+
+        when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
+        when(warmPoolService.take(WarmPoolService.PoolKey.of(GeneratedContentType.FLASHCARDS, "Fotosintesi",
+                DifficultyLevel.INTERMEDIO, testUser.getEducationLevel(), "it"), 2)).thenReturn(ready);
+        when(flashcardMapper.toAIGeneratedEntity(any(), any(), any()))
+                .thenAnswer(invocation -> createAIFlashcard(invocation.getArgument(0)));
+        when(flashcardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(deckRepository.save(any(FlashcardDeck.class))).thenReturn(testDeck);
+
+        // Act
+        List<Flashcard> result = flashcardService.generateAndSaveFlashcards(deckId, request, testUser);
+
+        // Assert
+        assertEquals(List.of("Q1", "Q2"), result.stream().map(Flashcard::getFrontContent).toList());
+        verifyNoInteractions(aiService);
+    }
+
+    @Test
+    @DisplayName("generateAndSaveFlashcards - AI fallita: carte pre-generate rimesse nello slot")
+    void testGenerateAndSaveFlashcards_PreGeneratedPutBackOnFailure() {
+        // Arrange
+        FlashcardAIGenerateRequest request = FlashcardAIGenerateRequest.builder()
+                .topic("Fotosintesi")
+                .numberOfCards(3)
+                .difficultyLevel(DifficultyLevel.INTERMEDIO)
+                .language("it")
+                .build();
+        List<JsonObject> ready = new ArrayList<>();
+        JsonParser.parseString("[{\"front\": \"Q1\", \"back\": \"A1\"}]")
+                .getAsJsonArray().forEach(element -> ready.add(element.getAsJsonObject()));
+
+        when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
+        when(predictiveGenerationService.take(userId, GeneratedContentType.FLASHCARDS, "Fotosintesi",
+                DifficultyLevel.INTERMEDIO, testUser.getEducationLevel(), "it", 3)).thenReturn(ready);
+        when(aiService.generateFlashcards(anyString(), eq(2), any(), any(), anyString(), anyList()))
+                .thenThrow(new AIServiceException(AIErrorType.RATE_LIMIT));
+
+        // Act & Assert
+        assertThrows(AIServiceException.class,
+                () -> flashcardService.generateAndSaveFlashcards(deckId, request, testUser));
+        verify(predictiveGenerationService).putBack(userId, GeneratedContentType.FLASHCARDS, "Fotosintesi",
+                DifficultyLevel.INTERMEDIO, testUser.getEducationLevel(), "it", ready);
+        verify(flashcardRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -241,11 +433,13 @@ class FlashcardServiceImplTest {
         JsonArray jsonArray = JsonParser.parseString(aiResponse).getAsJsonArray();
 
         when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
-        when(aiService.generateFlashcardsWithContext(anyString(), anyInt(), any(), anyString(), anyString()))
+        when(aiService.generateFlashcardsWithContext(anyString(), anyInt(), any(), anyString(), anyString(), anyList()))
                 .thenReturn(aiResponse);
-        when(aiService.parseFlashcardsResponse(aiResponse)).thenReturn(jsonArray);
-        when(flashcardMapper.toAIGeneratedEntity(any(), any(), any())).thenReturn(testFlashcard);
-        when(flashcardRepository.save(any(Flashcard.class))).thenReturn(testFlashcard);
+        when(aiService.parseGeneratedItems(eq(aiResponse), anyInt()))
+                .thenReturn(new JsonArrayRecovery.Result(jsonArray, false, false));
+        when(flashcardMapper.toAIGeneratedEntity(any(), any(), any()))
+                .thenAnswer(invocation -> createAIFlashcard(invocation.getArgument(0)));
+        when(flashcardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
         when(deckRepository.save(any(FlashcardDeck.class))).thenReturn(testDeck);
 
         // Act
@@ -254,7 +448,7 @@ class FlashcardServiceImplTest {
         // Assert
         assertEquals(2, result.size());
         verify(aiService, times(1)).generateFlashcardsWithContext(
-                eq("Fotosintesi"), eq(2), eq(DifficultyLevel.AVANZATO), eq(context), eq("en"));
+                eq("Fotosintesi"), eq(2), eq(DifficultyLevel.AVANZATO), eq(context), eq("en"), anyList());
     }
 
     @Test
@@ -272,18 +466,20 @@ class FlashcardServiceImplTest {
         JsonArray jsonArray = JsonParser.parseString(aiResponse).getAsJsonArray();
 
         when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
-        when(aiService.generateFlashcards(anyString(), anyInt(), any(), any(), eq("it")))
+        when(aiService.generateFlashcards(anyString(), anyInt(), any(), any(), eq("it"), anyList()))
                 .thenReturn(aiResponse);
-        when(aiService.parseFlashcardsResponse(aiResponse)).thenReturn(jsonArray);
-        when(flashcardMapper.toAIGeneratedEntity(any(), any(), any())).thenReturn(testFlashcard);
-        when(flashcardRepository.save(any(Flashcard.class))).thenReturn(testFlashcard);
+        when(aiService.parseGeneratedItems(eq(aiResponse), anyInt()))
+                .thenReturn(new JsonArrayRecovery.Result(jsonArray, false, false));
+        when(flashcardMapper.toAIGeneratedEntity(any(), any(), any()))
+                .thenAnswer(invocation -> createAIFlashcard(invocation.getArgument(0)));
+        when(flashcardRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
         when(deckRepository.save(any(FlashcardDeck.class))).thenReturn(testDeck);
 
         // Act
         flashcardService.generateAndSaveFlashcards(deckId, request, testUser);
 
         // Assert
-        verify(aiService, times(1)).generateFlashcards(anyString(), anyInt(), any(), any(), eq("it"));
+        verify(aiService, times(1)).generateFlashcards(anyString(), anyInt(), any(), any(), eq("it"), anyList());
     }
 
     @Test
@@ -331,14 +527,20 @@ class FlashcardServiceImplTest {
     void testReviewFlashcard_Correct() {
         // Arrange
         when(flashcardRepository.findById(flashcardId)).thenReturn(Optional.of(testFlashcard));
-        when(flashcardRepository.save(any(Flashcard.class))).thenReturn(testFlashcard);
+        when(reviewStateRepository.findIdByUserIdAndFlashcardId(userId, flashcardId))
+                .thenReturn(Optional.of(reviewStateId));
 
         // Act
-        Flashcard result = flashcardService.reviewFlashcard(flashcardId, true, userId);
+        FlashcardReviewResult result = flashcardService.reviewFlashcard(flashcardId, true, testUser);
 
         // Assert
-        assertNotNull(result);
-        verify(flashcardRepository, times(1)).save(testFlashcard);
+        assertNotNull(result.getFlashcard());
+        assertEquals(2, result.getXpEvent().getXpEarned());
+        verify(gamificationEventService).publishFlashcardsStudied(testUser, 1);
+        verify(counterBufferService).increment(CounterType.FLASHCARD_TIMES_REVIEWED, reviewStateId, 1);
+        verify(counterBufferService).increment(CounterType.FLASHCARD_TIMES_CORRECT, reviewStateId, 1);
+        verify(reviewStateRepository, never()).insertIfAbsent(any(), any(), any());
+        verify(flashcardRepository, never()).save(any(Flashcard.class));
     }
 
     @Test
@@ -346,14 +548,57 @@ class FlashcardServiceImplTest {
     void testReviewFlashcard_Incorrect() {
         // Arrange
         when(flashcardRepository.findById(flashcardId)).thenReturn(Optional.of(testFlashcard));
-        when(flashcardRepository.save(any(Flashcard.class))).thenReturn(testFlashcard);
+        when(reviewStateRepository.findIdByUserIdAndFlashcardId(userId, flashcardId))
+                .thenReturn(Optional.of(reviewStateId));
 
         // Act
-        Flashcard result = flashcardService.reviewFlashcard(flashcardId, false, userId);
+        FlashcardReviewResult result = flashcardService.reviewFlashcard(flashcardId, false, testUser);
 
         // Assert
-        assertNotNull(result);
-        verify(flashcardRepository, times(1)).save(testFlashcard);
+        assertNotNull(result.getFlashcard());
+        verify(counterBufferService).increment(CounterType.FLASHCARD_TIMES_REVIEWED, reviewStateId, 1);
+        verify(counterBufferService).increment(CounterType.FLASHCARD_TIMES_CORRECT, reviewStateId, 0);
+        verify(flashcardRepository, never()).save(any(Flashcard.class));
+    }
+
+    @Test
+    @DisplayName("reviewFlashcard - Deck pubblico studiato da un altro utente con il proprio stato")
+    void testReviewFlashcard_PublicDeckOtherUser() {
+        // Arrange
+        UUID otherUserId = UUID.randomUUID();
+        testDeck.setIsPublic(true);
+        FlashcardReviewState ownerState = createReviewState(testFlashcard, 10, 10);
+        FlashcardReviewState otherState = createReviewState(testFlashcard, 4, 1);
+
+        when(flashcardRepository.findById(flashcardId)).thenReturn(Optional.of(testFlashcard));
+        when(reviewStateRepository.findIdByUserIdAndFlashcardId(otherUserId, flashcardId))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(otherState.getId()));
+        when(reviewStateRepository.findByUserIdAndFlashcardIds(otherUserId, List.of(flashcardId)))
+                .thenReturn(List.of(otherState));
+        when(counterBufferService.getPending(CounterType.FLASHCARD_TIMES_REVIEWED, otherState.getId())).thenReturn(1L);
+
+        // Act
+        Flashcard result = flashcardService.reviewFlashcard(flashcardId, false, userWithId(otherUserId)).getFlashcard();
+
+        // Assert
+        verify(reviewStateRepository).insertIfAbsent(eq(otherUserId), eq(flashcardId), any(LocalDateTime.class));
+        verify(counterBufferService).increment(CounterType.FLASHCARD_TIMES_REVIEWED, otherState.getId(), 1);
+        verify(counterBufferService, never()).increment(any(), eq(ownerState.getId()), anyLong());
+        assertEquals(5, result.getTimesReviewed());
+        assertEquals(1, result.getTimesCorrect());
+    }
+
+    @Test
+    @DisplayName("reviewFlashcard - Deck privato di un altro utente")
+    void testReviewFlashcard_PrivateDeckUnauthorized() {
+        // Arrange
+        when(flashcardRepository.findById(flashcardId)).thenReturn(Optional.of(testFlashcard));
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () ->
+                flashcardService.reviewFlashcard(flashcardId, true, userWithId(UUID.randomUUID())));
+        verifyNoInteractions(counterBufferService, gamificationEventService);
     }
 
     @Test
@@ -364,10 +609,32 @@ class FlashcardServiceImplTest {
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> {
-            flashcardService.reviewFlashcard(flashcardId, true, userId);
+            flashcardService.reviewFlashcard(flashcardId, true, testUser);
         });
     }
 
+    @Test
+    @DisplayName("reviewFlashcard - Evento XP non salvato: stato annullato con la transazione, contatori invariati")
+    void testReviewFlashcard_PublishFailureRollsBack() {
+        // Arrange
+        TransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        when(flashcardRepository.findById(flashcardId)).thenReturn(Optional.of(testFlashcard));
+        when(reviewStateRepository.findIdByUserIdAndFlashcardId(userId, flashcardId))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(reviewStateId));
+        when(gamificationEventService.publishFlashcardsStudied(any(), anyInt()))
+                .thenThrow(new IllegalStateException("Outbox non disponibile"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () ->
+                transactional(flashcardService).reviewFlashcard(flashcardId, true, testUser));
+        verify(reviewStateRepository).insertIfAbsent(eq(userId), eq(flashcardId), any(LocalDateTime.class));
+        verify(transactionManager).rollback(status);
+        verify(transactionManager, never()).commit(any());
+        verifyNoInteractions(counterBufferService);
+    }
+
     // ========================================
     // TEST: getStudySession
     // ========================================
@@ -383,14 +650,14 @@ class FlashcardServiceImplTest {
         );
         
         when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
-        when(flashcardRepository.findNeverReviewedByDeckId(deckId)).thenReturn(neverReviewed);
+        when(flashcardRepository.findNeverReviewedByDeckId(deckId, userId)).thenReturn(neverReviewed);
 
         // Act
         List<Flashcard> result = flashcardService.getStudySession(deckId, numberOfCards, userId);
 
         // Assert
         assertEquals(5, result.size());
-        verify(flashcardRepository, times(1)).findNeverReviewedByDeckId(deckId);
+        verify(flashcardRepository, times(1)).findNeverReviewedByDeckId(deckId, userId);
     }
 
     @Test
@@ -401,8 +668,8 @@ class FlashcardServiceImplTest {
         List<Flashcard> needReview = Arrays.asList(testFlashcard, createTestFlashcard(), createTestFlashcard());
         
         when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
-        when(flashcardRepository.findNeverReviewedByDeckId(deckId)).thenReturn(Arrays.asList());
-        when(flashcardRepository.findNeedingReview(eq(deckId), any(LocalDateTime.class)))
+        when(flashcardRepository.findNeverReviewedByDeckId(deckId, userId)).thenReturn(Arrays.asList());
+        when(flashcardRepository.findNeedingReview(eq(deckId), eq(userId), any(LocalDateTime.class)))
                 .thenReturn(needReview);
 
         // Act
@@ -420,8 +687,8 @@ class FlashcardServiceImplTest {
         List<Flashcard> randomCards = Arrays.asList(testFlashcard, createTestFlashcard());
         
         when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
-        when(flashcardRepository.findNeverReviewedByDeckId(deckId)).thenReturn(Arrays.asList());
-        when(flashcardRepository.findNeedingReview(eq(deckId), any(LocalDateTime.class)))
+        when(flashcardRepository.findNeverReviewedByDeckId(deckId, userId)).thenReturn(Arrays.asList());
+        when(flashcardRepository.findNeedingReview(eq(deckId), eq(userId), any(LocalDateTime.class)))
                 .thenReturn(Arrays.asList());
         when(flashcardRepository.findRandomForStudy(deckId, numberOfCards)).thenReturn(randomCards);
 
@@ -510,16 +777,18 @@ class FlashcardServiceImplTest {
     void testGetFlashcardStats_Success() {
         // Arrange
         Flashcard masteredCard = createTestFlashcard();
-        masteredCard.setTimesReviewed(10);
-        masteredCard.setTimesCorrect(9); // 90% success rate
+        masteredCard.setId(UUID.randomUUID());
+        FlashcardReviewState masteredState = createReviewState(masteredCard, 10, 9); // 90% success rate
         
         Flashcard needsReviewCard = createTestFlashcard();
-        needsReviewCard.setTimesReviewed(0);
+        needsReviewCard.setId(UUID.randomUUID());
 
         List<Flashcard> allCards = Arrays.asList(masteredCard, needsReviewCard, testFlashcard);
         
         when(deckRepository.findById(deckId)).thenReturn(Optional.of(testDeck));
         when(flashcardRepository.findByDeckIdAndIsActiveTrue(deckId)).thenReturn(allCards);
+        when(reviewStateRepository.findByUserIdAndFlashcardIds(eq(userId), anyList()))
+                .thenReturn(List.of(masteredState));
 
         // Act
         FlashcardService.FlashcardStats result = flashcardService.getFlashcardStats(deckId, userId);
@@ -527,5 +796,7 @@ class FlashcardServiceImplTest {
         // Assert
         assertNotNull(result);
         assertEquals(3, result.getTotal());
+        assertEquals(1, result.getMastered());
+        assertEquals(2, result.getNeedReview());
     }
 }
@@ -0,0 +1,199 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
+import com.ai.studybuddy.model.gamification.GamificationEvent;
+import com.ai.studybuddy.model.gamification.GamificationEvent.EventType;
+import com.ai.studybuddy.model.gamification.GamificationEvent.Status;
+import com.ai.studybuddy.model.gamification.UserStats;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.repository.GamificationEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GamificationEventServiceImpl - Test Suite Completo")
+class GamificationEventServiceImplTest {
+
+    @Mock
+    private GamificationEventRepository eventRepository;
+
+    @Mock
+    private GamificationServiceImpl gamificationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private GamificationEventServiceImpl gamificationEventService;
+
+    private User testUser;
+    private UUID eventId;
+
+    @BeforeEach
+    void setUp() {
+        // Nessun worker: gli eventi vengono processati esplicitamente nei test
+        gamificationEventService = new GamificationEventServiceImpl(
+                eventRepository, gamificationService, new TransactionTemplate(transactionManager), 0);
+
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+        testUser.setEmail("test@example.com");
+        eventId = UUID.randomUUID();
+    }
+
+    private GamificationEvent createEvent(EventType type, int attempts) {
+        GamificationEvent event = new GamificationEvent();
+        event.setId(eventId);
+        event.setUser(testUser);
+        event.setEventType(type);
+        event.setAttempts(attempts);
+        return event;
+    }
+
+    // ========================================
+    // TEST: pubblicazione
+    // ========================================
+
+    @Test
+    @DisplayName("publishQuizCompleted - Salva l'evento e restituisce l'anteprima XP")
+    void testPublishQuizCompleted_SavesEventAndReturnsPreview() {
+        // Arrange
+        XpEventResponse preview = new XpEventResponse("QUIZ", 30, new UserStats(), false, new ArrayList<>());
+        when(eventRepository.sumXpByUserIdAndStatusIn(eq(testUser.getId()), anyCollection())).thenReturn(12L);
+        when(eventRepository.save(any(GamificationEvent.class))).thenAnswer(invocation -> {
+            GamificationEvent event = invocation.getArgument(0);
+            event.setId(eventId);
+            return event;
+        });
+        when(gamificationService.previewXp(testUser, "QUIZ", 30, 12L)).thenReturn(preview);
+
+        // Act
+        XpEventResponse result = gamificationEventService.publishQuizCompleted(
+                testUser, true, "Algebra", "Matematica", 80.0, 5, 4);
+
+        // Assert
+        assertSame(preview, result);
+        ArgumentCaptor<GamificationEvent> captor = ArgumentCaptor.forClass(GamificationEvent.class);
+        verify(eventRepository).save(captor.capture());
+        GamificationEvent saved = captor.getValue();
+        assertEquals(EventType.QUIZ, saved.getEventType());
+        assertEquals(Status.PENDING, saved.getStatus());
+        assertEquals(30, saved.getXpAwarded());
+        assertEquals("Algebra", saved.getTopic());
+        assertEquals(4, saved.getCorrectAnswers());
+        verify(gamificationService, never()).recordQuizXp(any(), anyBoolean(), any(), any(),
+                anyDouble(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("publishFlashcardsStudied - XP calcolati per card")
+    void testPublishFlashcardsStudied_XpPerCard() {
+        // Arrange
+        when(eventRepository.save(any(GamificationEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        gamificationEventService.publishFlashcardsStudied(testUser, 3);
+
+        // Assert
+        verify(gamificationService).previewXp(testUser, "FLASHCARD", 6, 0L);
+    }
+
+    // ========================================
+    // TEST: worker
+    // ========================================
+
+    @Test
+    @DisplayName("process - Applica l'evento e lo elimina")
+    void testProcess_AppliesAndDeletes() {
+        // Arrange
+        GamificationEvent event = createEvent(EventType.QUIZ, 1);
+        event.setPassed(true);
+        event.setTopic("Algebra");
+        event.setSubject("Matematica");
+        event.setScore(80.0);
+        event.setTotalQuestions(5);
+        event.setCorrectAnswers(4);
+        when(eventRepository.claim(eq(eventId), eq(Status.PENDING), eq(Status.PROCESSING), any())).thenReturn(1);
+        when(eventRepository.findById(eventId)).thenReturn(Optional.of(event));
+
+        // Act
+        gamificationEventService.process(eventId);
+
+        // Assert
+        verify(gamificationService).recordQuizXp(testUser, true, "Algebra", "Matematica", 80.0, 5, 4);
+        verify(eventRepository).delete(event);
+    }
+
+    @Test
+    @DisplayName("process - Evento già preso da un altro worker")
+    void testProcess_AlreadyClaimed() {
+        // Arrange
+        when(eventRepository.claim(eq(eventId), eq(Status.PENDING), eq(Status.PROCESSING), any())).thenReturn(0);
+
+        // Act
+        gamificationEventService.process(eventId);
+
+        // Assert
+        verifyNoInteractions(gamificationService);
+        verify(eventRepository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("process - Errore: l'evento torna in coda")
+    void testProcess_FailureRequeues() {
+        // Arrange
+        GamificationEvent event = createEvent(EventType.FLASHCARD, 1);
+        event.setCardsStudied(2);
+        when(eventRepository.claim(eq(eventId), eq(Status.PENDING), eq(Status.PROCESSING), any())).thenReturn(1);
+        when(eventRepository.findById(eventId)).thenReturn(Optional.of(event));
+        when(gamificationService.recordFlashcardXp(testUser, 2)).thenThrow(new RuntimeException("Timeout DB"));
+
+        // Act
+        gamificationEventService.process(eventId);
+
+        // Assert
+        verify(eventRepository).release(eventId, Status.PENDING, "Timeout DB");
+        verify(eventRepository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("process - Tentativi esauriti: evento FAILED")
+    void testProcess_MaxAttemptsMarksFailed() {
+        // Arrange
+        GamificationEvent event = createEvent(EventType.EXPLANATION, 5);
+        when(eventRepository.claim(eq(eventId), eq(Status.PENDING), eq(Status.PROCESSING), any())).thenReturn(1);
+        when(eventRepository.findById(eventId)).thenReturn(Optional.of(event));
+        when(gamificationService.recordExplanationXp(testUser, null, null)).thenThrow(new RuntimeException("Errore"));
+
+        // Act
+        gamificationEventService.process(eventId);
+
+        // Assert
+        verify(eventRepository).release(eventId, Status.FAILED, "Errore");
+    }
+
+    @Test
+    @DisplayName("dispatchPending - Nessuna capacità, nessun evento letto")
+    void testDispatchPending_NoCapacity() {
+        // Act
+        int dispatched = gamificationEventService.dispatchPending();
+
+        // Assert
+        assertEquals(0, dispatched);
+        verify(eventRepository, never()).findIdsByStatus(any(), anyInt());
+    }
+}
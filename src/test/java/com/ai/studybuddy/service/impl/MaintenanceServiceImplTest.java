@@ -0,0 +1,263 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.flashcard.FlashcardContent;
+import com.ai.studybuddy.model.maintenance.MaintenanceJob.Status;
+import com.ai.studybuddy.repository.FlashcardContentRepository;
+import com.ai.studybuddy.repository.FlashcardRepository;
+import com.ai.studybuddy.repository.FlashcardReviewStateRepository;
+import com.ai.studybuddy.repository.GamificationEventRepository;
+import com.ai.studybuddy.repository.MaintenanceJobRepository;
+import com.ai.studybuddy.repository.RecommendationRepository;
+import com.ai.studybuddy.repository.UserStatsRepository;
+import com.ai.studybuddy.service.inter.FlashcardContentService;
+import com.ai.studybuddy.service.inter.MaintenanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MaintenanceServiceImpl - Test Suite Completo")
+class MaintenanceServiceImplTest {
+
+    private static final String JOB = "test-job";
+
+    @Mock
+    private MaintenanceJobRepository jobRepository;
+
+    @Mock
+    private RecommendationRepository recommendationRepository;
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private GamificationEventRepository gamificationEventRepository;
+
+    @Mock
+    private FlashcardRepository flashcardRepository;
+
+    @Mock
+    private FlashcardContentRepository contentRepository;
+
+    @Mock
+    private FlashcardReviewStateRepository reviewStateRepository;
+
+    @Mock
+    private FlashcardContentService contentService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MaintenanceServiceImpl maintenanceService;
+
+    @BeforeEach
+    void setUp() {
+        maintenanceService = new MaintenanceServiceImpl(jobRepository, recommendationRepository,
+                userStatsRepository, gamificationEventRepository, flashcardRepository, contentRepository,
+                reviewStateRepository, contentService, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(maintenanceService, "chunkSize", 10);
+        ReflectionTestUtils.setField(maintenanceService, "chunkPauseMs", 0L);
+
+        lenient().when(jobRepository.existsById(anyString())).thenReturn(true);
+    }
+
+    private void acquireLease(int result) {
+        when(jobRepository.tryAcquire(anyString(), anyString(), any(), any(), any())).thenReturn(result);
+    }
+
+    // ========================================
+    // TEST: runJob
+    // ========================================
+
+    @Test
+    @DisplayName("runJob - Blocchi fino all'ultimo parziale, poi COMPLETED")
+    void testRunJob_ChunksUntilPartial() {
+        // Arrange
+        acquireLease(1);
+        when(jobRepository.renew(eq(JOB), anyString(), any(), anyLong(), anyInt())).thenReturn(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        long rows = maintenanceService.runJob(JOB, Duration.ofHours(1),
+                limit -> calls.incrementAndGet() < 3 ? limit : 4);
+
+        // Assert
+        assertEquals(24, rows);
+        assertEquals(3, calls.get());
+        verify(jobRepository, times(2)).renew(eq(JOB), anyString(), any(), anyLong(), anyInt());
+        verify(jobRepository).release(eq(JOB), anyString(), eq(Status.COMPLETED), any(),
+                anyLong(), eq(24L), eq(3), isNull());
+    }
+
+    @Test
+    @DisplayName("runJob - Lease non acquisita: nessun blocco eseguito")
+    void testRunJob_LeaseNotAcquired() {
+        // Arrange
+        acquireLease(0);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        long rows = maintenanceService.runJob(JOB, Duration.ofHours(1), limit -> calls.incrementAndGet());
+
+        // Assert
+        assertEquals(-1, rows);
+        assertEquals(0, calls.get());
+        verify(jobRepository, never()).release(any(), any(), any(), any(), anyLong(), anyLong(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("runJob - Errore in un blocco: FAILED con messaggio")
+    void testRunJob_FailureRecorded() {
+        // Arrange
+        acquireLease(1);
+
+        // Act
+        long rows = maintenanceService.runJob(JOB, Duration.ofHours(1), limit -> {
+            throw new RuntimeException("Lock timeout");
+        });
+
+        // Assert
+        assertEquals(0, rows);
+        verify(jobRepository).release(eq(JOB), anyString(), eq(Status.FAILED), any(),
+                anyLong(), eq(0L), eq(0), eq("Lock timeout"));
+    }
+
+    @Test
+    @DisplayName("runJob - Lease persa: il job si ferma come ABORTED")
+    void testRunJob_LeaseLost() {
+        // Arrange
+        acquireLease(1);
+        when(jobRepository.renew(eq(JOB), anyString(), any(), anyLong(), anyInt())).thenReturn(0);
+
+        // Act
+        long rows = maintenanceService.runJob(JOB, Duration.ofHours(1), limit -> limit);
+
+        // Assert
+        assertEquals(10, rows);
+        verify(jobRepository).release(eq(JOB), anyString(), eq(Status.ABORTED), any(),
+                anyLong(), eq(10L), eq(1), anyString());
+    }
+
+    // ========================================
+    // TEST: job
+    // ========================================
+
+    @Test
+    @DisplayName("resetWeeklyXp - Avanza per id senza riprocessare le stesse righe")
+    void testResetWeeklyXp_KeysetCursor() {
+        // Arrange
+        ReflectionTestUtils.setField(maintenanceService, "chunkSize", 2);
+        acquireLease(1);
+        when(jobRepository.renew(anyString(), anyString(), any(), anyLong(), anyInt())).thenReturn(1);
+        UUID first = new UUID(0L, 1L);
+        UUID second = new UUID(0L, 2L);
+        UUID third = new UUID(0L, 3L);
+        when(userStatsRepository.findIdsWithWeeklyXpAfter(new UUID(0L, 0L), 2)).thenReturn(List.of(first, second));
+        when(userStatsRepository.findIdsWithWeeklyXpAfter(second, 2)).thenReturn(List.of(third));
+
+        // Act
+        maintenanceService.resetWeeklyXp();
+
+        // Assert
+        verify(userStatsRepository).resetWeeklyXp(List.of(first, second));
+        verify(userStatsRepository).resetWeeklyXp(List.of(third));
+        verify(jobRepository).release(eq(MaintenanceService.JOB_WEEKLY_XP_RESET), anyString(),
+                eq(Status.COMPLETED), any(), anyLong(), eq(3L), eq(2), isNull());
+    }
+
+    @Test
+    @DisplayName("purgeRecommendations - Nessuna riga: nessuna delete")
+    void testPurgeRecommendations_NothingToDelete() {
+        // Arrange
+        acquireLease(1);
+        when(recommendationRepository.findExpiredIds(any(), eq(10))).thenReturn(List.of());
+        when(recommendationRepository.findOldCompletedIds(any(), eq(10))).thenReturn(List.of());
+
+        // Act
+        maintenanceService.purgeRecommendations();
+
+        // Assert
+        verify(recommendationRepository, never()).deleteByIds(any());
+        verify(jobRepository, times(2)).release(anyString(), anyString(), eq(Status.COMPLETED), any(),
+                anyLong(), eq(0L), eq(1), isNull());
+    }
+
+    @Test
+    @DisplayName("backfillFlashcardContents - Testo su contenuti condivisi, statistiche all'autore")
+    void testBackfillFlashcardContents() {
+        // Arrange
+        UUID reviewedCard = UUID.randomUUID();
+        UUID newCard = UUID.randomUUID();
+        UUID authorId = UUID.randomUUID();
+        LocalDateTime lastReviewedAt = LocalDateTime.now().minusDays(2);
+        FlashcardContent shared = new FlashcardContent("Q", "A", null);
+        shared.setId(UUID.randomUUID());
+
+        when(flashcardRepository.findLegacyRows(10)).thenReturn(List.of(
+                new Object[]{reviewedCard, authorId, "Q", "A", null, 5, 4, lastReviewedAt},
+                new Object[]{newCard, authorId, "Q", "A", null, 0, 0, null}));
+        when(contentService.resolveAll(anyList())).thenReturn(List.of(shared, shared));
+
+        // Act
+        int rows = maintenanceService.backfillFlashcardContents(10);
+
+        // Assert
+        assertEquals(2, rows);
+        verify(flashcardRepository).attachContent(reviewedCard, shared.getId());
+        verify(flashcardRepository).attachContent(newCard, shared.getId());
+        verify(reviewStateRepository).insertLegacy(eq(authorId), eq(reviewedCard), eq(5), eq(4),
+                eq(lastReviewedAt), any());
+        verify(reviewStateRepository, never()).insertLegacy(any(), eq(newCard), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("maintainFlashcardContents - Nessuna flashcard legacy: nessun backfill, solo pulizia orfani")
+    void testMaintainFlashcardContents_NoLegacyRows() {
+        // Arrange
+        acquireLease(1);
+        when(flashcardRepository.existsByContentIsNullAndLegacyFrontContentIsNotNull()).thenReturn(false);
+        when(contentRepository.findOrphanIds(any(), eq(10))).thenReturn(List.of());
+
+        // Act
+        maintenanceService.maintainFlashcardContents();
+
+        // Assert
+        verify(flashcardRepository, never()).findLegacyRows(anyInt());
+        verify(contentRepository, never()).deleteOrphans(any());
+        verify(jobRepository).release(eq(MaintenanceService.JOB_ORPHAN_FLASHCARD_CONTENTS), anyString(),
+                eq(Status.COMPLETED), any(), anyLong(), eq(0L), eq(1), isNull());
+    }
+
+    @Test
+    @DisplayName("backfillFlashcardContentsOnStartup - Migra subito le flashcard legacy")
+    void testBackfillFlashcardContentsOnStartup() {
+        // Arrange
+        acquireLease(1);
+        when(flashcardRepository.existsByContentIsNullAndLegacyFrontContentIsNotNull()).thenReturn(true);
+        when(flashcardRepository.findLegacyRows(10)).thenReturn(List.of());
+
+        // Act
+        maintenanceService.backfillFlashcardContentsOnStartup();
+
+        // Assert
+        verify(flashcardRepository).findLegacyRows(10);
+        verify(jobRepository).release(eq(MaintenanceService.JOB_FLASHCARD_CONTENT_BACKFILL), anyString(),
+                eq(Status.COMPLETED), any(), anyLong(), eq(0L), eq(1), isNull());
+    }
+}
@@ -0,0 +1,291 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.recommendation.Recommendation;
+import com.ai.studybuddy.model.recommendation.Recommendation.Priority;
+import com.ai.studybuddy.model.recommendation.Recommendation.RecommendationType;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.model.user.UserProgress;
+import com.ai.studybuddy.repository.RecommendationRepository;
+import com.ai.studybuddy.repository.UserProgressRepository;
+import com.ai.studybuddy.service.inter.AIGenerationPool;
+import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.PredictiveGenerationService.Prediction;
+import com.ai.studybuddy.util.JsonArrayRecovery;
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.EducationLevel;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PredictiveGenerationServiceImpl - Test Suite Completo")
+class PredictiveGenerationServiceImplTest {
+
+    @Mock
+    private RecommendationRepository recommendationRepository;
+
+    @Mock
+    private UserProgressRepository userProgressRepository;
+
+    @Mock
+    private AIService aiService;
+
+    @Mock
+    private AIGenerationPool generationPool;
+
+    private PredictiveGenerationServiceImpl predictiveGenerationService;
+
+    private User testUser;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        predictiveGenerationService = new PredictiveGenerationServiceImpl(
+                recommendationRepository, userProgressRepository, aiService, generationPool);
+        ReflectionTestUtils.setField(predictiveGenerationService, "enabled", true);
+
+        userId = UUID.randomUUID();
+        testUser = new User();
+        testUser.setId(userId);
+        testUser.setPreferredLanguage("it");
+        testUser.setEducationLevel(EducationLevel.UNIVERSITY);
+
+        lenient().when(aiService.parseGeneratedItems(any(), anyInt()))
+                .thenAnswer(invocation -> JsonArrayRecovery.parse(invocation.getArgument(0)));
+        lenient().doAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return null;
+        }).when(generationPool).execute(any(Runnable.class));
+    }
+
+    private Recommendation recommendation(RecommendationType type, String topic, Priority priority) {
+        Recommendation rec = new Recommendation();
+        rec.setType(type);
+        rec.setTopic(topic);
+        rec.setPriority(priority);
+        return rec;
+    }
+
+    private UserProgress progress(String topic, double averageScore, DifficultyLevel mastery) {
+        UserProgress progress = new UserProgress();
+        progress.setTopic(topic);
+        progress.setAverageScore(averageScore);
+        progress.setMasteryLevel(mastery);
+        return progress;
+    }
+
+    /**
+     * Nessuna raccomandazione: l'utente ha appena fatto bene un quiz intermedio di Fotosintesi
+     */
+    private void stubRecentQuiz() {
+        when(recommendationRepository.findActiveByUserId(eq(userId), any())).thenReturn(List.of());
+        when(userProgressRepository.findRecentTopics(userId, 1))
+                .thenReturn(List.of(progress("Fotosintesi", 85.0, DifficultyLevel.INTERMEDIO)));
+    }
+
+    // ========================================
+    // TEST: predict
+    // ========================================
+
+    @Test
+    @DisplayName("predict - Raccomandazione con priorità più alta: WEAKNESS_FOCUS diventa flashcards di ripasso")
+    void testPredict_FromRecommendations() {
+        // Arrange
+        when(recommendationRepository.findActiveByUserId(eq(userId), any())).thenReturn(List.of(
+                recommendation(RecommendationType.NEW_TOPIC, "Genetica", Priority.URGENT),
+                recommendation(RecommendationType.RETRY_QUIZ, "Storia", Priority.LOW),
+                recommendation(RecommendationType.WEAKNESS_FOCUS, "Chimica", Priority.HIGH)));
+        when(userProgressRepository.findByUserIdAndTopic(userId, "Chimica"))
+                .thenReturn(Optional.of(progress("Chimica", 40.0, DifficultyLevel.PRINCIPIANTE)));
+
+        // Act
+        Optional<Prediction> prediction = predictiveGenerationService.predict(userId);
+
+        // Assert
+        assertEquals(Optional.of(new Prediction(GeneratedContentType.FLASHCARDS, "Chimica", DifficultyLevel.PRINCIPIANTE, 5)),
+                prediction);
+        verify(userProgressRepository, never()).findRecentTopics(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("predict - RETRY_QUIZ: quiz a difficoltà superiore; senza raccomandazioni l'ultimo argomento")
+    void testPredict_RetryAndRecentTopic() {
+        // Arrange
+        when(recommendationRepository.findActiveByUserId(eq(userId), any()))
+                .thenReturn(List.of(recommendation(RecommendationType.RETRY_QUIZ, "Storia", Priority.LOW)))
+                .thenReturn(List.of());
+        when(userProgressRepository.findByUserIdAndTopic(userId, "Storia"))
+                .thenReturn(Optional.of(progress("Storia", 95.0, DifficultyLevel.AVANZATO)));
+        when(userProgressRepository.findRecentTopics(userId, 1))
+                .thenReturn(List.of(progress("Fotosintesi", 65.0, DifficultyLevel.PRINCIPIANTE)));
+
+        // Act
+        Optional<Prediction> retry = predictiveGenerationService.predict(userId);
+        Optional<Prediction> recent = predictiveGenerationService.predict(userId);
+
+        // Assert
+        assertEquals(Optional.of(new Prediction(GeneratedContentType.QUIZ, "Storia", DifficultyLevel.AVANZATO, 5)), retry);
+        assertEquals(Optional.of(new Prediction(GeneratedContentType.QUIZ, "Fotosintesi", DifficultyLevel.PRINCIPIANTE, 5)),
+                recent);
+    }
+
+    // ========================================
+    // TEST: runPending / take
+    // ========================================
+
+    @Test
+    @DisplayName("runPending - Generato con capacità libera, servito una sola volta alla richiesta corrispondente")
+    void testRunPending_GenerateAndTake() {
+        // Arrange
+        stubRecentQuiz();
+        when(generationPool.availablePermits()).thenReturn(6);
+        when(aiService.generateQuiz("Fotosintesi", 5, DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it"))
+                .thenReturn("[{\"question\": \"Uno?\"}, {\"question\": \"Due?\"}, {\"question\": \"Tre?\"}]");
+
+        // Act
+        predictiveGenerationService.schedule(testUser);
+        predictiveGenerationService.schedule(testUser);
+        predictiveGenerationService.runPending();
+
+        List<JsonObject> otherDifficulty = predictiveGenerationService.take(userId, GeneratedContentType.QUIZ,
+                "Fotosintesi", DifficultyLevel.INTERMEDIO, EducationLevel.UNIVERSITY, "it", 5);
+        List<JsonObject> otherType = predictiveGenerationService.take(userId, GeneratedContentType.FLASHCARDS,
+                "Fotosintesi", DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it", 5);
+        List<JsonObject> ready = predictiveGenerationService.take(userId, GeneratedContentType.QUIZ,
+                "la fotosintesi", DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "IT", 3);
+        List<JsonObject> again = predictiveGenerationService.take(userId, GeneratedContentType.QUIZ,
+                "Fotosintesi", DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it", 2);
+
+        // Assert
+        assertTrue(otherDifficulty.isEmpty());
+        assertTrue(otherType.isEmpty());
+        assertEquals(List.of("Uno?", "Due?", "Tre?"), ready.stream().map(o -> o.get("question").getAsString()).toList());
+        assertTrue(again.isEmpty());
+        verify(aiService, times(1)).generateQuiz(anyString(), anyInt(), any(DifficultyLevel.class), any(), any());
+        assertEquals(1, predictiveGenerationService.getStats().getGenerated());
+        assertEquals(1, predictiveGenerationService.getStats().getServed());
+    }
+
+    @Test
+    @DisplayName("runPending - Nessun permesso oltre quelli riservati: niente previsione né generazione")
+    void testRunPending_NoIdleCapacity() {
+        // Arrange
+        when(generationPool.availablePermits()).thenReturn(3);
+
+        // Act
+        predictiveGenerationService.schedule(testUser);
+        predictiveGenerationService.runPending();
+
+        // Assert
+        verifyNoInteractions(recommendationRepository, aiService);
+        verify(generationPool, never()).execute(any());
+    }
+
+    @Test
+    @DisplayName("runPending - Disattivata di default: nessuna previsione né generazione")
+    void testRunPending_DisabledByDefault() {
+        // Arrange
+        predictiveGenerationService = new PredictiveGenerationServiceImpl(
+                recommendationRepository, userProgressRepository, aiService, generationPool);
+
+        // Act
+        predictiveGenerationService.schedule(testUser);
+        predictiveGenerationService.runPending();
+
+        // Assert
+        verifyNoInteractions(recommendationRepository, aiService);
+        verify(generationPool, never()).execute(any());
+    }
+
+    @Test
+    @DisplayName("putBack - Elementi di una richiesta fallita di nuovo disponibili, senza sostituire una nuova previsione")
+    void testPutBack() {
+        // Arrange
+        stubRecentQuiz();
+        when(generationPool.availablePermits()).thenReturn(6);
+        when(aiService.generateQuiz(anyString(), anyInt(), any(DifficultyLevel.class), any(), any()))
+                .thenReturn("[{\"question\": \"Uno?\"}, {\"question\": \"Due?\"}]");
+        predictiveGenerationService.schedule(testUser);
+        predictiveGenerationService.runPending();
+        List<JsonObject> taken = predictiveGenerationService.take(userId, GeneratedContentType.QUIZ,
+                "Fotosintesi", DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it", 5);
+
+        // Act
+        predictiveGenerationService.putBack(userId, GeneratedContentType.QUIZ, "Fotosintesi",
+                DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it", taken);
+        predictiveGenerationService.putBack(userId, GeneratedContentType.QUIZ, "Storia",
+                DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it", taken);
+        List<JsonObject> again = predictiveGenerationService.take(userId, GeneratedContentType.QUIZ,
+                "Fotosintesi", DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it", 5);
+
+        // Assert
+        assertEquals(2, taken.size());
+        assertEquals(taken, again);
+        assertEquals(1, predictiveGenerationService.getStats().getServed());
+        assertEquals(0, predictiveGenerationService.getStats().getReadySlots());
+    }
+
+    @Test
+    @DisplayName("take - Meno elementi di quelli pronti: il resto resta nello slot per la richiesta successiva")
+    void testTake_PartialKeepsRemainder() {
+        // Arrange
+        stubRecentQuiz();
+        when(generationPool.availablePermits()).thenReturn(6);
+        when(aiService.generateQuiz(anyString(), anyInt(), any(DifficultyLevel.class), any(), any()))
+                .thenReturn("[{\"question\": \"Uno?\"}, {\"question\": \"Due?\"}, {\"question\": \"Tre?\"}]");
+        predictiveGenerationService.schedule(testUser);
+        predictiveGenerationService.runPending();
+
+        // Act
+        List<JsonObject> first = predictiveGenerationService.take(userId, GeneratedContentType.QUIZ,
+                "Fotosintesi", DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it", 2);
+        List<JsonObject> second = predictiveGenerationService.take(userId, GeneratedContentType.QUIZ,
+                "Fotosintesi", DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it", 5);
+        List<JsonObject> third = predictiveGenerationService.take(userId, GeneratedContentType.QUIZ,
+                "Fotosintesi", DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it", 5);
+
+        // Assert
+        assertEquals(List.of("Uno?", "Due?"), first.stream().map(o -> o.get("question").getAsString()).toList());
+        assertEquals(List.of("Tre?"), second.stream().map(o -> o.get("question").getAsString()).toList());
+        assertTrue(third.isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new JsonObject()));
+        assertEquals(2, predictiveGenerationService.getStats().getServed());
+        assertEquals(0, predictiveGenerationService.getStats().getReadySlots());
+    }
+
+    @Test
+    @DisplayName("take - Slot scaduto non servito e rimosso")
+    void testTake_Expired() {
+        // Arrange
+        ReflectionTestUtils.setField(predictiveGenerationService, "slotTtlMs", -1L);
+        stubRecentQuiz();
+        when(generationPool.availablePermits()).thenReturn(6);
+        when(aiService.generateQuiz(anyString(), anyInt(), any(DifficultyLevel.class), any(), any()))
+                .thenReturn("[{\"question\": \"Uno?\"}]");
+        predictiveGenerationService.schedule(testUser);
+        predictiveGenerationService.runPending();
+
+        // Act
+        List<JsonObject> ready = predictiveGenerationService.take(userId, GeneratedContentType.QUIZ,
+                "Fotosintesi", DifficultyLevel.AVANZATO, EducationLevel.UNIVERSITY, "it", 5);
+
+        // Assert
+        assertTrue(ready.isEmpty());
+        assertEquals(1, predictiveGenerationService.getStats().getExpired());
+        assertEquals(0, predictiveGenerationService.getStats().getReadySlots());
+    }
+}
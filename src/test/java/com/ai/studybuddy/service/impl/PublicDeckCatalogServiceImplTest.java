@@ -0,0 +1,162 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.dto.flashcard.PublicDeckCatalogResponse;
+import com.ai.studybuddy.model.flashcard.PublicDeck;
+import com.ai.studybuddy.repository.FlashcardDeckRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PublicDeckCatalogServiceImpl - Test Suite Completo")
+class PublicDeckCatalogServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Mock
+    private FlashcardDeckRepository deckRepository;
+
+    private PublicDeckCatalogServiceImpl catalogService;
+
+    private PublicDeck photosynthesis;
+    private PublicDeck frenchRevolution;
+    private PublicDeck cellBiology;
+    private PublicDeck oldHits;
+
+    @BeforeEach
+    void setUp() {
+        catalogService = new PublicDeckCatalogServiceImpl(deckRepository);
+
+        photosynthesis = deck("La Fotosintesi clorofilliana", "Biologia", 40, NOW.minusDays(1));
+        frenchRevolution = deck("Rivoluzione Francese", "Storia", 30, NOW);
+        cellBiology = deck("Biologia cellulare", "biologia ", 10, NOW.minusDays(2));
+        // Molto studiato ma non da mesi: il decadimento lo porta in fondo
+        oldHits = deck("Età moderna", "Storia", 1000, NOW.minusDays(200));
+
+        lenient().when(deckRepository.findPublicCatalog(anyInt()))
+                .thenReturn(List.of(oldHits, photosynthesis, frenchRevolution, cellBiology));
+    }
+
+    private PublicDeck deck(String name, String subject, int timesStudied, LocalDateTime lastStudiedAt) {
+        return new PublicDeck(UUID.randomUUID(), name, null, subject, "#3B82F6", null,
+                20, timesStudied, lastStudiedAt, NOW.minusDays(300), "Test");
+    }
+
+    // ========================================
+    // TEST: ordinamento e pagine
+    // ========================================
+
+    @Test
+    @DisplayName("search - Ordinato per popolarità con decadimento, una sola query")
+    void testSearch_RankedFromSnapshot() {
+        // Act
+        PublicDeckCatalogResponse first = catalogService.search(null, null, 0, 2);
+        PublicDeckCatalogResponse second = catalogService.search("", null, 2, 2);
+
+        // Assert
+        assertEquals(List.of(photosynthesis, frenchRevolution), first.getDecks());
+        assertEquals(List.of(cellBiology, oldHits), second.getDecks());
+        assertEquals(4, first.getTotal());
+        assertEquals(Map.of("Biologia", 2L, "Storia", 2L), first.getSubjects());
+        verify(deckRepository, times(1)).findPublicCatalog(anyInt());
+    }
+
+    @Test
+    @DisplayName("search - Pagina oltre la fine e limite massimo")
+    void testSearch_PageBounds() {
+        // Act
+        PublicDeckCatalogResponse beyond = catalogService.search(null, null, 10, 20);
+        PublicDeckCatalogResponse clamped = catalogService.search(null, null, -5, 1000);
+
+        // Assert
+        assertTrue(beyond.getDecks().isEmpty());
+        assertEquals(4, beyond.getTotal());
+        assertEquals(0, clamped.getOffset());
+        assertEquals(100, clamped.getLimit());
+    }
+
+    // ========================================
+    // TEST: ricerca
+    // ========================================
+
+    @Test
+    @DisplayName("search - Sottostringa del nome senza accenti né maiuscole")
+    void testSearch_Trigrams() {
+        // Act & Assert
+        assertEquals(List.of(photosynthesis), catalogService.search("fotosint", null, 0, 10).getDecks());
+        assertEquals(List.of(cellBiology), catalogService.search("CELLU", null, 0, 10).getDecks());
+        assertEquals(List.of(oldHits), catalogService.search("eta mod", null, 0, 10).getDecks());
+        assertTrue(catalogService.search("sintesifoto", null, 0, 10).getDecks().isEmpty());
+    }
+
+    @Test
+    @DisplayName("search - Testo corto: inizio di una parola")
+    void testSearch_ShortPrefix() {
+        // Act & Assert
+        assertEquals(List.of(photosynthesis, cellBiology), catalogService.search("c", null, 0, 10).getDecks());
+        assertEquals(List.of(frenchRevolution), catalogService.search("fr", null, 0, 10).getDecks());
+    }
+
+    @Test
+    @DisplayName("search - Filtro materia e facet calcolati sui risultati della ricerca")
+    void testSearch_SubjectFacets() {
+        // Act
+        PublicDeckCatalogResponse bySubject = catalogService.search(null, "BIOLOGIA", 0, 10);
+        PublicDeckCatalogResponse textAndSubject = catalogService.search("r", "storia", 0, 10);
+
+        // Assert
+        assertEquals(List.of(photosynthesis, cellBiology), bySubject.getDecks());
+        assertEquals(List.of(frenchRevolution), textAndSubject.getDecks());
+        assertEquals(Map.of("Storia", 1L), textAndSubject.getSubjects());
+    }
+
+    // ========================================
+    // TEST: refresh
+    // ========================================
+
+    @Test
+    @DisplayName("refresh - Versione invariata se il contenuto non cambia")
+    void testRefresh_Version() {
+        // Arrange
+        String initial = catalogService.search(null, null, 0, 10).getVersion();
+
+        // Act
+        catalogService.refresh();
+        String unchanged = catalogService.search(null, null, 0, 10).getVersion();
+        when(deckRepository.findPublicCatalog(anyInt())).thenReturn(List.of(photosynthesis, frenchRevolution));
+        catalogService.refresh();
+        PublicDeckCatalogResponse changed = catalogService.search(null, null, 0, 10);
+
+        // Assert
+        assertEquals(initial, unchanged);
+        assertNotEquals(initial, changed.getVersion());
+        assertEquals(2, changed.getTotal());
+    }
+
+    @Test
+    @DisplayName("refresh - Errore del database: resta lo snapshot precedente")
+    void testRefresh_FailureKeepsSnapshot() {
+        // Arrange
+        catalogService.refresh();
+        when(deckRepository.findPublicCatalog(anyInt())).thenThrow(new RuntimeException("db down"));
+
+        // Act
+        int result = catalogService.refresh();
+
+        // Assert
+        assertEquals(0, result);
+        assertEquals(4, catalogService.search(null, null, 0, 10).getTotal());
+    }
+}
@@ -0,0 +1,114 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.quiz.Question;
+import com.ai.studybuddy.model.quiz.QuestionBankKey;
+import com.ai.studybuddy.repository.QuestionRepository;
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.EducationLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QuestionBankServiceImpl - Test Suite Completo")
+class QuestionBankServiceImplTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    private QuestionBankServiceImpl questionBankService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final QuestionBankKey key = new QuestionBankKey(
+            "Fotosintesi", DifficultyLevel.INTERMEDIO, "it", EducationLevel.HIGH_SCHOOL);
+
+    @BeforeEach
+    void setUp() {
+        questionBankService = new QuestionBankServiceImpl(questionRepository);
+    }
+
+    private Question createQuestion(String text, String correct) {
+        Question question = new Question();
+        question.setId(UUID.randomUUID());
+        question.setQuestionText(text);
+        question.setOptionA("Opzione A");
+        question.setOptionB("Opzione B");
+        question.setOptionC("Opzione C");
+        question.setOptionD("Opzione D");
+        question.setCorrectAnswer(correct);
+        question.setUserAnswer("B");
+        question.setIsCorrect(false);
+        question.setContentHash(Question.hashOf(text));
+        return question;
+    }
+
+    // ========================================
+    // TEST: takeQuestions
+    // ========================================
+
+    @Test
+    @DisplayName("takeQuestions - Copie senza risposta dell'utente, una per impronta")
+    void testTakeQuestions_CopiesUniqueValidQuestions() {
+        // Arrange
+        when(questionRepository.findBankCandidates("Fotosintesi", DifficultyLevel.INTERMEDIO, "it",
+                EducationLevel.HIGH_SCHOOL, userId, 12))
+                .thenReturn(List.of(
+                        createQuestion("Cos'è la clorofilla?", "A"),
+                        createQuestion("cos è la CLOROFILLA", "A"),
+                        createQuestion("Dove avviene il ciclo di Calvin?", "C"),
+                        createQuestion("Domanda senza risposta valida", "")));
+
+        // Act
+        List<Question> result = questionBankService.takeQuestions(key, userId, 3);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(q -> q.getId() == null && q.getUserAnswer() == null));
+        assertTrue(result.stream().allMatch(Question::getFromBank));
+        assertEquals(2, result.stream().map(Question::getContentHash).distinct().count());
+    }
+
+    @Test
+    @DisplayName("takeQuestions - Al massimo il numero richiesto")
+    void testTakeQuestions_Limit() {
+        // Arrange
+        when(questionRepository.findBankCandidates(any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(createQuestion("Q1", "A"), createQuestion("Q2", "B"), createQuestion("Q3", "C")));
+
+        // Act & Assert
+        assertEquals(1, questionBankService.takeQuestions(key, userId, 1).size());
+    }
+
+    @Test
+    @DisplayName("takeQuestions - Errore sul DB: nessuna domanda, si usa l'AI")
+    void testTakeQuestions_RepositoryFailure() {
+        // Arrange
+        when(questionRepository.findBankCandidates(any(), any(), any(), any(), any(), anyInt()))
+                .thenThrow(new RuntimeException("DB down"));
+
+        // Act & Assert
+        assertTrue(questionBankService.takeQuestions(key, userId, 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("takeQuestions - Chiave incompleta: nessuna query")
+    void testTakeQuestions_IncompleteKey() {
+        // Act
+        List<Question> result = questionBankService.takeQuestions(
+                new QuestionBankKey("Fotosintesi", null, "it", null), userId, 5);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(questionRepository);
+    }
+}
@@ -1,27 +1,50 @@
 package com.ai.studybuddy.service.impl;
 
+import com.ai.studybuddy.dto.gamification.GamificationDTO.XpEventResponse;
 import com.ai.studybuddy.dto.quiz.QuizAnswerRequest;
 import com.ai.studybuddy.dto.quiz.QuizGenerateRequest;
 import com.ai.studybuddy.dto.quiz.QuizResultResponse;
 import com.ai.studybuddy.exception.ResourceNotFoundException;
 import com.ai.studybuddy.mapper.QuizMapper;
+import com.ai.studybuddy.model.gamification.UserStats;
 import com.ai.studybuddy.model.quiz.Question;
 import com.ai.studybuddy.model.quiz.Quiz;
+import com.ai.studybuddy.model.quiz.QuizAttempt;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.repository.QuestionRepository;
+import com.ai.studybuddy.repository.QuizAttemptRepository;
 import com.ai.studybuddy.repository.QuizRepository;
+import com.ai.studybuddy.exception.AIServiceException;
+import com.ai.studybuddy.exception.AIServiceException.AIErrorType;
+import com.ai.studybuddy.service.inter.AIGenerationPool;
 import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.GamificationEventService;
+import com.ai.studybuddy.service.inter.PredictiveGenerationService;
+import com.ai.studybuddy.service.inter.QuestionBankService;
 import com.ai.studybuddy.service.inter.QuizService;
+import com.ai.studybuddy.service.inter.TopicService;
+import com.ai.studybuddy.service.inter.WarmPoolService;
+import com.ai.studybuddy.util.JsonArrayRecovery;
 import com.ai.studybuddy.util.enums.DifficultyLevel;
 import com.ai.studybuddy.util.enums.EducationLevel;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -40,6 +63,9 @@ class QuizServiceImplTest {
     @Mock
     private QuestionRepository questionRepository;
 
+    @Mock
+    private QuizAttemptRepository quizAttemptRepository;
+
     @Mock
     private AIService aiService;
 
@@ -49,6 +75,27 @@ class QuizServiceImplTest {
     @Mock
     private QuizService selfProxy;
 
+    @Mock
+    private TopicService topicService;
+
+    @Mock
+    private QuestionBankService questionBankService;
+
+    @Mock
+    private AIGenerationPool generationPool;
+
+    @Mock
+    private PredictiveGenerationService predictiveGenerationService;
+
+    @Mock
+    private WarmPoolService warmPoolService;
+
+    @Mock
+    private GamificationEventService gamificationEventService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private QuizServiceImpl quizService;
 
@@ -61,6 +108,15 @@ class QuizServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(topicService.canonicalize(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(topicService.findCanonical(any(), any())).thenReturn(Optional.empty());
+        lenient().when(aiService.parseGeneratedItems(any(), anyInt()))
+                .thenAnswer(invocation -> JsonArrayRecovery.parse(invocation.getArgument(0)));
+        // La logica sui troncamenti è testata in AIServiceImplTest: qui una sola chiamata
+        lenient().when(aiService.generateWithShortfall(anyInt(), anyString(), any()))
+                .thenAnswer(invocation -> aiService.parseGeneratedItems(invocation.<AIService.Generator>getArgument(2)
+                        .generate(invocation.getArgument(0), List.of()), invocation.getArgument(0)).items());
+
         userId = UUID.randomUUID();
         quizId = UUID.randomUUID();
         questionId = UUID.randomUUID();
@@ -70,6 +126,21 @@ class QuizServiceImplTest {
         testQuestion = createTestQuestion();
 
         quizService.setSelfProxy(selfProxy);
+
+        UserStats stats = new UserStats();
+        stats.setTotalXp(130);
+        stats.setLevel(2);
+        lenient().when(gamificationEventService.publishQuizCompleted(any(), anyBoolean(), any(), any(), anyDouble(),
+                anyInt(), anyInt())).thenReturn(new XpEventResponse("QUIZ", 30, stats, false, new ArrayList<>()));
+    }
+
+    /**
+     * Il servizio dietro un TransactionInterceptor, come nel contesto Spring
+     */
+    private QuizService transactional(QuizService target) {
+        ProxyFactory proxy = new ProxyFactory(target);
+        proxy.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        return (QuizService) proxy.getProxy();
     }
 
     private User createTestUser() {
@@ -151,7 +222,7 @@ class QuizServiceImplTest {
                 eq(5), 
                 eq(DifficultyLevel.INTERMEDIO), 
                 eq(EducationLevel.UNIVERSITY), 
-                eq("it")))
+                eq("it"), anyList()))
                 .thenReturn(aiResponse);
         when(quizMapper.toQuestionEntity(any(JsonObject.class), any(Quiz.class), anyInt()))
                 .thenReturn(testQuestion);
@@ -165,6 +236,225 @@ class QuizServiceImplTest {
         verify(quizRepository, times(2)).save(testQuiz);
     }
 
+    @Test
+    @DisplayName("generateQuiz - Tutte le domande dalla banca, nessuna chiamata AI")
+    void testGenerateQuiz_FullyFromBank() {
+        // Arrange
+        QuizGenerateRequest request = QuizGenerateRequest.builder()
+                .topic("Fotosintesi")
+                .numberOfQuestions(2)
+                .difficultyLevel(DifficultyLevel.INTERMEDIO)
+                .language("it")
+                .build();
+
+        when(quizMapper.toEntity(request, testUser)).thenReturn(testQuiz);
+        when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
+        when(questionBankService.takeQuestions(any(), eq(userId), eq(2)))
+                .thenReturn(List.of(testQuestion.copyForQuiz(), createTestQuestion().copyForQuiz()));
+
+        // Act
+        Quiz result = quizService.generateQuiz(request, testUser);
+
+        // Assert
+        assertEquals(2, result.getQuestions().size());
+        assertEquals(2, result.getQuestions().get(1).getQuestionOrder());
+        verify(aiService, never()).generateQuiz(anyString(), anyInt(), any(DifficultyLevel.class), any(), anyString(), anyList());
+        verify(warmPoolService).take(WarmPoolService.PoolKey.of(GeneratedContentType.QUIZ, "Fotosintesi",
+                DifficultyLevel.INTERMEDIO, EducationLevel.UNIVERSITY, "it"), 0);
+    }
+
+    @Test
+    @DisplayName("generateQuiz - AI solo per le domande mancanti dalla banca")
+    void testGenerateQuiz_BankShortfall() {
+        // Arrange
+        QuizGenerateRequest request = QuizGenerateRequest.builder()
+                .topic("Fotosintesi")
+                .numberOfQuestions(5)
+                .difficultyLevel(DifficultyLevel.INTERMEDIO)
+                .language("it")
+                .build();
+
+        Question banked = testQuestion.copyForQuiz();
+        Question generated = new Question();
+        generated.setQuestionText("Dove avviene il ciclo di Calvin?");
+        Question duplicate = new Question();
+        duplicate.setQuestionText("qual e la funzione della clorofilla");
+
+        when(quizMapper.toEntity(request, testUser)).thenReturn(testQuiz);
+        when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
+        when(questionBankService.takeQuestions(any(), eq(userId), eq(5))).thenReturn(List.of(banked));
+        when(aiService.generateQuiz(eq("Fotosintesi"), eq(4), eq(DifficultyLevel.INTERMEDIO),
+                eq(EducationLevel.UNIVERSITY), eq("it"), anyList()))
+                .thenReturn("[{\"question\": \"q1\"}, {\"question\": \"q2\"}]");
+        when(quizMapper.toQuestionEntity(any(JsonObject.class), any(Quiz.class), anyInt()))
+                .thenReturn(generated, duplicate);
+
+        // Act
+        Quiz result = quizService.generateQuiz(request, testUser);
+
+        // Assert
+        assertEquals(List.of(banked, generated), result.getQuestions());
+        assertTrue(banked.getFromBank());
+    }
+
+    @Test
+    @DisplayName("generateQuiz - Domande pre-generate per l'utente usate prima dell'AI")
+    void testGenerateQuiz_PreGenerated() {
+        // Arrange
+        QuizGenerateRequest request = QuizGenerateRequest.builder()
+                .topic("Fotosintesi")
+                .numberOfQuestions(5)
+                .difficultyLevel(DifficultyLevel.AVANZATO)
+                .language("it")
+                .build();
+        when(quizMapper.toEntity(request, testUser)).thenReturn(testQuiz);
+        when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
+        when(quizMapper.toQuestionEntity(any(JsonObject.class), any(Quiz.class), anyInt()))
+                .thenAnswer(invocation -> {
+                    Question question = new Question();
+                    question.setQuestionText(invocation.getArgument(0, JsonObject.class).get("question").getAsString());
+                    return question;
+                });
+        List<JsonObject> ready = new ArrayList<>();
+        JsonParser.parseString(questionsJson("Pronta", 3)).getAsJsonArray()
+                .forEach(element -> ready.add(element.getAsJsonObject()));
+        when(predictiveGenerationService.take(userId, GeneratedContentType.QUIZ, "Fotosintesi", DifficultyLevel.AVANZATO,
+                testUser.getEducationLevel(), "it", 5)).thenReturn(ready);
+        when(aiService.generateQuiz(anyString(), eq(2), any(DifficultyLevel.class), any(), anyString(), anyList()))
+                .thenReturn(questionsJson("Nuova", 2));
+
+        // Act
+        Quiz result = quizService.generateQuiz(request, testUser);
+
+        // Assert
+        assertEquals(List.of("Pronta 1?", "Pronta 2?", "Pronta 3?", "Nuova 1?", "Nuova 2?"),
+                result.getQuestions().stream().map(Question::getQuestionText).toList());
+        verify(aiService).generateQuiz(anyString(), anyInt(), any(DifficultyLevel.class), any(), anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("generateQuiz - AI fallita: domande pre-generate e del pool rimesse a disposizione")
+    void testGenerateQuiz_PutBackOnFailure() {
+        // Arrange
+        QuizGenerateRequest request = QuizGenerateRequest.builder()
+                .topic("Fotosintesi")
+                .numberOfQuestions(5)
+                .difficultyLevel(DifficultyLevel.AVANZATO)
+                .language("it")
+                .build();
+        when(quizMapper.toEntity(request, testUser)).thenReturn(testQuiz);
+        when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
+        List<JsonObject> ready = new ArrayList<>();
+        JsonParser.parseString(questionsJson("Pronta", 3)).getAsJsonArray()
+                .forEach(element -> ready.add(element.getAsJsonObject()));
+        when(predictiveGenerationService.take(userId, GeneratedContentType.QUIZ, "Fotosintesi", DifficultyLevel.AVANZATO,
+                testUser.getEducationLevel(), "it", 5)).thenReturn(ready);
+        WarmPoolService.PoolKey poolKey = WarmPoolService.PoolKey.of(GeneratedContentType.QUIZ, "Fotosintesi",
+                DifficultyLevel.AVANZATO, testUser.getEducationLevel(), "it");
+        List<JsonObject> pooled = List.of(JsonParser.parseString("{\"question\": \"Dal pool?\"}").getAsJsonObject());
+        when(warmPoolService.take(poolKey, 2)).thenReturn(pooled);
+        when(aiService.generateQuiz(anyString(), eq(1), any(DifficultyLevel.class), any(), anyString(), anyList()))
+                .thenThrow(new AIServiceException(AIErrorType.TIMEOUT));
+
+        // Act & Assert
+        assertThrows(AIServiceException.class, () -> quizService.generateQuiz(request, testUser));
+        verify(predictiveGenerationService).putBack(userId, GeneratedContentType.QUIZ, "Fotosintesi",
+                DifficultyLevel.AVANZATO, testUser.getEducationLevel(), "it", ready);
+        verify(warmPoolService).putBack(poolKey, pooled);
+    }
+
+    /**
+     * Quiz grande: il pool esegue i blocchi nel thread del test, il mapper crea domande dal JSON
+     */
+    private QuizGenerateRequest largeQuizRequest() {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return null;
+        }).when(generationPool).execute(any(Runnable.class));
+        when(quizMapper.toEntity(any(QuizGenerateRequest.class), eq(testUser))).thenReturn(testQuiz);
+        lenient().when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
+        lenient().when(quizMapper.toQuestionEntity(any(JsonObject.class), any(Quiz.class), anyInt()))
+                .thenAnswer(invocation -> {
+                    Question question = new Question();
+                    question.setQuestionText(invocation.getArgument(0, JsonObject.class).get("question").getAsString());
+                    return question;
+                });
+        return QuizGenerateRequest.builder()
+                .topic("Fotosintesi")
+                .numberOfQuestions(20)
+                .difficultyLevel(DifficultyLevel.INTERMEDIO)
+                .language("it")
+                .build();
+    }
+
+    private static String questionsJson(String prefix, int count) {
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (int i = 1; i <= count; i++) {
+            json.add("{\"question\": \"" + prefix + " " + i + "?\"}");
+        }
+        return json.toString();
+    }
+
+    @Test
+    @DisplayName("generateQuiz - Quiz grande: blocchi su aspetti diversi, duplicati scartati, blocco fallito saltato")
+    void testGenerateQuiz_Sharded() {
+        // Arrange: 20 domande → 3 blocchi (7+7+6, più una di scorta ciascuno)
+        QuizGenerateRequest request = largeQuizRequest();
+        when(aiService.generateQuizShard(eq("Fotosintesi"), anyInt(), eq(DifficultyLevel.INTERMEDIO),
+                eq(EducationLevel.UNIVERSITY), eq("it"), anyString(), anyList(), anyList()))
+                .thenReturn(questionsJson("Definizione", 8))
+                .thenReturn(questionsJson("Definizione", 2).replace("]", ",") + questionsJson("Processo", 6).substring(1))
+                .thenThrow(new AIServiceException(AIErrorType.RATE_LIMIT));
+
+        // Act
+        Quiz result = quizService.generateQuiz(request, testUser);
+
+        // Assert
+        assertEquals(14, result.getQuestions().size());
+        assertEquals("Processo 1?", result.getQuestions().get(8).getQuestionText());
+        verify(aiService, never()).generateQuiz(anyString(), anyInt(), any(DifficultyLevel.class), any(), anyString(), anyList());
+        verify(aiService).generateQuizShard(anyString(), eq(8), any(), any(), anyString(),
+                eq("definizioni e concetti chiave"),
+                eq(List.of("processi e meccanismi", "cause ed effetti")), anyList());
+        verify(aiService).generateQuizShard(anyString(), eq(7), any(), any(), anyString(),
+                eq("cause ed effetti"), anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("generateQuiz - Quiz grande: tutti i blocchi falliti, errore AI propagato")
+    void testGenerateQuiz_ShardedAllFailed() {
+        // Arrange
+        QuizGenerateRequest request = largeQuizRequest();
+        when(aiService.generateQuizShard(anyString(), anyInt(), any(), any(), anyString(), anyString(), anyList(), anyList()))
+                .thenThrow(new AIServiceException(AIErrorType.TIMEOUT));
+
+        // Act & Assert
+        AIServiceException exception = assertThrows(AIServiceException.class,
+                () -> quizService.generateQuiz(request, testUser));
+        assertEquals(AIErrorType.TIMEOUT, exception.getErrorType());
+        verify(aiService, times(3)).generateQuizShard(anyString(), anyInt(), any(), any(), anyString(),
+                anyString(), anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("generateQuiz - Numero di domande oltre il limite: ridotto, blocchi non oltre quiz.shards.max")
+    void testGenerateQuiz_BoundedSizeAndShards() {
+        // Arrange: 500 domande → 50, con al massimo 2 blocchi da 25 (più una di scorta)
+        QuizGenerateRequest request = largeQuizRequest();
+        request.setNumberOfQuestions(500);
+        ReflectionTestUtils.setField(quizService, "maxShards", 2);
+        when(aiService.generateQuizShard(anyString(), anyInt(), any(), any(), anyString(), anyString(), anyList(), anyList()))
+                .thenThrow(new AIServiceException(AIErrorType.TIMEOUT));
+
+        // Act
+        assertThrows(AIServiceException.class, () -> quizService.generateQuiz(request, testUser));
+
+        // Assert
+        assertEquals(50, request.getNumberOfQuestions());
+        verify(aiService, times(2)).generateQuizShard(anyString(), eq(26), any(), any(), anyString(),
+                anyString(), anyList(), anyList());
+    }
+
     @Test
     @DisplayName("generateQuiz (deprecated) - Usa selfProxy")
     void testGenerateQuizDeprecated_UsesSelfProxy() {
@@ -233,12 +523,42 @@ class QuizServiceImplTest {
         when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
 
         // Act
-        QuizResultResponse result = quizService.submitAnswers(request, userId);
+        QuizResultResponse result = quizService.submitAnswers(request, testUser);
 
         // Assert
         assertNotNull(result);
         assertEquals(quizId, result.getQuizId());
+        assertEquals(30, result.getXpEarned());
+        assertEquals(130, result.getTotalXp());
         verify(quizRepository, times(1)).save(testQuiz);
+        verify(gamificationEventService).publishQuizCompleted(testUser, result.isPassed(), testQuiz.getTopic(),
+                testQuiz.getSubject(), result.getScorePercentage(), result.getTotalQuestions(), result.getScore());
+    }
+
+    @Test
+    @DisplayName("submitAnswers - Risposte salvate nel tentativo, domanda invariata")
+    void testSubmitAnswers_RecordsAttempt() {
+        // Arrange
+        QuizAnswerRequest request = new QuizAnswerRequest(quizId, Map.of(questionId, "b"));
+        testQuiz.setQuestions(new ArrayList<>(List.of(testQuestion)));
+        QuizAttempt open = new QuizAttempt(testQuiz, testUser, 2);
+        open.start();
+
+        when(quizRepository.findByIdAndUserId(quizId, userId)).thenReturn(Optional.of(testQuiz));
+        when(quizAttemptRepository.findFirstByQuizIdAndUserIdOrderByAttemptNumberDesc(quizId, userId))
+                .thenReturn(Optional.of(open));
+        when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
+
+        // Act
+        QuizResultResponse result = quizService.submitAnswers(request, testUser);
+
+        // Assert
+        assertEquals(0, result.getScore());
+        assertEquals("B", result.getQuestionResults().get(0).getUserAnswer());
+        assertTrue(open.isCompleted());
+        assertEquals(1, open.getAnswers().size());
+        assertEquals("A", testQuestion.getCorrectAnswer());
+        verify(quizAttemptRepository).save(open);
     }
 
     @Test
@@ -257,12 +577,77 @@ class QuizServiceImplTest {
         when(quizRepository.findByIdAndUserId(quizId, userId)).thenReturn(Optional.of(testQuiz));
 
         // Act
-        QuizResultResponse result = quizService.submitAnswers(request, userId);
+        QuizResultResponse result = quizService.submitAnswers(request, testUser);
 
         // Assert
         assertNotNull(result);
         assertEquals(quizId, result.getQuizId());
         verify(quizRepository, never()).save(any(Quiz.class));
+        verifyNoInteractions(gamificationEventService);
+    }
+
+    @Test
+    @DisplayName("submitAnswers - Studente assegnato: risposte nel suo tentativo, quiz del docente invariato")
+    void testSubmitAnswers_AssignedStudent() {
+        // Arrange
+        User student = new User();
+        student.setId(UUID.randomUUID());
+        testQuiz.setQuestions(new ArrayList<>(List.of(testQuestion)));
+        QuizAttempt provisioned = new QuizAttempt(testQuiz, student, 1);
+        QuizAnswerRequest request = new QuizAnswerRequest(quizId, Map.of(questionId, "A"));
+
+        when(quizRepository.findByIdAndUserId(quizId, student.getId())).thenReturn(Optional.empty());
+        when(quizRepository.findById(quizId)).thenReturn(Optional.of(testQuiz));
+        when(quizAttemptRepository.existsByQuizIdAndUserId(quizId, student.getId())).thenReturn(true);
+        when(quizAttemptRepository.findFirstByQuizIdAndUserIdOrderByAttemptNumberDesc(quizId, student.getId()))
+                .thenReturn(Optional.of(provisioned));
+
+        // Act
+        QuizResultResponse result = quizService.submitAnswers(request, student);
+
+        // Assert
+        assertEquals(1, result.getScore());
+        assertTrue(provisioned.isCompleted());
+        assertEquals(0, testQuiz.getScore());
+        assertFalse(testQuiz.getIsCompleted());
+        verify(quizAttemptRepository).save(provisioned);
+        verify(quizRepository, never()).save(any(Quiz.class));
+    }
+
+    @Test
+    @DisplayName("submitAnswers - Evento XP non salvato: il tentativo viene annullato con la transazione")
+    void testSubmitAnswers_PublishFailureRollsBack() {
+        // Arrange
+        testQuiz.setQuestions(new ArrayList<>(List.of(testQuestion)));
+        testQuiz.setIsCompleted(false);
+        QuizAnswerRequest request = new QuizAnswerRequest(quizId, Map.of(questionId, "A"));
+        TransactionStatus status = new SimpleTransactionStatus();
+
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        when(quizRepository.findByIdAndUserId(quizId, userId)).thenReturn(Optional.of(testQuiz));
+        when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
+        when(gamificationEventService.publishQuizCompleted(any(), anyBoolean(), any(), any(), anyDouble(),
+                anyInt(), anyInt())).thenThrow(new IllegalStateException("Outbox non disponibile"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> transactional(quizService).submitAnswers(request, testUser));
+        verify(quizAttemptRepository).save(any(QuizAttempt.class));
+        verify(transactionManager).rollback(status);
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    @DisplayName("startQuiz - Quiz di un altro utente non assegnato")
+    void testStartQuiz_NotAssigned() {
+        // Arrange
+        UUID otherId = UUID.randomUUID();
+        when(quizRepository.findByIdAndUserId(quizId, otherId)).thenReturn(Optional.empty());
+        when(quizRepository.findById(quizId)).thenReturn(Optional.of(testQuiz));
+        when(quizAttemptRepository.existsByQuizIdAndUserId(quizId, otherId)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> quizService.startQuiz(quizId, otherId));
+        verify(quizAttemptRepository, never()).save(any());
     }
 
     // ========================================
@@ -433,6 +818,34 @@ class QuizServiceImplTest {
         verify(quizRepository, times(1)).save(testQuiz);
     }
 
+    @Test
+    @DisplayName("retryQuiz - Nuovo tentativo, lo storico resta")
+    void testRetryQuiz_KeepsHistory() {
+        // Arrange
+        QuizAttempt first = new QuizAttempt(testQuiz, testUser, 1);
+        first.answer(testQuestion, "A");
+        first.complete(1);
+        testQuiz.setQuestions(new ArrayList<>(List.of(testQuestion)));
+        testQuiz.applyAttempt(first);
+
+        when(quizRepository.findByIdAndUserId(quizId, userId)).thenReturn(Optional.of(testQuiz));
+        when(quizAttemptRepository.findFirstByQuizIdAndUserIdOrderByAttemptNumberDesc(quizId, userId))
+                .thenReturn(Optional.of(first));
+        when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
+
+        // Act
+        Quiz result = quizService.retryQuiz(quizId, userId);
+
+        // Assert
+        ArgumentCaptor<QuizAttempt> captor = ArgumentCaptor.forClass(QuizAttempt.class);
+        verify(quizAttemptRepository).save(captor.capture());
+        assertEquals(2, captor.getValue().getAttemptNumber());
+        assertFalse(result.getIsCompleted());
+        assertNull(result.getQuestions().get(0).getUserAnswer());
+        assertEquals(100.0, first.getPercentage());
+        verify(questionRepository, never()).saveAll(any());
+    }
+
     // ========================================
     // TEST: getUserStats
     // ========================================
@@ -492,7 +905,7 @@ class QuizServiceImplTest {
 
         when(quizMapper.toEntity(request, testUser)).thenReturn(testQuiz);
         when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
-        when(aiService.generateQuiz(anyString(), anyInt(), eq(DifficultyLevel.PRINCIPIANTE), any(), anyString()))
+        when(aiService.generateQuiz(anyString(), anyInt(), eq(DifficultyLevel.PRINCIPIANTE), any(), anyString(), anyList()))
                 .thenReturn("[]");
 
         // Act
@@ -500,7 +913,7 @@ class QuizServiceImplTest {
 
         // Assert
         verify(aiService, times(1)).generateQuiz(
-                anyString(), anyInt(), eq(DifficultyLevel.PRINCIPIANTE), any(), anyString());
+                anyString(), anyInt(), eq(DifficultyLevel.PRINCIPIANTE), any(), anyString(), anyList());
     }
 
     @Test
@@ -516,7 +929,7 @@ class QuizServiceImplTest {
 
         when(quizMapper.toEntity(request, testUser)).thenReturn(testQuiz);
         when(quizRepository.save(any(Quiz.class))).thenReturn(testQuiz);
-        when(aiService.generateQuiz(anyString(), anyInt(), eq(DifficultyLevel.AVANZATO), any(), anyString()))
+        when(aiService.generateQuiz(anyString(), anyInt(), eq(DifficultyLevel.AVANZATO), any(), anyString(), anyList()))
                 .thenReturn("[]");
 
         // Act
@@ -524,6 +937,6 @@ class QuizServiceImplTest {
 
         // Assert
         verify(aiService, times(1)).generateQuiz(
-                anyString(), anyInt(), eq(DifficultyLevel.AVANZATO), any(), anyString());
+                anyString(), anyInt(), eq(DifficultyLevel.AVANZATO), any(), anyString(), anyList());
     }
 }
@@ -0,0 +1,259 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.dto.quiz.QuizGenerateRequest;
+import com.ai.studybuddy.exception.AIServiceException;
+import com.ai.studybuddy.exception.AIServiceException.AIErrorType;
+import com.ai.studybuddy.mapper.QuizMapper;
+import com.ai.studybuddy.model.quiz.Question;
+import com.ai.studybuddy.model.quiz.Quiz;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.repository.QuestionRepository;
+import com.ai.studybuddy.repository.QuizRepository;
+import com.ai.studybuddy.service.inter.AIGenerationMetrics;
+import com.ai.studybuddy.service.inter.AIGenerationPool;
+import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.QuestionBankService;
+import com.ai.studybuddy.service.inter.QuizStreamService;
+import com.ai.studybuddy.service.inter.TopicService;
+import com.ai.studybuddy.service.inter.WarmPoolService;
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.EducationLevel;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QuizStreamServiceImpl - Test Suite Completo")
+class QuizStreamServiceImplTest {
+
+    @Mock
+    private QuizRepository quizRepository;
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @Mock
+    private AIService aiService;
+
+    @Mock
+    private TopicService topicService;
+
+    @Mock
+    private QuestionBankService questionBankService;
+
+    @Mock
+    private AIGenerationPool generationPool;
+
+    @Mock
+    private AIGenerationMetrics generationMetrics;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private WarmPoolService warmPoolService;
+
+    private QuizStreamServiceImpl quizStreamService;
+
+    private User testUser;
+    private UUID quizId;
+    private RecordingListener listener;
+
+    @BeforeEach
+    void setUp() {
+        quizStreamService = new QuizStreamServiceImpl(quizRepository, questionRepository, aiService,
+                new QuizMapper(), topicService, questionBankService,
+                new TransactionTemplate(transactionManager), generationPool, generationMetrics, warmPoolService);
+
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+        testUser.setPreferredLanguage("it");
+        testUser.setEducationLevel(EducationLevel.UNIVERSITY);
+        quizId = UUID.randomUUID();
+        listener = new RecordingListener();
+
+        lenient().when(topicService.canonicalize(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(quizRepository.save(any(Quiz.class))).thenAnswer(invocation -> {
+            Quiz quiz = invocation.getArgument(0);
+            quiz.setId(quizId);
+            return quiz;
+        });
+        lenient().when(questionRepository.save(any(Question.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(questionBankService.takeQuestions(any(), any(), anyInt())).thenReturn(List.of());
+    }
+
+    private static QuizGenerateRequest request(int numberOfQuestions) {
+        return QuizGenerateRequest.builder()
+                .topic("Fotosintesi")
+                .numberOfQuestions(numberOfQuestions)
+                .difficultyLevel(DifficultyLevel.INTERMEDIO)
+                .language("it")
+                .build();
+    }
+
+    private static String question(String text) {
+        return "{\"question\": \"" + text + "\", \"options\": [\"a\", \"b\", \"c\", \"d\"], \"correct\": \"B\"}";
+    }
+
+    /**
+     * La risposta AI arriva nei pezzi indicati; prima di ogni pezzo si registra
+     * quante domande il listener aveva già ricevuto
+     */
+    private List<Integer> stubStream(RuntimeException failure, String... chunks) {
+        List<Integer> receivedBeforeChunk = new ArrayList<>();
+        doAnswer(invocation -> {
+            Consumer<String> onChunk = invocation.getArgument(5);
+            for (String chunk : chunks) {
+                receivedBeforeChunk.add(listener.questions.size());
+                onChunk.accept(chunk);
+            }
+            if (failure != null) throw failure;
+            return null;
+        }).when(aiService).streamQuiz(anyString(), anyInt(), any(), any(), anyString(), any());
+        return receivedBeforeChunk;
+    }
+
+    private static class RecordingListener implements QuizStreamService.Listener {
+        Quiz created;
+        int bankedAtCreation;
+        final List<Question> questions = new ArrayList<>();
+
+        @Override
+        public void onQuizCreated(Quiz quiz) {
+            created = quiz;
+            bankedAtCreation = quiz.getQuestions().size();
+        }
+
+        @Override
+        public void onQuestion(Question question) {
+            questions.add(question);
+        }
+    }
+
+    // ========================================
+    // TEST: generateProgressive
+    // ========================================
+
+    @Test
+    @DisplayName("generateProgressive - Ogni domanda salvata e inviata appena completa")
+    void testGenerateProgressive_QuestionsAsTheyArrive() {
+        // Arrange
+        String response = "[" + question("Uno?") + ", " + question("Due?") + ", " + question("Tre?") + "]";
+        int cut = response.indexOf("Du") + 2;
+        List<Integer> receivedBeforeChunk = stubStream(null, response.substring(0, cut), response.substring(cut));
+
+        // Act
+        Quiz quiz = quizStreamService.generateProgressive(request(3), testUser, listener);
+
+        // Assert
+        assertEquals(quizId, listener.created.getId());
+        assertEquals(List.of(0, 1), receivedBeforeChunk);
+        assertEquals(List.of("Uno?", "Due?", "Tre?"),
+                listener.questions.stream().map(Question::getQuestionText).toList());
+        assertEquals(List.of(1, 2, 3), listener.questions.stream().map(Question::getQuestionOrder).toList());
+        assertEquals("B", listener.questions.get(0).getCorrectAnswer());
+        assertEquals(3, quiz.getNumberOfQuestions());
+        verify(questionRepository, times(3)).save(any(Question.class));
+        verify(quizRepository).updateNumberOfQuestions(quizId, 3);
+        verify(aiService).streamQuiz(eq("Fotosintesi"), eq(3), eq(DifficultyLevel.INTERMEDIO),
+                eq(EducationLevel.UNIVERSITY), eq("it"), any());
+        verify(warmPoolService).take(WarmPoolService.PoolKey.of(GeneratedContentType.QUIZ, "Fotosintesi",
+                DifficultyLevel.INTERMEDIO, EducationLevel.UNIVERSITY, "it"), 0);
+    }
+
+    @Test
+    @DisplayName("generateProgressive - Domande dalla banca subito, AI solo per le mancanti, duplicati scartati")
+    void testGenerateProgressive_BankAndDuplicates() {
+        // Arrange
+        Question banked = new Question();
+        banked.setQuestionText("Uno?");
+        banked.setContentHash(Question.hashOf("Uno?"));
+        when(questionBankService.takeQuestions(any(), eq(testUser.getId()), eq(3))).thenReturn(List.of(banked));
+        stubStream(null, "[" + question("Uno?") + "," + question("Due?") + "," + question("Tre?") + ","
+                + question("Quattro?") + "]");
+
+        // Act
+        Quiz quiz = quizStreamService.generateProgressive(request(3), testUser, listener);
+
+        // Assert
+        assertEquals(1, listener.bankedAtCreation);
+        assertEquals(List.of("Due?", "Tre?"), listener.questions.stream().map(Question::getQuestionText).toList());
+        assertEquals(3, quiz.getQuestions().size());
+        verify(aiService).streamQuiz(anyString(), eq(2), any(), any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("generateProgressive - Streaming interrotto: restano le domande già salvate")
+    void testGenerateProgressive_PartialFailure() {
+        // Arrange
+        stubStream(new AIServiceException(AIErrorType.TIMEOUT), "[" + question("Uno?") + ", {\"question\": \"Du");
+
+        // Act
+        Quiz quiz = quizStreamService.generateProgressive(request(3), testUser, listener);
+
+        // Assert
+        assertEquals(1, quiz.getQuestions().size());
+        assertEquals(1, listener.questions.size());
+        verify(quizRepository, never()).deleteById(any());
+        verify(generationMetrics).recordResponse(3, 1, true);
+    }
+
+    @Test
+    @DisplayName("generateProgressive - Nessuna domanda salvata: quiz eliminato ed errore propagato")
+    void testGenerateProgressive_NothingGenerated() {
+        // Arrange
+        stubStream(new AIServiceException(AIErrorType.RATE_LIMIT), "[{\"question\": \"Uno");
+
+        // Act & Assert
+        AIServiceException exception = assertThrows(AIServiceException.class, () ->
+                quizStreamService.generateProgressive(request(3), testUser, listener));
+        assertEquals(AIErrorType.RATE_LIMIT, exception.getErrorType());
+        verify(quizRepository).deleteById(quizId);
+        verify(questionRepository, never()).save(any());
+        verify(generationMetrics).recordFailure(3);
+    }
+
+    @Test
+    @DisplayName("generateProgressive - Risposta senza domande valide: errore di parsing")
+    void testGenerateProgressive_InvalidResponse() {
+        // Arrange
+        stubStream(null, "Mi dispiace, non posso generare il quiz.");
+
+        // Act & Assert
+        AIServiceException exception = assertThrows(AIServiceException.class, () ->
+                quizStreamService.generateProgressive(request(3), testUser, listener));
+        assertEquals(AIErrorType.PARSE_ERROR, exception.getErrorType());
+        verify(quizRepository).deleteById(quizId);
+    }
+
+    @Test
+    @DisplayName("generateProgressive - Numero di domande oltre il limite: ridotto a quiz.max-questions")
+    void testGenerateProgressive_BoundedSize() {
+        // Arrange
+        QuizGenerateRequest request = request(5000);
+        stubStream(null, "[" + question("Uno?") + "]");
+
+        // Act
+        quizStreamService.generateProgressive(request, testUser, listener);
+
+        // Assert
+        assertEquals(50, request.getNumberOfQuestions());
+        verify(questionBankService).takeQuestions(any(), eq(testUser.getId()), eq(50));
+        verify(aiService).streamQuiz(anyString(), eq(50), any(), any(), anyString(), any());
+    }
+}
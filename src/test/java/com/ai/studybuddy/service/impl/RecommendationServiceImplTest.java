@@ -1,18 +1,25 @@
 package com.ai.studybuddy.service.impl;
 
 import com.ai.studybuddy.dto.recommendation.RecommendationResponse;
+import com.ai.studybuddy.event.ProgressUpdatedEvent;
+import com.ai.studybuddy.event.StatsUpdatedEvent;
 import com.ai.studybuddy.model.gamification.UserStats;
 import com.ai.studybuddy.model.recommendation.Recommendation;
+import com.ai.studybuddy.model.recommendation.RecommendationKey;
+import com.ai.studybuddy.model.topic.RelatedTopic;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.model.user.UserProgress;
 import com.ai.studybuddy.repository.RecommendationRepository;
 import com.ai.studybuddy.repository.UserProgressRepository;
+import com.ai.studybuddy.service.inter.EventStreamService;
 import com.ai.studybuddy.service.inter.GamificationService;
+import com.ai.studybuddy.service.inter.RelatedTopicService;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -38,6 +45,12 @@ class RecommendationServiceImplTest {
     @Mock
     private GamificationService gamificationService;
 
+    @Mock
+    private EventStreamService eventStreamService;
+
+    @Mock
+    private RelatedTopicService relatedTopicService;
+
     @InjectMocks
     private RecommendationServiceImpl recommendationService;
 
@@ -92,286 +105,249 @@ class RecommendationServiceImplTest {
     @DisplayName("generateRecommendations - streak reminder quando streak > 0 e lastActivity < today")
     void testGenerateRecommendations_StreakReminder() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(testStats.getCurrentStreak()).thenReturn(5);
+        when(testStats.getEffectiveStreak()).thenReturn(5);
         when(testStats.getLastActivityDate()).thenReturn(LocalDate.now().minusDays(1));
-        
-        setupDefaultMocks();
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot();
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
-        verify(recommendationRepository, atLeastOnce()).save(any());
+        assertTrue(containsType(result, Recommendation.RecommendationType.STREAK_REMINDER));
+        verify(recommendationRepository, times(1)).saveAll(any());
     }
 
     @Test
     @DisplayName("generateRecommendations - no streak reminder quando lastActivity è oggi")
     void testGenerateRecommendations_NoStreakReminderToday() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(testStats.getCurrentStreak()).thenReturn(5);
+        when(testStats.getEffectiveStreak()).thenReturn(5);
         when(testStats.getLastActivityDate()).thenReturn(LocalDate.now());
-        
-        setupDefaultMocks();
+        setupSnapshot();
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertFalse(containsType(result, Recommendation.RecommendationType.STREAK_REMINDER));
     }
 
     @Test
     @DisplayName("generateRecommendations - no streak reminder quando streak = 0")
     void testGenerateRecommendations_NoStreakReminderZeroStreak() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(testStats.getCurrentStreak()).thenReturn(0);
-        
-        setupDefaultMocks();
+        when(testStats.getEffectiveStreak()).thenReturn(0);
+        setupSnapshot();
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertFalse(containsType(result, Recommendation.RecommendationType.STREAK_REMINDER));
+    }
+
+    @Test
+    @DisplayName("generateRecommendations - no streak reminder quando lo streak salvato è già interrotto")
+    void testGenerateRecommendations_NoStreakReminderStaleStreak() {
+        UserStats staleStats = new UserStats();
+        staleStats.setCurrentStreak(5);
+        staleStats.setLastActivityDate(LocalDate.now().minusDays(3));
+        when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(staleStats);
+        setupSnapshot();
+
+        List<Recommendation> result = recommendationService.generateRecommendations(testUser);
+
+        assertEquals(0, staleStats.getEffectiveStreak());
+        assertFalse(containsType(result, Recommendation.RecommendationType.STREAK_REMINDER));
     }
 
     @Test
     @DisplayName("generateRecommendations - weak topics (score < 60%)")
     void testGenerateRecommendations_WeakTopics() {
-        UserProgress weakProgress = createUserProgress("Math", 45.0);
-        
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findWeakTopics(testUserId, 60.0)).thenReturn(Arrays.asList(weakProgress));
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findRecentTopics(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot(createUserProgress("Algebra", 45.0));
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
-        verify(recommendationRepository, atLeastOnce()).save(any());
+        Recommendation weak = findByTopic(result, "Algebra");
+        assertNotNull(weak);
+        assertEquals(Recommendation.RecommendationType.WEAKNESS_FOCUS, weak.getType());
+        assertEquals(Recommendation.Priority.HIGH, weak.getPriority());
     }
 
     @Test
     @DisplayName("generateRecommendations - topics needing review (7+ giorni)")
     void testGenerateRecommendations_TopicsNeedingReview() {
-        UserProgress oldProgress = createUserProgress("History", 70.0);
+        UserProgress oldProgress = createUserProgress("Storia", 85.0);
         oldProgress.setLastActivityAt(LocalDateTime.now().minusDays(10));
-        
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(eq(testUserId), any())).thenReturn(Arrays.asList(oldProgress));
-        when(userProgressRepository.findRecentTopics(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot(oldProgress);
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
-        verify(recommendationRepository, atLeastOnce()).save(any());
+        Recommendation review = findByTopic(result, "Storia");
+        assertNotNull(review);
+        assertEquals(Recommendation.RecommendationType.REVIEW_TOPIC, review.getType());
+        assertEquals(Recommendation.Priority.MEDIUM, review.getPriority());
     }
 
     @Test
     @DisplayName("generateRecommendations - review topic con priorità HIGH (14+ giorni)")
     void testGenerateRecommendations_ReviewTopicHighPriority() {
-        UserProgress veryOldProgress = createUserProgress("Science", 70.0);
+        UserProgress veryOldProgress = createUserProgress("Geografia", 85.0);
         veryOldProgress.setLastActivityAt(LocalDateTime.now().minusDays(20));
-        
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(eq(testUserId), any())).thenReturn(Arrays.asList(veryOldProgress));
-        when(userProgressRepository.findRecentTopics(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot(veryOldProgress);
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        Recommendation review = findByTopic(result, "Geografia");
+        assertNotNull(review);
+        assertEquals(Recommendation.Priority.HIGH, review.getPriority());
     }
 
     @Test
     @DisplayName("generateRecommendations - continue studying recent topics (60-80%)")
     void testGenerateRecommendations_ContinueStudying() {
-        UserProgress recentProgress = createUserProgress("Physics", 70.0);
-        
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findRecentTopics(testUserId, 3)).thenReturn(Arrays.asList(recentProgress));
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot(createUserProgress("Fisica", 70.0));
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        Recommendation continueRec = findByTopic(result, "Fisica");
+        assertNotNull(continueRec);
+        assertEquals("Continua con: Fisica", continueRec.getTitle());
+    }
+
+    @Test
+    @DisplayName("generateRecommendations - continue studying solo per i 3 argomenti più recenti")
+    void testGenerateRecommendations_ContinueStudyingOnlyRecent() {
+        UserProgress oldest = createUserProgress("Chimica", 70.0);
+        oldest.setLastActivityAt(LocalDateTime.now().minusDays(4));
+        UserProgress p1 = createUserProgress("Fisica", 85.0);
+        UserProgress p2 = createUserProgress("Storia", 85.0);
+        UserProgress p3 = createUserProgress("Latino", 85.0);
+        when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
+        setupSnapshot(oldest, p1, p2, p3);
+
+        List<Recommendation> result = recommendationService.generateRecommendations(testUser);
+
+        assertNull(findByTopic(result, "Chimica"));
+    }
+
+    @Test
+    @DisplayName("generateRecommendations - argomenti correlati non ancora studiati")
+    void testGenerateRecommendations_RelatedTopics() {
+        when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
+        setupSnapshot(createUserProgress("Fisica", 70.0), createUserProgress("Chimica", 70.0));
+        lenient().when(relatedTopicService.getRelatedTopics(eq("Fisica"), anyInt())).thenReturn(List.of(
+                new RelatedTopic("chimica", 0.9),
+                new RelatedTopic("Astronomia", 0.7),
+                new RelatedTopic("Matematica", 0.5)));
+
+        List<Recommendation> result = recommendationService.generateRecommendations(testUser);
+
+        Recommendation related = findByTopic(result, "Astronomia");
+        assertNotNull(related);
+        assertEquals(Recommendation.RecommendationType.NEW_TOPIC, related.getType());
+        assertEquals("Spesso studiato insieme a Fisica", related.getReason());
+        assertNotNull(findByTopic(result, "Matematica"));
+        assertNull(findByTopic(result, "chimica"));
     }
 
     @Test
     @DisplayName("generateRecommendations - no continue studying quando score < 60%")
     void testGenerateRecommendations_NoContinueStudyingLowScore() {
-        UserProgress lowProgress = createUserProgress("Chemistry", 55.0);
-        
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findRecentTopics(testUserId, 3)).thenReturn(Arrays.asList(lowProgress));
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
+        setupSnapshot(createUserProgress("Chimica", 50.0));
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertFalse(result.stream().anyMatch(r -> "Continua con: Chimica".equals(r.getTitle())));
     }
 
     @Test
     @DisplayName("generateRecommendations - no continue studying quando score >= 80%")
     void testGenerateRecommendations_NoContinueStudyingHighScore() {
-        UserProgress highProgress = createUserProgress("English", 85.0);
-        
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findRecentTopics(testUserId, 3)).thenReturn(Arrays.asList(highProgress));
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
+        setupSnapshot(createUserProgress("Biologia", 85.0));
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertFalse(result.stream().anyMatch(r -> "Continua con: Biologia".equals(r.getTitle())));
     }
 
     @Test
     @DisplayName("generateRecommendations - challenge yourself (score >= 80%)")
     void testGenerateRecommendations_ChallengeYourself() {
-        UserProgress strongProgress = createUserProgress("Biology", 90.0);
-        
+        UserProgress strongProgress = createUserProgress("Matematica", 90.0);
+        strongProgress.setQuizCompleted(12);
+        UserProgress otherProgress = createUserProgress("Inglese", 90.0);
+        otherProgress.setQuizCompleted(2);
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findRecentTopics(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(testUserId)).thenReturn(Arrays.asList(strongProgress));
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot(otherProgress, strongProgress);
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        Recommendation challenge = findByTopic(result, "Matematica");
+        assertNotNull(challenge);
+        assertEquals(Recommendation.RecommendationType.RETRY_QUIZ, challenge.getType());
+        assertNull(findByTopic(result, "Inglese"));
     }
 
     @Test
     @DisplayName("generateRecommendations - no challenge quando score < 80%")
     void testGenerateRecommendations_NoChallengeWhenLowScore() {
-        UserProgress mediumProgress = createUserProgress("Geography", 75.0);
-        
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findMostStudiedTopics(testUserId)).thenReturn(Arrays.asList(mediumProgress));
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findRecentTopics(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
+        setupSnapshot(createUserProgress("Italiano", 75.0));
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertFalse(containsType(result, Recommendation.RecommendationType.RETRY_QUIZ));
     }
 
     @Test
     @DisplayName("generateRecommendations - improve average (< 70%)")
     void testGenerateRecommendations_ImproveAverage() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findRecentTopics(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(testUserId)).thenReturn(65.0);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot(createUserProgress("Algebra", 55.0), createUserProgress("Fisica", 75.0));
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertTrue(result.stream().anyMatch(r -> "Migliora la tua media!".equals(r.getTitle())));
     }
 
     @Test
     @DisplayName("generateRecommendations - study more (< 60 minutes)")
     void testGenerateRecommendations_StudyMore() {
+        UserProgress progress = createUserProgress("Fisica", 85.0);
+        progress.setTotalStudyMinutes(30);
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findRecentTopics(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(testUserId)).thenReturn(30);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot(progress);
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertTrue(result.stream().anyMatch(r -> "Aumenta il tempo di studio".equals(r.getTitle())));
     }
 
     @Test
-    @DisplayName("generateRecommendations - study more quando null")
+    @DisplayName("generateRecommendations - study more quando nessun progresso")
     void testGenerateRecommendations_StudyMoreNullMinutes() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findRecentTopics(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(testUserId)).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot();
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertTrue(result.stream().anyMatch(r -> "Aumenta il tempo di studio".equals(r.getTitle())));
     }
 
     @Test
     @DisplayName("generateRecommendations - explore new topics (< 5)")
     void testGenerateRecommendations_ExploreNewTopics() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findRecentTopics(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(testUserId)).thenReturn(3L);
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot(createUserProgress("A", 85.0), createUserProgress("B", 85.0), createUserProgress("C", 85.0));
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        Recommendation explore = result.stream()
+                .filter(r -> "Esplora nuovi argomenti!".equals(r.getTitle()))
+                .findFirst().orElse(null);
+        assertNotNull(explore);
+        assertTrue(explore.getDescription().contains("3 argomenti"));
     }
 
     @Test
@@ -379,14 +355,13 @@ class RecommendationServiceImplTest {
     void testGenerateRecommendations_DailyXpGoal() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
         when(testStats.getWeeklyXp()).thenReturn(30);
-        
-        setupDefaultMocks();
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        UserProgress progress = createUserProgress("Fisica", 85.0);
+        progress.setTotalStudyMinutes(120);
+        setupSnapshot(progress);
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertTrue(result.stream().anyMatch(r -> "Raggiungi 50 XP oggi!".equals(r.getTitle())));
     }
 
     @Test
@@ -394,14 +369,11 @@ class RecommendationServiceImplTest {
     void testGenerateRecommendations_DailyXpGoalNull() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
         when(testStats.getWeeklyXp()).thenReturn(null);
-        
-        setupDefaultMocks();
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot();
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertTrue(containsType(result, Recommendation.RecommendationType.DAILY_GOAL));
     }
 
     @Test
@@ -409,14 +381,15 @@ class RecommendationServiceImplTest {
     void testGenerateRecommendations_TryQuiz() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
         when(testStats.getQuizzesCompleted()).thenReturn(0);
-        
-        setupDefaultMocks();
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        List<UserProgress> progress = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            progress.add(createUserProgress("Topic " + i, 85.0));
+        }
+        setupSnapshot(progress.toArray(new UserProgress[0]));
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertTrue(result.stream().anyMatch(r -> "Prova a creare un Quiz!".equals(r.getTitle())));
     }
 
     @Test
@@ -424,14 +397,11 @@ class RecommendationServiceImplTest {
     void testGenerateRecommendations_TryQuizNull() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
         when(testStats.getQuizzesCompleted()).thenReturn(null);
-        
-        setupDefaultMocks();
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot();
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertTrue(containsType(result, Recommendation.RecommendationType.NEW_TOPIC));
     }
 
     @Test
@@ -439,14 +409,11 @@ class RecommendationServiceImplTest {
     void testGenerateRecommendations_TryFlashcards() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
         when(testStats.getFlashcardsStudied()).thenReturn(0);
-        
-        setupDefaultMocks();
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot();
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertTrue(containsType(result, Recommendation.RecommendationType.STUDY_FLASHCARDS));
     }
 
     @Test
@@ -454,14 +421,11 @@ class RecommendationServiceImplTest {
     void testGenerateRecommendations_TryFlashcardsNull() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
         when(testStats.getFlashcardsStudied()).thenReturn(null);
-        
-        setupDefaultMocks();
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        setupSnapshot();
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertTrue(containsType(result, Recommendation.RecommendationType.STUDY_FLASHCARDS));
     }
 
     @Test
@@ -469,38 +433,171 @@ class RecommendationServiceImplTest {
     void testGenerateRecommendations_Milestone() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
         when(testStats.getQuizzesCompleted()).thenReturn(15);
-        
-        setupDefaultMocks();
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(false);
-        when(recommendationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(testStats.getWeeklyXp()).thenReturn(100);
+        UserProgress progress = createUserProgress("Fisica", 85.0);
+        progress.setTotalStudyMinutes(120);
+        setupSnapshot(progress);
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
+        assertTrue(result.stream().anyMatch(r -> "Complimenti! 10+ Quiz completati".equals(r.getTitle())));
     }
 
     @Test
     @DisplayName("generateRecommendations - gestisce eccezione da UserProgress")
     void testGenerateRecommendations_HandlesException() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenThrow(new RuntimeException("Database error"));
+        when(userProgressRepository.findByUserId(testUserId)).thenThrow(new RuntimeException("Database error"));
+        when(recommendationRepository.saveAll(any())).thenAnswer(i -> i.getArgument(0));
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
         assertNotNull(result);
+        assertTrue(containsType(result, Recommendation.RecommendationType.STUDY_FLASHCARDS));
+    }
+
+    @Test
+    @DisplayName("generateRecommendations - una query per lo snapshot e una per le chiavi esistenti")
+    void testGenerateRecommendations_SingleSnapshotAndBatchInsert() {
+        UserProgress oldProgress = createUserProgress("Storia", 45.0);
+        oldProgress.setLastActivityAt(LocalDateTime.now().minusDays(10));
+        when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
+        setupSnapshot(oldProgress, createUserProgress("Algebra", 45.0), createUserProgress("Fisica", 70.0));
+
+        recommendationService.generateRecommendations(testUser);
+
+        verify(userProgressRepository, times(1)).findByUserId(testUserId);
+        verifyNoMoreInteractions(userProgressRepository);
+        verify(recommendationRepository, times(1)).findKeysByUserIdAndTypeIn(eq(testUserId), anyCollection());
+        verify(recommendationRepository, times(1)).saveAll(any());
+        verify(recommendationRepository, never()).existsByUserIdAndTypeAndTopic(any(), any(), any());
+        verify(recommendationRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("generateRecommendations - stessa chiave generata due volte, salvata una sola")
+    void testGenerateRecommendations_DeduplicatesWithinRun() {
+        // Storia: da ripassare (REVIEW_TOPIC) e recente 60-80% (REVIEW_TOPIC)
+        UserProgress progress = createUserProgress("Storia", 70.0);
+        progress.setLastActivityAt(LocalDateTime.now().minusDays(10));
+        when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
+        setupSnapshot(progress);
+
+        List<Recommendation> result = recommendationService.generateRecommendations(testUser);
+
+        assertEquals(1, result.stream().filter(r -> "Storia".equals(r.getTopic())).count());
+        assertEquals("Ripasso consigliato: Storia", findByTopic(result, "Storia").getTitle());
     }
 
     @Test
     @DisplayName("createRecommendation - non crea duplicati")
     void testCreateRecommendation_NoDuplicates() {
         when(gamificationService.getOrCreateUserStats(testUserId)).thenReturn(testStats);
-        setupDefaultMocks();
-        when(recommendationRepository.existsByUserIdAndTypeAndTopic(any(), any(), any())).thenReturn(true);
+        when(userProgressRepository.findByUserId(testUserId)).thenReturn(Collections.emptyList());
+        when(recommendationRepository.findKeysByUserIdAndTypeIn(eq(testUserId), anyCollection()))
+                .thenAnswer(i -> {
+                    Collection<Recommendation.RecommendationType> types = i.getArgument(1);
+                    List<RecommendationKey> keys = new ArrayList<>();
+                    types.forEach(type -> keys.add(new RecommendationKey(type, null)));
+                    return keys;
+                });
 
         List<Recommendation> result = recommendationService.generateRecommendations(testUser);
 
-        assertNotNull(result);
-        verify(recommendationRepository, never()).save(any());
+        assertTrue(result.isEmpty());
+        verify(recommendationRepository, never()).saveAll(any());
+        verifyNoInteractions(eventStreamService);
+    }
+
+    // ========================================
+    // TEST: aggiornamento incrementale
+    // ========================================
+
+    @Test
+    @DisplayName("onProgressUpdated - argomento debole: crea WEAKNESS_FOCUS")
+    void testOnProgressUpdated_WeakTopicInserted() {
+        UserProgress progress = createUserProgress("Algebra", 40.0);
+        when(userProgressRepository.findByUserIdAndTopic(testUserId, "Algebra")).thenReturn(Optional.of(progress));
+        when(recommendationRepository.findByUserIdAndTopic(testUserId, "Algebra")).thenReturn(Collections.emptyList());
+
+        recommendationService.onProgressUpdated(new ProgressUpdatedEvent(testUser, "Algebra"));
+
+        ArgumentCaptor<List<Recommendation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(recommendationRepository).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(Recommendation.RecommendationType.WEAKNESS_FOCUS, captor.getValue().get(0).getType());
+        verify(eventStreamService).publish(eq(testUserId), eq(EventStreamService.EVENT_RECOMMENDATION), any());
+        verify(userProgressRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    @DisplayName("onProgressUpdated - regola non più valida: raccomandazione attiva ritirata")
+    void testOnProgressUpdated_RetiresActive() {
+        UserProgress progress = createUserProgress("Algebra", 75.0);
+        Recommendation weak = new Recommendation();
+        weak.setUser(testUser);
+        weak.setType(Recommendation.RecommendationType.WEAKNESS_FOCUS);
+        weak.setTopic("Algebra");
+        weak.setExpiresAt(LocalDateTime.now().plusDays(1));
+        when(userProgressRepository.findByUserIdAndTopic(testUserId, "Algebra")).thenReturn(Optional.of(progress));
+        when(recommendationRepository.findByUserIdAndTopic(testUserId, "Algebra")).thenReturn(List.of(weak));
+
+        recommendationService.onProgressUpdated(new ProgressUpdatedEvent(testUser, "Algebra"));
+
+        assertFalse(weak.getExpiresAt().isAfter(LocalDateTime.now()));
+        ArgumentCaptor<List<Recommendation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(recommendationRepository).saveAll(captor.capture());
+        // WEAKNESS_FOCUS ritirata + REVIEW_TOPIC "Continua con" (score 60-80%)
+        assertTrue(captor.getValue().contains(weak));
+        assertTrue(captor.getValue().stream()
+                .anyMatch(r -> r.getType() == Recommendation.RecommendationType.REVIEW_TOPIC));
+    }
+
+    @Test
+    @DisplayName("onProgressUpdated - raccomandazione ignorata non viene ricreata")
+    void testOnProgressUpdated_DismissedNotRecreated() {
+        UserProgress progress = createUserProgress("Algebra", 40.0);
+        Recommendation dismissed = new Recommendation();
+        dismissed.setType(Recommendation.RecommendationType.WEAKNESS_FOCUS);
+        dismissed.setTopic("Algebra");
+        dismissed.dismiss();
+        when(userProgressRepository.findByUserIdAndTopic(testUserId, "Algebra")).thenReturn(Optional.of(progress));
+        when(recommendationRepository.findByUserIdAndTopic(testUserId, "Algebra")).thenReturn(List.of(dismissed));
+
+        recommendationService.onProgressUpdated(new ProgressUpdatedEvent(testUser, "Algebra"));
+
+        verify(recommendationRepository, never()).saveAll(any());
+        verifyNoInteractions(eventStreamService);
+    }
+
+    @Test
+    @DisplayName("onProgressUpdated - sfida solo per l'argomento più studiato")
+    void testOnProgressUpdated_ChallengeForTopTopic() {
+        UserProgress progress = createUserProgress("Storia", 90.0);
+        when(userProgressRepository.findByUserIdAndTopic(testUserId, "Storia")).thenReturn(Optional.of(progress));
+        when(userProgressRepository.findFirstByUserIdOrderByQuizCompletedDesc(testUserId)).thenReturn(Optional.of(progress));
+        when(recommendationRepository.findByUserIdAndTopic(testUserId, "Storia")).thenReturn(Collections.emptyList());
+
+        recommendationService.onProgressUpdated(new ProgressUpdatedEvent(testUser, "Storia"));
+
+        ArgumentCaptor<List<Recommendation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(recommendationRepository).saveAll(captor.capture());
+        assertEquals(Recommendation.RecommendationType.RETRY_QUIZ, captor.getValue().get(0).getType());
+    }
+
+    @Test
+    @DisplayName("onStatsUpdated - attività di oggi: streak reminder ritirato")
+    void testOnStatsUpdated_RetiresStreakReminder() {
+        Recommendation reminder = new Recommendation();
+        reminder.setType(Recommendation.RecommendationType.STREAK_REMINDER);
+        reminder.setExpiresAt(LocalDateTime.now().plusHours(12));
+        when(recommendationRepository.findByUserIdAndTopicIsNull(testUserId)).thenReturn(List.of(reminder));
+
+        recommendationService.onStatsUpdated(new StatsUpdatedEvent(testUser, 4, LocalDate.now(), 0));
+
+        assertFalse(reminder.getExpiresAt().isAfter(LocalDateTime.now()));
+        verify(recommendationRepository).saveAll(List.of(reminder));
+        verifyNoInteractions(eventStreamService);
     }
 
     @Test
@@ -605,13 +702,21 @@ class RecommendationServiceImplTest {
         return progress;
     }
 
-    private void setupDefaultMocks() {
-        when(userProgressRepository.findWeakTopics(any(), anyDouble())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findTopicsNeedingReview(any(), any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findRecentTopics(any(), anyInt())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.findMostStudiedTopics(any())).thenReturn(Collections.emptyList());
-        when(userProgressRepository.getOverallAverageScore(any())).thenReturn(null);
-        when(userProgressRepository.getTotalStudyMinutes(any())).thenReturn(null);
-        when(userProgressRepository.countByUserId(any())).thenReturn(0L);
+    private void setupSnapshot(UserProgress... progress) {
+        when(userProgressRepository.findByUserId(testUserId)).thenReturn(Arrays.asList(progress));
+        when(recommendationRepository.findKeysByUserIdAndTypeIn(eq(testUserId), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        lenient().when(recommendationRepository.saveAll(any())).thenAnswer(i -> i.getArgument(0));
+    }
+
+    private boolean containsType(List<Recommendation> recommendations, Recommendation.RecommendationType type) {
+        return recommendations.stream().anyMatch(r -> r.getType() == type);
+    }
+
+    private Recommendation findByTopic(List<Recommendation> recommendations, String topic) {
+        return recommendations.stream()
+                .filter(r -> topic.equals(r.getTopic()))
+                .findFirst()
+                .orElse(null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.event.ProgressUpdatedEvent;
+import com.ai.studybuddy.model.topic.RelatedTopic;
+import com.ai.studybuddy.model.topic.TopicDocument;
+import com.ai.studybuddy.model.topic.UserTopic;
+import com.ai.studybuddy.model.user.User;
+import com.ai.studybuddy.repository.FlashcardRepository;
+import com.ai.studybuddy.repository.QuestionRepository;
+import com.ai.studybuddy.repository.UserProgressRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RelatedTopicServiceImpl - Test Suite Completo")
+class RelatedTopicServiceImplTest {
+
+    @Mock
+    private UserProgressRepository userProgressRepository;
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @Mock
+    private FlashcardRepository flashcardRepository;
+
+    private RelatedTopicServiceImpl relatedTopicService;
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        relatedTopicService = new RelatedTopicServiceImpl(userProgressRepository, questionRepository, flashcardRepository);
+
+        lenient().when(questionRepository.findTopicDocuments(anyInt())).thenReturn(List.of());
+        lenient().when(flashcardRepository.findAiGeneratedDocuments(anyInt())).thenReturn(List.of());
+    }
+
+    private List<String> relatedNames(String topic) {
+        return relatedTopicService.getRelatedTopics(topic, 10).stream().map(RelatedTopic::topic).toList();
+    }
+
+    // ========================================
+    // TEST: rebuild
+    // ========================================
+
+    @Test
+    @DisplayName("rebuild - Argomenti studiati dagli stessi utenti sono correlati")
+    void testRebuild_Cooccurrence() {
+        // Arrange
+        when(userProgressRepository.findAllUserTopics()).thenReturn(List.of(
+                new UserTopic(alice, "Fisica"), new UserTopic(alice, "Matematica"), new UserTopic(alice, "Storia"),
+                new UserTopic(bob, "Fisica"), new UserTopic(bob, "Matematica"),
+                new UserTopic(carol, "Storia"), new UserTopic(carol, "Latino")));
+
+        // Act
+        int indexed = relatedTopicService.rebuild();
+
+        // Assert
+        assertEquals(4, indexed);
+        assertEquals(List.of("Matematica", "Storia"), relatedNames("fisica"));
+        assertEquals(List.of("Storia"), relatedNames("Latino"));
+        assertEquals(1, relatedTopicService.getRelatedTopics("Fisica", 1).size());
+        assertTrue(relatedTopicService.getRelatedTopics("Chimica", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("rebuild - Testi simili di domande e flashcard collegano argomenti senza utenti in comune")
+    void testRebuild_TextSimilarity() {
+        // Arrange
+        when(userProgressRepository.findAllUserTopics()).thenReturn(List.of());
+        when(questionRepository.findTopicDocuments(anyInt())).thenReturn(List.of(
+                new TopicDocument("Fotosintesi", "Quale molecola assorbe la luce nella clorofilla?"),
+                new TopicDocument("Fotosintesi", "Dove avviene il ciclo di Calvin nel cloroplasto?"),
+                new TopicDocument("Rivoluzione francese", "In che anno fu presa la Bastiglia?"),
+                new TopicDocument("Napoleone", "Quale battaglia segnò la fine di Napoleone dopo la Bastiglia?"),
+                new TopicDocument("Cellula", "Qual è la funzione del cloroplasto nella cellula vegetale?")));
+        when(flashcardRepository.findAiGeneratedDocuments(anyInt())).thenReturn(List.of(
+                new TopicDocument("ai-generated,Cellula,lang-it", "Clorofilla Pigmento verde del cloroplasto")));
+
+        // Act
+        relatedTopicService.rebuild();
+
+        // Assert
+        assertEquals(List.of("Cellula"), relatedNames("Fotosintesi"));
+        assertEquals(List.of("Napoleone"), relatedNames("Rivoluzione francese"));
+    }
+
+    @Test
+    @DisplayName("rebuild - Flashcard da appunti indicizzate sotto il loro argomento, mai sotto \"notes\"")
+    void testRebuild_NotesFlashcards() {
+        // Arrange
+        when(userProgressRepository.findAllUserTopics()).thenReturn(List.of());
+        when(questionRepository.findTopicDocuments(anyInt())).thenReturn(List.of(
+                new TopicDocument("Fotosintesi", "Quale molecola assorbe la luce nella clorofilla?"),
+                new TopicDocument("Rivoluzione francese", "In che anno fu presa la Bastiglia?"),
+                new TopicDocument("Napoleone", "Quale battaglia segnò la fine di Napoleone?"),
+                new TopicDocument("Dante", "Chi guida Dante nel Paradiso?"),
+                new TopicDocument("Impero romano", "Chi fu il primo imperatore romano?")));
+        when(flashcardRepository.findAiGeneratedDocuments(anyInt())).thenReturn(List.of(
+                new TopicDocument("ai-generated,Cellula,notes,lang-it", "Clorofilla Molecola che assorbe la luce"),
+                new TopicDocument("ai-generated,notes,Botanica,lang-it", "Clorofilla Molecola che assorbe la luce")));
+
+        // Act
+        relatedTopicService.rebuild();
+
+        // Assert
+        assertEquals(List.of("Botanica", "Cellula"), relatedNames("Fotosintesi").stream().sorted().toList());
+        assertTrue(relatedTopicService.getRelatedTopics("notes", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("rebuild - Errore sul DB: indice precedente mantenuto")
+    void testRebuild_FailureKeepsIndex() {
+        // Arrange
+        when(userProgressRepository.findAllUserTopics())
+                .thenReturn(List.of(new UserTopic(alice, "Fisica"), new UserTopic(alice, "Chimica")))
+                .thenThrow(new RuntimeException("DB down"));
+        relatedTopicService.rebuild();
+
+        // Act
+        int indexed = relatedTopicService.rebuild();
+
+        // Assert
+        assertEquals(0, indexed);
+        assertEquals(List.of("Chimica"), relatedNames("Fisica"));
+    }
+
+    // ========================================
+    // TEST: aggiornamento incrementale
+    // ========================================
+
+    @Test
+    @DisplayName("onProgressUpdated + refresh - Solo gli argomenti toccati vengono ricalcolati")
+    void testIncrementalUpdate() {
+        // Arrange
+        when(userProgressRepository.findAllUserTopics()).thenReturn(new ArrayList<>(List.of(
+                new UserTopic(alice, "Fisica"), new UserTopic(alice, "Matematica"),
+                new UserTopic(bob, "Storia"), new UserTopic(bob, "Latino"))));
+        relatedTopicService.rebuild();
+        User user = new User();
+        user.setId(alice);
+
+        // Act
+        relatedTopicService.onProgressUpdated(new ProgressUpdatedEvent(user, "Storia"));
+        List<String> beforeRefresh = relatedNames("Storia");
+        int refreshed = relatedTopicService.refresh();
+
+        // Assert
+        assertEquals(List.of("Latino"), beforeRefresh);
+        assertEquals(4, refreshed);
+        assertTrue(relatedNames("Storia").containsAll(List.of("Fisica", "Matematica", "Latino")));
+        assertTrue(relatedNames("Fisica").contains("Storia"));
+        assertEquals(List.of("Storia"), relatedNames("Latino"));
+        assertEquals(0, relatedTopicService.refresh());
+    }
+
+    @Test
+    @DisplayName("onProgressUpdated - Coppia già nota: nessun ricalcolo")
+    void testIncrementalUpdate_KnownPair() {
+        // Arrange
+        when(userProgressRepository.findAllUserTopics()).thenReturn(List.of(new UserTopic(alice, "Fisica")));
+        relatedTopicService.rebuild();
+        User user = new User();
+        user.setId(alice);
+
+        // Act
+        relatedTopicService.onProgressUpdated(new ProgressUpdatedEvent(user, "fisica"));
+
+        // Assert
+        assertEquals(0, relatedTopicService.refresh());
+    }
+
+    @Test
+    @DisplayName("topicFromTags - Argomento dopo il tag ai-generated")
+    void testTopicFromTags() {
+        assertEquals("Cellula", RelatedTopicServiceImpl.topicFromTags("ai-generated,Cellula,lang-it"));
+        assertNull(RelatedTopicServiceImpl.topicFromTags("ai-generated,lang-it"));
+        assertNull(RelatedTopicServiceImpl.topicFromTags("personale"));
+        assertNull(RelatedTopicServiceImpl.topicFromTags(null));
+        assertEquals("Cellula", RelatedTopicServiceImpl.topicFromTags("ai-generated,notes,Cellula,lang-it"));
+        assertNull(RelatedTopicServiceImpl.topicFromTags("ai-generated,notes"));
+    }
+}
@@ -0,0 +1,200 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.model.topic.Topic;
+import com.ai.studybuddy.repository.TopicRepository;
+import com.ai.studybuddy.service.inter.CounterBufferService;
+import com.ai.studybuddy.service.inter.CounterBufferService.CounterType;
+import com.ai.studybuddy.util.TopicNormalizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TopicServiceImpl - Test Suite Completo")
+class TopicServiceImplTest {
+
+    @Mock
+    private TopicRepository topicRepository;
+
+    @Mock
+    private CounterBufferService counterBufferService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TopicServiceImpl topicService;
+
+    private Topic photosynthesis;
+
+    @BeforeEach
+    void setUp() {
+        topicService = new TopicServiceImpl(topicRepository, counterBufferService, transactionManager);
+
+        photosynthesis = createTopic("Fotosintesi", 3L);
+        when(topicRepository.findAll()).thenReturn(List.of(
+                photosynthesis,
+                createTopic("Rivoluzione francese", 10L),
+                createTopic("Rivoluzione industriale", 20L),
+                createTopic("Età moderna", 0L)));
+        topicService.loadDictionary();
+    }
+
+    private Topic createTopic(String name, long usage) {
+        Topic topic = new Topic(name, TopicNormalizer.normalize(name, "it"), "it");
+        topic.setId(UUID.randomUUID());
+        topic.setUsageCount(usage);
+        return topic;
+    }
+
+    // ========================================
+    // TEST: normalizzazione
+    // ========================================
+
+    @Test
+    @DisplayName("normalize - Maiuscole, accenti, spazi e articoli")
+    void testNormalize() {
+        assertEquals("fotosintesi", TopicNormalizer.normalize("  La   Fotosintesi ", "it"));
+        assertEquals("algebra lineare", TopicNormalizer.normalize("L'Algebra lineare!", "it"));
+        assertEquals("eta moderna", TopicNormalizer.normalize("l’età moderna", "it"));
+        assertEquals("french revolution", TopicNormalizer.normalize("The French Revolution", "en"));
+        assertEquals("la", TopicNormalizer.normalize("La", "it"));
+        assertEquals("Fotosintesi", TopicNormalizer.displayName("la fotosintesi", "it"));
+    }
+
+    // ========================================
+    // TEST: canonicalize
+    // ========================================
+
+    @Test
+    @DisplayName("canonicalize - Le varianti dello stesso argomento usano il nome canonico")
+    void testCanonicalize_ExactVariants() {
+        // Act & Assert
+        assertEquals("Fotosintesi", topicService.canonicalize("fotosintesi ", "it"));
+        assertEquals("Fotosintesi", topicService.canonicalize("La FOTOSINTESI", "it"));
+        assertEquals("Età moderna", topicService.canonicalize("eta moderna", "it"));
+        verify(topicRepository, never()).saveAndFlush(any());
+        verify(counterBufferService, times(2)).increment(CounterType.TOPIC_USAGE, photosynthesis.getId(), 1);
+    }
+
+    @Test
+    @DisplayName("canonicalize - Solo corrispondenza esatta: argomenti simili restano distinti")
+    void testCanonicalize_NoFuzzyMerge() {
+        // Arrange
+        when(topicRepository.saveAndFlush(any(Topic.class))).thenAnswer(invocation -> {
+            Topic topic = invocation.getArgument(0);
+            topic.setId(UUID.randomUUID());
+            return topic;
+        });
+
+        // Act & Assert
+        assertEquals("Fotosintes", topicService.canonicalize("fotosintes", "it"));
+        assertEquals(Optional.empty(), topicService.findCanonical("rivoluzione francesse", "it"));
+        verify(topicRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("canonicalize - Nuovo argomento registrato e poi riconosciuto")
+    void testCanonicalize_RegistersNewTopic() {
+        // Arrange
+        when(topicRepository.saveAndFlush(any(Topic.class))).thenAnswer(invocation -> {
+            Topic topic = invocation.getArgument(0);
+            topic.setId(UUID.randomUUID());
+            return topic;
+        });
+
+        // Act
+        String first = topicService.canonicalize("il teorema di Pitagora", "it");
+        String second = topicService.canonicalize("Teorema di pitagora", "it");
+
+        // Assert
+        assertEquals("Teorema di Pitagora", first);
+        assertEquals("Teorema di Pitagora", second);
+        ArgumentCaptor<Topic> captor = ArgumentCaptor.forClass(Topic.class);
+        verify(topicRepository, times(1)).saveAndFlush(captor.capture());
+        assertEquals("teorema di pitagora", captor.getValue().getNormalizedName());
+    }
+
+    @Test
+    @DisplayName("canonicalize - Argomento inserito nel frattempo da un altro nodo")
+    void testCanonicalize_ConcurrentInsert() {
+        // Arrange
+        Topic existing = createTopic("Genetica", 0L);
+        when(topicRepository.saveAndFlush(any(Topic.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(topicRepository.findByNormalizedName("genetica")).thenReturn(Optional.of(existing));
+
+        // Act
+        String result = topicService.canonicalize("genetica", "it");
+
+        // Assert
+        assertEquals("Genetica", result);
+        verify(counterBufferService).increment(CounterType.TOPIC_USAGE, existing.getId(), 1);
+    }
+
+    // ========================================
+    // TEST: autocomplete
+    // ========================================
+
+    @Test
+    @DisplayName("autocomplete - Prefisso anche su parole successive, ordinato per utilizzo")
+    void testAutocomplete() {
+        // Act & Assert
+        assertEquals(List.of("Rivoluzione industriale", "Rivoluzione francese"),
+                topicService.autocomplete("la rivo", "it", 10));
+        assertEquals(List.of("Rivoluzione francese"), topicService.autocomplete("franc", "it", 10));
+        assertEquals(List.of("Rivoluzione industriale"), topicService.autocomplete("rivoluzione", "it", 1));
+        assertTrue(topicService.autocomplete("zzz", "it", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("autocomplete - Suggerimenti fuzzy per errori di battitura")
+    void testAutocomplete_FuzzySuggestions() {
+        // Act & Assert
+        assertEquals(List.of("Rivoluzione francese"), topicService.autocomplete("rivoluzione francesse", "it", 10));
+        assertEquals(List.of("Rivoluzione industriale"), topicService.autocomplete("Rivoluzione industiale", "it", 10));
+    }
+
+    @Test
+    @DisplayName("autocomplete - Chiavi corte: nessuna ricerca fuzzy")
+    void testAutocomplete_ShortKeyNoFuzzy() {
+        // Arrange
+        when(topicRepository.findAll()).thenReturn(List.of(createTopic("Java", 0L)));
+        topicService.loadDictionary();
+
+        // Act & Assert
+        assertTrue(topicService.autocomplete("Jav", "it", 10).contains("Java"));
+        assertTrue(topicService.autocomplete("jvaa", "it", 10).isEmpty());
+        assertEquals(List.of("Java"), topicService.autocomplete("javo", "it", 10));
+    }
+
+    @Test
+    @DisplayName("sameTokens - Numeri o parole diverse non sono errori di battitura")
+    void testSameTokens() {
+        assertTrue(TopicServiceImpl.sameTokens("rivoluzione francesse", "rivoluzione francese"));
+        assertFalse(TopicServiceImpl.sameTokens("analisi 1", "analisi 2"));
+        assertFalse(TopicServiceImpl.sameTokens("python 2", "python 3"));
+        assertFalse(TopicServiceImpl.sameTokens("chimica inorganica", "chimica organica"));
+        assertFalse(TopicServiceImpl.sameTokens("storia", "storia moderna"));
+    }
+
+    @Test
+    @DisplayName("levenshtein - Uscita anticipata oltre la soglia")
+    void testLevenshtein() {
+        assertEquals(0, TopicServiceImpl.levenshtein("algebra", "algebra", 2));
+        assertEquals(1, TopicServiceImpl.levenshtein("algebra", "algebre", 2));
+        assertEquals(3, TopicServiceImpl.levenshtein("algebra", "geometria", 2));
+    }
+}
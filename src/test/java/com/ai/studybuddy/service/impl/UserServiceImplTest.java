@@ -1,5 +1,7 @@
 package com.ai.studybuddy.service.impl;
 
+import com.ai.studybuddy.config.security.AuthenticatedUser;
+import com.ai.studybuddy.config.security.AuthenticatedUserCache;
 import com.ai.studybuddy.model.user.User;
 import com.ai.studybuddy.repository.UserRepository;
 import com.ai.studybuddy.util.Const;
@@ -13,6 +15,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -40,6 +43,9 @@ class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private AuthenticatedUserCache userCache;
+
     @Mock
     private Principal principal;
 
@@ -297,6 +303,22 @@ class UserServiceImplTest {
         assertNotNull(result);
         assertEquals(TEST_EMAIL, result.getUsername());
         assertEquals(TEST_ENCODED_PASSWORD, result.getPassword());
+        verify(userCache).put(testUser);
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername - Utente in cache, nessuna query")
+    void testLoadUserByUsername_CacheHit() {
+        // Arrange
+        when(userCache.get(TEST_EMAIL)).thenReturn(testUser);
+
+        // Act
+        UserDetails result = userService.loadUserByUsername(TEST_EMAIL);
+
+        // Assert
+        assertInstanceOf(AuthenticatedUser.class, result);
+        assertSame(testUser, ((AuthenticatedUser) result).getUser());
+        verify(userRepository, never()).findByEmail(anyString());
     }
 
     @Test
@@ -356,6 +378,22 @@ class UserServiceImplTest {
         assertEquals(TEST_EMAIL, result.getEmail());
     }
 
+    @Test
+    @DisplayName("getCurrentUser - Utente letto dal principal autenticato")
+    void testGetCurrentUser_FromAuthenticatedPrincipal() {
+        // Arrange
+        AuthenticatedUser authenticatedUser = new AuthenticatedUser(testUser);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                authenticatedUser, null, authenticatedUser.getAuthorities());
+
+        // Act
+        User result = userService.getCurrentUser(authentication);
+
+        // Assert
+        assertSame(testUser, result);
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     @DisplayName("getCurrentUser - Utente non autenticato lancia eccezione")
     void testGetCurrentUser_Unauthorized() {
@@ -0,0 +1,196 @@
+package com.ai.studybuddy.service.impl;
+
+import com.ai.studybuddy.service.inter.AIGenerationPool;
+import com.ai.studybuddy.service.inter.AIService;
+import com.ai.studybuddy.service.inter.WarmPoolService.PoolKey;
+import com.ai.studybuddy.util.JsonArrayRecovery;
+import com.ai.studybuddy.util.enums.DifficultyLevel;
+import com.ai.studybuddy.util.enums.EducationLevel;
+import com.ai.studybuddy.util.enums.GeneratedContentType;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WarmPoolServiceImpl - Test Suite Completo")
+class WarmPoolServiceImplTest {
+
+    @Mock
+    private AIService aiService;
+
+    @Mock
+    private AIGenerationPool generationPool;
+
+    private WarmPoolServiceImpl warmPoolService;
+
+    private final PoolKey quizKey = PoolKey.of(GeneratedContentType.QUIZ, "Fotosintesi",
+            DifficultyLevel.INTERMEDIO, EducationLevel.HIGH_SCHOOL, "IT");
+    private final PoolKey flashcardKey = PoolKey.of(GeneratedContentType.FLASHCARDS, "Rivoluzione francese",
+            DifficultyLevel.PRINCIPIANTE, EducationLevel.HIGH_SCHOOL, "it");
+
+    @BeforeEach
+    void setUp() {
+        warmPoolService = new WarmPoolServiceImpl(aiService, generationPool, 20);
+        ReflectionTestUtils.setField(warmPoolService, "enabled", true);
+
+        lenient().when(aiService.parseGeneratedItems(any(), anyInt()))
+                .thenAnswer(invocation -> JsonArrayRecovery.parse(invocation.getArgument(0)));
+        lenient().doAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return null;
+        }).when(generationPool).execute(any(Runnable.class));
+        lenient().when(aiService.generateQuiz(anyString(), anyInt(), any(DifficultyLevel.class), any(), any()))
+                .thenReturn("[{\"question\": \"Uno?\"}, {\"question\": \"Due?\"}, {\"question\": \"Tre?\"}]");
+        lenient().when(aiService.generateFlashcards(anyString(), anyInt(), any(DifficultyLevel.class), any(), any()))
+                .thenReturn("[{\"front\": \"Q1\", \"back\": \"A1\"}]");
+    }
+
+    private void request(PoolKey key, int times) {
+        for (int i = 0; i < times; i++) {
+            warmPoolService.take(key, 0);
+        }
+    }
+
+    private static List<String> questions(List<JsonObject> items) {
+        return items.stream().map(item -> item.get("question").getAsString()).toList();
+    }
+
+    // ========================================
+    // TEST: refill
+    // ========================================
+
+    @Test
+    @DisplayName("refill - Set generati solo per le chiavi di tendenza, fino a sets-per-key")
+    void testRefill_OnlyTrendingKeys() {
+        // Arrange: il quiz è di tendenza, le flashcards sono state chieste troppo poco
+        when(generationPool.availablePermits()).thenReturn(10);
+        request(quizKey, 5);
+        request(flashcardKey, 2);
+
+        // Act
+        warmPoolService.refill();
+        warmPoolService.refill();
+
+        // Assert
+        verify(aiService, times(3)).generateQuiz("Fotosintesi", 5, DifficultyLevel.INTERMEDIO,
+                EducationLevel.HIGH_SCHOOL, "it");
+        verify(aiService, never()).generateFlashcards(anyString(), anyInt(), any(DifficultyLevel.class), any(), any());
+        assertEquals(3, warmPoolService.getStats().getReadySets());
+        assertEquals(1, warmPoolService.getStats().getTrendingKeys());
+    }
+
+    @Test
+    @DisplayName("refill - Disattivato di default: nessuna generazione anche per le chiavi di tendenza")
+    void testRefill_DisabledByDefault() {
+        // Arrange
+        warmPoolService = new WarmPoolServiceImpl(aiService, generationPool, 20);
+        request(quizKey, 5);
+
+        // Act
+        warmPoolService.refill();
+
+        // Assert
+        verifyNoInteractions(aiService);
+        verify(generationPool, never()).execute(any());
+        assertEquals(0, warmPoolService.getStats().getReadySets());
+    }
+
+    @Test
+    @DisplayName("refill - Budget al minuto e permessi riservati rispettati")
+    void testRefill_RateBudgetAndReservedPermits() {
+        // Arrange
+        ReflectionTestUtils.setField(warmPoolService, "maxGenerationsPerMinute", 2);
+        request(quizKey, 5);
+        request(flashcardKey, 5);
+        when(generationPool.availablePermits()).thenReturn(10, 10, 4);
+
+        // Act
+        warmPoolService.refill();
+        warmPoolService.refill();
+        warmPoolService.refill();
+
+        // Assert: 2 generazioni nel primo giro, poi budget esaurito; con 4 permessi liberi nessuna
+        verify(generationPool, times(2)).execute(any(Runnable.class));
+        assertEquals(2, warmPoolService.getStats().getGenerated());
+
+        ReflectionTestUtils.setField(warmPoolService, "budgetWindowStart", 0L);
+        warmPoolService.refill();
+        verify(generationPool, times(2)).execute(any(Runnable.class));
+    }
+
+    // ========================================
+    // TEST: take
+    // ========================================
+
+    @Test
+    @DisplayName("take - Ogni set servito una volta, il resto di un set resta per la richiesta successiva")
+    void testTake_ConsumesSets() {
+        // Arrange
+        ReflectionTestUtils.setField(warmPoolService, "setsPerKey", 1);
+        when(generationPool.availablePermits()).thenReturn(10);
+        request(quizKey, 3);
+        warmPoolService.refill();
+
+        // Act
+        List<JsonObject> first = warmPoolService.take(quizKey, 2);
+        List<JsonObject> second = warmPoolService.take(PoolKey.of(GeneratedContentType.QUIZ, "Fotosintesi",
+                DifficultyLevel.INTERMEDIO, EducationLevel.HIGH_SCHOOL, "it"), 5);
+        List<JsonObject> third = warmPoolService.take(quizKey, 5);
+
+        // Assert
+        assertEquals(List.of("Uno?", "Due?"), questions(first));
+        assertEquals(List.of("Tre?"), questions(second));
+        assertTrue(third.isEmpty());
+        assertEquals(2, warmPoolService.getStats().getServed());
+    }
+
+    @Test
+    @DisplayName("putBack - Set di una richiesta fallita di nuovo disponibile, scartato se la chiave non è di tendenza")
+    void testPutBack() {
+        // Arrange
+        ReflectionTestUtils.setField(warmPoolService, "setsPerKey", 1);
+        when(generationPool.availablePermits()).thenReturn(10);
+        request(quizKey, 3);
+        warmPoolService.refill();
+        List<JsonObject> taken = warmPoolService.take(quizKey, 5);
+
+        // Act
+        warmPoolService.putBack(quizKey, taken);
+        warmPoolService.putBack(flashcardKey, taken);
+        List<JsonObject> again = warmPoolService.take(quizKey, 5);
+
+        // Assert
+        assertEquals(List.of("Uno?", "Due?", "Tre?"), questions(again));
+        assertEquals(1, warmPoolService.getStats().getServed());
+        assertEquals(0, warmPoolService.getStats().getReadySets());
+    }
+
+    @Test
+    @DisplayName("take - Set scaduti scartati")
+    void testTake_Expired() {
+        // Arrange
+        ReflectionTestUtils.setField(warmPoolService, "setTtlMs", -1L);
+        when(generationPool.availablePermits()).thenReturn(10);
+        request(quizKey, 3);
+        warmPoolService.refill();
+
+        // Act
+        List<JsonObject> items = warmPoolService.take(quizKey, 5);
+
+        // Assert
+        assertTrue(items.isEmpty());
+        assertEquals(0, warmPoolService.getStats().getServed());
+        assertEquals(0, warmPoolService.getStats().getReadySets());
+    }
+}
@@ -0,0 +1,71 @@
+package com.ai.studybuddy.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HeavyHitters - Test Suite Completo")
+class HeavyHittersTest {
+
+    // ========================================
+    // TEST: offer / top
+    // ========================================
+
+    @Test
+    @DisplayName("top - Chiavi frequenti trovate anche con molte chiavi rare e pochi contatori")
+    void testTop_FrequentKeysSurvive() {
+        // Arrange
+        HeavyHitters<String> sketch = new HeavyHitters<>(8);
+
+        // Act: 2 chiavi frequenti mescolate a 50 chiavi viste una sola volta
+        for (int i = 0; i < 50; i++) {
+            sketch.offer("Fotosintesi");
+            sketch.offer("rara-" + i);
+            if (i % 2 == 0) sketch.offer("Rivoluzione francese");
+        }
+
+        // Assert
+        List<HeavyHitters.Entry<String>> top = sketch.top(2, 1);
+        assertEquals(List.of("Fotosintesi", "Rivoluzione francese"), top.stream().map(HeavyHitters.Entry::key).toList());
+        assertTrue(top.get(0).count() >= 50);
+        assertTrue(top.get(0).guaranteed() <= 50);
+        assertEquals(8, sketch.size());
+    }
+
+    @Test
+    @DisplayName("top - Filtro sulle occorrenze garantite e limite al numero di chiavi")
+    void testTop_MinGuaranteedAndLimit() {
+        // Arrange
+        HeavyHitters<String> sketch = new HeavyHitters<>(10);
+        for (int i = 0; i < 5; i++) sketch.offer("A");
+        for (int i = 0; i < 3; i++) sketch.offer("B");
+        sketch.offer("C");
+
+        // Act & Assert
+        assertEquals(List.of("A", "B"), sketch.top(10, 2).stream().map(HeavyHitters.Entry::key).toList());
+        assertEquals(List.of("A"), sketch.top(1, 0).stream().map(HeavyHitters.Entry::key).toList());
+    }
+
+    // ========================================
+    // TEST: decay
+    // ========================================
+
+    @Test
+    @DisplayName("decay - Conteggi dimezzati, chiavi arrivate a zero rimosse")
+    void testDecay() {
+        // Arrange
+        HeavyHitters<String> sketch = new HeavyHitters<>(10);
+        for (int i = 0; i < 6; i++) sketch.offer("A");
+        sketch.offer("B");
+
+        // Act
+        sketch.decay();
+
+        // Assert
+        assertEquals(1, sketch.size());
+        assertEquals(3, sketch.top(10, 0).get(0).count());
+    }
+}
@@ -0,0 +1,56 @@
+package com.ai.studybuddy.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JsonArrayRecovery - Test Suite Completo")
+class JsonArrayRecoveryTest {
+
+    // ========================================
+    // TEST: parse
+    // ========================================
+
+    @Test
+    @DisplayName("parse - Array valido letto senza recupero, anche vuoto")
+    void testParse_Valid() {
+        // Act
+        JsonArrayRecovery.Result result = JsonArrayRecovery.parse(" [{\"q\": 1}, {\"q\": 2}] ");
+        JsonArrayRecovery.Result empty = JsonArrayRecovery.parse("[]");
+
+        // Assert
+        assertEquals(2, result.items().size());
+        assertFalse(result.recovered());
+        assertEquals(0, result.missing(2));
+        assertTrue(empty.items().isEmpty());
+        assertFalse(empty.recovered());
+    }
+
+    @Test
+    @DisplayName("parse - Array troncato: oggetti completi e numero di mancanti")
+    void testParse_Truncated() {
+        // Act
+        JsonArrayRecovery.Result result = JsonArrayRecovery.parse("[{\"q\": 1}, {\"q\": 2}, {\"q\": ");
+
+        // Assert
+        assertEquals(2, result.items().size());
+        assertTrue(result.recovered());
+        assertTrue(result.truncated());
+        assertEquals(3, result.missing(5));
+    }
+
+    @Test
+    @DisplayName("parse - Testo prima e dopo l'array ignorato")
+    void testParse_Prose() {
+        // Act
+        JsonArrayRecovery.Result result = JsonArrayRecovery.parse("Certo! Ecco il quiz: [{\"q\": 1}] Fammi sapere.");
+        JsonArrayRecovery.Result nothing = JsonArrayRecovery.parse("{\"q\": 1}");
+
+        // Assert
+        assertEquals(1, result.items().size());
+        assertTrue(result.recovered());
+        assertFalse(result.truncated());
+        assertTrue(nothing.items().isEmpty());
+    }
+}
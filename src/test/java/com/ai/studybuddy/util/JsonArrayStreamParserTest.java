@@ -0,0 +1,88 @@
+package com.ai.studybuddy.util;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JsonArrayStreamParser - Test Suite Completo")
+class JsonArrayStreamParserTest {
+
+    // ========================================
+    // TEST: feed
+    // ========================================
+
+    @Test
+    @DisplayName("feed - Ogni oggetto restituito appena chiuso, anche se diviso tra più pezzi")
+    void testFeed_ObjectsAcrossChunks() {
+        // Arrange
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+
+        // Act & Assert
+        assertTrue(parser.feed("```json\n[{\"question\": \"Uno?\", \"options\": [\"A\", ").isEmpty());
+        assertTrue(parser.hasPartialObject());
+
+        List<JsonObject> first = parser.feed("\"B\"]}, {\"question\": \"Du");
+        assertEquals(1, first.size());
+        assertEquals("Uno?", first.get(0).get("question").getAsString());
+        assertEquals(2, first.get(0).getAsJsonArray("options").size());
+
+        List<JsonObject> second = parser.feed("e?\"}]\n```");
+        assertEquals(1, second.size());
+        assertEquals("Due?", second.get(0).get("question").getAsString());
+        assertTrue(parser.isComplete());
+        assertFalse(parser.hasPartialObject());
+    }
+
+    @Test
+    @DisplayName("feed - Parentesi e virgolette dentro le stringhe ignorate")
+    void testFeed_BracesInStrings() {
+        // Arrange
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+        String json = "[{\"question\": \"Cosa stampa {x} con \\\"[\\\"?\", \"correct\": \"A\"}, {\"question\": \"}\"}]";
+
+        // Act: un carattere alla volta
+        List<JsonObject> objects = new ArrayList<>();
+        for (char c : json.toCharArray()) {
+            objects.addAll(parser.feed(String.valueOf(c)));
+        }
+
+        // Assert
+        assertEquals(2, objects.size());
+        assertEquals("Cosa stampa {x} con \"[\"?", objects.get(0).get("question").getAsString());
+        assertEquals("}", objects.get(1).get("question").getAsString());
+    }
+
+    @Test
+    @DisplayName("feed - Testo introduttivo, oggetti malformati e testo dopo l'array ignorati")
+    void testFeed_SkipsNoise() {
+        // Arrange
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+
+        // Act
+        List<JsonObject> objects = parser.feed("Ecco il quiz: [{\"question\": \"Uno?\"}, {\"question\": },"
+                + " {\"question\": \"Tre?\"}] Spero ti sia utile! [{\"question\": \"Quattro?\"}]");
+
+        // Assert
+        assertEquals(List.of("Uno?", "Tre?"), objects.stream().map(o -> o.get("question").getAsString()).toList());
+    }
+
+    @Test
+    @DisplayName("feed - Risposta troncata: restano solo gli oggetti completi")
+    void testFeed_Truncated() {
+        // Arrange
+        JsonArrayStreamParser parser = new JsonArrayStreamParser();
+
+        // Act
+        List<JsonObject> objects = parser.feed("[{\"question\": \"Uno?\"}, {\"question\": \"Du");
+
+        // Assert
+        assertEquals(1, objects.size());
+        assertFalse(parser.isComplete());
+        assertTrue(parser.hasPartialObject());
+    }
+}
@@ -0,0 +1,91 @@
+package com.ai.studybuddy.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("NotesFileSegmenter - Test Suite Completo")
+class NotesFileSegmenterTest {
+
+    @TempDir
+    Path dir;
+
+    private List<String> segment(byte[] content, long windowBytes, int maxChars, int overlapChars)
+            throws IOException {
+        Path file = dir.resolve("appunti.md");
+        Files.write(file, content);
+        List<String> chunks = new ArrayList<>();
+        try (NotesFileSegmenter segmenter = NotesFileSegmenter.open(file, windowBytes, maxChars, overlapChars)) {
+            segmenter.forEachRemaining(chunks::add);
+        }
+        return chunks;
+    }
+
+    private static Set<String> sentences(List<String> chunks) {
+        Set<String> sentences = new LinkedHashSet<>();
+        chunks.forEach(chunk -> sentences.addAll(Arrays.asList(chunk.split("(?<=\\.)\\s+"))));
+        return sentences;
+    }
+
+    // ========================================
+    // TEST: lettura a finestre
+    // ========================================
+
+    @Test
+    @DisplayName("Finestre piccole: caratteri multibyte a cavallo integri, frasi in ordine e nei limiti")
+    void testSegment_SmallWindows() throws IOException {
+        // Arrange
+        StringBuilder text = new StringBuilder("\uFEFF");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            String sentence = "Frase numero " + i + " perché è così.";
+            expected.add(sentence);
+            text.append(sentence).append(i % 5 == 4 ? "\n\n" : " ");
+        }
+
+        // Act
+        List<String> chunks = segment(text.toString().getBytes(StandardCharsets.UTF_8), 7, 120, 40);
+
+        // Assert
+        assertTrue(chunks.size() > 10);
+        chunks.forEach(chunk -> assertTrue(chunk.length() <= 120, chunk));
+        assertEquals(expected, new ArrayList<>(sentences(chunks)));
+        assertFalse(String.join("", chunks).contains("\uFFFD"));
+    }
+
+    @Test
+    @DisplayName("Stesse parti di TextChunker per un testo che sta in memoria")
+    void testSegment_MatchesTextChunker() throws IOException {
+        // Arrange
+        String text = "Primo paragrafo. Con due frasi.\n\nSecondo paragrafo breve.\n\nTerzo.";
+
+        // Act
+        List<String> chunks = segment(text.getBytes(StandardCharsets.UTF_8), 4096, 1000, 100);
+
+        // Assert
+        assertEquals(TextChunker.split(text, 1000, 100), chunks);
+    }
+
+    @Test
+    @DisplayName("File vuoto o con sequenza UTF-8 troncata alla fine")
+    void testSegment_EdgeCases() throws IOException {
+        // Arrange
+        byte[] truncated = Arrays.copyOf("Fine è".getBytes(StandardCharsets.UTF_8), 6);
+
+        // Act & Assert
+        assertTrue(segment(new byte[0], 7, 100, 10).isEmpty());
+        assertEquals(List.of("Fine \uFFFD"), segment(truncated, 3, 100, 10));
+    }
+}
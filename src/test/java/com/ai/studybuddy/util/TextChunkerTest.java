@@ -0,0 +1,66 @@
+package com.ai.studybuddy.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TextChunker - Test Suite Completo")
+class TextChunkerTest {
+
+    // ========================================
+    // TEST: split
+    // ========================================
+
+    @Test
+    @DisplayName("split - Testo corto: una sola parte con spazi compattati")
+    void testSplit_ShortText() {
+        // Act
+        List<String> chunks = TextChunker.split("  La cellula.\n  È l'unità   della vita.\n\n\nFine. ", 1000, 100);
+
+        // Assert
+        assertEquals(List.of("La cellula. È l'unità della vita.\n\nFine."), chunks);
+        assertTrue(TextChunker.split("   ", 1000, 100).isEmpty());
+    }
+
+    @Test
+    @DisplayName("split - Taglio su confine di frase con sovrapposizione")
+    void testSplit_SentenceOverlap() {
+        // Act
+        List<String> chunks = TextChunker.split("Uno uno. Due due. Tre tre. Quattro. Cinque.", 20, 10);
+
+        // Assert
+        assertEquals(List.of("Uno uno. Due due.", "Due due. Tre tre.", "Tre tre. Quattro.", "Quattro. Cinque."),
+                chunks);
+        chunks.forEach(chunk -> assertTrue(chunk.length() <= 20));
+    }
+
+    @Test
+    @DisplayName("split - Preferisce il confine di paragrafo oltre metà parte")
+    void testSplit_ParagraphBoundary() {
+        // Arrange
+        String text = "Primo paragrafo lungo. Ancora testo.\n\nSecondo. Terzo pezzo qui.";
+
+        // Act
+        List<String> chunks = TextChunker.split(text, 50, 0);
+
+        // Assert
+        assertEquals(List.of("Primo paragrafo lungo. Ancora testo.", "Secondo. Terzo pezzo qui."), chunks);
+    }
+
+    @Test
+    @DisplayName("split - Frase più lunga del limite spezzata su uno spazio, sempre avanzando")
+    void testSplit_LongSentence() {
+        // Arrange
+        String text = "parola ".repeat(50).trim();
+
+        // Act
+        List<String> chunks = TextChunker.split(text, 30, 1000);
+
+        // Assert: pezzi singoli non sovrapponibili, nessuna parola persa
+        chunks.forEach(chunk -> assertTrue(chunk.length() <= 30));
+        assertEquals(text, String.join(" ", chunks));
+    }
+}